@@ -36,6 +36,7 @@ CREATE TABLE IF NOT EXISTS `stocks` (
   `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
   `symbol` VARCHAR(20) NOT NULL UNIQUE COMMENT '股票代码',
   `name` VARCHAR(100) NOT NULL COMMENT '股票名称',
+  `pinyin` VARCHAR(20) COMMENT '名称拼音首字母',
   `exchange` VARCHAR(20) COMMENT '交易所: SH-上交所 SZ-深交所',
   `list_date` DATE COMMENT '上市日期',
   `status` TINYINT DEFAULT 1 COMMENT '状态: 0-退市 1-正常',
@@ -146,11 +147,24 @@ CREATE TABLE IF NOT EXISTS `trades` (
 INSERT INTO `users` (`username`, `password`, `email`, `status`) VALUES
 ('test_user', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lE9lBOsl7iAt6Z5EH', 'test@example.com', 1);
 
--- 插入测试股票数据
-INSERT INTO `stocks` (`symbol`, `name`, `exchange`, `list_date`, `status`) VALUES
-('000001', '平安银行', 'SZ', '1991-04-03', 1),
-('600000', '浦发银行', 'SH', '1999-11-10', 1),
-('600519', '贵州茅台', 'SH', '2001-08-27', 1);
+-- 插入测试股票数据（与 stock-service 内置的 universe/stocks.csv 保持一致）
+INSERT INTO `stocks` (`symbol`, `name`, `pinyin`, `exchange`, `list_date`, `status`) VALUES
+('000001', '平安银行', 'PAYH', 'SZ', '1991-04-03', 1),
+('000002', '万科A', 'WKA', 'SZ', '1991-01-29', 1),
+('000333', '美的集团', 'MDJT', 'SZ', '2013-09-18', 1),
+('000651', '格力电器', 'GLDQ', 'SZ', '1996-11-18', 1),
+('000858', '五粮液', 'WLY', 'SZ', '1998-04-27', 1),
+('002415', '海康威视', 'HKWS', 'SZ', '2010-05-28', 1),
+('002594', '比亚迪', 'BYD', 'SZ', '2011-06-30', 1),
+('300750', '宁德时代', 'NDSD', 'SZ', '2018-06-11', 1),
+('600000', '浦发银行', 'PFYH', 'SH', '1999-11-10', 1),
+('600036', '招商银行', 'ZSYH', 'SH', '2002-04-09', 1),
+('600276', '恒瑞医药', 'HRYY', 'SH', '2000-10-18', 1),
+('600519', '贵州茅台', 'GZMT', 'SH', '2001-08-27', 1),
+('600900', '长江电力', 'CJDL', 'SH', '2003-11-18', 1),
+('601012', '隆基绿能', 'LJLN', 'SH', '2012-04-11', 1),
+('601318', '中国平安', 'ZGPA', 'SH', '2007-03-01', 1),
+('601398', '工商银行', 'GSYH', 'SH', '2006-10-27', 1);
 
 -- 创建测试账户
 INSERT INTO `user_accounts` (`user_id`, `balance`, `total_assets`) VALUES
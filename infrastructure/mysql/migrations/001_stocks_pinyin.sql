@@ -0,0 +1,24 @@
+-- 已有数据库的升级脚本：init.sql 只在首次初始化时执行，不会给已存在的 stocks 表补上 pinyin 列
+-- 用法: mysql -u root -p quant_trading < infrastructure/mysql/migrations/001_stocks_pinyin.sql
+
+ALTER TABLE `stocks` ADD COLUMN `pinyin` VARCHAR(20) COMMENT '名称拼音首字母' AFTER `name`;
+
+-- 补齐测试股票数据（与 init.sql、universe/stocks.csv 保持一致）
+INSERT INTO `stocks` (`symbol`, `name`, `pinyin`, `exchange`, `list_date`, `status`) VALUES
+('000001', '平安银行', 'PAYH', 'SZ', '1991-04-03', 1),
+('000002', '万科A', 'WKA', 'SZ', '1991-01-29', 1),
+('000333', '美的集团', 'MDJT', 'SZ', '2013-09-18', 1),
+('000651', '格力电器', 'GLDQ', 'SZ', '1996-11-18', 1),
+('000858', '五粮液', 'WLY', 'SZ', '1998-04-27', 1),
+('002415', '海康威视', 'HKWS', 'SZ', '2010-05-28', 1),
+('002594', '比亚迪', 'BYD', 'SZ', '2011-06-30', 1),
+('300750', '宁德时代', 'NDSD', 'SZ', '2018-06-11', 1),
+('600000', '浦发银行', 'PFYH', 'SH', '1999-11-10', 1),
+('600036', '招商银行', 'ZSYH', 'SH', '2002-04-09', 1),
+('600276', '恒瑞医药', 'HRYY', 'SH', '2000-10-18', 1),
+('600519', '贵州茅台', 'GZMT', 'SH', '2001-08-27', 1),
+('600900', '长江电力', 'CJDL', 'SH', '2003-11-18', 1),
+('601012', '隆基绿能', 'LJLN', 'SH', '2012-04-11', 1),
+('601318', '中国平安', 'ZGPA', 'SH', '2007-03-01', 1),
+('601398', '工商银行', 'GSYH', 'SH', '2006-10-27', 1)
+ON DUPLICATE KEY UPDATE `pinyin` = VALUES(`pinyin`);
@@ -180,11 +180,20 @@ def get_stocks_batch():
                 )
 
                 if stocks:
+                    latest = stocks[0]
+                    # 字段与 /latest 接口保持一致，调用方可以直接用批量接口合并单股查询
                     result[stock_code] = {
                         'latest': {
-                            'date': stocks[0].trade_date,
-                            'close': stocks[0].close,
-                            'pct_change': stocks[0].pct_chg
+                            'stock_code': stock_code,
+                            'date': latest.trade_date,
+                            'trade_date': latest.trade_date,
+                            'open': latest.open,
+                            'high': latest.high,
+                            'low': latest.low,
+                            'close': latest.close,
+                            'volume': latest.vol,
+                            'amount': latest.amount,
+                            'pct_change': latest.pct_chg
                         },
                         'count': len(stocks)
                     }
@@ -91,6 +91,16 @@ public class MarketDataResponseErrorHandler implements ResponseErrorHandler {
         }
     }
 
+    /**
+     * 上游请求被本地调度器拒绝（排队已满或等待许可超时）
+     * 不属于 {@link MarketDataServiceException}，不会被 @Retryable 重试：重试只会让已经过载的队列更拥挤
+     */
+    public static class MarketDataThrottledException extends MarketDataException {
+        public MarketDataThrottledException(String message) {
+            super(message);
+        }
+    }
+
     /**
      * Market Data Service 客户端异常
      */
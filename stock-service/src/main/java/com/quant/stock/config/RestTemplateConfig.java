@@ -1,6 +1,8 @@
 package com.quant.stock.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.stock.upstream.UpstreamRequestScheduler;
+import com.quant.stock.upstream.UpstreamSchedulingInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -41,10 +43,10 @@ public class RestTemplateConfig {
 
     /**
      * 配置RestTemplate Bean
-     * 用于调用Market Data Service的API
+     * 用于调用Market Data Service的API，所有请求经上游调度器限速和排队
      */
     @Bean("marketDataRestTemplate")
-    public RestTemplate marketDataRestTemplate(RestTemplateBuilder builder) {
+    public RestTemplate marketDataRestTemplate(RestTemplateBuilder builder, UpstreamRequestScheduler upstreamRequestScheduler) {
         log.info("配置Market Data RestTemplate - connectionTimeout: {}ms, readTimeout: {}ms",
                 connectionTimeout, readTimeout);
 
@@ -58,6 +60,7 @@ public class RestTemplateConfig {
                 .requestFactory(this::clientHttpRequestFactory)
                 .messageConverters(converter)
                 .errorHandler(new MarketDataResponseErrorHandler())
+                .additionalInterceptors(new UpstreamSchedulingInterceptor(upstreamRequestScheduler))
                 .build();
     }
 
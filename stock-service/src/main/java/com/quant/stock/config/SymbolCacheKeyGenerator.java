@@ -0,0 +1,47 @@
+package com.quant.stock.config;
+
+import com.quant.stock.universe.SymbolDictionary;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * 股票缓存键生成器
+ * 用股票代码的稳定编码（见 {@link SymbolDictionary#stableKey(String)}）和天数拼成一个 long，
+ * 代替 "代码_天数" 字符串拼接；编码与进程无关，可以安全地写入Redis
+ *
+ * @author Quant Trading Platform
+ */
+@Component("symbolKeyGenerator")
+public class SymbolCacheKeyGenerator implements KeyGenerator {
+
+    /** 天数占用的低位数（MAX_HISTORY_DAYS = 365 < 2^9） */
+    private static final int DAYS_BITS = 9;
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return keyOf(params);
+    }
+
+    /**
+     * 与注解缓存相同的键，供直接读写缓存的代码使用
+     */
+    public static Object keyOf(Object... params) {
+        if (params.length == 0 || !(params[0] instanceof String)) {
+            return SimpleKeyGenerator.generateKey(params);
+        }
+        int symbolKey = SymbolDictionary.stableKey((String) params[0]);
+        if (symbolKey == SymbolDictionary.INVALID) {
+            return SimpleKeyGenerator.generateKey(params);
+        }
+        if (params.length == 1) {
+            return (long) symbolKey;
+        }
+        if (params.length == 2 && params[1] instanceof Integer days && days >= 0 && days < (1 << DAYS_BITS)) {
+            return ((long) symbolKey << DAYS_BITS) | days;
+        }
+        return SimpleKeyGenerator.generateKey(params);
+    }
+}
@@ -1,6 +1,7 @@
 package com.quant.stock.controller;
 
 import com.quant.stock.dto.ApiResponse;
+import com.quant.stock.upstream.UpstreamPriority;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
@@ -135,7 +136,8 @@ public class HealthController {
         Map<String, Object> status = new HashMap<>();
         try {
             String healthUrl = marketDataServiceUrl + "/api/health";
-            ResponseEntity<Map> response = restTemplate.getForEntity(healthUrl, Map.class);
+            ResponseEntity<Map> response = UpstreamPriority.callAs(UpstreamPriority.BACKGROUND,
+                    () -> restTemplate.getForEntity(healthUrl, Map.class));
             status.put("status", "UP");
             status.put("response_code", response.getStatusCodeValue());
             status.put("url", healthUrl);
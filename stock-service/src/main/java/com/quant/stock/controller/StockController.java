@@ -1,12 +1,18 @@
 package com.quant.stock.controller;
 
+import com.quant.stock.config.MarketDataResponseErrorHandler.MarketDataThrottledException;
 import com.quant.stock.dto.*;
 import com.quant.stock.service.StockService;
+import com.quant.stock.service.SymbolUniverseService;
+import com.quant.stock.universe.StockSymbol;
+import com.quant.stock.upstream.UpstreamPriority;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,7 +20,10 @@ import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * 股票数据控制器
@@ -30,38 +39,58 @@ public class StockController {
     private static final Logger log = LoggerFactory.getLogger(StockController.class);
 
     private final StockService stockService;
+    private final SymbolUniverseService symbolUniverseService;
 
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, SymbolUniverseService symbolUniverseService) {
         this.stockService = stockService;
+        this.symbolUniverseService = symbolUniverseService;
     }
 
     /**
      * 获取股票历史数据
+     * 传入since时为增量同步，只返回该日期之后的K线（最新在前）及新的游标
      *
      * @param stockCode 股票代码 (如: 000001.SZ)
      * @param days      查询天数 (1-365)
+     * @param since     增量游标 (yyyy-MM-dd，可选，最早为365天前，不能晚于今天)
      * @return 股票历史数据
      */
     @GetMapping("/{stockCode}/history")
-    @Operation(summary = "获取股票历史数据", description = "根据股票代码和天数获取历史数据")
+    @Operation(summary = "获取股票历史数据", description = "根据股票代码和天数获取历史数据；传入since时只返回该日期之后的增量数据")
     public ResponseEntity<ApiResponse<StockHistoryResponse>> getStockHistory(
             @Parameter(description = "股票代码", example = "000001.SZ")
             @PathVariable String stockCode,
             @Parameter(description = "查询天数", example = "30")
-            @RequestParam(defaultValue = "30") @Min(1) @Max(365) Integer days) {
+            @RequestParam(defaultValue = "30") @Min(1) @Max(365) Integer days,
+            @Parameter(description = "增量游标，返回该日期之后的数据", example = "2024-01-29")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since) {
 
-        log.info("获取股票历史数据请求: stockCode={}, days={}", stockCode, days);
+        log.info("获取股票历史数据请求: stockCode={}, days={}, since={}", stockCode, days, since);
 
         // 验证股票代码
         if (!stockService.isValidStockCode(stockCode)) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("无效的股票代码格式: " + stockCode));
         }
+        if (since != null && since.isBefore(stockService.earliestSince())) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("增量游标不能早于 " + stockService.earliestSince()
+                            + "（最多 " + StockService.MAX_HISTORY_DAYS + " 天），请改用 days 重新全量获取"));
+        }
+        if (since != null && since.isAfter(LocalDate.now())) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("增量游标不能晚于今天: " + since));
+        }
 
         try {
-            StockHistoryResponse data = stockService.getStockHistory(stockCode, days);
+            StockHistoryResponse data = since != null
+                    ? stockService.getStockHistorySince(stockCode, since)
+                    : stockService.getStockHistory(stockCode, days);
             return ResponseEntity.ok(ApiResponse.success(data));
 
+        } catch (MarketDataThrottledException e) {
+            // 交给全局异常处理器返回 429
+            throw e;
         } catch (Exception e) {
             log.error("获取股票历史数据失败: stockCode={}, days={}", stockCode, days, e);
             return ResponseEntity.internalServerError()
@@ -93,6 +122,9 @@ public class StockController {
             StockLatestResponse data = stockService.getStockLatest(stockCode);
             return ResponseEntity.ok(ApiResponse.success(data));
 
+        } catch (MarketDataThrottledException e) {
+            // 交给全局异常处理器返回 429
+            throw e;
         } catch (Exception e) {
             log.error("获取股票最新数据失败: stockCode={}", stockCode, e);
             return ResponseEntity.internalServerError()
@@ -121,10 +153,16 @@ public class StockController {
         }
 
         try {
-            StockInfoResponse info = new StockInfoResponse();
-            info.setStockCode(stockCode);
-            info.setMarketType(stockService.getMarketType(stockCode));
-            info.setValid(true);
+            StockSymbol symbol = symbolUniverseService.find(stockCode);
+            StockInfoResponse info;
+            if (symbol != null) {
+                info = toStockInfo(symbol);
+            } else {
+                info = new StockInfoResponse();
+                info.setStockCode(stockCode);
+                info.setMarketType(stockService.getMarketType(stockCode));
+                info.setValid(true);
+            }
 
             return ResponseEntity.ok(ApiResponse.success(info));
 
@@ -135,6 +173,29 @@ public class StockController {
         }
     }
 
+    /**
+     * 股票代码自动补全
+     *
+     * @param q     查询前缀（代码、名称或拼音首字母）
+     * @param limit 最多返回数量 (1-50)
+     * @return 匹配的股票列表
+     */
+    @GetMapping("/search")
+    @Operation(summary = "股票代码自动补全", description = "按代码、名称或拼音首字母前缀搜索股票")
+    public ResponseEntity<ApiResponse<List<StockInfoResponse>>> searchStocks(
+            @Parameter(description = "查询前缀", example = "PA")
+            @RequestParam String q,
+            @Parameter(description = "最多返回数量", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) Integer limit) {
+
+        log.debug("股票搜索请求: q={}, limit={}", q, limit);
+
+        List<StockInfoResponse> result = symbolUniverseService.search(q, limit).stream()
+                .map(this::toStockInfo)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
     /**
      * 批量获取股票数据
      *
@@ -169,9 +230,13 @@ public class StockController {
                 }
             }
 
-            BatchStockResponse data = stockService.getBatchStockData(request);
+            BatchStockResponse data = UpstreamPriority.callAs(UpstreamPriority.BATCH,
+                    () -> stockService.getBatchStockData(request));
             return ResponseEntity.ok(ApiResponse.success(data));
 
+        } catch (MarketDataThrottledException e) {
+            // 交给全局异常处理器返回 429
+            throw e;
         } catch (Exception e) {
             log.error("批量获取股票数据失败", e);
             return ResponseEntity.internalServerError()
@@ -207,6 +272,9 @@ public class StockController {
         return stockService.getStockHistoryAsync(stockCode, days)
                 .thenApply(data -> ResponseEntity.ok(ApiResponse.success(data)))
                 .exceptionally(e -> {
+                    if (e.getCause() instanceof MarketDataThrottledException) {
+                        return throttled(e.getCause());
+                    }
                     log.error("异步获取股票历史数据失败: stockCode={}, days={}", stockCode, days, e);
                     return ResponseEntity.internalServerError()
                             .body(ApiResponse.error("异步获取股票历史数据失败: " + e.getMessage()));
@@ -238,6 +306,9 @@ public class StockController {
         return stockService.getStockLatestAsync(stockCode)
                 .thenApply(data -> ResponseEntity.ok(ApiResponse.success(data)))
                 .exceptionally(e -> {
+                    if (e.getCause() instanceof MarketDataThrottledException) {
+                        return throttled(e.getCause());
+                    }
                     log.error("异步获取股票最新数据失败: stockCode={}", stockCode, e);
                     return ResponseEntity.internalServerError()
                             .body(ApiResponse.error("异步获取股票最新数据失败: " + e.getMessage()));
@@ -279,10 +350,37 @@ public class StockController {
 
             return ResponseEntity.ok(ApiResponse.success(response));
 
+        } catch (MarketDataThrottledException e) {
+            // 交给全局异常处理器返回 429
+            throw e;
         } catch (Exception e) {
             log.error("计算股票收益率失败: stockCode={}, days={}", stockCode, days, e);
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("计算股票收益率失败: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 异步请求被上游调度器拒绝时的 429 响应（同步接口由全局异常处理器处理）
+     */
+    private static <T> ResponseEntity<ApiResponse<T>> throttled(Throwable e) {
+        log.warn("上游请求被限流: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(ApiResponse.error("请求过多，请稍后重试: " + e.getMessage()));
+    }
+
+    /**
+     * 转换股票全集中的股票信息
+     */
+    private StockInfoResponse toStockInfo(StockSymbol symbol) {
+        StockInfoResponse info = new StockInfoResponse();
+        info.setStockCode(symbol.getCode());
+        info.setStockName(symbol.getName());
+        info.setPinyin(symbol.getPinyin());
+        info.setExchange(symbol.getExchange());
+        info.setMarketType(symbol.getMarketType());
+        info.setListDate(symbol.getListDate() != null ? symbol.getListDate().toString() : null);
+        info.setValid(true);
+        return info;
+    }
+}
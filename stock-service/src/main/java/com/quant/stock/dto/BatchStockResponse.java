@@ -1,15 +1,19 @@
 package com.quant.stock.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.quant.stock.universe.SymbolDictionary;
+import com.quant.stock.universe.SymbolIdMap;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 批量股票查询响应 DTO
+ * 结果在内部以股票ID为键保存，序列化时才还原为股票代码
  *
  * @author Quant Trading Platform
  */
@@ -32,17 +36,17 @@ public class BatchStockResponse {
     @JsonProperty("total_count")
     private Integer totalCount;
 
-    @Schema(description = "股票最新数据结果（当queryType为latest时）")
-    @JsonProperty("latest_data")
-    private Map<String, StockLatestResponse> latestData;
+    @JsonIgnore
+    private final SymbolDictionary symbolDictionary;
 
-    @Schema(description = "股票历史数据结果（当queryType为history时）")
-    @JsonProperty("history_data")
-    private Map<String, StockHistoryResponse> historyData;
+    @JsonIgnore
+    private final SymbolIdMap<StockLatestResponse> latestData;
 
-    @Schema(description = "失败的股票代码及错误信息")
-    @JsonProperty("failed_stocks")
-    private Map<String, String> failedStocks;
+    @JsonIgnore
+    private final SymbolIdMap<StockHistoryResponse> historyData;
+
+    @JsonIgnore
+    private final SymbolIdMap<String> failedStocks;
 
     @Schema(description = "查询时间")
     @JsonProperty("query_time")
@@ -52,10 +56,11 @@ public class BatchStockResponse {
     @JsonProperty("response_time_ms")
     private Long responseTimeMs;
 
-    public BatchStockResponse() {
-        this.latestData = new HashMap<>();
-        this.historyData = new HashMap<>();
-        this.failedStocks = new HashMap<>();
+    public BatchStockResponse(SymbolDictionary symbolDictionary) {
+        this.symbolDictionary = symbolDictionary;
+        this.latestData = new SymbolIdMap<>();
+        this.historyData = new SymbolIdMap<>();
+        this.failedStocks = new SymbolIdMap<>();
         this.queryTime = LocalDateTime.now();
         this.successCount = 0;
         this.failedCount = 0;
@@ -95,28 +100,22 @@ public class BatchStockResponse {
         this.totalCount = totalCount;
     }
 
+    @Schema(description = "股票最新数据结果（当queryType为latest时）")
+    @JsonProperty("latest_data")
     public Map<String, StockLatestResponse> getLatestData() {
-        return latestData;
-    }
-
-    public void setLatestData(Map<String, StockLatestResponse> latestData) {
-        this.latestData = latestData;
+        return latestData.toCodeMap(symbolDictionary);
     }
 
+    @Schema(description = "股票历史数据结果（当queryType为history时）")
+    @JsonProperty("history_data")
     public Map<String, StockHistoryResponse> getHistoryData() {
-        return historyData;
-    }
-
-    public void setHistoryData(Map<String, StockHistoryResponse> historyData) {
-        this.historyData = historyData;
+        return historyData.toCodeMap(symbolDictionary);
     }
 
+    @Schema(description = "失败的股票代码及错误信息")
+    @JsonProperty("failed_stocks")
     public Map<String, String> getFailedStocks() {
-        return failedStocks;
-    }
-
-    public void setFailedStocks(Map<String, String> failedStocks) {
-        this.failedStocks = failedStocks;
+        return failedStocks.toCodeMap(symbolDictionary);
     }
 
     public LocalDateTime getQueryTime() {
@@ -138,11 +137,8 @@ public class BatchStockResponse {
     /**
      * 添加成功的最新数据结果
      */
-    public void addSuccessLatest(String stockCode, StockLatestResponse data) {
-        if (latestData == null) {
-            latestData = new HashMap<>();
-        }
-        latestData.put(stockCode, data);
+    public void addSuccessLatest(int symbolId, StockLatestResponse data) {
+        latestData.put(symbolId, data);
         successCount++;
         totalCount++;
     }
@@ -150,11 +146,8 @@ public class BatchStockResponse {
     /**
      * 添加成功的历史数据结果
      */
-    public void addSuccessHistory(String stockCode, StockHistoryResponse data) {
-        if (historyData == null) {
-            historyData = new HashMap<>();
-        }
-        historyData.put(stockCode, data);
+    public void addSuccessHistory(int symbolId, StockHistoryResponse data) {
+        historyData.put(symbolId, data);
         successCount++;
         totalCount++;
     }
@@ -162,11 +155,8 @@ public class BatchStockResponse {
     /**
      * 添加失败结果
      */
-    public void addFailure(String stockCode, String errorMessage) {
-        if (failedStocks == null) {
-            failedStocks = new HashMap<>();
-        }
-        failedStocks.put(stockCode, errorMessage);
+    public void addFailure(int symbolId, String errorMessage) {
+        failedStocks.put(symbolId, errorMessage);
         failedCount++;
         totalCount++;
     }
@@ -199,10 +189,10 @@ public class BatchStockResponse {
      * 获取成功的股票代码列表
      */
     public List<String> getSuccessStockCodes() {
-        if (queryType != null && queryType.equals("latest") && latestData != null) {
-            return latestData.keySet().stream().toList();
-        } else if (queryType != null && queryType.equals("history") && historyData != null) {
-            return historyData.keySet().stream().toList();
+        if (queryType != null && queryType.equals("latest")) {
+            return codesOf(latestData);
+        } else if (queryType != null && queryType.equals("history")) {
+            return codesOf(historyData);
         }
         return List.of();
     }
@@ -211,7 +201,15 @@ public class BatchStockResponse {
      * 获取失败的股票代码列表
      */
     public List<String> getFailedStockCodes() {
-        return failedStocks != null ? failedStocks.keySet().stream().toList() : List.of();
+        return codesOf(failedStocks);
+    }
+
+    private List<String> codesOf(SymbolIdMap<?> results) {
+        List<String> codes = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            codes.add(symbolDictionary.code(results.idAt(i)));
+        }
+        return codes;
     }
 
     /**
@@ -52,6 +52,13 @@ public class StockHistoryResponse {
     @JsonProperty("data_source")
     private String dataSource;
 
+    @Schema(description = "增量请求的客户端游标（仅增量查询时返回）", example = "2024-01-29")
+    private String since;
+
+    @Schema(description = "下一次增量请求使用的游标（仅增量查询时返回）", example = "2024-01-30")
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
     /**
      * 获取数据条数
      */
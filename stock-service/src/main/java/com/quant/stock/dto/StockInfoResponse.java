@@ -24,6 +24,18 @@ public class StockInfoResponse {
     @JsonProperty("stock_name")
     private String stockName;
 
+    /**
+     * 名称拼音首字母
+     */
+    @JsonProperty("pinyin")
+    private String pinyin;
+
+    /**
+     * 交易所: SH / SZ
+     */
+    @JsonProperty("exchange")
+    private String exchange;
+
     /**
      * 市场类型
      */
@@ -76,6 +88,22 @@ public class StockInfoResponse {
         this.stockName = stockName;
     }
 
+    public String getPinyin() {
+        return pinyin;
+    }
+
+    public void setPinyin(String pinyin) {
+        this.pinyin = pinyin;
+    }
+
+    public String getExchange() {
+        return exchange;
+    }
+
+    public void setExchange(String exchange) {
+        this.exchange = exchange;
+    }
+
     public String getMarketType() {
         return marketType;
     }
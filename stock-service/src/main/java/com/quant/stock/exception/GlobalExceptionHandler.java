@@ -39,6 +39,16 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("数据服务异常: " + e.getMessage()));
     }
 
+    /**
+     * 处理上游请求限流
+     */
+    @ExceptionHandler(MarketDataThrottledException.class)
+    public ResponseEntity<ApiResponse<Object>> handleMarketDataThrottledException(MarketDataThrottledException e) {
+        log.warn("上游请求被限流: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(ApiResponse.error("请求过多，请稍后重试: " + e.getMessage()));
+    }
+
     /**
      * 处理Market Data异常
      */
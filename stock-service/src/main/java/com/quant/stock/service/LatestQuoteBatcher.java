@@ -0,0 +1,268 @@
+package com.quant.stock.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.quant.stock.config.MarketDataResponseErrorHandler.*;
+import com.quant.stock.dto.StockLatestResponse;
+import com.quant.stock.universe.SymbolDictionary;
+import com.quant.stock.universe.SymbolIdMap;
+import com.quant.stock.upstream.UpstreamPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 最新行情微批处理器
+ * 把短时间窗口内并发到达的单股最新数据请求合并为一次 POST /api/stocks/batch 调用，
+ * 窗口到期或凑满一批时发出请求，再按股票分别完成各调用方的 Future（成功结果或各自的错误）。
+ * 同一批次内重复的股票只请求一次，共享同一个结果；整批按成员中最紧急的优先级发出：
+ * 批内只要有一个交互请求，整批就按交互优先级申请许可，否则该交互请求要排在批量队列之后。
+ * 这种升级是有意的，代价有限——无论优先级如何一批只消耗一个令牌，顺带升级的批量成员
+ * 不超过一批的上限（{@value #UPSTREAM_MAX_BATCH} 只）。
+ * 注意：Market Data Service 的 /api/stocks/batch 目前仍在循环里逐只调用数据源，
+ * 合并只减少了本服务到上游的 HTTP 往返和限流令牌，数据源调用次数不变。
+ *
+ * @author Quant Trading Platform
+ */
+@Component
+@Slf4j
+public class LatestQuoteBatcher {
+
+    /** Market Data Service 单次批量查询上限 */
+    private static final int UPSTREAM_MAX_BATCH = 50;
+
+    private final RestTemplate marketDataRestTemplate;
+    private final ExecutorService sender;
+    private final ObjectReader latestReader;
+    private final SymbolDictionary symbolDictionary;
+    private final ScheduledExecutorService flushTimer;
+
+    private final Object lock = new Object();
+    private SymbolIdMap<CompletableFuture<StockLatestResponse>> pending = new SymbolIdMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    /** 当前待发批次中最紧急的成员优先级，见类注释 */
+    private UpstreamPriority pendingPriority;
+
+    @Value("${market-data.service.url}")
+    private String marketDataServiceUrl;
+
+    @Value("${market-data.batch.window-ms:5}")
+    private long windowMs;
+
+    @Value("${market-data.batch.max-size:50}")
+    private int maxBatchSize;
+
+    @Value("${market-data.batch.lookback-days:10}")
+    private int lookbackDays;
+
+    @Value("${market-data.batch.wait-timeout-ms:35000}")
+    private long waitTimeoutMs;
+
+    public LatestQuoteBatcher(@Qualifier("marketDataRestTemplate") RestTemplate marketDataRestTemplate,
+                              ObjectMapper objectMapper,
+                              SymbolDictionary symbolDictionary,
+                              @Value("${market-data.batch.max-in-flight:4}") int maxInFlight) {
+        this.marketDataRestTemplate = marketDataRestTemplate;
+        // 批量响应带有兼容旧调用方的字段（如 date），忽略未知字段
+        this.latestReader = objectMapper.readerFor(StockLatestResponse.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.symbolDictionary = symbolDictionary;
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quote-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 独立的发送线程：调用方可能就在 taskExecutor 里阻塞等待结果，共用线程池会互相等待
+        AtomicInteger senderIndex = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(maxInFlight, r -> {
+            Thread thread = new Thread(r, "quote-batcher-send-" + senderIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 提交一只股票的最新数据请求
+     *
+     * @param stockCode 股票代码
+     * @return 该股票的最新数据结果
+     */
+    public CompletableFuture<StockLatestResponse> submit(String stockCode) {
+        int symbolId = symbolDictionary.resolve(stockCode);
+        if (symbolId == SymbolDictionary.INVALID) {
+            return CompletableFuture.failedFuture(new MarketDataBadRequestException("无效的股票代码格式: " + stockCode));
+        }
+
+        UpstreamPriority priority = UpstreamPriority.current();
+        Batch fullBatch = null;
+        CompletableFuture<StockLatestResponse> future;
+        synchronized (lock) {
+            pendingPriority = UpstreamPriority.mostUrgent(pendingPriority, priority);
+            future = pending.get(symbolId);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(symbolId, future);
+            if (pending.size() >= Math.min(maxBatchSize, UPSTREAM_MAX_BATCH)) {
+                fullBatch = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = flushTimer.schedule(this::flushDue, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    /**
+     * 提交请求并等待结果
+     *
+     * @param stockCode 股票代码
+     * @return 最新数据
+     */
+    public StockLatestResponse fetch(String stockCode) {
+        try {
+            return submit(stockCode).get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new MarketDataServiceException("批量获取最新数据失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new MarketDataServiceException("批量获取最新数据超时: " + stockCode, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MarketDataServiceException("批量获取最新数据被中断: " + stockCode, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushTimer.shutdownNow();
+        sender.shutdown();
+        SymbolIdMap<CompletableFuture<StockLatestResponse>> remaining;
+        synchronized (lock) {
+            remaining = takePending().futures;
+        }
+        for (int i = 0; i < remaining.size(); i++) {
+            remaining.valueAt(i).completeExceptionally(new MarketDataServiceException("服务正在关闭"));
+        }
+    }
+
+    private void flushDue() {
+        Batch batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.futures.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * 取出当前批次并开始新批次（调用方持有锁）
+     */
+    private Batch takePending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        Batch batch = new Batch(pending, pendingPriority != null ? pendingPriority : UpstreamPriority.INTERACTIVE);
+        pending = new SymbolIdMap<>();
+        pendingPriority = null;
+        return batch;
+    }
+
+    private void dispatch(Batch batch) {
+        try {
+            sender.execute(() -> UpstreamPriority.runAs(batch.priority, () -> send(batch.futures)));
+        } catch (RejectedExecutionException e) {
+            for (int i = 0; i < batch.futures.size(); i++) {
+                batch.futures.valueAt(i).completeExceptionally(new MarketDataServiceException("服务正在关闭"));
+            }
+        }
+    }
+
+    /**
+     * 发出批量请求并逐只完成 Future
+     */
+    private void send(SymbolIdMap<CompletableFuture<StockLatestResponse>> batch) {
+        List<String> stockCodes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            stockCodes.add(symbolDictionary.code(batch.idAt(i)));
+        }
+        log.debug("合并最新数据请求: size={}, stockCodes={}", stockCodes.size(), stockCodes);
+
+        JsonNode body;
+        try {
+            String url = marketDataServiceUrl + "/api/stocks/batch";
+            ResponseEntity<JsonNode> response = marketDataRestTemplate.postForEntity(
+                    url, Map.of("stock_codes", stockCodes, "days", lookbackDays), JsonNode.class);
+            body = response.getBody();
+            if (body == null) {
+                throw new MarketDataServiceException("Market Data Service返回空响应");
+            }
+        } catch (Exception e) {
+            log.warn("批量获取最新数据失败: size={}, error={}", stockCodes.size(), e.getMessage());
+            RuntimeException failure = e instanceof MarketDataException ? (RuntimeException) e
+                    : new MarketDataServiceException("批量获取最新数据失败: " + e.getMessage(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.valueAt(i).completeExceptionally(failure);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            complete(stockCodes.get(i), body.get(stockCodes.get(i)), batch.valueAt(i));
+        }
+    }
+
+    private void complete(String stockCode, JsonNode item, CompletableFuture<StockLatestResponse> future) {
+        try {
+            if (item == null || item.isNull()) {
+                future.completeExceptionally(new MarketDataNotFoundException("未找到股票数据: " + stockCode));
+            } else if (item.has("error")) {
+                future.completeExceptionally(new MarketDataServiceException(item.get("error").asText()));
+            } else if (!item.hasNonNull("latest")) {
+                future.completeExceptionally(new MarketDataServiceException("批量响应缺少最新数据: " + stockCode));
+            } else {
+                StockLatestResponse latest = latestReader.readValue(item.get("latest"));
+                if (latest.getStockCode() == null) {
+                    latest.setStockCode(stockCode);
+                }
+                future.complete(latest);
+            }
+        } catch (Exception e) {
+            future.completeExceptionally(new MarketDataServiceException("解析批量响应失败: " + stockCode, e));
+        }
+    }
+
+    /**
+     * 待发送的一批请求及其优先级
+     */
+    private record Batch(SymbolIdMap<CompletableFuture<StockLatestResponse>> futures, UpstreamPriority priority) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.quant.stock.service;
+
+import com.quant.stock.dto.StockDataPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 日K线本地存储
+ * 按股票保存已获取的日线数据（按日期升序），用于增量同步接口直接切片返回，
+ * 避免客户端每次刷新都重新拉取整个历史窗口。
+ * 以 {@link com.quant.stock.universe.SymbolDictionary} 分配的稠密ID为下标存放，查找不做字符串哈希；
+ * 只存放股票全集中的股票，全集之外的代码由调用方直接使用上游数据
+ *
+ * @author Quant Trading Platform
+ */
+@Component
+@Slf4j
+public class StockBarStore {
+
+    /** 同一只股票的合并串行执行，按ID分段加锁 */
+    private static final int MERGE_LOCK_STRIPES = 64;
+
+    private volatile AtomicReferenceArray<Snapshot> slots = new AtomicReferenceArray<>(1024);
+    private final AtomicInteger storedCount = new AtomicInteger();
+    private final Object[] mergeLocks = new Object[MERGE_LOCK_STRIPES];
+    /** 写入快照时持读锁，扩容和淘汰时持写锁，保证复制数组、淘汰期间不丢失写入 */
+    private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+
+    public StockBarStore() {
+        for (int i = 0; i < MERGE_LOCK_STRIPES; i++) {
+            mergeLocks[i] = new Object();
+        }
+    }
+
+    @Value("${cache.stock.bar-store.max-symbols:2000}")
+    private int maxSymbols;
+
+    @Value("${cache.stock.bar-store.fresh-ttl:60}")
+    private long freshTtlSeconds;
+
+    /**
+     * 获取股票的K线快照
+     *
+     * @param symbolId 股票ID
+     * @return 快照，不存在时返回null
+     */
+    public Snapshot get(int symbolId) {
+        AtomicReferenceArray<Snapshot> current = slots;
+        return symbolId >= 0 && symbolId < current.length() ? current.get(symbolId) : null;
+    }
+
+    /**
+     * 合并上游返回的K线数据，同一交易日以新数据为准
+     * 同一只股票的合并串行执行，不同股票互不阻塞
+     *
+     * @param symbolId    股票ID（稠密ID）
+     * @param bars        K线数据
+     * @param windowStart 本次拉取的起始日期
+     * @param windowEnd   本次拉取的截止日期（起止之间的数据已完整覆盖）
+     * @return 合并后的快照
+     */
+    public Snapshot merge(int symbolId, List<StockDataPoint> bars, LocalDate windowStart, LocalDate windowEnd) {
+        ensureCapacity(symbolId);
+        synchronized (mergeLocks[symbolId & (MERGE_LOCK_STRIPES - 1)]) {
+            while (true) {
+                Snapshot existing = get(symbolId);
+                Snapshot merged = mergeInto(existing, bars, windowStart, windowEnd);
+                resizeLock.readLock().lock();
+                try {
+                    // 读取之后被淘汰时重新合并
+                    if (!slots.compareAndSet(symbolId, existing, merged)) {
+                        continue;
+                    }
+                } finally {
+                    resizeLock.readLock().unlock();
+                }
+                if (existing == null && storedCount.incrementAndGet() > maxSymbols) {
+                    evictIfNecessary(symbolId);
+                }
+                return merged;
+            }
+        }
+    }
+
+    /**
+     * 由一次拉取的K线构造快照，不写入存储（用于不进入存储的股票）
+     */
+    public static Snapshot snapshotOf(List<StockDataPoint> bars, LocalDate windowStart, LocalDate windowEnd) {
+        return mergeInto(null, bars, windowStart, windowEnd);
+    }
+
+    private static Snapshot mergeInto(Snapshot existing, List<StockDataPoint> bars, LocalDate windowStart,
+                                      LocalDate windowEnd) {
+        TreeMap<LocalDate, StockDataPoint> byDate = new TreeMap<>();
+        LocalDate coveredFrom = windowStart;
+        if (existing != null) {
+            for (StockDataPoint bar : existing.bars) {
+                byDate.put(bar.getDate(), bar);
+            }
+            // 只有新旧窗口相连时才能扩展覆盖范围
+            if (existing.coveredFrom.isBefore(windowStart) && !existing.coveredTo.isBefore(windowStart.minusDays(1))) {
+                coveredFrom = existing.coveredFrom;
+            }
+        }
+        if (bars != null) {
+            for (StockDataPoint bar : bars) {
+                if (bar.getDate() != null) {
+                    byDate.put(bar.getDate(), bar);
+                }
+            }
+        }
+        return new Snapshot(new ArrayList<>(byDate.values()), coveredFrom, windowEnd, System.currentTimeMillis());
+    }
+
+    /**
+     * 快照是否在新鲜期内
+     */
+    public boolean isFresh(Snapshot snapshot) {
+        return snapshot != null
+                && System.currentTimeMillis() - snapshot.refreshedAtMillis < freshTtlSeconds * 1000;
+    }
+
+    /**
+     * 按ID扩容存储数组；复制期间排斥所有写入
+     */
+    private void ensureCapacity(int symbolId) {
+        if (symbolId < slots.length()) {
+            return;
+        }
+        resizeLock.writeLock().lock();
+        try {
+            AtomicReferenceArray<Snapshot> current = slots;
+            if (symbolId < current.length()) {
+                return;
+            }
+            int capacity = current.length();
+            while (capacity <= symbolId) {
+                capacity *= 2;
+            }
+            AtomicReferenceArray<Snapshot> grown = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            slots = grown;
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 超出容量时淘汰最久未刷新的股票；淘汰期间排斥所有写入
+     */
+    private void evictIfNecessary(int keepId) {
+        resizeLock.writeLock().lock();
+        try {
+            AtomicReferenceArray<Snapshot> current = slots;
+            while (storedCount.get() > maxSymbols) {
+                int oldestId = -1;
+                long oldestMillis = Long.MAX_VALUE;
+                for (int i = 0; i < current.length(); i++) {
+                    Snapshot snapshot = current.get(i);
+                    if (snapshot != null && i != keepId && snapshot.refreshedAtMillis < oldestMillis) {
+                        oldestId = i;
+                        oldestMillis = snapshot.refreshedAtMillis;
+                    }
+                }
+                if (oldestId < 0) {
+                    return;
+                }
+                current.set(oldestId, null);
+                storedCount.decrementAndGet();
+                log.debug("K线存储容量已满，淘汰: symbolId={}", oldestId);
+            }
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 单只股票的不可变K线快照
+     */
+    public static final class Snapshot {
+
+        private final List<StockDataPoint> bars;
+        private final LocalDate coveredFrom;
+        private final LocalDate coveredTo;
+        private final long refreshedAtMillis;
+
+        private Snapshot(List<StockDataPoint> bars, LocalDate coveredFrom, LocalDate coveredTo, long refreshedAtMillis) {
+            this.bars = Collections.unmodifiableList(bars);
+            this.coveredFrom = coveredFrom;
+            this.coveredTo = coveredTo;
+            this.refreshedAtMillis = refreshedAtMillis;
+        }
+
+        /**
+         * 是否完整覆盖游标之后的数据
+         */
+        public boolean covers(LocalDate since) {
+            return !coveredFrom.isAfter(since.plusDays(1));
+        }
+
+        /**
+         * 已覆盖的截止日期，增量刷新从这一天开始重新拉取
+         */
+        public LocalDate getCoveredTo() {
+            return coveredTo;
+        }
+
+        /**
+         * 返回严格晚于游标日期的K线（只读视图，不复制）
+         */
+        public List<StockDataPoint> barsAfter(LocalDate since) {
+            int low = 0;
+            int high = bars.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (bars.get(mid).getDate().isAfter(since)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return bars.subList(low, bars.size());
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.quant.stock.service;
 
 import com.quant.stock.config.MarketDataResponseErrorHandler.*;
+import com.quant.stock.config.SymbolCacheKeyGenerator;
 import com.quant.stock.dto.*;
+import com.quant.stock.universe.SymbolDictionary;
+import com.quant.stock.upstream.UpstreamPriority;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.retry.annotation.Backoff;
@@ -15,8 +20,12 @@ import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
@@ -30,8 +39,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class StockService {
 
+    /** 上游单次最多提供的历史天数，增量游标不能早于这个窗口 */
+    public static final int MAX_HISTORY_DAYS = 365;
+
     private final RestTemplate marketDataRestTemplate;
     private final Executor taskExecutor;
+    private final StockBarStore barStore;
+    private final SymbolDictionary symbolDictionary;
+    private final LatestQuoteBatcher latestQuoteBatcher;
+    private final CacheManager cacheManager;
 
     @Value("${market-data.service.url}")
     private String marketDataServiceUrl;
@@ -39,10 +55,21 @@ public class StockService {
     @Value("${market-data.service.retry.max-attempts:3}")
     private int maxRetryAttempts;
 
+    @Value("${market-data.batch.enabled:true}")
+    private boolean latestBatchEnabled;
+
     public StockService(@Qualifier("marketDataRestTemplate") RestTemplate marketDataRestTemplate,
-                        Executor taskExecutor) {
+                        Executor taskExecutor,
+                        StockBarStore barStore,
+                        SymbolDictionary symbolDictionary,
+                        LatestQuoteBatcher latestQuoteBatcher,
+                        CacheManager cacheManager) {
         this.marketDataRestTemplate = marketDataRestTemplate;
         this.taskExecutor = taskExecutor;
+        this.barStore = barStore;
+        this.symbolDictionary = symbolDictionary;
+        this.latestQuoteBatcher = latestQuoteBatcher;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -52,63 +79,119 @@ public class StockService {
      * @param days      天数
      * @return 历史数据响应
      */
-    @Cacheable(value = "stockHistory", key = "#stockCode + '_' + #days")
+    @Cacheable(value = "stockHistory", keyGenerator = "symbolKeyGenerator")
     @Retryable(value = {MarketDataServiceException.class}, maxAttempts = 3, backoff = @Backoff(delay = 1000))
     public StockHistoryResponse getStockHistory(String stockCode, Integer days) {
         log.info("获取股票历史数据: stockCode={}, days={}", stockCode, days);
 
         try {
-            String url = String.format("%s/api/stocks/%s/history?days=%d",
-                    marketDataServiceUrl, stockCode, days);
+            StockHistoryResponse result = fetchHistory(stockCode, days);
 
-            log.debug("调用Market Data Service: {}", url);
+            log.info("成功获取股票历史数据: stockCode={}, count={}", stockCode, result.getCount());
+            return result;
 
-            ResponseEntity<StockHistoryResponse> response = marketDataRestTemplate.getForEntity(
-                    url, StockHistoryResponse.class);
+        } catch (MarketDataException e) {
+            log.error("Market Data Service异常: stockCode={}, error={}", stockCode, e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("获取股票历史数据异常: stockCode={}", stockCode, e);
+            throw new MarketDataServiceException("获取股票历史数据失败: " + e.getMessage(), e);
+        }
+    }
 
-            StockHistoryResponse result = response.getBody();
-            if (result == null) {
-                throw new MarketDataServiceException("Market Data Service返回空响应");
+    /**
+     * 增量获取股票历史数据
+     * 只返回游标日期之后的K线（与全量接口一致按日期倒序，最新在前），并给出新的游标；优先从本地K线存储切片，
+     * 存储过期时只向上游补拉游标之后（或上次覆盖截止日之后）的少量数据
+     *
+     * @param stockCode 股票代码
+     * @param since     客户端游标（已持有数据的最后交易日），不能早于 {@link #earliestSince()}，也不能晚于今天
+     * @return 增量历史数据响应，startDate/endDate 为实际返回的K线范围，nextCursor 为最新一根K线的日期
+     * @throws MarketDataBadRequestException 游标超出上游可提供的历史窗口或晚于今天
+     */
+    @Retryable(value = {MarketDataServiceException.class}, maxAttempts = 3, backoff = @Backoff(delay = 1000))
+    public StockHistoryResponse getStockHistorySince(String stockCode, LocalDate since) {
+        log.info("增量获取股票历史数据: stockCode={}, since={}", stockCode, since);
+        // 上游最多回溯 MAX_HISTORY_DAYS 天，更早的游标无法补齐中间的K线，截断后推进游标会让客户端静默丢数据
+        if (since.isBefore(earliestSince())) {
+            throw new MarketDataBadRequestException("增量游标早于 " + earliestSince()
+                    + "，超出可获取的 " + MAX_HISTORY_DAYS + " 天历史，请改用 days 重新全量获取");
+        }
+        if (since.isAfter(LocalDate.now())) {
+            throw new MarketDataBadRequestException("增量游标不能晚于今天: " + since);
+        }
+
+        try {
+            int symbolId = symbolDictionary.resolve(stockCode);
+            StockBarStore.Snapshot snapshot = barStore.get(symbolId);
+            if (snapshot == null || !snapshot.covers(since) || !barStore.isFresh(snapshot)) {
+                // 已覆盖游标时只需从上次覆盖截止日补拉
+                LocalDate fetchFrom = since;
+                if (snapshot != null && snapshot.covers(since) && snapshot.getCoveredTo().isAfter(since)) {
+                    fetchFrom = snapshot.getCoveredTo();
+                }
+                long span = ChronoUnit.DAYS.between(fetchFrom, LocalDate.now()) + 1;
+                int days = (int) Math.max(1, Math.min(MAX_HISTORY_DAYS, span));
+                StockHistoryResponse fetched = fetchHistory(stockCode, days);
+                // 股票全集之外的代码不进入K线存储，直接切片本次拉取的数据
+                snapshot = SymbolDictionary.isDense(symbolId)
+                        ? barStore.get(symbolId)
+                        : StockBarStore.snapshotOf(fetched.getData(), LocalDate.now().minusDays(days), LocalDate.now());
+            } else {
+                log.debug("增量请求命中K线存储: stockCode={}, since={}", stockCode, since);
             }
 
-            // 数据处理和验证
-            processHistoryData(result);
+            // K线存储按日期升序，响应与 getStockHistory 一致改为最新在前（calculateReturn 等依赖此顺序）
+            List<StockDataPoint> bars = new ArrayList<>(snapshot != null ? snapshot.barsAfter(since) : List.of());
+            Collections.reverse(bars);
+
+            StockHistoryResponse result = new StockHistoryResponse();
+            result.setStockCode(stockCode);
+            result.setData(bars);
+            result.setCount(bars.size());
+            result.setSince(since.format(DateTimeFormatter.ISO_LOCAL_DATE));
+            LocalDate nextCursor = bars.isEmpty() ? since : bars.get(0).getDate();
+            result.setNextCursor(nextCursor.format(DateTimeFormatter.ISO_LOCAL_DATE));
+            if (!bars.isEmpty()) {
+                result.setStartDate(bars.get(bars.size() - 1).getDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+                result.setEndDate(nextCursor.format(DateTimeFormatter.ISO_LOCAL_DATE));
+            }
+            result.setDefaults();
 
-            log.info("成功获取股票历史数据: stockCode={}, count={}", stockCode, result.getCount());
+            log.info("成功增量获取股票历史数据: stockCode={}, since={}, count={}", stockCode, since, bars.size());
             return result;
 
         } catch (MarketDataException e) {
             log.error("Market Data Service异常: stockCode={}, error={}", stockCode, e.getMessage());
             throw e;
         } catch (Exception e) {
-            log.error("获取股票历史数据异常: stockCode={}", stockCode, e);
-            throw new MarketDataServiceException("获取股票历史数据失败: " + e.getMessage(), e);
+            log.error("增量获取股票历史数据异常: stockCode={}", stockCode, e);
+            throw new MarketDataServiceException("增量获取股票历史数据失败: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * 增量游标允许的最早日期：从该日之后到今天正好是上游可提供的 {@link #MAX_HISTORY_DAYS} 天
+     */
+    public LocalDate earliestSince() {
+        return LocalDate.now().minusDays(MAX_HISTORY_DAYS - 1);
+    }
+
     /**
      * 获取股票最新数据（带缓存）
      *
      * @param stockCode 股票代码
      * @return 最新数据响应
      */
-    @Cacheable(value = "stockLatest", key = "#stockCode")
+    @Cacheable(value = "stockLatest", keyGenerator = "symbolKeyGenerator")
     @Retryable(value = {MarketDataServiceException.class}, maxAttempts = 3, backoff = @Backoff(delay = 1000))
     public StockLatestResponse getStockLatest(String stockCode) {
         log.info("获取股票最新数据: stockCode={}", stockCode);
 
         try {
-            String url = String.format("%s/api/stocks/%s/latest", marketDataServiceUrl, stockCode);
-
-            log.debug("调用Market Data Service: {}", url);
-
-            ResponseEntity<StockLatestResponse> response = marketDataRestTemplate.getForEntity(
-                    url, StockLatestResponse.class);
-
-            StockLatestResponse result = response.getBody();
-            if (result == null) {
-                throw new MarketDataServiceException("Market Data Service返回空响应");
-            }
+            StockLatestResponse result = latestBatchEnabled
+                    ? latestQuoteBatcher.fetch(stockCode)
+                    : fetchLatest(stockCode);
 
             // 数据处理和验证
             processLatestData(result);
@@ -136,7 +219,7 @@ public class StockService {
         long startTime = System.currentTimeMillis();
         log.info("批量获取股票数据: queryType={}, stockCodes={}", request.getQueryType(), request.getStockCodes());
 
-        BatchStockResponse response = new BatchStockResponse();
+        BatchStockResponse response = new BatchStockResponse(symbolDictionary);
         response.setQueryType(request.getQueryType());
 
         // 根据查询类型分别处理
@@ -163,7 +246,9 @@ public class StockService {
      * @return 异步结果
      */
     public CompletableFuture<StockHistoryResponse> getStockHistoryAsync(String stockCode, Integer days) {
-        return CompletableFuture.supplyAsync(() -> getStockHistory(stockCode, days), taskExecutor);
+        UpstreamPriority priority = UpstreamPriority.current();
+        return CompletableFuture.supplyAsync(
+                () -> UpstreamPriority.callAs(priority, () -> getStockHistory(stockCode, days)), taskExecutor);
     }
 
     /**
@@ -173,7 +258,55 @@ public class StockService {
      * @return 异步结果
      */
     public CompletableFuture<StockLatestResponse> getStockLatestAsync(String stockCode) {
-        return CompletableFuture.supplyAsync(() -> getStockLatest(stockCode), taskExecutor);
+        UpstreamPriority priority = UpstreamPriority.current();
+        return CompletableFuture.supplyAsync(
+                () -> UpstreamPriority.callAs(priority, () -> getStockLatest(stockCode)), taskExecutor);
+    }
+
+    /**
+     * 单独调用Market Data Service获取最新数据（未启用微批时使用）
+     */
+    private StockLatestResponse fetchLatest(String stockCode) {
+        String url = String.format("%s/api/stocks/%s/latest", marketDataServiceUrl, stockCode);
+
+        log.debug("调用Market Data Service: {}", url);
+
+        ResponseEntity<StockLatestResponse> response = marketDataRestTemplate.getForEntity(
+                url, StockLatestResponse.class);
+
+        StockLatestResponse result = response.getBody();
+        if (result == null) {
+            throw new MarketDataServiceException("Market Data Service返回空响应");
+        }
+        return result;
+    }
+
+    /**
+     * 调用Market Data Service获取历史数据，并写入本地K线存储
+     */
+    private StockHistoryResponse fetchHistory(String stockCode, int days) {
+        String url = String.format("%s/api/stocks/%s/history?days=%d",
+                marketDataServiceUrl, stockCode, days);
+
+        log.debug("调用Market Data Service: {}", url);
+
+        LocalDate windowEnd = LocalDate.now();
+        ResponseEntity<StockHistoryResponse> response = marketDataRestTemplate.getForEntity(
+                url, StockHistoryResponse.class);
+
+        StockHistoryResponse result = response.getBody();
+        if (result == null) {
+            throw new MarketDataServiceException("Market Data Service返回空响应");
+        }
+
+        // 数据处理和验证
+        processHistoryData(result);
+
+        int symbolId = symbolDictionary.resolve(stockCode);
+        if (SymbolDictionary.isDense(symbolId)) {
+            barStore.merge(symbolId, result.getData(), windowEnd.minusDays(days), windowEnd);
+        }
+        return result;
     }
 
     /**
@@ -210,13 +343,57 @@ public class StockService {
      * 处理批量最新数据查询
      */
     private void processBatchLatestQuery(BatchStockRequest request, BatchStockResponse response) {
+        if (latestBatchEnabled) {
+            // 与 getStockLatest 共用 stockLatest 缓存：命中的直接返回，
+            // 未命中的先全部提交给微批处理器再逐只等待（最多50只合并为一次上游调用），结果写回缓存
+            Cache latestCache = cacheManager.getCache("stockLatest");
+            List<String> stockCodes = request.getStockCodes();
+            List<StockLatestResponse> cached = new ArrayList<>(stockCodes.size());
+            List<CompletableFuture<StockLatestResponse>> futures = new ArrayList<>(stockCodes.size());
+            for (String stockCode : stockCodes) {
+                StockLatestResponse hit = latestCache != null
+                        ? latestCache.get(SymbolCacheKeyGenerator.keyOf(stockCode), StockLatestResponse.class)
+                        : null;
+                cached.add(hit);
+                futures.add(hit == null ? latestQuoteBatcher.submit(stockCode) : null);
+            }
+            for (int i = 0; i < stockCodes.size(); i++) {
+                String stockCode = stockCodes.get(i);
+                int symbolId = symbolDictionary.resolve(stockCode);
+                if (cached.get(i) != null) {
+                    response.addSuccessLatest(symbolId, cached.get(i));
+                    continue;
+                }
+                try {
+                    StockLatestResponse latestData = futures.get(i).join();
+                    processLatestData(latestData);
+                    if (latestCache != null) {
+                        latestCache.put(SymbolCacheKeyGenerator.keyOf(stockCode), latestData);
+                    }
+                    response.addSuccessLatest(symbolId, latestData);
+                } catch (Exception e) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof MarketDataThrottledException throttled) {
+                        // 上游已过载，整批以 429 返回让调用方稍后重试，而不是逐只记为失败
+                        throw throttled;
+                    }
+                    log.warn("批量查询失败 - stockCode: {}, error: {}", stockCode, cause.getMessage());
+                    response.addFailure(symbolId, cause.getMessage());
+                }
+            }
+            return;
+        }
+
         for (String stockCode : request.getStockCodes()) {
+            int symbolId = symbolDictionary.resolve(stockCode);
             try {
                 StockLatestResponse latestData = getStockLatest(stockCode);
-                response.addSuccessLatest(stockCode, latestData);
+                response.addSuccessLatest(symbolId, latestData);
+            } catch (MarketDataThrottledException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("批量查询失败 - stockCode: {}, error: {}", stockCode, e.getMessage());
-                response.addFailure(stockCode, e.getMessage());
+                response.addFailure(symbolId, e.getMessage());
             }
         }
     }
@@ -228,27 +405,27 @@ public class StockService {
         int days = request.getValidDays();
 
         for (String stockCode : request.getStockCodes()) {
+            int symbolId = symbolDictionary.resolve(stockCode);
             try {
                 StockHistoryResponse historyData = getStockHistory(stockCode, days);
-                response.addSuccessHistory(stockCode, historyData);
+                response.addSuccessHistory(symbolId, historyData);
+            } catch (MarketDataThrottledException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("批量查询失败 - stockCode: {}, error: {}", stockCode, e.getMessage());
-                response.addFailure(stockCode, e.getMessage());
+                response.addFailure(symbolId, e.getMessage());
             }
         }
     }
 
     /**
-     * 验证股票代码格式
+     * 验证股票代码格式（只做校验，不登记到代码字典）
      *
      * @param stockCode 股票代码
      * @return 是否有效
      */
     public boolean isValidStockCode(String stockCode) {
-        if (stockCode == null || stockCode.trim().isEmpty()) {
-            return false;
-        }
-        return stockCode.matches("^\\d{6}\\.(SZ|SH)$");
+        return SymbolDictionary.isValidFormat(stockCode);
     }
 
     /**
@@ -258,7 +435,7 @@ public class StockService {
      * @return 市场类型
      */
     public String getMarketType(String stockCode) {
-        if (!isValidStockCode(stockCode)) {
+        if (!SymbolDictionary.isValidFormat(stockCode)) {
             return "UNKNOWN";
         }
         return stockCode.endsWith(".SH") ? "上交所" : "深交所";
@@ -0,0 +1,185 @@
+package com.quant.stock.service;
+
+import com.quant.stock.universe.StockSymbol;
+import com.quant.stock.universe.SymbolDictionary;
+import com.quant.stock.universe.SymbolUniverse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 股票代码全集服务
+ * 从数据库 stocks 表（不可用时从内置CSV）加载股票基础信息，构建不可变的内存索引，
+ * 定时重新加载并原子替换，为自动补全和股票基础信息接口提供数据
+ *
+ * @author Quant Trading Platform
+ */
+@Service
+@Slf4j
+public class SymbolUniverseService {
+
+    private static final String LOAD_SQL =
+            "SELECT symbol, name, exchange, list_date, pinyin FROM stocks WHERE status = 1";
+
+    /** 尚未执行 migrations/001_stocks_pinyin.sql 的旧库没有 pinyin 列 */
+    private static final String LOAD_SQL_WITHOUT_PINYIN =
+            "SELECT symbol, name, exchange, list_date, NULL AS pinyin FROM stocks WHERE status = 1";
+
+    private static final RowMapper<StockSymbol> SYMBOL_ROW_MAPPER = (rs, rowNum) -> {
+        Date listDate = rs.getDate("list_date");
+        return new StockSymbol(
+                rs.getString("symbol"),
+                rs.getString("name"),
+                exchangeOf(rs.getString("symbol"), rs.getString("exchange")),
+                upperOrNull(rs.getString("pinyin")),
+                listDate != null ? listDate.toLocalDate() : null);
+    };
+
+    private final AtomicReference<SymbolUniverse> current = new AtomicReference<>(SymbolUniverse.empty());
+    private final ObjectProvider<JdbcTemplate> jdbcTemplateProvider;
+    private final ResourceLoader resourceLoader;
+    private final SymbolDictionary symbolDictionary;
+
+    @Value("${symbol-universe.seed-resource:classpath:universe/stocks.csv}")
+    private String seedResource;
+
+    public SymbolUniverseService(ObjectProvider<JdbcTemplate> jdbcTemplateProvider, ResourceLoader resourceLoader,
+                                 SymbolDictionary symbolDictionary) {
+        this.jdbcTemplateProvider = jdbcTemplateProvider;
+        this.resourceLoader = resourceLoader;
+        this.symbolDictionary = symbolDictionary;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 定时重新加载股票全集
+     */
+    @Scheduled(fixedDelayString = "${symbol-universe.reload-interval-ms:3600000}",
+            initialDelayString = "${symbol-universe.reload-interval-ms:3600000}")
+    public void reload() {
+        long startTime = System.currentTimeMillis();
+        List<StockSymbol> symbols = loadFromDatabase();
+        String source = "database";
+        if (symbols.isEmpty()) {
+            symbols = loadFromSeed();
+            source = seedResource;
+        }
+
+        if (symbols.isEmpty()) {
+            log.warn("股票全集加载失败，保留当前数据: size={}", current.get().size());
+            return;
+        }
+
+        SymbolUniverse universe = SymbolUniverse.of(symbols, source);
+        current.set(universe);
+        // 预先登记全部代码，使常用股票获得连续的低位ID
+        for (StockSymbol symbol : symbols) {
+            symbolDictionary.intern(symbol.getCode());
+        }
+        log.info("股票全集加载完成: source={}, size={}, elapsed={}ms",
+                source, universe.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 当前股票全集快照
+     */
+    public SymbolUniverse current() {
+        return current.get();
+    }
+
+    /**
+     * 按完整代码查找
+     */
+    public StockSymbol find(String stockCode) {
+        return current.get().find(stockCode);
+    }
+
+    /**
+     * 代码/名称/拼音首字母前缀搜索
+     */
+    public List<StockSymbol> search(String query, int limit) {
+        return current.get().search(query, limit);
+    }
+
+    private List<StockSymbol> loadFromDatabase() {
+        JdbcTemplate jdbcTemplate = jdbcTemplateProvider.getIfAvailable();
+        if (jdbcTemplate == null) {
+            return List.of();
+        }
+        try {
+            try {
+                return jdbcTemplate.query(LOAD_SQL, SYMBOL_ROW_MAPPER);
+            } catch (BadSqlGrammarException e) {
+                // 旧库缺少 pinyin 列时仍从数据库加载，只是不支持拼音首字母搜索
+                log.warn("stocks 表缺少 pinyin 列，请执行 infrastructure/mysql/migrations/001_stocks_pinyin.sql: {}",
+                        e.getMessage());
+                return jdbcTemplate.query(LOAD_SQL_WITHOUT_PINYIN, SYMBOL_ROW_MAPPER);
+            }
+        } catch (Exception e) {
+            log.warn("从数据库加载股票全集失败，使用内置数据: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<StockSymbol> loadFromSeed() {
+        Resource resource = resourceLoader.getResource(seedResource);
+        List<StockSymbol> symbols = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length < 3) {
+                    continue;
+                }
+                LocalDate listDate = fields.length > 3 && !fields[3].isBlank() ? LocalDate.parse(fields[3].trim()) : null;
+                String pinyin = fields.length > 4 ? upperOrNull(fields[4]) : null;
+                symbols.add(new StockSymbol(fields[0].trim(), fields[1].trim(),
+                        fields[2].trim().toUpperCase(Locale.ROOT), pinyin, listDate));
+            }
+        } catch (Exception e) {
+            log.error("加载内置股票数据失败: resource={}", seedResource, e);
+            return List.of();
+        }
+        return symbols;
+    }
+
+    /**
+     * 交易所为空时按代码首位推断：6开头为上交所，其余为深交所
+     */
+    private static String exchangeOf(String symbol, String exchange) {
+        if (exchange != null && !exchange.isBlank()) {
+            return exchange.trim().toUpperCase(Locale.ROOT);
+        }
+        return symbol != null && symbol.startsWith("6") ? "SH" : "SZ";
+    }
+
+    private static String upperOrNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
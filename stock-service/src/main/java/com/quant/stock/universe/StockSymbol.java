@@ -0,0 +1,70 @@
+package com.quant.stock.universe;
+
+import java.time.LocalDate;
+
+/**
+ * 股票代码基础信息（不可变）
+ *
+ * @author Quant Trading Platform
+ */
+public final class StockSymbol {
+
+    private final String code;
+    private final String symbol;
+    private final String name;
+    private final String exchange;
+    private final String pinyin;
+    private final LocalDate listDate;
+
+    public StockSymbol(String symbol, String name, String exchange, String pinyin, LocalDate listDate) {
+        this.symbol = symbol;
+        this.name = name;
+        this.exchange = exchange;
+        this.pinyin = pinyin;
+        this.listDate = listDate;
+        this.code = symbol + "." + exchange;
+    }
+
+    /**
+     * 完整股票代码，如 000001.SZ
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 6位数字代码，如 000001
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 交易所: SH / SZ
+     */
+    public String getExchange() {
+        return exchange;
+    }
+
+    /**
+     * 名称拼音首字母（大写），可能为null
+     */
+    public String getPinyin() {
+        return pinyin;
+    }
+
+    public LocalDate getListDate() {
+        return listDate;
+    }
+
+    /**
+     * 市场类型中文名称
+     */
+    public String getMarketType() {
+        return "SH".equals(exchange) ? "上交所" : "深交所";
+    }
+}
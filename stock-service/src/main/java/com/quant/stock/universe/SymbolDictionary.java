@@ -0,0 +1,163 @@
+package com.quant.stock.universe;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 股票代码字典
+ * 把合法的股票代码（如 000001.SZ）映射为整数ID，内部缓存、K线存储和批量结果都以ID为键，
+ * 只在序列化时再还原为代码字符串。
+ * 只有股票全集中的代码会登记并分配稠密ID（见 {@link #intern(String)}）；请求中出现的其他合法代码
+ * 由 {@link #resolve(String)} 按代码编码推出一个非稠密ID，不写入字典，字典大小不随请求增长。
+ *
+ * ID只在当前进程内有效；需要跨进程稳定的键（如Redis缓存键）请使用 {@link #stableKey(String)}
+ *
+ * @author Quant Trading Platform
+ */
+@Component
+public class SymbolDictionary {
+
+    /** 无效代码 */
+    public static final int INVALID = -1;
+
+    /** 未登记代码的ID起点：ID = EXTERNAL_BASE + {@link #stableKey(String)} */
+    static final int EXTERNAL_BASE = 1 << 30;
+
+    private final Map<String, Integer> idsByCode = new ConcurrentHashMap<>();
+    private volatile String[] codesById = new String[1024];
+    private int size;
+
+    /**
+     * 登记代码并获取稠密ID，首次出现时分配新ID；只用于股票全集中的代码
+     *
+     * @param stockCode 股票代码
+     * @return 稠密ID，代码格式非法时返回 {@link #INVALID}
+     */
+    public int intern(String stockCode) {
+        if (stockCode == null) {
+            return INVALID;
+        }
+        Integer id = idsByCode.get(stockCode);
+        if (id != null) {
+            return id;
+        }
+        if (!isValidFormat(stockCode)) {
+            return INVALID;
+        }
+        synchronized (this) {
+            id = idsByCode.get(stockCode);
+            if (id != null) {
+                return id;
+            }
+            int newId = size;
+            String[] codes = codesById;
+            if (newId == codes.length) {
+                codes = Arrays.copyOf(codes, codes.length * 2);
+            }
+            codes[newId] = stockCode;
+            codesById = codes;
+            size = newId + 1;
+            idsByCode.put(stockCode, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * 查询已分配的ID，不分配新ID
+     *
+     * @return ID，未登记时返回 {@link #INVALID}
+     */
+    public int idOf(String stockCode) {
+        Integer id = stockCode != null ? idsByCode.get(stockCode) : null;
+        return id != null ? id : INVALID;
+    }
+
+    /**
+     * 解析代码对应的ID，不修改字典
+     *
+     * @return 已登记的代码返回稠密ID，未登记的合法代码返回非稠密ID，格式非法时返回 {@link #INVALID}
+     */
+    public int resolve(String stockCode) {
+        int id = idOf(stockCode);
+        if (id != INVALID) {
+            return id;
+        }
+        int key = stableKey(stockCode);
+        return key != INVALID ? EXTERNAL_BASE + key : INVALID;
+    }
+
+    /**
+     * 是否为登记过的稠密ID（可用作数组下标）
+     */
+    public static boolean isDense(int symbolId) {
+        return symbolId >= 0 && symbolId < EXTERNAL_BASE;
+    }
+
+    /**
+     * 将ID还原为股票代码
+     */
+    public String code(int symbolId) {
+        if (symbolId >= EXTERNAL_BASE) {
+            return codeOfStableKey(symbolId - EXTERNAL_BASE);
+        }
+        String[] codes = codesById;
+        if (symbolId < 0 || symbolId >= codes.length || codes[symbolId] == null) {
+            throw new IllegalArgumentException("未知的股票ID: " + symbolId);
+        }
+        return codes[symbolId];
+    }
+
+    /**
+     * 已分配的ID数量（ID取值范围为 [0, size)）
+     */
+    public int size() {
+        return idsByCode.size();
+    }
+
+    /**
+     * 校验股票代码格式：6位数字 + .SZ/.SH（逐字符判断，不使用正则）
+     */
+    public static boolean isValidFormat(String stockCode) {
+        if (stockCode == null || stockCode.length() != 9 || stockCode.charAt(6) != '.') {
+            return false;
+        }
+        for (int i = 0; i < 6; i++) {
+            char c = stockCode.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return stockCode.charAt(7) == 'S' && (stockCode.charAt(8) == 'Z' || stockCode.charAt(8) == 'H');
+    }
+
+    /**
+     * 跨进程稳定的代码编码：6位数字 * 2 + 交易所位（SH=1），取值小于 2^21
+     *
+     * @return 编码值，代码格式非法时返回 {@link #INVALID}
+     */
+    public static int stableKey(String stockCode) {
+        if (!isValidFormat(stockCode)) {
+            return INVALID;
+        }
+        int digits = 0;
+        for (int i = 0; i < 6; i++) {
+            digits = digits * 10 + (stockCode.charAt(i) - '0');
+        }
+        return digits * 2 + (stockCode.charAt(8) == 'H' ? 1 : 0);
+    }
+
+    private static String codeOfStableKey(int key) {
+        int digits = key >> 1;
+        if (digits >= 1_000_000) {
+            throw new IllegalArgumentException("未知的股票ID: " + (EXTERNAL_BASE + key));
+        }
+        char[] chars = {'0', '0', '0', '0', '0', '0', '.', 'S', (key & 1) == 1 ? 'H' : 'Z'};
+        for (int i = 5; i >= 0; i--, digits /= 10) {
+            chars[i] = (char) ('0' + digits % 10);
+        }
+        return new String(chars);
+    }
+}
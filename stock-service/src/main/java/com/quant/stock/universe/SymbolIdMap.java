@@ -0,0 +1,137 @@
+package com.quant.stock.universe;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 以股票ID为键的紧凑映射
+ * 开放寻址的 int 哈希表 + 按插入顺序存放的键值数组，键不装箱；
+ * 只有调用 {@link #toCodeMap(SymbolDictionary)} 时才把ID还原为代码字符串
+ *
+ * @param <V> 值类型
+ * @author Quant Trading Platform
+ */
+public final class SymbolIdMap<V> {
+
+    /** 哈希槽，存放 (条目下标 + 1)，0 表示空槽 */
+    private int[] slots;
+    private int[] ids;
+    private Object[] values;
+    private int size;
+
+    public SymbolIdMap() {
+        this(8);
+    }
+
+    public SymbolIdMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.ids = new int[Math.max(4, expectedSize)];
+        this.values = new Object[ids.length];
+    }
+
+    /**
+     * 写入条目，已存在时覆盖值
+     */
+    public void put(int symbolId, V value) {
+        int entry = find(symbolId);
+        if (entry >= 0) {
+            values[entry] = value;
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        ids[size] = symbolId;
+        values[size] = value;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            insertSlot(symbolId, size);
+        }
+    }
+
+    /**
+     * 读取条目
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int symbolId) {
+        int entry = find(symbolId);
+        return entry >= 0 ? (V) values[entry] : null;
+    }
+
+    public boolean containsKey(int symbolId) {
+        return find(symbolId) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 第 index 个插入的ID
+     */
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * 第 index 个插入的值
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * 还原为以股票代码为键的映射（按插入顺序），用于序列化
+     */
+    public Map<String, V> toCodeMap(SymbolDictionary dictionary) {
+        Map<String, V> result = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            result.put(dictionary.code(ids[i]), valueAt(i));
+        }
+        return result;
+    }
+
+    private int find(int symbolId) {
+        int mask = slots.length - 1;
+        for (int slot = mix(symbolId) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (ids[entry - 1] == symbolId) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void insertSlot(int symbolId, int entryPlusOne) {
+        int mask = slots.length - 1;
+        int slot = mix(symbolId) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entryPlusOne;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            insertSlot(ids[i], i + 1);
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
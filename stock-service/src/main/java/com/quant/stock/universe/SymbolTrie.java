@@ -0,0 +1,262 @@
+package com.quant.stock.universe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑前缀树（构建后不可变）
+ *
+ * 所有索引键（代码、名称、拼音首字母）排序后逐个插入，因此每个节点的子树
+ * 恰好对应 postings 数组中的一段连续区间；构建完成后按层序重排节点，
+ * 使每个节点的子节点连续存放且按字符有序，查询时逐字符二分查找。
+ * 整棵树只由几个基本类型数组组成，没有节点对象。
+ *
+ * @author Quant Trading Platform
+ */
+public final class SymbolTrie {
+
+    private static final int ROOT = 0;
+
+    /** 节点字符（按层序排列） */
+    private final char[] labels;
+    /** 子节点在层序中的起始位置 */
+    private final int[] childStart;
+    /** 子节点数量 */
+    private final int[] childCount;
+    /** 子树对应的 postings 区间 [start, end) */
+    private final int[] postingStart;
+    private final int[] postingEnd;
+    /** 按键排序的股票序号 */
+    private final int[] postings;
+
+    private SymbolTrie(char[] labels, int[] childStart, int[] childCount,
+                       int[] postingStart, int[] postingEnd, int[] postings) {
+        this.labels = labels;
+        this.childStart = childStart;
+        this.childCount = childCount;
+        this.postingStart = postingStart;
+        this.postingEnd = postingEnd;
+        this.postings = postings;
+    }
+
+    /**
+     * 前缀查询
+     *
+     * @param prefix 查询前缀（调用方负责规范化大小写）
+     * @param limit  最多返回的数量
+     * @return 匹配的股票序号（去重，按键的字典序）
+     */
+    public int[] search(String prefix, int limit) {
+        int node = ROOT;
+        for (int i = 0; i < prefix.length() && node >= 0; i++) {
+            node = findChild(node, prefix.charAt(i));
+        }
+        if (node < 0 || limit <= 0) {
+            return new int[0];
+        }
+
+        int[] result = new int[Math.min(limit, postingEnd[node] - postingStart[node])];
+        int size = 0;
+        for (int p = postingStart[node]; p < postingEnd[node] && size < result.length; p++) {
+            int id = postings[p];
+            if (!contains(result, size, id)) {
+                result[size++] = id;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 节点数量
+     */
+    public int size() {
+        return labels.length;
+    }
+
+    private int findChild(int node, char c) {
+        int low = childStart[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 构建前缀树
+     *
+     * @param keys 索引键
+     * @param ids  与键一一对应的股票序号
+     */
+    public static SymbolTrie build(List<String> keys, List<Integer> ids) {
+        int n = keys.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = keys.get(a).compareTo(keys.get(b));
+            return cmp != 0 ? cmp : Integer.compare(ids.get(a), ids.get(b));
+        });
+
+        // 第一遍：按排序后的键插入，记录每个节点的首尾子节点和 postings 区间
+        Builder builder = new Builder(n);
+        int[] postings = new int[n];
+        int[] path = new int[16];
+        String previous = "";
+        for (int p = 0; p < n; p++) {
+            String key = keys.get(order[p]);
+            postings[p] = ids.get(order[p]);
+
+            int common = commonPrefix(previous, key);
+            if (path.length <= key.length()) {
+                path = Arrays.copyOf(path, key.length() * 2 + 1);
+            }
+            path[0] = ROOT;
+            builder.touch(ROOT, p);
+            for (int d = 1; d <= key.length(); d++) {
+                if (d <= common) {
+                    path[d] = builder.lastChild[path[d - 1]];
+                } else {
+                    path[d] = builder.addChild(path[d - 1], key.charAt(d - 1));
+                }
+                builder.touch(path[d], p);
+            }
+            previous = key;
+        }
+
+        return builder.relayout(postings);
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 构建期使用的可变节点表（首子节点/兄弟链表）
+     */
+    private static final class Builder {
+
+        private char[] label;
+        private int[] firstChild;
+        private int[] lastChild;
+        private int[] nextSibling;
+        private int[] start;
+        private int[] end;
+        private int count;
+
+        Builder(int expectedKeys) {
+            int capacity = Math.max(16, expectedKeys * 4);
+            label = new char[capacity];
+            firstChild = new int[capacity];
+            lastChild = new int[capacity];
+            nextSibling = new int[capacity];
+            start = new int[capacity];
+            end = new int[capacity];
+            count = 0;
+            newNode('\0');
+        }
+
+        int newNode(char c) {
+            if (count == label.length) {
+                int capacity = label.length * 2;
+                label = Arrays.copyOf(label, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                lastChild = Arrays.copyOf(lastChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                start = Arrays.copyOf(start, capacity);
+                end = Arrays.copyOf(end, capacity);
+            }
+            int node = count++;
+            label[node] = c;
+            firstChild[node] = -1;
+            lastChild[node] = -1;
+            nextSibling[node] = -1;
+            start[node] = -1;
+            return node;
+        }
+
+        int addChild(int parent, char c) {
+            int child = newNode(c);
+            // 键已排序，新子节点的字符一定大于已有兄弟节点
+            if (lastChild[parent] < 0) {
+                firstChild[parent] = child;
+            } else {
+                nextSibling[lastChild[parent]] = child;
+            }
+            lastChild[parent] = child;
+            return child;
+        }
+
+        void touch(int node, int posting) {
+            if (start[node] < 0) {
+                start[node] = posting;
+            }
+            end[node] = posting + 1;
+        }
+
+        /**
+         * 按层序重排节点，使兄弟节点在数组中连续
+         */
+        SymbolTrie relayout(int[] postings) {
+            char[] labels = new char[count];
+            int[] childStart = new int[count];
+            int[] childCount = new int[count];
+            int[] postingStart = new int[count];
+            int[] postingEnd = new int[count];
+
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            List<Integer> levelOrder = new ArrayList<>(count);
+            queue.add(ROOT);
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                levelOrder.add(node);
+                for (int c = firstChild[node]; c >= 0; c = nextSibling[c]) {
+                    queue.add(c);
+                }
+            }
+
+            int[] newIndex = new int[count];
+            for (int i = 0; i < levelOrder.size(); i++) {
+                newIndex[levelOrder.get(i)] = i;
+            }
+            for (int i = 0; i < levelOrder.size(); i++) {
+                int old = levelOrder.get(i);
+                labels[i] = label[old];
+                postingStart[i] = Math.max(start[old], 0);
+                postingEnd[i] = Math.max(end[old], 0);
+                int children = 0;
+                for (int c = firstChild[old]; c >= 0; c = nextSibling[c]) {
+                    children++;
+                }
+                childCount[i] = children;
+                childStart[i] = firstChild[old] >= 0 ? newIndex[firstChild[old]] : 0;
+            }
+            return new SymbolTrie(labels, childStart, childCount, postingStart, postingEnd, postings);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.quant.stock.universe;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 股票代码全集的不可变快照
+ * 包含按代码的精确索引和覆盖代码/名称/拼音首字母的前缀树，
+ * 重新加载时整体替换，读操作无需加锁
+ *
+ * @author Quant Trading Platform
+ */
+public final class SymbolUniverse {
+
+    private final List<StockSymbol> symbols;
+    private final Map<String, StockSymbol> byCode;
+    private final SymbolTrie trie;
+    private final String source;
+    private final LocalDateTime loadedAt;
+
+    private SymbolUniverse(List<StockSymbol> symbols, Map<String, StockSymbol> byCode, SymbolTrie trie, String source) {
+        this.symbols = symbols;
+        this.byCode = byCode;
+        this.trie = trie;
+        this.source = source;
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    /**
+     * 空的股票全集
+     */
+    public static SymbolUniverse empty() {
+        return of(List.of(), "empty");
+    }
+
+    /**
+     * 构建股票全集
+     *
+     * @param symbols 股票列表
+     * @param source  数据来源描述
+     */
+    public static SymbolUniverse of(List<StockSymbol> symbols, String source) {
+        List<StockSymbol> list = List.copyOf(symbols);
+        Map<String, StockSymbol> byCode = new HashMap<>(list.size() * 2);
+        List<String> keys = new ArrayList<>(list.size() * 4);
+        List<Integer> ids = new ArrayList<>(list.size() * 4);
+
+        for (int i = 0; i < list.size(); i++) {
+            StockSymbol symbol = list.get(i);
+            byCode.put(symbol.getCode(), symbol);
+            addKey(keys, ids, symbol.getCode(), i);
+            addKey(keys, ids, symbol.getName(), i);
+            addKey(keys, ids, symbol.getPinyin(), i);
+        }
+
+        return new SymbolUniverse(list, Collections.unmodifiableMap(byCode), SymbolTrie.build(keys, ids), source);
+    }
+
+    private static void addKey(List<String> keys, List<Integer> ids, String key, int id) {
+        if (key != null && !key.isBlank()) {
+            keys.add(normalize(key));
+            ids.add(id);
+        }
+    }
+
+    /**
+     * 规范化查询键：去掉首尾空白，英文字母转大写
+     */
+    public static String normalize(String key) {
+        return key.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 按完整代码查找
+     */
+    public StockSymbol find(String code) {
+        return code != null ? byCode.get(code) : null;
+    }
+
+    /**
+     * 按代码、名称或拼音首字母前缀搜索
+     *
+     * @param query 查询前缀
+     * @param limit 最多返回数量
+     */
+    public List<StockSymbol> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int[] ids = trie.search(normalize(query), limit);
+        List<StockSymbol> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(symbols.get(id));
+        }
+        return result;
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    public List<StockSymbol> getSymbols() {
+        return symbols;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,68 @@
+package com.quant.stock.upstream;
+
+import java.util.function.Supplier;
+
+/**
+ * 上游请求优先级
+ * 通过线程上下文传递给 {@link UpstreamRequestScheduler}；未显式标记的请求按交互请求处理
+ *
+ * @author Quant Trading Platform
+ */
+public enum UpstreamPriority {
+
+    /** 用户交互请求（单股查询等） */
+    INTERACTIVE,
+
+    /** 批量查询、导出 */
+    BATCH,
+
+    /** 预热、健康检查等后台任务 */
+    BACKGROUND;
+
+    private static final ThreadLocal<UpstreamPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 当前线程的请求优先级
+     */
+    public static UpstreamPriority current() {
+        UpstreamPriority priority = CURRENT.get();
+        return priority != null ? priority : INTERACTIVE;
+    }
+
+    /**
+     * 以指定优先级执行
+     */
+    public static <T> T callAs(UpstreamPriority priority, Supplier<T> action) {
+        UpstreamPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 以指定优先级执行
+     */
+    public static void runAs(UpstreamPriority priority, Runnable action) {
+        callAs(priority, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 两者中更紧急的优先级
+     */
+    public static UpstreamPriority mostUrgent(UpstreamPriority a, UpstreamPriority b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.ordinal() <= b.ordinal() ? a : b;
+    }
+}
@@ -0,0 +1,307 @@
+package com.quant.stock.upstream;
+
+import com.quant.stock.config.MarketDataResponseErrorHandler.MarketDataThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Market Data Service 上游请求调度器
+ * 所有经 marketDataRestTemplate 发出的请求都要先取得许可：全局令牌桶限制总速率，
+ * 交互、批量、后台三类请求分别排队，由调度线程按平滑加权轮询出队，
+ * 批量任务运行期间交互请求仍能按权重及时获得令牌。
+ *
+ * @author Quant Trading Platform
+ */
+@Component
+@Slf4j
+public class UpstreamRequestScheduler {
+
+    private static final UpstreamPriority[] PRIORITIES = UpstreamPriority.values();
+
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Ticket>[] queues = new ArrayDeque[PRIORITIES.length];
+    private final AtomicInteger[] queueDepths = new AtomicInteger[PRIORITIES.length];
+    private final int[] weights = new int[PRIORITIES.length];
+    private final int[] currentWeights = new int[PRIORITIES.length];
+    private final Timer[] waitTimers = new Timer[PRIORITIES.length];
+    private final Counter[] rejectedCounters = new Counter[PRIORITIES.length];
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    @Value("${market-data.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${market-data.scheduler.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${market-data.scheduler.burst:10}")
+    private int burst;
+
+    @Value("${market-data.scheduler.max-queue:200}")
+    private int maxQueue;
+
+    @Value("${market-data.scheduler.max-wait-ms:10000}")
+    private long maxWaitMs;
+
+    @Value("${market-data.scheduler.weights.interactive:6}")
+    private int interactiveWeight;
+
+    @Value("${market-data.scheduler.weights.batch:3}")
+    private int batchWeight;
+
+    @Value("${market-data.scheduler.weights.background:1}")
+    private int backgroundWeight;
+
+    @Autowired
+    public UpstreamRequestScheduler(MeterRegistry meterRegistry) {
+        this(meterRegistry, System::nanoTime);
+    }
+
+    UpstreamRequestScheduler(MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    @PostConstruct
+    public void start() {
+        prepare();
+        if (!enabled) {
+            log.info("上游请求调度器已禁用");
+            return;
+        }
+
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "upstream-scheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        log.info("上游请求调度器已启动: rate={}/s, burst={}, weights={}/{}/{}",
+                ratePerSecond, burst, weights[0], weights[1], weights[2]);
+    }
+
+    /**
+     * 初始化权重、队列、指标和令牌桶，不启动调度线程（测试中手动调用 {@link #dispatchNext()}）
+     */
+    void prepare() {
+        weights[UpstreamPriority.INTERACTIVE.ordinal()] = Math.max(1, interactiveWeight);
+        weights[UpstreamPriority.BATCH.ordinal()] = Math.max(1, batchWeight);
+        weights[UpstreamPriority.BACKGROUND.ordinal()] = Math.max(1, backgroundWeight);
+
+        for (UpstreamPriority priority : PRIORITIES) {
+            int i = priority.ordinal();
+            String tag = priority.name().toLowerCase();
+            queues[i] = new ArrayDeque<>();
+            queueDepths[i] = new AtomicInteger();
+            Gauge.builder("market_data.upstream.queue.depth", queueDepths[i], AtomicInteger::get)
+                    .description("等待上游许可的请求数")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers[i] = Timer.builder("market_data.upstream.wait")
+                    .description("取得上游许可前的等待时间")
+                    .tag("priority", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            rejectedCounters[i] = Counter.builder("market_data.upstream.rejected")
+                    .description("排队已满或等待超时被拒绝的请求数")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+
+        tokens = burst;
+        lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    /**
+     * 为当前请求申请上游许可，必要时阻塞等待
+     *
+     * @param priority 请求优先级
+     * @throws MarketDataThrottledException 队列已满或等待超时（不重试）
+     */
+    public void acquire(UpstreamPriority priority) {
+        if (!enabled) {
+            return;
+        }
+        int index = priority.ordinal();
+        long startNanos = nanoClock.getAsLong();
+        Ticket ticket = new Ticket();
+
+        lock.lock();
+        try {
+            // 没有排队请求且有令牌时直接放行，不经过调度线程
+            if (allQueuesEmpty() && tryTakeToken()) {
+                waitTimers[index].record(nanoClock.getAsLong() - startNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (queues[index].size() >= maxQueue) {
+                rejectedCounters[index].increment();
+                throw new MarketDataThrottledException("上游请求排队已满: priority=" + priority);
+            }
+            queues[index].addLast(ticket);
+            queueDepths[index].incrementAndGet();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean granted = false;
+        try {
+            granted = ticket.granted.await(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!granted && !withdraw(index, ticket)) {
+            // 调度线程已在超时的同时放行
+            granted = true;
+        }
+
+        waitTimers[index].record(nanoClock.getAsLong() - startNanos, TimeUnit.NANOSECONDS);
+        if (!granted) {
+            rejectedCounters[index].increment();
+            throw new MarketDataThrottledException("等待上游请求许可超时: priority=" + priority);
+        }
+    }
+
+    /**
+     * 撤回尚未放行的排队请求
+     *
+     * @return 是否撤回成功（false 表示已被放行）
+     */
+    private boolean withdraw(int index, Ticket ticket) {
+        lock.lock();
+        try {
+            if (queues[index].remove(ticket)) {
+                queueDepths[index].decrementAndGet();
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            lock.lock();
+            try {
+                if (allQueuesEmpty()) {
+                    changed.await();
+                    continue;
+                }
+                if (dispatchNext() < 0) {
+                    changed.awaitNanos(nanosUntilNextToken());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 有令牌时按加权轮询放行一个排队请求
+     *
+     * @return 被放行请求所在队列的下标，没有排队请求或令牌不足时返回 -1
+     */
+    int dispatchNext() {
+        lock.lock();
+        try {
+            if (allQueuesEmpty() || !tryTakeToken()) {
+                return -1;
+            }
+            int index = nextQueue();
+            Ticket ticket = queues[index].pollFirst();
+            queueDepths[index].decrementAndGet();
+            ticket.granted.countDown();
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 平滑加权轮询：在非空队列中选出当前权重最大的一个（调用方持有锁）
+     */
+    private int nextQueue() {
+        int best = -1;
+        int total = 0;
+        for (int i = 0; i < queues.length; i++) {
+            if (queues[i].isEmpty()) {
+                continue;
+            }
+            currentWeights[i] += weights[i];
+            total += weights[i];
+            if (best < 0 || currentWeights[i] > currentWeights[best]) {
+                best = i;
+            }
+        }
+        currentWeights[best] -= total;
+        return best;
+    }
+
+    /**
+     * 补充令牌并尝试取走一个（调用方持有锁）
+     */
+    private boolean tryTakeToken() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * ratePerSecond / 1_000_000_000d);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    private long nanosUntilNextToken() {
+        return Math.max(1_000_000L, (long) ((1 - tokens) / ratePerSecond * 1_000_000_000d));
+    }
+
+    private boolean allQueuesEmpty() {
+        for (ArrayDeque<Ticket> queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 排队中的请求
+     */
+    private static final class Ticket {
+        private final CountDownLatch granted = new CountDownLatch(1);
+    }
+}
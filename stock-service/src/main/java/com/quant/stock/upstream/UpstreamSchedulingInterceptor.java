@@ -0,0 +1,31 @@
+package com.quant.stock.upstream;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+
+/**
+ * 发出上游请求前按当前线程的优先级向调度器申请许可
+ *
+ * @author Quant Trading Platform
+ */
+public class UpstreamSchedulingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamRequestScheduler scheduler;
+
+    public UpstreamSchedulingInterceptor(UpstreamRequestScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body,
+                                        @NonNull ClientHttpRequestExecution execution) throws IOException {
+        scheduler.acquire(UpstreamPriority.current());
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,162 @@
+package com.quant.stock.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.stock.config.MarketDataResponseErrorHandler.MarketDataBadRequestException;
+import com.quant.stock.config.MarketDataResponseErrorHandler.MarketDataNotFoundException;
+import com.quant.stock.config.MarketDataResponseErrorHandler.MarketDataServiceException;
+import com.quant.stock.config.MarketDataResponseErrorHandler.MarketDataThrottledException;
+import com.quant.stock.dto.StockLatestResponse;
+import com.quant.stock.universe.SymbolDictionary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 最新行情微批：窗口内合并、同股去重、凑满即发，以及逐只完成成功与各类失败
+ */
+class LatestQuoteBatcherTest {
+
+    private static final String URL = "http://market-data/api/stocks/batch";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RestTemplate restTemplate;
+    private LatestQuoteBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        batcher = new LatestQuoteBatcher(restTemplate, objectMapper, new SymbolDictionary(), 1);
+        ReflectionTestUtils.setField(batcher, "marketDataServiceUrl", "http://market-data");
+        ReflectionTestUtils.setField(batcher, "windowMs", 5L);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 50);
+        ReflectionTestUtils.setField(batcher, "lookbackDays", 10);
+        ReflectionTestUtils.setField(batcher, "waitTimeoutMs", 5_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void coalescesRequestsWithinWindowAndDeduplicatesSymbols() throws Exception {
+        respond("{\"000001.SZ\": {\"latest\": {\"close\": 10.5}}, \"600519.SH\": {\"latest\": {\"close\": 1700}}}");
+
+        CompletableFuture<StockLatestResponse> first = batcher.submit("000001.SZ");
+        CompletableFuture<StockLatestResponse> second = batcher.submit("600519.SH");
+        CompletableFuture<StockLatestResponse> duplicate = batcher.submit("000001.SZ");
+
+        assertSame(first, duplicate);
+        assertEquals(new BigDecimal("10.5"), first.get(5, TimeUnit.SECONDS).getClose());
+        // 响应中没有代码时以请求的代码补上
+        assertEquals("000001.SZ", first.get().getStockCode());
+        assertEquals(new BigDecimal("1700"), second.get(5, TimeUnit.SECONDS).getClose());
+        assertEquals(List.of("000001.SZ", "600519.SH"), requestedCodes());
+    }
+
+    @Test
+    void completesEachSymbolWithItsOwnOutcome() {
+        respond("{\"000001.SZ\": {\"latest\": {\"stock_code\": \"000001.SZ\", \"close\": 10}},"
+                + " \"000002.SZ\": {\"error\": \"akshare timeout\"},"
+                + " \"600000.SH\": null,"
+                + " \"600036.SH\": {\"count\": 0}}");
+
+        CompletableFuture<StockLatestResponse> ok = batcher.submit("000001.SZ");
+        CompletableFuture<StockLatestResponse> failed = batcher.submit("000002.SZ");
+        CompletableFuture<StockLatestResponse> missing = batcher.submit("600000.SH");
+        CompletableFuture<StockLatestResponse> incomplete = batcher.submit("600036.SH");
+        CompletableFuture<StockLatestResponse> absent = batcher.submit("601318.SH");
+
+        assertEquals(new BigDecimal("10"), ok.join().getClose());
+        assertEquals("akshare timeout", cause(failed, MarketDataServiceException.class).getMessage());
+        cause(missing, MarketDataNotFoundException.class);
+        cause(incomplete, MarketDataServiceException.class);
+        cause(absent, MarketDataNotFoundException.class);
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForWindow() throws Exception {
+        ReflectionTestUtils.setField(batcher, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 2);
+        respond("{\"000001.SZ\": {\"latest\": {\"close\": 1}}, \"000002.SZ\": {\"latest\": {\"close\": 2}}}");
+
+        CompletableFuture<StockLatestResponse> a = batcher.submit("000001.SZ");
+        CompletableFuture<StockLatestResponse> b = batcher.submit("000002.SZ");
+
+        assertEquals(new BigDecimal("1"), a.get(5, TimeUnit.SECONDS).getClose());
+        assertEquals(new BigDecimal("2"), b.get(5, TimeUnit.SECONDS).getClose());
+    }
+
+    @Test
+    void transportFailureFailsWholeBatch() {
+        when(restTemplate.postForEntity(eq(URL), any(), eq(JsonNode.class)))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        CompletableFuture<StockLatestResponse> a = batcher.submit("000001.SZ");
+        CompletableFuture<StockLatestResponse> b = batcher.submit("000002.SZ");
+
+        cause(a, MarketDataServiceException.class);
+        cause(b, MarketDataServiceException.class);
+    }
+
+    @Test
+    void schedulerRejectionIsPassedThrough() {
+        when(restTemplate.postForEntity(eq(URL), any(), eq(JsonNode.class)))
+                .thenThrow(new MarketDataThrottledException("排队已满"));
+
+        assertThrows(MarketDataThrottledException.class, () -> batcher.fetch("000001.SZ"));
+    }
+
+    @Test
+    void invalidCodeFailsWithoutUpstreamCall() {
+        cause(batcher.submit("000001"), MarketDataBadRequestException.class);
+        verify(restTemplate, never()).postForEntity(any(String.class), any(), eq(JsonNode.class));
+    }
+
+    private void respond(String json) {
+        try {
+            JsonNode body = objectMapper.readTree(json);
+            when(restTemplate.postForEntity(eq(URL), any(), eq(JsonNode.class)))
+                    .thenReturn(ResponseEntity.ok(body));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> requestedCodes() {
+        ArgumentCaptor<Object> request = ArgumentCaptor.forClass(Object.class);
+        verify(restTemplate, timeout(5_000)).postForEntity(eq(URL), request.capture(), eq(JsonNode.class));
+        return (List<String>) ((Map<String, Object>) request.getValue()).get("stock_codes");
+    }
+
+    private static <T extends Throwable> T cause(CompletableFuture<?> future, Class<T> type) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return assertInstanceOf(type, e.getCause());
+    }
+}
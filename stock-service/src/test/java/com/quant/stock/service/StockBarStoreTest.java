@@ -0,0 +1,156 @@
+package com.quant.stock.service;
+
+import com.quant.stock.dto.StockDataPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * K线存储：窗口合并与覆盖范围、同日覆盖、容量淘汰和同一股票的并发合并
+ */
+class StockBarStoreTest {
+
+    private static final LocalDate D0 = LocalDate.of(2024, 1, 1);
+
+    private StockBarStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new StockBarStore();
+        ReflectionTestUtils.setField(store, "maxSymbols", 100);
+        ReflectionTestUtils.setField(store, "freshTtlSeconds", 60L);
+    }
+
+    @Test
+    void contiguousWindowsExtendCoverage() {
+        store.merge(0, bars(0, 10), D0, D0.plusDays(10));
+        StockBarStore.Snapshot snapshot = store.merge(0, bars(11, 20), D0.plusDays(11), D0.plusDays(20));
+
+        assertTrue(snapshot.covers(D0.minusDays(1)));
+        assertEquals(D0.plusDays(20), snapshot.getCoveredTo());
+        assertEquals(21, snapshot.barsAfter(D0.minusDays(1)).size());
+    }
+
+    @Test
+    void overlappingWindowsExtendCoverage() {
+        store.merge(0, bars(0, 10), D0, D0.plusDays(10));
+        StockBarStore.Snapshot snapshot = store.merge(0, bars(5, 20), D0.plusDays(5), D0.plusDays(20));
+
+        assertTrue(snapshot.covers(D0.minusDays(1)));
+        assertEquals(21, snapshot.barsAfter(D0.minusDays(1)).size());
+    }
+
+    @Test
+    void gapDoesNotExtendCoverage() {
+        store.merge(0, bars(0, 10), D0, D0.plusDays(10));
+        StockBarStore.Snapshot snapshot = store.merge(0, bars(15, 20), D0.plusDays(15), D0.plusDays(20));
+
+        // 第11~14天没有拉取过，覆盖范围只能从新窗口开始
+        assertFalse(snapshot.covers(D0));
+        assertFalse(snapshot.covers(D0.plusDays(12)));
+        assertTrue(snapshot.covers(D0.plusDays(14)));
+        // 旧K线仍保留，供之后补齐缺口时合并
+        assertEquals(17, snapshot.barsAfter(D0.minusDays(1)).size());
+    }
+
+    @Test
+    void newerDataReplacesSameDay() {
+        store.merge(0, List.of(bar(3, "10.00")), D0.plusDays(3), D0.plusDays(3));
+        StockBarStore.Snapshot snapshot = store.merge(0, List.of(bar(3, "10.50")), D0.plusDays(3), D0.plusDays(3));
+
+        assertEquals(1, snapshot.barsAfter(D0).size());
+        assertEquals(new BigDecimal("10.50"), snapshot.barsAfter(D0).get(0).getClose());
+    }
+
+    @Test
+    void barsAfterIsStrict() {
+        StockBarStore.Snapshot snapshot = store.merge(0, bars(0, 5), D0, D0.plusDays(5));
+
+        assertEquals(List.of(D0.plusDays(4), D0.plusDays(5)), dates(snapshot.barsAfter(D0.plusDays(3))));
+        assertTrue(snapshot.barsAfter(D0.plusDays(5)).isEmpty());
+    }
+
+    @Test
+    void snapshotOfDoesNotStore() {
+        StockBarStore.Snapshot snapshot = StockBarStore.snapshotOf(bars(0, 2), D0, D0.plusDays(2));
+
+        assertEquals(3, snapshot.barsAfter(D0.minusDays(1)).size());
+        assertNull(store.get(0));
+    }
+
+    @Test
+    void growsAndEvictsOldestSymbol() throws InterruptedException {
+        ReflectionTestUtils.setField(store, "maxSymbols", 2);
+        store.merge(0, bars(0, 1), D0, D0.plusDays(1));
+        Thread.sleep(2);
+        store.merge(5000, bars(0, 1), D0, D0.plusDays(1));
+        Thread.sleep(2);
+        store.merge(7, bars(0, 1), D0, D0.plusDays(1));
+
+        assertNull(store.get(0));
+        assertNotNull(store.get(5000));
+        assertNotNull(store.get(7));
+        assertNull(store.get(-1));
+        assertNull(store.get(1 << 30));
+    }
+
+    @Test
+    void concurrentMergesOfOneSymbolKeepEveryBar() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int day = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return store.merge(3, List.of(bar(day, "10")), D0.plusDays(day), D0.plusDays(day));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads, store.get(3).barsAfter(D0.minusDays(1)).size());
+    }
+
+    private static List<StockDataPoint> bars(int fromDay, int toDay) {
+        List<StockDataPoint> bars = new ArrayList<>();
+        for (int day = fromDay; day <= toDay; day++) {
+            bars.add(bar(day, "10"));
+        }
+        return bars;
+    }
+
+    private static StockDataPoint bar(int day, String close) {
+        StockDataPoint bar = new StockDataPoint();
+        bar.setDate(D0.plusDays(day));
+        bar.setClose(new BigDecimal(close));
+        return bar;
+    }
+
+    private static List<LocalDate> dates(List<StockDataPoint> bars) {
+        return bars.stream().map(StockDataPoint::getDate).collect(Collectors.toList());
+    }
+}
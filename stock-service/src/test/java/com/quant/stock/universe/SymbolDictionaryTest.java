@@ -0,0 +1,71 @@
+package com.quant.stock.universe;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 代码字典：稠密ID与未登记代码的非稠密ID，resolve 不修改字典
+ */
+class SymbolDictionaryTest {
+
+    private final SymbolDictionary dictionary = new SymbolDictionary();
+
+    @Test
+    void resolveDoesNotRegisterCodes() {
+        int id = dictionary.resolve("600519.SH");
+
+        assertEquals(SymbolDictionary.EXTERNAL_BASE + SymbolDictionary.stableKey("600519.SH"), id);
+        assertFalse(SymbolDictionary.isDense(id));
+        assertEquals("600519.SH", dictionary.code(id));
+        assertEquals(0, dictionary.size());
+        assertEquals(SymbolDictionary.INVALID, dictionary.idOf("600519.SH"));
+        // 再次解析得到同一个ID，字典仍为空
+        assertEquals(id, dictionary.resolve("600519.SH"));
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    void internedCodesResolveToDenseIds() {
+        assertEquals(0, dictionary.intern("000001.SZ"));
+        assertEquals(1, dictionary.intern("600000.SH"));
+        assertEquals(0, dictionary.intern("000001.SZ"));
+
+        assertEquals(1, dictionary.resolve("600000.SH"));
+        assertTrue(SymbolDictionary.isDense(1));
+        assertEquals("600000.SH", dictionary.code(1));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(i, dictionary.intern(String.format("%06d.SZ", i)));
+        }
+        assertEquals("002999.SZ", dictionary.code(2999));
+        assertEquals(3000, dictionary.size());
+    }
+
+    @Test
+    void rejectsInvalidCodes() {
+        for (String code : new String[]{null, "", "600519", "600519.BJ", "60051A.SH", "600519.sh", "6005190.SH"}) {
+            assertEquals(SymbolDictionary.INVALID, dictionary.resolve(code), String.valueOf(code));
+            assertEquals(SymbolDictionary.INVALID, dictionary.intern(code), String.valueOf(code));
+        }
+        assertEquals(0, dictionary.size());
+        assertFalse(SymbolDictionary.isDense(SymbolDictionary.INVALID));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.code(5));
+    }
+
+    @Test
+    void stableKeyRoundTripsThroughExternalIds() {
+        assertEquals(1, SymbolDictionary.stableKey("000000.SH"));
+        assertEquals(999_999 * 2, SymbolDictionary.stableKey("999999.SZ"));
+        for (String code : new String[]{"000000.SZ", "000000.SH", "300750.SZ", "999999.SH"}) {
+            assertEquals(code, dictionary.code(dictionary.resolve(code)));
+        }
+    }
+}
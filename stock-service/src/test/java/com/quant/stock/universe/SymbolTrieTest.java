@@ -0,0 +1,99 @@
+package com.quant.stock.universe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 前缀树构建、层序重排后的前缀查询，以及股票全集上的代码/名称/拼音搜索
+ */
+class SymbolTrieTest {
+
+    @Test
+    void searchesByCodeNameAndPinyinPrefix() {
+        SymbolUniverse universe = SymbolUniverse.of(List.of(
+                new StockSymbol("000001", "平安银行", "SZ", "PAYH", null),
+                new StockSymbol("600000", "浦发银行", "SH", "PFYH", null),
+                new StockSymbol("600036", "招商银行", "SH", "ZSYH", null),
+                new StockSymbol("601318", "中国平安", "SH", "ZGPA", null)), "test");
+
+        assertEquals(List.of("600000.SH", "600036.SH"), codes(universe.search("6000", 10)));
+        assertEquals(List.of("600000.SH", "600036.SH", "601318.SH"), codes(universe.search("60", 10)));
+        assertEquals(List.of("000001.SZ"), codes(universe.search("平安", 10)));
+        assertEquals(List.of("601318.SH"), codes(universe.search("中国", 10)));
+        // 拼音首字母不区分大小写，按键的字典序返回
+        assertEquals(List.of("000001.SZ", "600000.SH"), codes(universe.search("p", 10)));
+        assertEquals(List.of("601318.SH", "600036.SH"), codes(universe.search(" z ", 10)));
+        assertTrue(universe.search("", 10).isEmpty());
+        assertEquals("中国平安", universe.find("601318.SH").getName());
+        assertNull(universe.find("601318"));
+    }
+
+    @Test
+    void duplicateKeysReturnEveryStockOnce() {
+        // 两只股票同名；第一只的名称与拼音相同，两条键都命中时只返回一次
+        SymbolTrie trie = SymbolTrie.build(
+                List.of("AB", "AB", "AB", "ABC"),
+                List.of(0, 0, 1, 2));
+
+        assertArrayEquals(new int[]{0, 1, 2}, trie.search("A", 10));
+        assertArrayEquals(new int[]{0, 1, 2}, trie.search("AB", 10));
+        assertArrayEquals(new int[]{2}, trie.search("ABC", 10));
+    }
+
+    @Test
+    void limitCountsDistinctStocks() {
+        // 去重的键不占用 limit
+        SymbolTrie trie = SymbolTrie.build(
+                List.of("AA", "AB", "AC", "AD"),
+                List.of(0, 0, 1, 2));
+
+        assertArrayEquals(new int[]{0, 1}, trie.search("A", 2));
+        assertArrayEquals(new int[]{0}, trie.search("A", 1));
+        assertArrayEquals(new int[0], trie.search("A", 0));
+    }
+
+    @Test
+    void missingPrefixReturnsNothing() {
+        SymbolTrie trie = SymbolTrie.build(List.of("600000", "600036"), List.of(0, 1));
+
+        assertArrayEquals(new int[0], trie.search("601", 10));
+        assertArrayEquals(new int[0], trie.search("6000000", 10));
+        assertArrayEquals(new int[0], trie.search("X", 10));
+        assertArrayEquals(new int[]{0, 1}, trie.search("", 10));
+    }
+
+    @Test
+    void childrenStayOrderedAfterRelayout() {
+        // 插入顺序打乱，重排后每层的兄弟节点仍按字符有序，二分查找能找到每个分支
+        List<String> keys = List.of("CB", "A", "CA", "B", "CC", "BA");
+        SymbolTrie trie = SymbolTrie.build(keys, List.of(0, 1, 2, 3, 4, 5));
+
+        // 根 + A、B、C + BA、CA、CB、CC
+        assertEquals(8, trie.size());
+        assertArrayEquals(new int[]{2, 0, 4}, trie.search("C", 10));
+        assertArrayEquals(new int[]{3, 5}, trie.search("B", 10));
+        assertArrayEquals(new int[]{0}, trie.search("CB", 10));
+    }
+
+    @Test
+    void emptyUniverseHasOnlyRoot() {
+        SymbolUniverse universe = SymbolUniverse.empty();
+
+        assertEquals(0, universe.size());
+        assertTrue(universe.search("6", 10).isEmpty());
+        assertTrue(universe.search("  ", 10).isEmpty());
+        assertEquals(1, SymbolTrie.build(List.of(), List.of()).size());
+        assertArrayEquals(new int[0], SymbolTrie.build(List.of(), List.of()).search("", 10));
+    }
+
+    private static List<String> codes(List<StockSymbol> symbols) {
+        return symbols.stream().map(StockSymbol::getCode).collect(Collectors.toList());
+    }
+}
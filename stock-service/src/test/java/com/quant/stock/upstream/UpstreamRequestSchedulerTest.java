@@ -0,0 +1,194 @@
+package com.quant.stock.upstream;
+
+import com.quant.stock.config.MarketDataResponseErrorHandler.MarketDataThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.quant.stock.upstream.UpstreamPriority.BACKGROUND;
+import static com.quant.stock.upstream.UpstreamPriority.BATCH;
+import static com.quant.stock.upstream.UpstreamPriority.INTERACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 上游请求调度：令牌桶、直接放行、加权轮询出队和拒绝计数
+ * 使用假时钟并手动调用 dispatchNext，不启动调度线程
+ */
+class UpstreamRequestSchedulerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private UpstreamRequestScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new UpstreamRequestScheduler(registry, clock::get);
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "ratePerSecond", 10d);
+        ReflectionTestUtils.setField(scheduler, "burst", 2);
+        ReflectionTestUtils.setField(scheduler, "maxQueue", 100);
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 10_000L);
+        ReflectionTestUtils.setField(scheduler, "interactiveWeight", 6);
+        ReflectionTestUtils.setField(scheduler, "batchWeight", 3);
+        ReflectionTestUtils.setField(scheduler, "backgroundWeight", 1);
+        scheduler.prepare();
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void fastPathUsesBurstTokensWithoutDispatcher() {
+        scheduler.acquire(INTERACTIVE);
+        scheduler.acquire(BATCH);
+
+        assertEquals(0, depth(INTERACTIVE) + depth(BATCH));
+        assertEquals(1, registry.get("market_data.upstream.wait").tag("priority", "interactive").timer().count());
+        assertEquals(0, rejected(INTERACTIVE) + rejected(BATCH));
+    }
+
+    @Test
+    void tokensRefillAtConfiguredRateUpToBurst() throws Exception {
+        drainTokens();
+        Future<?> waiting = enqueue(INTERACTIVE, 1).get(0);
+
+        assertEquals(-1, scheduler.dispatchNext());
+        clock.addAndGet(50 * MILLIS);
+        assertEquals(-1, scheduler.dispatchNext());
+        clock.addAndGet(50 * MILLIS);
+        assertEquals(INTERACTIVE.ordinal(), scheduler.dispatchNext());
+        waiting.get(5, TimeUnit.SECONDS);
+
+        // 等待很久也只积攒 burst 个令牌
+        List<Future<?>> queued = enqueue(BATCH, 3);
+        clock.addAndGet(10_000 * MILLIS);
+        assertEquals(BATCH.ordinal(), scheduler.dispatchNext());
+        assertEquals(BATCH.ordinal(), scheduler.dispatchNext());
+        assertEquals(-1, scheduler.dispatchNext());
+        assertEquals(1, depth(BATCH));
+        clock.addAndGet(100 * MILLIS);
+        assertEquals(BATCH.ordinal(), scheduler.dispatchNext());
+        for (Future<?> future : queued) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void dispatchesQueuesBySmoothWeightedRoundRobin() throws Exception {
+        drainTokens();
+        List<Future<?>> queued = new ArrayList<>();
+        queued.addAll(enqueue(INTERACTIVE, 10));
+        queued.addAll(enqueue(BATCH, 10));
+        queued.addAll(enqueue(BACKGROUND, 10));
+
+        List<UpstreamPriority> order = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            clock.addAndGet(100 * MILLIS);
+            order.add(UpstreamPriority.values()[scheduler.dispatchNext()]);
+        }
+
+        // 权重 6/3/1：十次出队中交互 6 次、批量 3 次、后台 1 次，且交错进行
+        assertEquals(List.of(INTERACTIVE, BATCH, INTERACTIVE, INTERACTIVE, BATCH,
+                INTERACTIVE, BACKGROUND, INTERACTIVE, BATCH, INTERACTIVE), order);
+        assertEquals(4, depth(INTERACTIVE));
+        assertEquals(7, depth(BATCH));
+        assertEquals(9, depth(BACKGROUND));
+
+        for (int i = 0; i < 20; i++) {
+            clock.addAndGet(100 * MILLIS);
+            assertTrue(scheduler.dispatchNext() >= 0);
+        }
+        for (Future<?> future : queued) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "maxQueue", 1);
+        drainTokens();
+        Future<?> waiting = enqueue(BATCH, 1).get(0);
+
+        assertThrows(MarketDataThrottledException.class, () -> scheduler.acquire(BATCH));
+        assertEquals(1, rejected(BATCH));
+        assertEquals(0, rejected(INTERACTIVE));
+
+        clock.addAndGet(100 * MILLIS);
+        assertEquals(BATCH.ordinal(), scheduler.dispatchNext());
+        waiting.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void rejectsAndWithdrawsAfterWaitTimeout() {
+        ReflectionTestUtils.setField(scheduler, "maxWaitMs", 20L);
+        drainTokens();
+
+        assertThrows(MarketDataThrottledException.class, () -> scheduler.acquire(BACKGROUND));
+        assertEquals(1, rejected(BACKGROUND));
+        assertEquals(0, depth(BACKGROUND));
+        clock.addAndGet(100 * MILLIS);
+        assertEquals(-1, scheduler.dispatchNext());
+    }
+
+    @Test
+    void disabledSchedulerDoesNotThrottle() {
+        ReflectionTestUtils.setField(scheduler, "enabled", false);
+        for (int i = 0; i < 10; i++) {
+            scheduler.acquire(BACKGROUND);
+        }
+        assertEquals(0, rejected(BACKGROUND));
+    }
+
+    /**
+     * 用直接放行取走全部突发令牌，此后时钟不动就不会再有令牌
+     */
+    private void drainTokens() {
+        scheduler.acquire(INTERACTIVE);
+        scheduler.acquire(INTERACTIVE);
+    }
+
+    private List<Future<?>> enqueue(UpstreamPriority priority, int count) {
+        int expected = depth(priority) + count;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(callers.submit(() -> scheduler.acquire(priority)));
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (depth(priority) < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "请求未进入队列");
+            Thread.onSpinWait();
+        }
+        for (Future<?> future : futures) {
+            assertFalse(future.isDone());
+        }
+        return futures;
+    }
+
+    private int depth(UpstreamPriority priority) {
+        return (int) registry.get("market_data.upstream.queue.depth")
+                .tag("priority", priority.name().toLowerCase()).gauge().value();
+    }
+
+    private double rejected(UpstreamPriority priority) {
+        return registry.get("market_data.upstream.rejected")
+                .tag("priority", priority.name().toLowerCase()).counter().count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.quant.trading.benchmark;
+
+import com.quant.trading.indicator.vector.ArrayKernelSelector;
+import com.quant.trading.indicator.vector.ArrayKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全市场扫描内核基准测试：标量参考实现与 Vector API 实现对比
+ * 价格矩阵按时间优先存放（rows 根K线 × symbols 只股票）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ArrayKernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String implementation;
+
+    @Param({"500", "4000"})
+    public int symbols;
+
+    @Param({"250"})
+    public int rows;
+
+    @Param({"20"})
+    public int period;
+
+    private ArrayKernels kernels;
+    private double[] src;
+    private double[] fast;
+    private double[] slow;
+    private double[] out;
+    private byte[] crosses;
+
+    @Setup
+    public void setUp() {
+        if ("vector".equals(implementation)) {
+            kernels = ArrayKernelSelector.vectorOrNull();
+            if (kernels == null) {
+                throw new IllegalStateException("当前JVM不可用向量内核（需要 --add-modules jdk.incubator.vector）");
+            }
+        } else {
+            kernels = ArrayKernelSelector.scalar();
+        }
+
+        int len = rows * symbols;
+        src = new double[len];
+        for (int s = 0; s < symbols; s++) {
+            double[] closes = BenchmarkData.closes(rows, s);
+            for (int t = 0; t < rows; t++) {
+                src[t * symbols + s] = closes[t];
+            }
+        }
+        fast = new double[len];
+        slow = new double[len];
+        out = new double[len];
+        crosses = new byte[len];
+        ArrayKernelSelector.scalar().rollingMean(src, rows, symbols, 5, fast);
+        ArrayKernelSelector.scalar().rollingMean(src, rows, symbols, period, slow);
+    }
+
+    @Benchmark
+    public double[] rollingMean() {
+        kernels.rollingMean(src, rows, symbols, period, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] rollingVariance() {
+        kernels.rollingVariance(src, rows, symbols, period, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] histogram() {
+        kernels.histogram(fast, slow, fast.length, out);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] crossovers() {
+        kernels.crossovers(fast, slow, rows, symbols, crosses);
+        return crosses;
+    }
+}
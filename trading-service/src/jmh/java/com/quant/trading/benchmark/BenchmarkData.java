@@ -0,0 +1,53 @@
+package com.quant.trading.benchmark;
+
+import com.quant.trading.indicator.PriceSeries;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的确定性价格数据
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 随机游走收盘价（保留2位小数，与模拟行情一致）
+     */
+    static double[] closes(int length, long seed) {
+        Random random = new Random(seed);
+        double[] closes = new double[length];
+        double price = 50;
+        for (int i = 0; i < length; i++) {
+            price = Math.max(1, price * (1 + (random.nextDouble() - 0.5) * 0.1));
+            closes[i] = Math.round(price * 100) / 100.0;
+        }
+        return closes;
+    }
+
+    static List<BigDecimal> decimals(double[] closes) {
+        List<BigDecimal> prices = new ArrayList<>(closes.length);
+        for (double close : closes) {
+            prices.add(BigDecimal.valueOf(close).setScale(2, RoundingMode.HALF_UP));
+        }
+        return prices;
+    }
+
+    /**
+     * 带交易日的价格序列，最后一根K线为 lastBarDate
+     */
+    static PriceSeries series(String stockCode, double[] closes, LocalDate lastBarDate) {
+        int[] epochDays = new int[closes.length];
+        int last = (int) lastBarDate.toEpochDay();
+        for (int i = 0; i < closes.length; i++) {
+            epochDays[i] = last - (closes.length - 1 - i);
+        }
+        return PriceSeries.of(stockCode, closes, epochDays);
+    }
+}
@@ -0,0 +1,66 @@
+package com.quant.trading.benchmark;
+
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.service.IndicatorCacheService;
+import com.quant.trading.strategy.CustomRuleStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自定义规则策略基准测试
+ * 对一批股票逐只生成信号（吞吐量按股票计），规则只在 setUp 中编译一次；
+ * 序列不带日期，每只股票都完整计算一次融合指标
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomRuleBenchmark {
+
+    private static final int SYMBOLS = 1000;
+
+    @Param({"60", "250"})
+    public int length;
+
+    private CustomRuleStrategy strategy;
+    private CustomRuleStrategy.Config config;
+    private PriceSeries[] series;
+
+    @Setup
+    public void setUp() {
+        strategy = new CustomRuleStrategy(new IndicatorCacheService(new SimpleMeterRegistry()));
+        config = strategy.compileParameters("{"
+                + "\"entry\":\"SMA(5) crosses_above SMA(20) and RSI(14) < 70\","
+                + "\"exit\":\"SMA(5) crosses_below SMA(20) or RSI(14) > 80 or CLOSE < BOLL_LOWER(20, 2)\"}");
+        series = new PriceSeries[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            series[i] = PriceSeries.of(String.format("%06d.SZ", i), BenchmarkData.closes(length, i), null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SYMBOLS)
+    public void generateSignals(Blackhole blackhole) {
+        for (PriceSeries item : series) {
+            StrategySignal signal = strategy.generateSignal(item.getStockCode(), item, config);
+            blackhole.consume(signal);
+        }
+    }
+}
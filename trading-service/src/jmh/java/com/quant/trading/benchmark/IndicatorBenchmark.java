@@ -0,0 +1,122 @@
+package com.quant.trading.benchmark;
+
+import com.quant.trading.indicator.FusedIndicatorKernel;
+import com.quant.trading.indicator.IndicatorCalculator;
+import com.quant.trading.indicator.IndicatorKernels;
+import com.quant.trading.indicator.IndicatorPanel;
+import com.quant.trading.indicator.IndicatorSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 技术指标基准测试
+ * 对比 IndicatorCalculator（BigDecimal 列表接口）与 IndicatorKernels（double 数组内核），
+ * 以及一次扫描计算整块面板的 FusedIndicatorKernel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndicatorBenchmark {
+
+    @Param({"60", "1000", "100000"})
+    public int length;
+
+    @Param({"5", "20", "60"})
+    public int period;
+
+    private List<BigDecimal> prices;
+    private double[] closes;
+    private double[] out1;
+    private double[] out2;
+    private double[] out3;
+    private List<IndicatorSpec> panel;
+
+    @Setup
+    public void setUp() {
+        closes = BenchmarkData.closes(length, 42);
+        prices = BenchmarkData.decimals(closes);
+        out1 = new double[length];
+        out2 = new double[length];
+        out3 = new double[length];
+        panel = IndicatorSpec.defaultPanel();
+    }
+
+    @Benchmark
+    public List<BigDecimal> calculatorSma() {
+        return IndicatorCalculator.calculateSMA(prices, period);
+    }
+
+    @Benchmark
+    public List<BigDecimal> calculatorEma() {
+        return IndicatorCalculator.calculateEMA(prices, period);
+    }
+
+    @Benchmark
+    public List<BigDecimal> calculatorRsi() {
+        return IndicatorCalculator.calculateRSI(prices, period);
+    }
+
+    @Benchmark
+    public IndicatorCalculator.MACDResult calculatorMacd() {
+        return IndicatorCalculator.calculateMACD(prices, 12, 26, 9);
+    }
+
+    @Benchmark
+    public IndicatorCalculator.BollingerBandsResult calculatorBollinger() {
+        return IndicatorCalculator.calculateBollingerBands(prices, period, 2);
+    }
+
+    @Benchmark
+    public double[] kernelSma() {
+        IndicatorKernels.sma(closes, 0, length, period, out1);
+        return out1;
+    }
+
+    @Benchmark
+    public double[] kernelEma() {
+        IndicatorKernels.ema(closes, 0, length, period, out1);
+        return out1;
+    }
+
+    @Benchmark
+    public double[] kernelRsi() {
+        IndicatorKernels.rsi(closes, 0, length, period, out1);
+        return out1;
+    }
+
+    @Benchmark
+    public double[] kernelMacd() {
+        IndicatorKernels.macd(closes, 0, length, 12, 26, 9, out1, out2, out3);
+        return out3;
+    }
+
+    @Benchmark
+    public double[] kernelBollinger() {
+        IndicatorKernels.bollinger(closes, 0, length, period, 2, out1, out2, out3);
+        return out2;
+    }
+
+    /**
+     * 默认面板（MA5/10/20/60、MACD、RSI14、BOLL20）一次扫描，与 period 参数无关
+     */
+    @Benchmark
+    public IndicatorPanel fusedPanel() {
+        return FusedIndicatorKernel.compute(closes, 0, length, panel);
+    }
+}
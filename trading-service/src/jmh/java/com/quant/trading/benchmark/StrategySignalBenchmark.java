@@ -0,0 +1,96 @@
+package com.quant.trading.benchmark;
+
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.service.IndicatorCacheService;
+import com.quant.trading.strategy.MovingAverageCrossStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 双均线策略信号生成基准测试
+ * 参数在创建策略时编译一次，信号生成路径不做 JSON 解析；分别测量参数编译、指标缓存命中、
+ * 无日期序列（不走缓存）以及增量状态逐根推进几种路径
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategySignalBenchmark {
+
+    private static final String STOCK_CODE = "600519.SH";
+
+    @Param({"60", "1000", "100000"})
+    public int length;
+
+    /** 短期_长期均线周期，拼成 JSON 参数 */
+    @Param({"5_20", "20_60"})
+    public String periods;
+
+    private String parameters;
+    private MovingAverageCrossStrategy.Config config;
+    private MovingAverageCrossStrategy strategy;
+    private PriceSeries datedSeries;
+    private PriceSeries undatedSeries;
+    private MovingAverageCrossStrategy.CrossState state;
+    private double[] closes;
+    private BigDecimal lastPrice;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        strategy = new MovingAverageCrossStrategy(new IndicatorCacheService(new SimpleMeterRegistry()));
+        String[] pair = periods.split("_");
+        parameters = "{\"shortPeriod\":" + pair[0] + ",\"longPeriod\":" + pair[1] + "}";
+        config = strategy.compileParameters(parameters);
+
+        closes = BenchmarkData.closes(length, 7);
+        datedSeries = BenchmarkData.series(STOCK_CODE, closes, LocalDate.of(2024, 6, 28));
+        undatedSeries = PriceSeries.of(STOCK_CODE, closes, null);
+        lastPrice = datedSeries.lastPrice();
+
+        state = strategy.createState(config);
+        for (double close : closes) {
+            strategy.onBar(state, close);
+        }
+    }
+
+    @Benchmark
+    public MovingAverageCrossStrategy.Config compileParameters() {
+        return strategy.compileParameters(parameters);
+    }
+
+    @Benchmark
+    public StrategySignal generateSignalCached() {
+        return strategy.generateSignal(STOCK_CODE, datedSeries, config);
+    }
+
+    @Benchmark
+    public StrategySignal generateSignalUncached() {
+        return strategy.generateSignal(STOCK_CODE, undatedSeries, config);
+    }
+
+    @Benchmark
+    public StrategySignal incrementalBar() {
+        double close = closes[cursor];
+        cursor = cursor + 1 < closes.length ? cursor + 1 : 0;
+        strategy.onBar(state, close);
+        return strategy.evaluate(STOCK_CODE, state, lastPrice);
+    }
+}
@@ -0,0 +1,177 @@
+package com.quant.trading.backtest;
+
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.money.FixedPoint;
+import com.quant.trading.strategy.VectorizedStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 回测引擎
+ * 输入整段价格序列和由 {@link VectorizedStrategy} 一次性算出的逐根信号，单遍模拟成交：
+ * 空仓时遇买入信号以当根收盘价满仓买入（按手，100股一手），持仓时遇卖出信号全部卖出，
+ * 成交金额与手续费的舍入方式与 TradingService 相同。只做多，不加仓，不考虑滑点与停牌。
+ */
+public final class BacktestEngine {
+
+    /** 每手股数 */
+    public static final int LOT_SIZE = 100;
+
+    /** 每年交易日数 */
+    public static final int TRADING_DAYS_PER_YEAR = 252;
+
+    private BacktestEngine() {
+    }
+
+    /**
+     * 执行回测
+     *
+     * @param series         价格序列
+     * @param signals        逐根信号，长度不小于序列长度
+     * @param initialCash    初始资金（分）
+     * @param commissionRate 手续费率（定点费率）
+     */
+    public static BacktestResult run(PriceSeries series, byte[] signals, long initialCash, long commissionRate) {
+        return run(series, prices(series), signals, initialCash, commissionRate);
+    }
+
+    /**
+     * 执行回测，收盘价已转换为定点价格（同一序列反复回测时只转换一次）
+     *
+     * @param prices 由 {@link #prices(PriceSeries)} 得到的定点收盘价
+     */
+    public static BacktestResult run(PriceSeries series, long[] prices, byte[] signals, long initialCash,
+                                     long commissionRate) {
+        int n = series.length();
+        if (prices.length < n) {
+            throw new IllegalArgumentException("价格数组长度不足: " + prices.length + " < " + n);
+        }
+        if (signals.length < n) {
+            throw new IllegalArgumentException("信号数组长度不足: " + signals.length + " < " + n);
+        }
+        if (initialCash <= 0) {
+            throw new IllegalArgumentException("初始资金必须大于0");
+        }
+
+        long[] equity = new long[n];
+        List<BacktestTrade> trades = new ArrayList<>();
+        long cash = initialCash;
+        int quantity = 0;
+        long entryCost = 0;
+        long totalCommission = 0;
+        int roundTrips = 0;
+        int wins = 0;
+        int barsInMarket = 0;
+
+        for (int i = 0; i < n; i++) {
+            long price = prices[i];
+            byte signal = signals[i];
+
+            if (signal == VectorizedStrategy.BUY && quantity == 0 && price > 0) {
+                int buyQuantity = affordableQuantity(cash, price, commissionRate);
+                if (buyQuantity > 0) {
+                    long amount = FixedPoint.notional(price, buyQuantity);
+                    long commission = FixedPoint.fee(amount, commissionRate);
+                    cash -= amount + commission;
+                    quantity = buyQuantity;
+                    entryCost = amount + commission;
+                    totalCommission += commission;
+                    trades.add(new BacktestTrade(i, series.barDate(i), "BUY", price, buyQuantity, amount, commission, 0));
+                }
+            } else if (signal == VectorizedStrategy.SELL && quantity > 0) {
+                long amount = FixedPoint.notional(price, quantity);
+                long commission = FixedPoint.fee(amount, commissionRate);
+                long profit = amount - commission - entryCost;
+                cash += amount - commission;
+                totalCommission += commission;
+                roundTrips++;
+                if (profit > 0) {
+                    wins++;
+                }
+                trades.add(new BacktestTrade(i, series.barDate(i), "SELL", price, quantity, amount, commission, profit));
+                quantity = 0;
+                entryCost = 0;
+            }
+
+            if (quantity > 0) {
+                barsInMarket++;
+            }
+            equity[i] = quantity > 0 ? cash + FixedPoint.notional(price, quantity) : cash;
+        }
+
+        BacktestStats stats = statistics(equity, initialCash, trades.size(), roundTrips, wins,
+                totalCommission, barsInMarket);
+        return new BacktestResult(series, equity, signals, trades, stats);
+    }
+
+    /**
+     * 序列收盘价转为定点价格
+     */
+    public static long[] prices(PriceSeries series) {
+        long[] prices = new long[series.length()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = FixedPoint.toPrice(series.close(i));
+        }
+        return prices;
+    }
+
+    /**
+     * 资金允许买入的最大整手数量（含手续费）
+     */
+    static int affordableQuantity(long cash, long price, long commissionRate) {
+        long lotAmount = FixedPoint.notional(price, LOT_SIZE);
+        if (lotAmount <= 0) {
+            return 0;
+        }
+        long lots = Math.min(cash / lotAmount, Integer.MAX_VALUE / LOT_SIZE);
+        while (lots > 0) {
+            long amount = FixedPoint.notional(price, lots * LOT_SIZE);
+            if (amount + FixedPoint.fee(amount, commissionRate) <= cash) {
+                break;
+            }
+            lots--;
+        }
+        return (int) (lots * LOT_SIZE);
+    }
+
+    static BacktestStats statistics(long[] equity, long initialCash, int tradeCount, int roundTrips, int wins,
+                                    long totalCommission, int barsInMarket) {
+        int n = equity.length;
+        long finalEquity = n > 0 ? equity[n - 1] : initialCash;
+        double totalReturn = (double) finalEquity / initialCash - 1;
+
+        double cagr = 0;
+        if (n > 0) {
+            double years = (double) n / TRADING_DAYS_PER_YEAR;
+            cagr = finalEquity > 0 ? Math.pow((double) finalEquity / initialCash, 1 / years) - 1 : -1;
+        }
+
+        // 日收益的均值与方差（Welford），同时追踪回撤
+        double mean = 0;
+        double m2 = 0;
+        double peak = initialCash;
+        double maxDrawdown = 0;
+        double previous = initialCash;
+        for (int i = 0; i < n; i++) {
+            double value = equity[i];
+            double dailyReturn = previous > 0 ? value / previous - 1 : 0;
+            double delta = dailyReturn - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (dailyReturn - mean);
+            previous = value;
+
+            if (value > peak) {
+                peak = value;
+            } else if (peak > 0) {
+                maxDrawdown = Math.max(maxDrawdown, (peak - value) / peak);
+            }
+        }
+        double stdDev = n > 1 ? Math.sqrt(m2 / (n - 1)) : 0;
+        double sharpe = stdDev > 0 ? mean / stdDev * Math.sqrt(TRADING_DAYS_PER_YEAR) : 0;
+
+        return new BacktestStats(initialCash, finalEquity, totalReturn, cagr, sharpe, maxDrawdown, tradeCount,
+                roundTrips, roundTrips > 0 ? (double) wins / roundTrips : 0, totalCommission,
+                n > 0 ? (double) barsInMarket / n : 0);
+    }
+}
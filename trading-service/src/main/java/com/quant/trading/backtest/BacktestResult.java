@@ -0,0 +1,54 @@
+package com.quant.trading.backtest;
+
+import com.quant.trading.indicator.PriceSeries;
+
+import java.util.List;
+
+/**
+ * 回测结果：逐根K线的权益曲线、成交列表和统计指标
+ */
+public final class BacktestResult {
+
+    private final PriceSeries series;
+    private final long[] equity;
+    private final byte[] signals;
+    private final List<BacktestTrade> trades;
+    private final BacktestStats stats;
+
+    BacktestResult(PriceSeries series, long[] equity, byte[] signals, List<BacktestTrade> trades, BacktestStats stats) {
+        this.series = series;
+        this.equity = equity;
+        this.signals = signals;
+        this.trades = List.copyOf(trades);
+        this.stats = stats;
+    }
+
+    /**
+     * 回测使用的价格序列
+     */
+    public PriceSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * 每根K线收盘后的权益（分），与价格序列逐根对齐（只读）
+     */
+    public long[] getEquity() {
+        return equity;
+    }
+
+    /**
+     * 每根K线的策略信号（只读）
+     */
+    public byte[] getSignals() {
+        return signals;
+    }
+
+    public List<BacktestTrade> getTrades() {
+        return trades;
+    }
+
+    public BacktestStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,21 @@
+package com.quant.trading.backtest;
+
+/**
+ * 回测统计指标
+ *
+ * @param initialEquity   初始资金（分）
+ * @param finalEquity     期末权益（分，未平仓位按最后收盘价计）
+ * @param totalReturn     总收益率
+ * @param cagr            年化复合收益率（按每年 252 个交易日）
+ * @param sharpe          年化夏普比率（日收益，无风险利率取 0）
+ * @param maxDrawdown     最大回撤（相对前高的比例）
+ * @param tradeCount      成交笔数
+ * @param roundTrips      已平仓的完整交易轮数
+ * @param winRate         已平仓交易中盈利的比例
+ * @param totalCommission 手续费合计（分）
+ * @param exposure        持仓K线占全部K线的比例
+ */
+public record BacktestStats(long initialEquity, long finalEquity, double totalReturn, double cagr, double sharpe,
+                            double maxDrawdown, int tradeCount, int roundTrips, double winRate,
+                            long totalCommission, double exposure) {
+}
@@ -0,0 +1,19 @@
+package com.quant.trading.backtest;
+
+import java.time.LocalDate;
+
+/**
+ * 回测中的一笔模拟成交
+ *
+ * @param bar        成交所在K线下标
+ * @param date       成交日期，序列不带日期时为 null
+ * @param type       BUY / SELL
+ * @param price      成交价（定点价格，4位小数）
+ * @param quantity   成交数量（股）
+ * @param amount     成交金额（分）
+ * @param commission 手续费（分）
+ * @param profit     卖出时本轮交易的盈亏（分，含买卖两次手续费），买入为 0
+ */
+public record BacktestTrade(int bar, LocalDate date, String type, long price, int quantity,
+                            long amount, long commission, long profit) {
+}
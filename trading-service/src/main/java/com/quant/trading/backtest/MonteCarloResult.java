@@ -0,0 +1,56 @@
+package com.quant.trading.backtest;
+
+import java.util.Arrays;
+
+/**
+ * 蒙特卡洛重抽样结果：各指标在全部模拟路径上的分布
+ *
+ * @param paths           模拟路径数
+ * @param pathLength      每条路径的收益期数
+ * @param blockSize       块长度（1 表示逐期独立抽样）
+ * @param cagr            年化复合收益率分布
+ * @param maxDrawdown     最大回撤分布
+ * @param sharpe          年化夏普比率分布
+ * @param lossProbability 期末亏损（CAGR &lt; 0）的路径比例
+ */
+public record MonteCarloResult(int paths, int pathLength, int blockSize, Distribution cagr, Distribution maxDrawdown,
+                               Distribution sharpe, double lossProbability) {
+
+    /**
+     * 单个指标的分布摘要
+     */
+    public record Distribution(double mean, double stdDev, double p5, double p25, double p50, double p75,
+                               double p95) {
+
+        /**
+         * 由样本计算分布摘要（会对传入数组排序）
+         */
+        static Distribution of(double[] values) {
+            int n = values.length;
+            double mean = 0;
+            double m2 = 0;
+            for (int i = 0; i < n; i++) {
+                double delta = values[i] - mean;
+                mean += delta / (i + 1);
+                m2 += delta * (values[i] - mean);
+            }
+            Arrays.sort(values);
+            return new Distribution(mean, n > 1 ? Math.sqrt(m2 / (n - 1)) : 0,
+                    percentile(values, 0.05), percentile(values, 0.25), percentile(values, 0.50),
+                    percentile(values, 0.75), percentile(values, 0.95));
+        }
+
+        /**
+         * 已排序样本的分位数（线性插值）
+         */
+        private static double percentile(double[] sorted, double p) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            double rank = p * (sorted.length - 1);
+            int lower = (int) rank;
+            int upper = Math.min(lower + 1, sorted.length - 1);
+            return sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.quant.trading.backtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * 回测结果的蒙特卡洛稳健性分析
+ * 对收益序列做块自助重抽样（moving block bootstrap）：每条路径由随机起点的连续收益块拼接而成，
+ * 长度与原序列相同，块内保留原序列的自相关；块长度为 1 时退化为逐期独立抽样，用于逐笔交易收益的重抽样。
+ * 每条路径单遍计算 CAGR、最大回撤和夏普比率，不保存路径本身。
+ * 路径按固定数量分成任务，每个任务持有由根随机数发生器 split 出的独立 {@link SplittableRandom}，
+ * 任务之间不共享状态，同一种子的结果与执行线程数无关。
+ */
+public final class MonteCarloSimulator {
+
+    /**
+     * 重抽样对象
+     */
+    public enum Mode {
+        /** 日收益块自助重抽样 */
+        BLOCK_BOOTSTRAP,
+        /** 逐笔交易收益有放回重抽样 */
+        TRADE_RESAMPLE
+    }
+
+    /** 每个任务模拟的路径数 */
+    static final int PATHS_PER_TASK = 256;
+
+    private MonteCarloSimulator() {
+    }
+
+    /**
+     * 权益曲线的逐期简单收益，第一期相对初始资金，与 {@link BacktestStats} 的口径一致
+     */
+    public static double[] dailyReturns(long[] equity, long initialCash) {
+        double[] returns = new double[equity.length];
+        double previous = initialCash;
+        for (int i = 0; i < equity.length; i++) {
+            returns[i] = previous > 0 ? equity[i] / previous - 1 : 0;
+            previous = equity[i];
+        }
+        return returns;
+    }
+
+    /**
+     * 已平仓交易的逐笔收益率：本轮盈亏除以买入金额与买入手续费之和
+     * 单股回测每次满仓买入，逐笔收益率连乘即近似权益变化
+     */
+    public static double[] tradeReturns(List<BacktestTrade> trades) {
+        double[] returns = new double[trades.size() / 2];
+        int count = 0;
+        long entryCost = 0;
+        for (BacktestTrade trade : trades) {
+            if ("BUY".equals(trade.type())) {
+                entryCost = trade.amount() + trade.commission();
+            } else if (entryCost > 0) {
+                returns[count++] = (double) trade.profit() / entryCost;
+                entryCost = 0;
+            }
+        }
+        return count == returns.length ? returns : Arrays.copyOf(returns, count);
+    }
+
+    /**
+     * 执行重抽样
+     *
+     * @param returns        原始收益序列
+     * @param periodsPerYear 每年收益期数，用于年化
+     * @param paths          模拟路径数
+     * @param blockSize      块长度，超过序列长度时按序列长度
+     * @param seed           随机种子
+     * @param parallel       执行一组任务并等待全部完成，例如提交到线程池；传入顺序执行也可以
+     */
+    public static MonteCarloResult run(double[] returns, double periodsPerYear, int paths, int blockSize, long seed,
+                                       Consumer<List<Runnable>> parallel) {
+        int n = returns.length;
+        if (n < 2) {
+            throw new IllegalArgumentException("收益序列至少需要2期: " + n);
+        }
+        if (paths < 1) {
+            throw new IllegalArgumentException("路径数必须大于0: " + paths);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("块长度必须大于0: " + blockSize);
+        }
+        if (!(periodsPerYear > 0)) {
+            throw new IllegalArgumentException("每年收益期数必须大于0: " + periodsPerYear);
+        }
+        int block = Math.min(blockSize, n);
+
+        double[] cagr = new double[paths];
+        double[] maxDrawdown = new double[paths];
+        double[] sharpe = new double[paths];
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Runnable> tasks = new ArrayList<>((paths + PATHS_PER_TASK - 1) / PATHS_PER_TASK);
+        for (int from = 0; from < paths; from += PATHS_PER_TASK) {
+            int start = from;
+            int end = Math.min(paths, from + PATHS_PER_TASK);
+            SplittableRandom random = root.split();
+            tasks.add(() -> {
+                for (int p = start; p < end; p++) {
+                    simulatePath(returns, periodsPerYear, block, random, p, cagr, maxDrawdown, sharpe);
+                }
+            });
+        }
+        parallel.accept(tasks);
+
+        int losses = 0;
+        for (double value : cagr) {
+            if (value < 0) {
+                losses++;
+            }
+        }
+        return new MonteCarloResult(paths, n, block, MonteCarloResult.Distribution.of(cagr),
+                MonteCarloResult.Distribution.of(maxDrawdown), MonteCarloResult.Distribution.of(sharpe),
+                (double) losses / paths);
+    }
+
+    /**
+     * 生成一条路径并把指标写入第 p 个位置
+     */
+    private static void simulatePath(double[] returns, double periodsPerYear, int block, SplittableRandom random,
+                                     int p, double[] cagr, double[] maxDrawdown, double[] sharpe) {
+        int n = returns.length;
+        int startBound = n - block + 1;
+        double equity = 1;
+        double peak = 1;
+        double drawdown = 0;
+        double mean = 0;
+        double m2 = 0;
+        int i = 0;
+        while (i < n) {
+            int from = random.nextInt(startBound);
+            int length = Math.min(block, n - i);
+            for (int k = 0; k < length; k++, i++) {
+                double r = returns[from + k];
+                double delta = r - mean;
+                mean += delta / (i + 1);
+                m2 += delta * (r - mean);
+
+                equity *= 1 + r;
+                if (equity > peak) {
+                    peak = equity;
+                } else {
+                    drawdown = Math.max(drawdown, (peak - equity) / peak);
+                }
+            }
+        }
+        double stdDev = Math.sqrt(m2 / (n - 1));
+        cagr[p] = equity > 0 ? Math.pow(equity, periodsPerYear / n) - 1 : -1;
+        maxDrawdown[p] = drawdown;
+        sharpe[p] = stdDev > 0 ? mean / stdDev * Math.sqrt(periodsPerYear) : 0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.quant.trading.backtest;
+
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.money.FixedPoint;
+import com.quant.trading.strategy.VectorizedStrategy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 组合回测引擎
+ * 多只股票的日线按交易日合并成共同的日历，逐日推进：先用当日收盘价更新各股持仓市值，
+ * 再执行当日的卖出信号回笼资金，最后按输入顺序执行买入信号。每只股票的买入金额不超过
+ * 当日组合权益乘以单仓位比例上限，且不超过剩余现金；某只股票当日没有K线（停牌或未上市）时沿用上一个收盘价。
+ * 每只股票的游标、持仓、成本和市值都放在原始类型数组里，逐日循环中不分配对象。
+ * 成交规则（整手、只做多、不加仓、手续费舍入）与 {@link BacktestEngine} 相同。
+ */
+public final class PortfolioBacktestEngine {
+
+    private PortfolioBacktestEngine() {
+    }
+
+    /**
+     * 执行组合回测
+     *
+     * @param series           各股票的价格序列（必须带日期）
+     * @param signals          各股票的逐根信号，与 series 一一对应
+     * @param initialCash      初始资金（分）
+     * @param commissionRate   手续费率（定点费率）
+     * @param maxPositionRatio 单只股票买入金额占组合权益的比例上限，(0, 1]
+     */
+    public static PortfolioResult run(List<PriceSeries> series, byte[][] signals, long initialCash,
+                                      long commissionRate, double maxPositionRatio) {
+        int symbols = series.size();
+        if (signals.length != symbols) {
+            throw new IllegalArgumentException("信号数组数量与价格序列不一致: " + signals.length + " != " + symbols);
+        }
+        if (initialCash <= 0) {
+            throw new IllegalArgumentException("初始资金必须大于0");
+        }
+        if (!(maxPositionRatio > 0 && maxPositionRatio <= 1)) {
+            throw new IllegalArgumentException("单仓位比例上限必须在 (0, 1] 之间: " + maxPositionRatio);
+        }
+
+        List<String> stockCodes = new ArrayList<>(symbols);
+        int[] lengths = new int[symbols];
+        long[][] prices = new long[symbols][];
+        for (int s = 0; s < symbols; s++) {
+            PriceSeries one = series.get(s);
+            if (one.length() > 0 && !one.hasDates()) {
+                throw new IllegalArgumentException("价格序列不带日期: " + one.getStockCode());
+            }
+            if (signals[s].length < one.length()) {
+                throw new IllegalArgumentException("信号数组长度不足: " + one.getStockCode());
+            }
+            stockCodes.add(one.getStockCode());
+            lengths[s] = one.length();
+            prices[s] = BacktestEngine.prices(one);
+        }
+        int[] calendar = calendar(series);
+
+        // 逐股状态
+        int[] cursor = new int[symbols];
+        int[] quantity = new int[symbols];
+        long[] entryCost = new long[symbols];
+        long[] marketValue = new long[symbols];
+        long[] lastPrice = new long[symbols];
+        long[] symbolProfit = new long[symbols];
+        int[] symbolRoundTrips = new int[symbols];
+        // 当日待执行的买卖，按股票下标
+        int[] sells = new int[symbols];
+        int[] buys = new int[symbols];
+
+        int n = calendar.length;
+        long[] equity = new long[n];
+        long[] cashCurve = new long[n];
+        List<PortfolioTrade> trades = new ArrayList<>();
+        long cash = initialCash;
+        long positionsValue = 0;
+        long totalCommission = 0;
+        int roundTrips = 0;
+        int wins = 0;
+        int daysInMarket = 0;
+
+        for (int t = 0; t < n; t++) {
+            int day = calendar[t];
+            int sellCount = 0;
+            int buyCount = 0;
+
+            for (int s = 0; s < symbols; s++) {
+                int c = cursor[s];
+                if (c >= lengths[s] || series.get(s).epochDay(c) != day) {
+                    continue;
+                }
+                cursor[s] = c + 1;
+                long price = prices[s][c];
+                lastPrice[s] = price;
+                if (quantity[s] > 0) {
+                    long value = FixedPoint.notional(price, quantity[s]);
+                    positionsValue += value - marketValue[s];
+                    marketValue[s] = value;
+                    if (signals[s][c] == VectorizedStrategy.SELL) {
+                        sells[sellCount++] = s;
+                    }
+                } else if (signals[s][c] == VectorizedStrategy.BUY && price > 0) {
+                    buys[buyCount++] = s;
+                }
+            }
+
+            LocalDate date = sellCount + buyCount > 0 ? LocalDate.ofEpochDay(day) : null;
+            for (int k = 0; k < sellCount; k++) {
+                int s = sells[k];
+                long amount = marketValue[s];
+                long commission = FixedPoint.fee(amount, commissionRate);
+                long profit = amount - commission - entryCost[s];
+                cash += amount - commission;
+                positionsValue -= amount;
+                totalCommission += commission;
+                roundTrips++;
+                if (profit > 0) {
+                    wins++;
+                }
+                symbolProfit[s] += profit;
+                symbolRoundTrips[s]++;
+                trades.add(new PortfolioTrade(stockCodes.get(s), date, "SELL", lastPrice[s], quantity[s], amount,
+                        commission, profit));
+                quantity[s] = 0;
+                entryCost[s] = 0;
+                marketValue[s] = 0;
+            }
+
+            // 卖出后的权益决定当日每只股票的买入额度，同一天内先买的不影响后买的额度
+            long positionLimit = (long) ((cash + positionsValue) * maxPositionRatio);
+            for (int k = 0; k < buyCount && cash > 0; k++) {
+                int s = buys[k];
+                long price = lastPrice[s];
+                int buyQuantity = BacktestEngine.affordableQuantity(Math.min(cash, positionLimit), price,
+                        commissionRate);
+                if (buyQuantity <= 0) {
+                    continue;
+                }
+                long amount = FixedPoint.notional(price, buyQuantity);
+                long commission = FixedPoint.fee(amount, commissionRate);
+                cash -= amount + commission;
+                positionsValue += amount;
+                totalCommission += commission;
+                quantity[s] = buyQuantity;
+                entryCost[s] = amount + commission;
+                marketValue[s] = amount;
+                trades.add(new PortfolioTrade(stockCodes.get(s), date, "BUY", price, buyQuantity, amount,
+                        commission, 0));
+            }
+
+            if (positionsValue > 0) {
+                daysInMarket++;
+            }
+            cashCurve[t] = cash;
+            equity[t] = cash + positionsValue;
+        }
+
+        BacktestStats stats = BacktestEngine.statistics(equity, initialCash, trades.size(), roundTrips, wins,
+                totalCommission, daysInMarket);
+        return new PortfolioResult(stockCodes, calendar, equity, cashCurve, trades, stats, symbolProfit,
+                symbolRoundTrips);
+    }
+
+    /**
+     * 所有序列交易日的并集，升序
+     */
+    private static int[] calendar(List<PriceSeries> series) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (PriceSeries one : series) {
+            if (one.length() > 0) {
+                min = Math.min(min, one.epochDay(0));
+                max = Math.max(max, one.epochDay(one.length() - 1));
+            }
+        }
+        if (min > max) {
+            return new int[0];
+        }
+
+        boolean[] present = new boolean[max - min + 1];
+        int count = 0;
+        for (PriceSeries one : series) {
+            for (int i = 0; i < one.length(); i++) {
+                int offset = one.epochDay(i) - min;
+                if (!present[offset]) {
+                    present[offset] = true;
+                    count++;
+                }
+            }
+        }
+
+        int[] days = new int[count];
+        int k = 0;
+        for (int offset = 0; offset < present.length; offset++) {
+            if (present[offset]) {
+                days[k++] = min + offset;
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,88 @@
+package com.quant.trading.backtest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 组合回测结果：共同交易日历上的权益曲线、成交列表、统计指标和逐股汇总
+ */
+public final class PortfolioResult {
+
+    private final List<String> stockCodes;
+    private final int[] epochDays;
+    private final long[] equity;
+    private final long[] cash;
+    private final List<PortfolioTrade> trades;
+    private final BacktestStats stats;
+    private final long[] symbolProfit;
+    private final int[] symbolRoundTrips;
+
+    PortfolioResult(List<String> stockCodes, int[] epochDays, long[] equity, long[] cash, List<PortfolioTrade> trades,
+                    BacktestStats stats, long[] symbolProfit, int[] symbolRoundTrips) {
+        this.stockCodes = List.copyOf(stockCodes);
+        this.epochDays = epochDays;
+        this.equity = equity;
+        this.cash = cash;
+        this.trades = List.copyOf(trades);
+        this.stats = stats;
+        this.symbolProfit = symbolProfit;
+        this.symbolRoundTrips = symbolRoundTrips;
+    }
+
+    /**
+     * 参与回测的股票，顺序与逐股汇总数组一致
+     */
+    public List<String> getStockCodes() {
+        return stockCodes;
+    }
+
+    /**
+     * 交易日数
+     */
+    public int length() {
+        return epochDays.length;
+    }
+
+    /**
+     * 第 i 个交易日
+     */
+    public LocalDate date(int i) {
+        return LocalDate.ofEpochDay(epochDays[i]);
+    }
+
+    /**
+     * 每个交易日收盘后的权益（分，只读）
+     */
+    public long[] getEquity() {
+        return equity;
+    }
+
+    /**
+     * 每个交易日收盘后的现金（分，只读）
+     */
+    public long[] getCash() {
+        return cash;
+    }
+
+    public List<PortfolioTrade> getTrades() {
+        return trades;
+    }
+
+    public BacktestStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 各股票已实现盈亏（分，只读）；回测结束时仍持有的部分不计入
+     */
+    public long[] getSymbolProfit() {
+        return symbolProfit;
+    }
+
+    /**
+     * 各股票完成的买卖轮数（只读）
+     */
+    public int[] getSymbolRoundTrips() {
+        return symbolRoundTrips;
+    }
+}
@@ -0,0 +1,372 @@
+package com.quant.trading.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.trading.backtest.BacktestResult;
+import com.quant.trading.backtest.BacktestStats;
+import com.quant.trading.backtest.BacktestTrade;
+import com.quant.trading.backtest.MonteCarloResult;
+import com.quant.trading.backtest.MonteCarloSimulator;
+import com.quant.trading.backtest.PortfolioResult;
+import com.quant.trading.backtest.PortfolioTrade;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.money.FixedPoint;
+import com.quant.trading.service.BacktestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回测控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/backtest")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class BacktestController {
+
+    /** 默认回测10年日线 */
+    private static final int DEFAULT_DAYS = 2520;
+    private static final BigDecimal DEFAULT_CAPITAL = BigDecimal.valueOf(1000000);
+    /** 与用户风控设置的默认最大单仓位比例一致 */
+    private static final BigDecimal DEFAULT_MAX_POSITION_RATIO = new BigDecimal("0.20");
+    /** 组合回测响应中最多返回的成交笔数（取最近的），统计指标不受影响 */
+    private static final int MAX_PORTFOLIO_TRADES = 5000;
+    private static final int DEFAULT_MONTE_CARLO_PATHS = 10_000;
+    /** 默认块长度约一个月的交易日 */
+    private static final int DEFAULT_BLOCK_SIZE = 20;
+
+    private final BacktestService backtestService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 执行回测
+     * POST /api/backtest/run
+     * Body: {"strategyId": 1, "stockCode": "600519.SH", "days": 2520, "initialCapital": 1000000}
+     * 或 {"type": "MA_CROSS", "parameters": {"shortPeriod": 5, "longPeriod": 20}, "stockCode": "600519.SH"}
+     */
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> run(@RequestBody Map<String, Object> request) {
+        try {
+            BacktestResult result = runSingle(request);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("stockCode", request.get("stockCode"));
+            response.putAll(toRange(days(request), result.getSeries()));
+            response.put("stats", toStats(result.getStats()));
+            response.put("trades", toTrades(result.getTrades()));
+            response.put("dates", toDates(result.getSeries()));
+            response.put("equity", toMoneyList(result.getEquity()));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException | ClassCastException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "回测参数无效: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("回测失败: {}", request, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "回测失败: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * 执行组合回测
+     * POST /api/backtest/portfolio
+     * Body: {"strategyId": 1, "stockCodes": ["600519.SH", "000001.SZ"], "days": 2520,
+     *        "initialCapital": 1000000, "maxPositionRatio": 0.2}
+     * 或 {"type": "MA_CROSS", "parameters": {...}, "stockCodes": [...]}
+     */
+    @PostMapping("/portfolio")
+    public ResponseEntity<Map<String, Object>> portfolio(@RequestBody Map<String, Object> request) {
+        try {
+            PortfolioResult result = runPortfolio(request);
+
+            List<PortfolioTrade> trades = result.getTrades();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("maxPositionRatio", maxPositionRatio(request));
+            response.putAll(toRange(days(request), result));
+            response.put("stats", toStats(result.getStats()));
+            response.put("symbols", toSymbolSummaries(result));
+            response.put("trades", toPortfolioTrades(
+                trades.subList(Math.max(0, trades.size() - MAX_PORTFOLIO_TRADES), trades.size())));
+            response.put("tradesTruncated", trades.size() > MAX_PORTFOLIO_TRADES);
+            response.put("dates", toDates(result));
+            response.put("equity", toMoneyList(result.getEquity()));
+            response.put("cash", toMoneyList(result.getCash()));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException | ClassCastException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "回测参数无效: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("组合回测失败: {}", request.get("stockCodes"), e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "组合回测失败: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * 回测结果的蒙特卡洛稳健性分析
+     * POST /api/backtest/monte-carlo
+     * Body: 与 /run 相同（带 stockCodes 时与 /portfolio 相同），另加
+     *       {"mode": "BLOCK_BOOTSTRAP", "paths": 10000, "blockSize": 20, "seed": 42}
+     * mode 为 TRADE_RESAMPLE 时按逐笔交易收益重抽样，仅支持单股回测
+     */
+    @PostMapping("/monte-carlo")
+    public ResponseEntity<Map<String, Object>> monteCarlo(@RequestBody Map<String, Object> request) {
+        try {
+            MonteCarloSimulator.Mode mode = request.get("mode") != null
+                ? MonteCarloSimulator.Mode.valueOf(request.get("mode").toString().toUpperCase())
+                : MonteCarloSimulator.Mode.BLOCK_BOOTSTRAP;
+            int paths = request.get("paths") != null
+                ? ((Number) request.get("paths")).intValue() : DEFAULT_MONTE_CARLO_PATHS;
+            int blockSize = request.get("blockSize") != null
+                ? ((Number) request.get("blockSize")).intValue() : DEFAULT_BLOCK_SIZE;
+            long seed = request.get("seed") != null
+                ? ((Number) request.get("seed")).longValue() : System.nanoTime();
+
+            BacktestStats stats;
+            Map<String, Object> range;
+            MonteCarloResult result;
+            if (request.get("stockCodes") != null) {
+                PortfolioResult portfolio = runPortfolio(request);
+                stats = portfolio.getStats();
+                range = toRange(days(request), portfolio);
+                result = backtestService.monteCarlo(portfolio, mode, paths, blockSize, seed);
+            } else {
+                BacktestResult single = runSingle(request);
+                stats = single.getStats();
+                range = toRange(days(request), single.getSeries());
+                result = backtestService.monteCarlo(single, mode, paths, blockSize, seed);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.putAll(range);
+            response.put("mode", mode.name());
+            response.put("seed", seed);
+            response.put("stats", toStats(stats));
+            response.put("monteCarlo", toMonteCarlo(result));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException | ClassCastException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "回测参数无效: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("蒙特卡洛分析失败: {}", request, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "蒙特卡洛分析失败: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    private BacktestResult runSingle(Map<String, Object> request) throws JsonProcessingException {
+        String stockCode = (String) request.get("stockCode");
+        int days = days(request);
+        BigDecimal initialCapital = initialCapital(request);
+        if (request.get("strategyId") != null) {
+            Long strategyId = ((Number) request.get("strategyId")).longValue();
+            return backtestService.backtest(strategyId, stockCode, days, initialCapital);
+        }
+        String parameters = request.get("parameters") != null ? toParametersJson(request.get("parameters")) : "{}";
+        return backtestService.backtest((String) request.get("type"), parameters, stockCode, days, initialCapital);
+    }
+
+    private PortfolioResult runPortfolio(Map<String, Object> request) throws JsonProcessingException {
+        @SuppressWarnings("unchecked")
+        List<String> stockCodes = (List<String>) request.get("stockCodes");
+        int days = days(request);
+        BigDecimal initialCapital = initialCapital(request);
+        BigDecimal maxPositionRatio = maxPositionRatio(request);
+        if (request.get("strategyId") != null) {
+            Long strategyId = ((Number) request.get("strategyId")).longValue();
+            return backtestService.backtestPortfolio(strategyId, stockCodes, days, initialCapital, maxPositionRatio);
+        }
+        String parameters = request.get("parameters") != null ? toParametersJson(request.get("parameters")) : "{}";
+        return backtestService.backtestPortfolio((String) request.get("type"), parameters, stockCodes, days,
+            initialCapital, maxPositionRatio);
+    }
+
+    /**
+     * 实际使用的K线数与日期范围；行情源只保留约一年日线，bars 可能少于 requestedDays
+     */
+    private static Map<String, Object> toRange(int requestedDays, PriceSeries series) {
+        Map<String, Object> range = new LinkedHashMap<>();
+        range.put("requestedDays", requestedDays);
+        range.put("bars", series.length());
+        range.put("startDate", series.length() > 0 ? String.valueOf(series.barDate(0)) : null);
+        range.put("endDate", series.length() > 0 ? String.valueOf(series.lastBarDate()) : null);
+        return range;
+    }
+
+    private static Map<String, Object> toRange(int requestedDays, PortfolioResult result) {
+        Map<String, Object> range = new LinkedHashMap<>();
+        range.put("requestedDays", requestedDays);
+        range.put("bars", result.length());
+        range.put("startDate", result.length() > 0 ? result.date(0).toString() : null);
+        range.put("endDate", result.length() > 0 ? result.date(result.length() - 1).toString() : null);
+        return range;
+    }
+
+    private static int days(Map<String, Object> request) {
+        return request.get("days") != null ? ((Number) request.get("days")).intValue() : DEFAULT_DAYS;
+    }
+
+    private static BigDecimal initialCapital(Map<String, Object> request) {
+        return request.get("initialCapital") != null
+            ? new BigDecimal(request.get("initialCapital").toString()) : DEFAULT_CAPITAL;
+    }
+
+    private static BigDecimal maxPositionRatio(Map<String, Object> request) {
+        return request.get("maxPositionRatio") != null
+            ? new BigDecimal(request.get("maxPositionRatio").toString()) : DEFAULT_MAX_POSITION_RATIO;
+    }
+
+    private static Map<String, Object> toMonteCarlo(MonteCarloResult result) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("paths", result.paths());
+        item.put("pathLength", result.pathLength());
+        item.put("blockSize", result.blockSize());
+        item.put("cagr", toDistribution(result.cagr()));
+        item.put("maxDrawdown", toDistribution(result.maxDrawdown()));
+        item.put("sharpe", toDistribution(result.sharpe()));
+        item.put("lossProbability", ratio(result.lossProbability()));
+        return item;
+    }
+
+    private static Map<String, Object> toDistribution(MonteCarloResult.Distribution distribution) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("mean", ratio(distribution.mean()));
+        item.put("stdDev", ratio(distribution.stdDev()));
+        item.put("p5", ratio(distribution.p5()));
+        item.put("p25", ratio(distribution.p25()));
+        item.put("p50", ratio(distribution.p50()));
+        item.put("p75", ratio(distribution.p75()));
+        item.put("p95", ratio(distribution.p95()));
+        return item;
+    }
+
+    private static Map<String, Object> toStats(BacktestStats stats) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("initialEquity", FixedPoint.moneyToDecimal(stats.initialEquity()));
+        result.put("finalEquity", FixedPoint.moneyToDecimal(stats.finalEquity()));
+        result.put("totalReturn", ratio(stats.totalReturn()));
+        result.put("cagr", ratio(stats.cagr()));
+        result.put("sharpe", ratio(stats.sharpe()));
+        result.put("maxDrawdown", ratio(stats.maxDrawdown()));
+        result.put("tradeCount", stats.tradeCount());
+        result.put("roundTrips", stats.roundTrips());
+        result.put("winRate", ratio(stats.winRate()));
+        result.put("totalCommission", FixedPoint.moneyToDecimal(stats.totalCommission()));
+        result.put("exposure", ratio(stats.exposure()));
+        return result;
+    }
+
+    private static List<Map<String, Object>> toTrades(List<BacktestTrade> trades) {
+        List<Map<String, Object>> result = new ArrayList<>(trades.size());
+        for (BacktestTrade trade : trades) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("date", trade.date() != null ? trade.date().toString() : null);
+            item.put("type", trade.type());
+            item.put("price", FixedPoint.priceToDecimal(trade.price()));
+            item.put("quantity", trade.quantity());
+            item.put("amount", FixedPoint.moneyToDecimal(trade.amount()));
+            item.put("commission", FixedPoint.moneyToDecimal(trade.commission()));
+            if ("SELL".equals(trade.type())) {
+                item.put("profit", FixedPoint.moneyToDecimal(trade.profit()));
+            }
+            result.add(item);
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> toPortfolioTrades(List<PortfolioTrade> trades) {
+        List<Map<String, Object>> result = new ArrayList<>(trades.size());
+        for (PortfolioTrade trade : trades) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("stockCode", trade.stockCode());
+            item.put("date", trade.date().toString());
+            item.put("type", trade.type());
+            item.put("price", FixedPoint.priceToDecimal(trade.price()));
+            item.put("quantity", trade.quantity());
+            item.put("amount", FixedPoint.moneyToDecimal(trade.amount()));
+            item.put("commission", FixedPoint.moneyToDecimal(trade.commission()));
+            if ("SELL".equals(trade.type())) {
+                item.put("profit", FixedPoint.moneyToDecimal(trade.profit()));
+            }
+            result.add(item);
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> toSymbolSummaries(PortfolioResult result) {
+        List<String> stockCodes = result.getStockCodes();
+        List<Map<String, Object>> summaries = new ArrayList<>(stockCodes.size());
+        for (int i = 0; i < stockCodes.size(); i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("stockCode", stockCodes.get(i));
+            item.put("roundTrips", result.getSymbolRoundTrips()[i]);
+            item.put("realizedProfit", FixedPoint.moneyToDecimal(result.getSymbolProfit()[i]));
+            summaries.add(item);
+        }
+        return summaries;
+    }
+
+    private static List<String> toDates(PortfolioResult result) {
+        List<String> dates = new ArrayList<>(result.length());
+        for (int i = 0; i < result.length(); i++) {
+            dates.add(result.date(i).toString());
+        }
+        return dates;
+    }
+
+    private static List<String> toDates(PriceSeries series) {
+        List<String> dates = new ArrayList<>(series.length());
+        for (int i = 0; i < series.length(); i++) {
+            dates.add(String.valueOf(series.barDate(i)));
+        }
+        return dates;
+    }
+
+    private static List<BigDecimal> toMoneyList(long[] values) {
+        List<BigDecimal> result = new ArrayList<>(values.length);
+        for (long value : values) {
+            result.add(FixedPoint.moneyToDecimal(value));
+        }
+        return result;
+    }
+
+    /**
+     * 比例保留6位小数；非有限值（如样本不足）输出为 null
+     */
+    private static BigDecimal ratio(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP) : null;
+    }
+
+    private String toParametersJson(Object parameters) throws JsonProcessingException {
+        return parameters instanceof String text ? text : objectMapper.writeValueAsString(parameters);
+    }
+}
@@ -0,0 +1,106 @@
+package com.quant.trading.controller;
+
+import com.quant.trading.indicator.FusedIndicatorKernel;
+import com.quant.trading.indicator.IndicatorPanel;
+import com.quant.trading.indicator.IndicatorSpec;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.service.PriceHistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 技术指标控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/indicator")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class IndicatorController {
+
+    private static final int MAX_DAYS = 5000;
+
+    /** 单次请求的指标数上限：每个指标要分配 1-3 个 days 长度的数组 */
+    private static final int MAX_INDICATORS = 32;
+
+    private final PriceHistoryService priceHistoryService;
+
+    /**
+     * 获取股票的指标面板（一次扫描计算全部指标）
+     * GET /api/indicator/{stockCode}/panel?indicators=MA5,MA20,MACD12_26_9,RSI14,BOLL20_2&days=120
+     * 不传 indicators 时返回 MA5/10/20/60、MACD、RSI14、BOLL20_2
+     */
+    @GetMapping("/{stockCode}/panel")
+    public ResponseEntity<Map<String, Object>> getPanel(
+            @PathVariable String stockCode,
+            @RequestParam(required = false) List<String> indicators,
+            @RequestParam(defaultValue = "120") int days) {
+        try {
+            if (days < 1 || days > MAX_DAYS) {
+                throw new IllegalArgumentException("days 必须在 1-" + MAX_DAYS + " 之间");
+            }
+            List<IndicatorSpec> specs = new ArrayList<>();
+            if (indicators == null || indicators.isEmpty()) {
+                specs.addAll(IndicatorSpec.defaultPanel());
+            } else {
+                if (indicators.size() > MAX_INDICATORS) {
+                    throw new IllegalArgumentException("单次最多计算 " + MAX_INDICATORS + " 个指标");
+                }
+                for (String indicator : indicators) {
+                    specs.add(IndicatorSpec.parse(indicator));
+                }
+            }
+
+            PriceSeries series = priceHistoryService.getHistoricalPrices(stockCode, days);
+            IndicatorPanel panel = FusedIndicatorKernel.compute(series, specs);
+
+            List<String> dates = new ArrayList<>(series.length());
+            for (int i = 0; i < series.length(); i++) {
+                dates.add(String.valueOf(series.barDate(i)));
+            }
+            Map<String, List<BigDecimal>> columns = new LinkedHashMap<>();
+            panel.columns().forEach((name, values) -> columns.put(name, toDecimals(values)));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("stockCode", stockCode);
+            response.put("dates", dates);
+            response.put("close", series.toDecimalList());
+            response.put("indicators", columns);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("计算指标面板失败: {}", stockCode, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "计算指标面板失败: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * 数据不足的位置（NaN）输出为 null，其余保留4位小数
+     */
+    private static List<BigDecimal> toDecimals(double[] values) {
+        List<BigDecimal> result = new ArrayList<>(values.length);
+        for (double value : values) {
+            result.add(Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP));
+        }
+        return result;
+    }
+}
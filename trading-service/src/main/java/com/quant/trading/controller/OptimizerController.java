@@ -0,0 +1,266 @@
+package com.quant.trading.controller;
+
+import com.quant.trading.optimize.CandidateResult;
+import com.quant.trading.optimize.Objective;
+import com.quant.trading.optimize.OptimizationJob;
+import com.quant.trading.optimize.OptimizationProgress;
+import com.quant.trading.optimize.OptimizationRequest;
+import com.quant.trading.optimize.ParameterRange;
+import com.quant.trading.optimize.SearchMethod;
+import com.quant.trading.service.OptimizerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 策略参数寻优控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/optimizer")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class OptimizerController {
+
+    private static final int DEFAULT_DAYS = 500;
+    private static final int DEFAULT_SAMPLES = 200;
+    private static final int DEFAULT_TOP_K = 10;
+    private static final BigDecimal DEFAULT_CAPITAL = BigDecimal.valueOf(1000000);
+
+    /** 进度推送连接的超时时间 */
+    private static final long SSE_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final OptimizerService optimizerService;
+
+    /**
+     * 提交寻优任务
+     * POST /api/optimizer/jobs
+     * Body: {"type": "MA_CROSS", "stockCodes": ["600519.SH", "000001.SZ"], "days": 500,
+     *        "ranges": {"shortPeriod": {"min": 2, "max": 30, "step": 1}, "longPeriod": {"min": 10, "max": 120, "step": 5}},
+     *        "method": "GRID", "objective": "SHARPE", "topK": 10}
+     * 随机搜索：method=RANDOM，samples 为组合数，seed 可选；baseParameters 为不参与寻优的固定参数
+     */
+    @PostMapping("/jobs")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Map<String, Object>> submit(@RequestBody Map<String, Object> request) {
+        try {
+            List<ParameterRange> ranges = new ArrayList<>();
+            Object rangeSpec = request.get("ranges");
+            if (!(rangeSpec instanceof Map<?, ?> rangeMap)) {
+                throw new IllegalArgumentException("ranges 必须是对象，如 {\"shortPeriod\": {\"min\": 2, \"max\": 30, \"step\": 1}}");
+            }
+            for (Map.Entry<?, ?> entry : rangeMap.entrySet()) {
+                if (!(entry.getValue() instanceof Map<?, ?> range)) {
+                    throw new IllegalArgumentException(entry.getKey() + " 的范围必须是对象");
+                }
+                ranges.add(new ParameterRange(String.valueOf(entry.getKey()), number(range, "min", null),
+                    number(range, "max", null), number(range, "step", 1.0)));
+            }
+
+            OptimizationRequest optimization = new OptimizationRequest(
+                (String) request.get("type"),
+                request.get("baseParameters") instanceof Map<?, ?> base ? (Map<String, Object>) base : Map.of(),
+                ranges,
+                request.get("stockCodes") != null ? (List<String>) request.get("stockCodes") : List.of(),
+                request.get("days") != null ? ((Number) request.get("days")).intValue() : DEFAULT_DAYS,
+                SearchMethod.parse((String) request.get("method")),
+                request.get("samples") != null ? ((Number) request.get("samples")).intValue() : DEFAULT_SAMPLES,
+                request.get("seed") != null ? ((Number) request.get("seed")).longValue() : System.nanoTime(),
+                Objective.parse((String) request.get("objective")),
+                request.get("topK") != null ? ((Number) request.get("topK")).intValue() : DEFAULT_TOP_K,
+                request.get("initialCapital") != null
+                    ? new BigDecimal(request.get("initialCapital").toString()) : DEFAULT_CAPITAL);
+
+            OptimizationJob job = optimizerService.submit(optimization);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "寻优任务已提交");
+            response.put("job", toSummary(job));
+            return ResponseEntity.accepted().body(response);
+
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return error(HttpStatus.BAD_REQUEST, "寻优参数无效: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("提交寻优任务失败", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "提交寻优任务失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 任务列表
+     * GET /api/optimizer/jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> list() {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (OptimizationJob job : optimizerService.getJobs()) {
+            jobs.add(toSummary(job));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("jobs", jobs);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 任务进度与结果
+     * GET /api/optimizer/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> get(@PathVariable String jobId) {
+        Optional<OptimizationJob> job = optimizerService.getJob(jobId);
+        if (job.isEmpty()) {
+            return error(HttpStatus.NOT_FOUND, "寻优任务不存在: " + jobId);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("job", toSummary(job.get()));
+        response.put("results", toResults(job.get().getResults()));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 订阅任务进度（Server-Sent Events）
+     * GET /api/optimizer/jobs/{jobId}/events
+     * 运行中推送 progress 事件（至多每 200ms 一次及每只股票完成时），结束时推送 done 事件并关闭连接
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String jobId) {
+        OptimizationJob job = optimizerService.getJob(jobId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "寻优任务不存在: " + jobId));
+
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        Consumer<OptimizationProgress> listener = new Consumer<>() {
+            @Override
+            public void accept(OptimizationProgress progress) {
+                try {
+                    emitter.send(SseEmitter.event()
+                        .name(progress.isFinished() ? "done" : "progress")
+                        .data(toProgress(progress), MediaType.APPLICATION_JSON));
+                    if (progress.isFinished()) {
+                        emitter.complete();
+                    }
+                } catch (IOException e) {
+                    // 客户端已断开
+                    emitter.completeWithError(e);
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        emitter.onCompletion(() -> job.unsubscribe(listener));
+        emitter.onTimeout(() -> job.unsubscribe(listener));
+        job.subscribe(listener);
+        return emitter;
+    }
+
+    /**
+     * 取消任务
+     * DELETE /api/optimizer/jobs/{jobId}
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable String jobId) {
+        if (!optimizerService.cancel(jobId)) {
+            return error(HttpStatus.NOT_FOUND, "寻优任务不存在: " + jobId);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "已请求取消寻优任务");
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> toSummary(OptimizationJob job) {
+        OptimizationRequest request = job.getRequest();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jobId", job.getId());
+        summary.put("type", request.strategyType());
+        summary.put("method", request.method());
+        summary.put("objective", request.objective());
+        summary.put("combinations", job.getCombinations());
+        summary.put("skipped", job.getSkipped());
+        summary.put("symbols", request.stockCodes().size());
+        summary.put("requestedDays", request.days());
+        summary.put("minBars", job.getMinBars());
+        summary.put("maxBars", job.getMaxBars());
+        summary.put("createdAt", job.getCreatedAt().toString());
+        summary.putAll(toProgress(job.progress()));
+        if (job.getError() != null) {
+            summary.put("error", job.getError());
+        }
+        return summary;
+    }
+
+    private static Map<String, Object> toProgress(OptimizationProgress progress) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobId", progress.jobId());
+        result.put("status", progress.status());
+        result.put("completed", progress.completed());
+        result.put("total", progress.total());
+        result.put("symbolsDone", progress.symbolsDone());
+        result.put("bestScore", ratio(progress.bestScore()));
+        result.put("elapsedMs", progress.elapsedMs());
+        return result;
+    }
+
+    private static List<Map<String, Object>> toResults(List<CandidateResult> results) {
+        List<Map<String, Object>> list = new ArrayList<>(results.size());
+        for (CandidateResult result : results) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("parameters", result.parameters());
+            item.put("score", ratio(result.score()));
+            item.put("totalReturn", ratio(result.totalReturn()));
+            item.put("cagr", ratio(result.cagr()));
+            item.put("sharpe", ratio(result.sharpe()));
+            item.put("maxDrawdown", ratio(result.maxDrawdown()));
+            item.put("trades", ratio(result.trades()));
+            item.put("symbols", result.symbols());
+            list.add(item);
+        }
+        return list;
+    }
+
+    private static Double number(Map<?, ?> map, String key, Double defaultValue) {
+        Object value = map.get(key);
+        if (value == null) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("范围缺少 " + key);
+            }
+            return defaultValue;
+        }
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("范围的 " + key + " 必须是数字");
+        }
+        return number.doubleValue();
+    }
+
+    /**
+     * 保留6位小数；非有限值输出为 null
+     */
+    private static BigDecimal ratio(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP) : null;
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
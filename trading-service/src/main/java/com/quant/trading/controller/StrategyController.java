@@ -1,12 +1,20 @@
 package com.quant.trading.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.trading.dto.SignalPage;
 import com.quant.trading.entity.Strategy;
 import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.service.SignalRetentionService;
+import com.quant.trading.service.StrategyScheduler;
 import com.quant.trading.service.StrategyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,9 +31,18 @@ public class StrategyController {
     @Autowired
     private StrategyService strategyService;
 
+    @Autowired
+    private StrategyScheduler strategyScheduler;
+
+    @Autowired
+    private SignalRetentionService signalRetentionService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     /**
      * 创建新策略
      * POST /api/strategy/create
+     * 可选 "stockCodes": ["000001.SZ", ...] 作为策略运行时由调度器评估的股票
      */
     @PostMapping("/create")
     public ResponseEntity<Map<String, Object>> createStrategy(@RequestBody Map<String, Object> request) {
@@ -33,12 +50,15 @@ public class StrategyController {
             String name = (String) request.get("name");
             String type = (String) request.get("type");
             String parameters = request.get("parameters") != null ?
-                request.get("parameters").toString() : "{}";
+                toParametersJson(request.get("parameters")) : "{}";
             String description = (String) request.getOrDefault("description", "");
             Long userId = request.get("userId") != null ?
                 ((Number) request.get("userId")).longValue() : 1L; // 默认用户ID
+            @SuppressWarnings("unchecked")
+            List<String> stockCodes = (List<String>) request.get("stockCodes");
 
-            Strategy strategy = strategyService.createStrategy(name, type, parameters, description, userId);
+            Strategy strategy = strategyService.createStrategy(name, type, parameters, description, userId,
+                stockCodes);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -55,9 +75,112 @@ public class StrategyController {
         }
     }
 
+    /**
+     * 修改策略参数
+     * PUT /api/strategy/{strategyId}/parameters
+     * Body: {"parameters": {"shortPeriod": 10, "longPeriod": 30}}（也可传JSON字符串）
+     */
+    @PutMapping("/{strategyId}/parameters")
+    public ResponseEntity<Map<String, Object>> updateParameters(
+            @PathVariable Long strategyId,
+            @RequestBody Map<String, Object> request) {
+
+        try {
+            String parameters = request.get("parameters") != null ?
+                toParametersJson(request.get("parameters")) : "{}";
+            Strategy strategy = strategyService.updateStrategyParameters(strategyId, parameters);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "策略参数已更新");
+            response.put("strategy", strategy);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "策略参数更新失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    /**
+     * 设置策略关注的股票（策略运行时由调度器定时评估）
+     * PUT /api/strategy/{strategyId}/watchlist
+     * Body: {"stockCodes": ["000001.SZ", "600036.SH"]}
+     */
+    @PutMapping("/{strategyId}/watchlist")
+    public ResponseEntity<Map<String, Object>> updateWatchlist(
+            @PathVariable Long strategyId,
+            @RequestBody Map<String, Object> request) {
+
+        try {
+            @SuppressWarnings("unchecked")
+            List<String> stockCodes = (List<String>) request.get("stockCodes");
+            Strategy strategy = strategyService.updateWatchlist(strategyId, stockCodes);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "关注股票已更新");
+            response.put("strategy", strategy);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "关注股票更新失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    /**
+     * 获取调度器上一轮执行结果
+     * GET /api/strategy/scheduler
+     */
+    @GetMapping("/scheduler")
+    public ResponseEntity<Map<String, Object>> getSchedulerStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("lastCycle", strategyScheduler.getLastReport());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 立即执行一轮调度
+     * POST /api/strategy/scheduler/run
+     */
+    @PostMapping("/scheduler/run")
+    public ResponseEntity<Map<String, Object>> runScheduler() {
+        try {
+            StrategyScheduler.CycleReport report = strategyScheduler.runNow();
+            if (report == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "上一轮调度尚未结束");
+                return ResponseEntity.status(409).body(errorResponse);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "调度执行完成");
+            response.put("cycle", report);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "调度执行失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     /**
      * 为指定股票生成交易信号
      * POST /api/strategy/{strategyId}/signal/{stockCode}
+     * 返回信号的 id 含义同批量接口
      */
     @PostMapping("/{strategyId}/signal/{stockCode}")
     public ResponseEntity<Map<String, Object>> generateSignal(
@@ -82,10 +205,46 @@ public class StrategyController {
         }
     }
 
+    /**
+     * 推入一根新K线并增量生成信号
+     * POST /api/strategy/{strategyId}/bar
+     * Body: {"stockCode": "000001.SZ", "date": "2024-01-15", "close": 11.32}
+     * 返回信号的 id 含义同批量接口
+     */
+    @PostMapping("/{strategyId}/bar")
+    public ResponseEntity<Map<String, Object>> generateSignalForBar(
+            @PathVariable Long strategyId,
+            @RequestBody Map<String, Object> request) {
+
+        try {
+            String stockCode = (String) request.get("stockCode");
+            LocalDate date = request.get("date") != null ?
+                LocalDate.parse(request.get("date").toString()) : LocalDate.now();
+            BigDecimal close = new BigDecimal(request.get("close").toString());
+
+            StrategySignal signal = strategyService.generateSignalForBar(strategyId, stockCode, date, close);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "信号生成成功");
+            response.put("signal", signal);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "信号生成失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     /**
      * 批量生成信号
      * POST /api/strategy/{strategyId}/signals
      * Body: {"stockCodes": ["000001.SZ", "600036.SH"]}
+     * 信号由写入队列异步落库，接口不等待写入：与上一条相同而合并的信号返回所在行的 id，
+     * 新开一行的信号（以及所在行尚未写入的信号）id 为 null，之后可通过 GET 分页接口查到
      */
     @PostMapping("/{strategyId}/signals")
     public ResponseEntity<Map<String, Object>> generateSignals(
@@ -115,17 +274,25 @@ public class StrategyController {
     }
 
     /**
-     * 获取策略的所有信号
-     * GET /api/strategy/{strategyId}/signals
+     * 分页获取策略的信号（按信号时间倒序）
+     * GET /api/strategy/{strategyId}/signals?size=50&cursor=...&signalType=BUY&stockCode=000001.SZ
+     * 下一页传入上一页返回的 nextCursor
      */
     @GetMapping("/{strategyId}/signals")
-    public ResponseEntity<Map<String, Object>> getStrategySignals(@PathVariable Long strategyId) {
+    public ResponseEntity<Map<String, Object>> getStrategySignals(
+            @PathVariable Long strategyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String signalType,
+            @RequestParam(required = false) String stockCode) {
         try {
-            List<StrategySignal> signals = strategyService.getStrategySignals(strategyId);
+            SignalPage page = strategyService.getStrategySignals(strategyId, cursor, size, signalType, stockCode);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("signals", signals);
+            response.put("signals", page.getSignals());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasMore", page.isHasMore());
 
             return ResponseEntity.ok(response);
 
@@ -137,6 +304,41 @@ public class StrategyController {
         }
     }
 
+    /**
+     * 立即归档并删除过期信号
+     * POST /api/strategy/signals/archive
+     * Body（可选）: {"days": 90} 归档早于 days 天前的信号，缺省使用配置的保留天数
+     */
+    @PostMapping("/signals/archive")
+    public ResponseEntity<Map<String, Object>> archiveSignals(
+            @RequestBody(required = false) Map<String, Object> request) {
+        try {
+            SignalRetentionService.RetentionReport report = request != null && request.get("days") != null
+                ? signalRetentionService.archiveOlderThan(
+                    LocalDateTime.now().minusDays(((Number) request.get("days")).longValue()))
+                : signalRetentionService.archiveExpired();
+            if (report == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", "信号归档正在执行");
+                return ResponseEntity.status(409).body(errorResponse);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "信号归档完成");
+            response.put("result", report);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "信号归档失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     /**
      * 获取用户的所有策略
      * GET /api/strategy/user/{userId}
@@ -263,4 +465,11 @@ public class StrategyController {
         response.put("service", "strategy-service");
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * 参数可以是JSON字符串，也可以是JSON对象
+     */
+    private String toParametersJson(Object parameters) throws JsonProcessingException {
+        return parameters instanceof String text ? text : objectMapper.writeValueAsString(parameters);
+    }
 }
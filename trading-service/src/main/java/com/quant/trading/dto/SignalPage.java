@@ -0,0 +1,19 @@
+package com.quant.trading.dto;
+
+import com.quant.trading.entity.StrategySignal;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 信号历史分页结果（按信号时间倒序）
+ * nextCursor 为下一页的游标，没有更多数据时为 null
+ */
+@Data
+@Builder
+public class SignalPage {
+    private List<StrategySignal> signals;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,63 @@
+package com.quant.trading.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 增量指标状态实体类
+ * 每个（策略, 股票）保存一份序列化的指标状态，新K线到来时直接在此基础上更新
+ */
+@Entity
+@Table(name = "indicator_states",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"strategy_id", "stock_code"}))
+@Data
+public class IndicatorState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 关联的策略ID
+     */
+    @Column(nullable = false)
+    private Long strategyId;
+
+    /**
+     * 股票代码
+     */
+    @Column(nullable = false, length = 20)
+    private String stockCode;
+
+    /**
+     * 序列化的指标状态
+     */
+    @Lob
+    @Column(nullable = false)
+    private byte[] stateData;
+
+    /**
+     * 状态已包含的最后一根K线日期
+     */
+    private LocalDate lastBarDate;
+
+    /**
+     * 状态已包含的K线数量
+     */
+    @Column(nullable = false)
+    private Long barCount;
+
+    /**
+     * 更新时间
+     */
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
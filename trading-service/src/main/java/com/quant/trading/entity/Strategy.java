@@ -35,6 +35,13 @@ public class Strategy {
     @Column(columnDefinition = "TEXT")
     private String parameters;
 
+    /**
+     * 关注的股票代码（逗号分隔）
+     * 策略运行中时由调度器定期为这些股票生成信号
+     */
+    @Column(columnDefinition = "TEXT")
+    private String watchlist;
+
     /**
      * 策略描述
      */
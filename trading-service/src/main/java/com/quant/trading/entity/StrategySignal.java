@@ -10,12 +10,20 @@ import java.time.LocalDateTime;
  * 记录策略生成的买卖信号
  */
 @Entity
-@Table(name = "strategy_signals")
+@Table(name = "strategy_signals", indexes = {
+    @Index(name = "idx_signal_strategy_time", columnList = "strategy_id, signal_time, id"),
+    @Index(name = "idx_signal_strategy_stock_time", columnList = "strategy_id, stock_code, signal_time, id"),
+    @Index(name = "idx_signal_last_seen", columnList = "last_seen_at, id")
+})
 @Data
 public class StrategySignal {
 
+    /**
+     * 使用序列（每次预取50个）而不是自增列，保存多条信号时才能走JDBC批量插入
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "strategy_signal_seq")
+    @SequenceGenerator(name = "strategy_signal_seq", sequenceName = "strategy_signal_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -61,11 +69,28 @@ public class StrategySignal {
     private String reason;
 
     /**
-     * 信号生成时间
+     * 信号生成时间（合并连续相同信号时为首次出现的时间）
      */
     @Column(nullable = false)
     private LocalDateTime signalTime;
 
+    /**
+     * 连续相同信号最后一次出现的时间
+     */
+    private LocalDateTime lastSeenAt;
+
+    /**
+     * 合并的连续出现次数
+     */
+    @Column(nullable = false)
+    private Integer occurrences;
+
+    /**
+     * 最后一次出现时的股票价格
+     */
+    @Column(precision = 10, scale = 2)
+    private BigDecimal lastPrice;
+
     /**
      * 是否已执行交易
      */
@@ -79,7 +104,18 @@ public class StrategySignal {
 
     @PrePersist
     protected void onCreate() {
-        signalTime = LocalDateTime.now();
+        if (signalTime == null) {
+            signalTime = LocalDateTime.now();
+        }
+        if (lastSeenAt == null) {
+            lastSeenAt = signalTime;
+        }
+        if (occurrences == null) {
+            occurrences = 1;
+        }
+        if (lastPrice == null) {
+            lastPrice = price;
+        }
         if (executed == null) {
             executed = false;
         }
@@ -0,0 +1,294 @@
+package com.quant.trading.indicator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 融合指标计算内核
+ * 按声明列表一次性计算多个指标：价格数组只顺序扫描一遍，每根K线依次推进所有指标的累加状态，
+ * 结果按列写入 {@link IndicatorPanel}。EMA/MACD 的种子需要前若干根K线的均值，
+ * 凑齐后在这一小段前缀上回补，其余部分单遍完成。
+ * 计算口径与 {@link IndicatorKernels} 逐项一致（相同的运算顺序，结果逐位相同）。
+ */
+public final class FusedIndicatorKernel {
+
+    private FusedIndicatorKernel() {
+    }
+
+    /**
+     * 计算价格序列上的全部指标
+     */
+    public static IndicatorPanel compute(PriceSeries series, List<IndicatorSpec> specs) {
+        return compute(series.getCloses(), series.getOffset(), series.length(), specs);
+    }
+
+    /**
+     * 计算 src[from, from+len) 上的全部指标，重复的声明只计算一次
+     */
+    public static IndicatorPanel compute(double[] src, int from, int len, List<IndicatorSpec> specs) {
+        if (from < 0 || len < 0 || from + len > src.length) {
+            throw new IndexOutOfBoundsException("价格区间越界: from=" + from + ", len=" + len + ", size=" + src.length);
+        }
+        LinkedHashMap<String, double[]> columns = new LinkedHashMap<>();
+        List<Accumulator> accumulators = new ArrayList<>(specs.size());
+        for (IndicatorSpec spec : specs) {
+            List<String> names = spec.columns();
+            if (columns.containsKey(names.get(0))) {
+                continue;
+            }
+            double[][] out = new double[names.size()][len];
+            for (int c = 0; c < names.size(); c++) {
+                columns.put(names.get(c), out[c]);
+            }
+            accumulators.add(accumulatorFor(spec, len, out));
+        }
+
+        Accumulator[] steps = accumulators.toArray(new Accumulator[0]);
+        for (int i = 0; i < len; i++) {
+            for (Accumulator step : steps) {
+                step.step(src, from, i);
+            }
+        }
+        return new IndicatorPanel(len, columns);
+    }
+
+    private static Accumulator accumulatorFor(IndicatorSpec spec, int len, double[][] out) {
+        return switch (spec.kind()) {
+            case SMA -> new Sma(spec.period(), out[0]);
+            case EMA -> new Ema(spec.period(), len, out[0]);
+            case RSI -> new Rsi(spec.period(), out[0]);
+            case MACD -> new Macd(spec.period(), spec.slowPeriod(), spec.signalPeriod(), len, out[0], out[1], out[2]);
+            case BOLL -> new Bollinger(spec.period(), spec.stdDevMultiplier(), out[0], out[1], out[2]);
+        };
+    }
+
+    /**
+     * 单个指标的逐根累加状态
+     */
+    private abstract static class Accumulator {
+
+        /**
+         * 推进第 i 根K线（src[from + i]）
+         */
+        abstract void step(double[] src, int from, int i);
+    }
+
+    private static final class Sma extends Accumulator {
+        private final int period;
+        private final double[] dst;
+        private double sum;
+
+        Sma(int period, double[] dst) {
+            this.period = period;
+            this.dst = dst;
+        }
+
+        @Override
+        void step(double[] src, int from, int i) {
+            sum += src[from + i];
+            if (i >= period) {
+                sum -= src[from + i - period];
+            }
+            dst[i] = i >= period - 1 ? sum / period : Double.NaN;
+        }
+    }
+
+    private static final class Ema extends Accumulator {
+        private final double multiplier;
+        private final int seedLength;
+        private final double[] dst;
+        private double seedSum;
+        private double ema;
+
+        Ema(int period, int len, double[] dst) {
+            this.multiplier = 2.0 / (period + 1);
+            this.seedLength = Math.min(period, len);
+            this.dst = dst;
+        }
+
+        @Override
+        void step(double[] src, int from, int i) {
+            if (i < seedLength) {
+                seedSum += src[from + i];
+                if (i == seedLength - 1) {
+                    // 种子凑齐，回补前缀
+                    ema = seedSum / seedLength;
+                    dst[0] = ema;
+                    for (int j = 1; j <= i; j++) {
+                        ema = src[from + j] * multiplier + ema * (1 - multiplier);
+                        dst[j] = ema;
+                    }
+                }
+                return;
+            }
+            ema = src[from + i] * multiplier + ema * (1 - multiplier);
+            dst[i] = ema;
+        }
+    }
+
+    private static final class Rsi extends Accumulator {
+        private final int period;
+        private final double[] dst;
+        private double avgGain;
+        private double avgLoss;
+
+        Rsi(int period, double[] dst) {
+            this.period = period;
+            this.dst = dst;
+        }
+
+        @Override
+        void step(double[] src, int from, int i) {
+            if (i == 0) {
+                dst[0] = Double.NaN;
+                return;
+            }
+            double change = src[from + i] - src[from + i - 1];
+            double gain = change > 0 ? change : 0;
+            double loss = change > 0 ? 0 : -change;
+
+            if (i < period) {
+                avgGain += gain;
+                avgLoss += loss;
+                dst[i] = Double.NaN;
+                return;
+            }
+            if (i == period) {
+                avgGain = (avgGain + gain) / period;
+                avgLoss = (avgLoss + loss) / period;
+            } else {
+                avgGain = (avgGain * (period - 1) + gain) / period;
+                avgLoss = (avgLoss * (period - 1) + loss) / period;
+            }
+            dst[i] = IndicatorKernels.rsiOf(avgGain, avgLoss);
+        }
+    }
+
+    private static final class Macd extends Accumulator {
+        private final double fastMultiplier;
+        private final double slowMultiplier;
+        private final double signalMultiplier;
+        private final int fastSeedLength;
+        private final int slowSeedLength;
+        private final int signalSeedLength;
+        private final double[] difDst;
+        private final double[] deaDst;
+        private final double[] histDst;
+        private double fastSum;
+        private double slowSum;
+        private double emaFast;
+        private double emaSlow;
+        private double difSum;
+        private double dea;
+
+        Macd(int fastPeriod, int slowPeriod, int signalPeriod, int len,
+             double[] difDst, double[] deaDst, double[] histDst) {
+            this.fastMultiplier = 2.0 / (fastPeriod + 1);
+            this.slowMultiplier = 2.0 / (slowPeriod + 1);
+            this.signalMultiplier = 2.0 / (signalPeriod + 1);
+            this.fastSeedLength = Math.min(fastPeriod, len);
+            this.slowSeedLength = Math.min(slowPeriod, len);
+            this.signalSeedLength = Math.min(signalPeriod, len);
+            this.difDst = difDst;
+            this.deaDst = deaDst;
+            this.histDst = histDst;
+        }
+
+        @Override
+        void step(double[] src, int from, int i) {
+            int warmup = Math.max(fastSeedLength, slowSeedLength);
+            if (i < warmup) {
+                double price = src[from + i];
+                if (i < fastSeedLength) {
+                    fastSum += price;
+                }
+                if (i < slowSeedLength) {
+                    slowSum += price;
+                }
+                if (i == warmup - 1) {
+                    // 快慢线种子凑齐，回补前缀
+                    emaFast = fastSum / fastSeedLength;
+                    emaSlow = slowSum / slowSeedLength;
+                    for (int j = 0; j <= i; j++) {
+                        advance(src, from, j);
+                    }
+                }
+                return;
+            }
+            advance(src, from, i);
+        }
+
+        private void advance(double[] src, int from, int i) {
+            if (i > 0) {
+                double price = src[from + i];
+                emaFast = price * fastMultiplier + emaFast * (1 - fastMultiplier);
+                emaSlow = price * slowMultiplier + emaSlow * (1 - slowMultiplier);
+            }
+            double dif = emaFast - emaSlow;
+            difDst[i] = dif;
+
+            if (i < signalSeedLength) {
+                difSum += dif;
+                if (i == signalSeedLength - 1) {
+                    dea = difSum / signalSeedLength;
+                    deaDst[0] = dea;
+                    histDst[0] = (difDst[0] - dea) * 2;
+                    for (int j = 1; j <= i; j++) {
+                        dea = difDst[j] * signalMultiplier + dea * (1 - signalMultiplier);
+                        deaDst[j] = dea;
+                        histDst[j] = (difDst[j] - dea) * 2;
+                    }
+                }
+                return;
+            }
+            dea = dif * signalMultiplier + dea * (1 - signalMultiplier);
+            deaDst[i] = dea;
+            histDst[i] = (dif - dea) * 2;
+        }
+    }
+
+    private static final class Bollinger extends Accumulator {
+        private final int period;
+        private final double stdDevMultiplier;
+        private final double[] upperDst;
+        private final double[] middleDst;
+        private final double[] lowerDst;
+        private double mean;
+        private double m2;
+
+        Bollinger(int period, double stdDevMultiplier, double[] upperDst, double[] middleDst, double[] lowerDst) {
+            this.period = period;
+            this.stdDevMultiplier = stdDevMultiplier;
+            this.upperDst = upperDst;
+            this.middleDst = middleDst;
+            this.lowerDst = lowerDst;
+        }
+
+        @Override
+        void step(double[] src, int from, int i) {
+            double x = src[from + i];
+            if (i < period) {
+                double delta = x - mean;
+                mean += delta / (i + 1);
+                m2 += delta * (x - mean);
+            } else {
+                double old = src[from + i - period];
+                double previousMean = mean;
+                mean += (x - old) / period;
+                m2 += (x - old) * (x - mean + old - previousMean);
+            }
+
+            if (i < period - 1) {
+                upperDst[i] = Double.NaN;
+                middleDst[i] = Double.NaN;
+                lowerDst[i] = Double.NaN;
+                return;
+            }
+            double band = Math.sqrt(Math.max(m2, 0) / period) * stdDevMultiplier;
+            middleDst[i] = mean;
+            upperDst[i] = mean + band;
+            lowerDst[i] = mean - band;
+        }
+    }
+}
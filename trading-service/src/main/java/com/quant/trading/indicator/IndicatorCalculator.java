@@ -8,9 +8,13 @@ import java.util.List;
 /**
  * 技术指标计算工具类
  * 用于计算MA、MACD、RSI、BOLL等常用技术指标
+ * 计算由 {@link IndicatorKernels} 的 double 内核完成，这里只做 BigDecimal 列表的转换
  */
 public class IndicatorCalculator {
 
+    private static final int SCALE = 4;
+    private static final int RSI_SCALE = 2;
+
     /**
      * 计算简单移动平均线 (Simple Moving Average - SMA)
      *
@@ -19,28 +23,14 @@ public class IndicatorCalculator {
      * @return MA值列表（长度与prices相同，前period-1个为null）
      */
     public static List<BigDecimal> calculateSMA(List<BigDecimal> prices, int period) {
-        List<BigDecimal> result = new ArrayList<>();
-
         if (prices == null || prices.size() < period) {
-            return result;
-        }
-
-        // 前period-1个数据不足，填充null
-        for (int i = 0; i < period - 1; i++) {
-            result.add(null);
+            return new ArrayList<>();
         }
 
-        // 从第period个开始计算MA
-        for (int i = period - 1; i < prices.size(); i++) {
-            BigDecimal sum = BigDecimal.ZERO;
-            for (int j = 0; j < period; j++) {
-                sum = sum.add(prices.get(i - j));
-            }
-            BigDecimal ma = sum.divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
-            result.add(ma);
-        }
-
-        return result;
+        double[] values = toDoubles(prices);
+        double[] sma = new double[values.length];
+        IndicatorKernels.sma(values, 0, values.length, period, sma);
+        return toDecimals(sma, 0, sma.length, SCALE);
     }
 
     /**
@@ -51,31 +41,15 @@ public class IndicatorCalculator {
      * @return EMA值列表
      */
     public static List<BigDecimal> calculateEMA(List<BigDecimal> prices, int period) {
-        List<BigDecimal> result = new ArrayList<>();
-
         if (prices == null || prices.isEmpty()) {
-            return result;
+            return new ArrayList<>();
         }
 
-        // EMA的平滑系数
-        BigDecimal multiplier = BigDecimal.valueOf(2.0 / (period + 1));
-
-        // 第一个EMA值使用SMA
-        BigDecimal sum = BigDecimal.ZERO;
-        for (int i = 0; i < Math.min(period, prices.size()); i++) {
-            sum = sum.add(prices.get(i));
-        }
-        BigDecimal ema = sum.divide(BigDecimal.valueOf(Math.min(period, prices.size())), 4, RoundingMode.HALF_UP);
-        result.add(ema);
-
-        // 后续使用EMA公式: EMA(t) = Price(t) * multiplier + EMA(t-1) * (1 - multiplier)
-        for (int i = 1; i < prices.size(); i++) {
-            ema = prices.get(i).multiply(multiplier)
-                    .add(ema.multiply(BigDecimal.ONE.subtract(multiplier)));
-            result.add(ema);
-        }
-
-        return result;
+        // 第一个EMA值使用SMA，后续使用EMA公式: EMA(t) = Price(t) * multiplier + EMA(t-1) * (1 - multiplier)
+        double[] values = toDoubles(prices);
+        double[] ema = new double[values.length];
+        IndicatorKernels.ema(values, 0, values.length, period, ema);
+        return toDecimals(ema, 0, ema.length, SCALE);
     }
 
     /**
@@ -88,28 +62,17 @@ public class IndicatorCalculator {
      * @return MACD结果对象
      */
     public static MACDResult calculateMACD(List<BigDecimal> prices, int fastPeriod, int slowPeriod, int signalPeriod) {
-        // 计算快线EMA和慢线EMA
-        List<BigDecimal> emaFast = calculateEMA(prices, fastPeriod);
-        List<BigDecimal> emaSlow = calculateEMA(prices, slowPeriod);
+        double[] values = toDoubles(prices);
+        double[] dif = new double[values.length];
+        double[] dea = new double[values.length];
+        double[] histogram = new double[values.length];
 
-        // 计算DIF（差离值）= 快线 - 慢线
-        List<BigDecimal> dif = new ArrayList<>();
-        for (int i = 0; i < prices.size(); i++) {
-            BigDecimal difValue = emaFast.get(i).subtract(emaSlow.get(i));
-            dif.add(difValue);
-        }
-
-        // 计算DEA（信号线）= DIF的EMA
-        List<BigDecimal> dea = calculateEMA(dif, signalPeriod);
+        // DIF = 快线 - 慢线，DEA = DIF的EMA，柱状图 = (DIF - DEA) * 2
+        IndicatorKernels.macd(values, 0, values.length, fastPeriod, slowPeriod, signalPeriod, dif, dea, histogram);
 
-        // 计算MACD柱状图 = (DIF - DEA) * 2
-        List<BigDecimal> histogram = new ArrayList<>();
-        for (int i = 0; i < dif.size(); i++) {
-            BigDecimal histValue = dif.get(i).subtract(dea.get(i)).multiply(BigDecimal.valueOf(2));
-            histogram.add(histValue);
-        }
-
-        return new MACDResult(dif, dea, histogram);
+        return new MACDResult(toDecimals(dif, 0, dif.length, SCALE),
+                toDecimals(dea, 0, dea.length, SCALE),
+                toDecimals(histogram, 0, histogram.length, SCALE));
     }
 
     /**
@@ -126,56 +89,13 @@ public class IndicatorCalculator {
             return result;
         }
 
-        // 计算价格变化
-        List<BigDecimal> gains = new ArrayList<>();
-        List<BigDecimal> losses = new ArrayList<>();
-
-        for (int i = 1; i < prices.size(); i++) {
-            BigDecimal change = prices.get(i).subtract(prices.get(i - 1));
-            if (change.compareTo(BigDecimal.ZERO) > 0) {
-                gains.add(change);
-                losses.add(BigDecimal.ZERO);
-            } else {
-                gains.add(BigDecimal.ZERO);
-                losses.add(change.abs());
-            }
-        }
-
-        // 计算第一个RSI
-        result.add(null); // 第一个数据无法计算
-
-        BigDecimal avgGain = BigDecimal.ZERO;
-        BigDecimal avgLoss = BigDecimal.ZERO;
-
-        for (int i = 0; i < period; i++) {
-            avgGain = avgGain.add(gains.get(i));
-            avgLoss = avgLoss.add(losses.get(i));
-        }
-
-        avgGain = avgGain.divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
-        avgLoss = avgLoss.divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
-
-        // 计算RSI
-        for (int i = period; i < gains.size(); i++) {
-            if (avgLoss.compareTo(BigDecimal.ZERO) == 0) {
-                result.add(BigDecimal.valueOf(100));
-            } else {
-                BigDecimal rs = avgGain.divide(avgLoss, 4, RoundingMode.HALF_UP);
-                BigDecimal rsi = BigDecimal.valueOf(100).subtract(
-                    BigDecimal.valueOf(100).divide(BigDecimal.ONE.add(rs), 2, RoundingMode.HALF_UP)
-                );
-                result.add(rsi);
-            }
-
-            // 更新平均涨跌幅（使用平滑方法）
-            avgGain = avgGain.multiply(BigDecimal.valueOf(period - 1))
-                    .add(gains.get(i))
-                    .divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
-            avgLoss = avgLoss.multiply(BigDecimal.valueOf(period - 1))
-                    .add(losses.get(i))
-                    .divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
-        }
+        double[] values = toDoubles(prices);
+        double[] rsi = new double[values.length];
+        IndicatorKernels.rsi(values, 0, values.length, period, rsi);
 
+        // 保持原有的输出排列：第一个为null，随后是第period根到倒数第二根K线的RSI
+        result.add(null);
+        result.addAll(toDecimals(rsi, period, values.length - 1 - period, RSI_SCALE));
         return result;
     }
 
@@ -188,36 +108,42 @@ public class IndicatorCalculator {
      * @return 布林带结果对象
      */
     public static BollingerBandsResult calculateBollingerBands(List<BigDecimal> prices, int period, double stdDevMultiplier) {
-        List<BigDecimal> middle = calculateSMA(prices, period);
-        List<BigDecimal> upper = new ArrayList<>();
-        List<BigDecimal> lower = new ArrayList<>();
-
-        // 计算标准差
-        for (int i = 0; i < prices.size(); i++) {
-            if (i < period - 1) {
-                upper.add(null);
-                lower.add(null);
-                continue;
-            }
-
-            // 计算period周期内的标准差
-            BigDecimal mean = middle.get(i);
-            BigDecimal variance = BigDecimal.ZERO;
-
-            for (int j = 0; j < period; j++) {
-                BigDecimal diff = prices.get(i - j).subtract(mean);
-                variance = variance.add(diff.multiply(diff));
-            }
-
-            variance = variance.divide(BigDecimal.valueOf(period), 4, RoundingMode.HALF_UP);
-            double stdDev = Math.sqrt(variance.doubleValue());
-            BigDecimal stdDevBD = BigDecimal.valueOf(stdDev * stdDevMultiplier);
+        double[] values = toDoubles(prices);
+        double[] upper = new double[values.length];
+        double[] middle = new double[values.length];
+        double[] lower = new double[values.length];
+        IndicatorKernels.bollinger(values, 0, values.length, period, stdDevMultiplier, upper, middle, lower);
+
+        // 数据不足一个周期时中轨为空列表，与calculateSMA一致
+        List<BigDecimal> middleList = values.length < period ? new ArrayList<>() : toDecimals(middle, 0, middle.length, SCALE);
+        return new BollingerBandsResult(toDecimals(upper, 0, upper.length, SCALE), middleList,
+                toDecimals(lower, 0, lower.length, SCALE));
+    }
 
-            upper.add(mean.add(stdDevBD));
-            lower.add(mean.subtract(stdDevBD));
+    /**
+     * 价格列表转为 double 数组
+     */
+    public static double[] toDoubles(List<BigDecimal> prices) {
+        if (prices == null) {
+            return new double[0];
+        }
+        double[] values = new double[prices.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = prices.get(i).doubleValue();
         }
+        return values;
+    }
 
-        return new BollingerBandsResult(upper, middle, lower);
+    /**
+     * double 数组区间转为 BigDecimal 列表，NaN 转为 null
+     */
+    public static List<BigDecimal> toDecimals(double[] values, int from, int len, int scale) {
+        List<BigDecimal> result = new ArrayList<>(Math.max(len, 0));
+        for (int i = from; i < from + len; i++) {
+            double value = values[i];
+            result.add(Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP));
+        }
+        return result;
     }
 
     // ==================== 辅助类 ====================
@@ -0,0 +1,200 @@
+package com.quant.trading.indicator;
+
+/**
+ * 技术指标原始类型计算内核
+ * 所有方法只做一遍（或常数遍）扫描，输入为 src[from, from+len) 的价格，
+ * 结果写入调用方预先分配的 dst[0, len)，与输入逐根K线对齐；数据不足的位置写入 NaN。
+ * 计算口径与 {@link IndicatorCalculator} 一致，后者只负责 BigDecimal 与 double 的转换。
+ */
+public final class IndicatorKernels {
+
+    private IndicatorKernels() {
+    }
+
+    /**
+     * 简单移动平均线（滑动求和，O(n)）
+     */
+    public static void sma(double[] src, int from, int len, int period, double[] dst) {
+        checkRange(src, from, len, period, dst);
+        double sum = 0;
+        for (int i = 0; i < len; i++) {
+            sum += src[from + i];
+            if (i >= period) {
+                sum -= src[from + i - period];
+            }
+            dst[i] = i >= period - 1 ? sum / period : Double.NaN;
+        }
+    }
+
+    /**
+     * 指数移动平均线
+     * 与原实现一致：首个值取前 min(period, len) 个价格的算术平均，之后从第二根K线开始递推
+     */
+    public static void ema(double[] src, int from, int len, int period, double[] dst) {
+        checkRange(src, from, len, period, dst);
+        if (len == 0) {
+            return;
+        }
+        double multiplier = 2.0 / (period + 1);
+        double ema = seed(src, from, Math.min(period, len));
+        dst[0] = ema;
+        for (int i = 1; i < len; i++) {
+            ema = src[from + i] * multiplier + ema * (1 - multiplier);
+            dst[i] = ema;
+        }
+    }
+
+    /**
+     * 相对强弱指标（Wilder 平滑）
+     * dst[i] 为截至第 i 根K线的RSI，i &lt; period 的位置为 NaN
+     */
+    public static void rsi(double[] src, int from, int len, int period, double[] dst) {
+        checkRange(src, from, len, period, dst);
+        double avgGain = 0;
+        double avgLoss = 0;
+        for (int i = 0; i < len; i++) {
+            if (i == 0) {
+                dst[0] = Double.NaN;
+                continue;
+            }
+            double change = src[from + i] - src[from + i - 1];
+            double gain = change > 0 ? change : 0;
+            double loss = change > 0 ? 0 : -change;
+
+            if (i < period) {
+                avgGain += gain;
+                avgLoss += loss;
+                dst[i] = Double.NaN;
+                continue;
+            }
+            if (i == period) {
+                avgGain = (avgGain + gain) / period;
+                avgLoss = (avgLoss + loss) / period;
+            } else {
+                avgGain = (avgGain * (period - 1) + gain) / period;
+                avgLoss = (avgLoss * (period - 1) + loss) / period;
+            }
+            dst[i] = rsiOf(avgGain, avgLoss);
+        }
+    }
+
+    /**
+     * MACD：快慢线EMA、DIF、DEA、柱状图在一次扫描中完成
+     * DEA 的首个值需要前 signalPeriod 个 DIF 的平均，凑齐后回补这一小段，其余部分单遍计算
+     */
+    public static void macd(double[] src, int from, int len, int fastPeriod, int slowPeriod, int signalPeriod,
+                            double[] difDst, double[] deaDst, double[] histDst) {
+        checkRange(src, from, len, Math.max(fastPeriod, slowPeriod), difDst);
+        checkRange(src, from, len, signalPeriod, deaDst);
+        checkRange(src, from, len, signalPeriod, histDst);
+        if (len == 0) {
+            return;
+        }
+        double fastMultiplier = 2.0 / (fastPeriod + 1);
+        double slowMultiplier = 2.0 / (slowPeriod + 1);
+        double signalMultiplier = 2.0 / (signalPeriod + 1);
+        int signalSeedLength = Math.min(signalPeriod, len);
+
+        double emaFast = seed(src, from, Math.min(fastPeriod, len));
+        double emaSlow = seed(src, from, Math.min(slowPeriod, len));
+        double difSum = 0;
+        double dea = 0;
+
+        for (int i = 0; i < len; i++) {
+            if (i > 0) {
+                double price = src[from + i];
+                emaFast = price * fastMultiplier + emaFast * (1 - fastMultiplier);
+                emaSlow = price * slowMultiplier + emaSlow * (1 - slowMultiplier);
+            }
+            double dif = emaFast - emaSlow;
+            difDst[i] = dif;
+
+            if (i < signalSeedLength) {
+                difSum += dif;
+                if (i == signalSeedLength - 1) {
+                    // 回补DEA种子区间
+                    dea = difSum / signalSeedLength;
+                    deaDst[0] = dea;
+                    histDst[0] = (difDst[0] - dea) * 2;
+                    for (int j = 1; j <= i; j++) {
+                        dea = difDst[j] * signalMultiplier + dea * (1 - signalMultiplier);
+                        deaDst[j] = dea;
+                        histDst[j] = (difDst[j] - dea) * 2;
+                    }
+                }
+                continue;
+            }
+            dea = dif * signalMultiplier + dea * (1 - signalMultiplier);
+            deaDst[i] = dea;
+            histDst[i] = (dif - dea) * 2;
+        }
+    }
+
+    /**
+     * 布林带：滑动窗口 Welford 算法维护均值与离差平方和（总体方差）
+     */
+    public static void bollinger(double[] src, int from, int len, int period, double stdDevMultiplier,
+                                 double[] upperDst, double[] middleDst, double[] lowerDst) {
+        checkRange(src, from, len, period, middleDst);
+        checkRange(src, from, len, period, upperDst);
+        checkRange(src, from, len, period, lowerDst);
+        double mean = 0;
+        double m2 = 0;
+        for (int i = 0; i < len; i++) {
+            double x = src[from + i];
+            if (i < period) {
+                // 窗口填充阶段：标准 Welford 增量
+                double delta = x - mean;
+                mean += delta / (i + 1);
+                m2 += delta * (x - mean);
+            } else {
+                // 窗口滑动：新值替换最旧的值
+                double old = src[from + i - period];
+                double previousMean = mean;
+                mean += (x - old) / period;
+                m2 += (x - old) * (x - mean + old - previousMean);
+            }
+
+            if (i < period - 1) {
+                upperDst[i] = Double.NaN;
+                middleDst[i] = Double.NaN;
+                lowerDst[i] = Double.NaN;
+                continue;
+            }
+            double band = Math.sqrt(Math.max(m2, 0) / period) * stdDevMultiplier;
+            middleDst[i] = mean;
+            upperDst[i] = mean + band;
+            lowerDst[i] = mean - band;
+        }
+    }
+
+    /**
+     * 由平均涨幅和平均跌幅计算RSI
+     */
+    static double rsiOf(double avgGain, double avgLoss) {
+        if (avgLoss == 0) {
+            return 100;
+        }
+        return 100 - 100 / (1 + avgGain / avgLoss);
+    }
+
+    private static double seed(double[] src, int from, int count) {
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += src[from + i];
+        }
+        return sum / count;
+    }
+
+    private static void checkRange(double[] src, int from, int len, int period, double[] dst) {
+        if (period < 1) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        if (from < 0 || len < 0 || from + len > src.length) {
+            throw new IndexOutOfBoundsException("价格区间越界: from=" + from + ", len=" + len + ", size=" + src.length);
+        }
+        if (dst.length < len) {
+            throw new IllegalArgumentException("输出数组长度不足: " + dst.length + " < " + len);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.quant.trading.indicator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 指标面板（列式存储）
+ * 每个结果列是一条与价格序列逐根对齐的 double 数组，数据不足的位置为 NaN
+ */
+public final class IndicatorPanel {
+
+    private final int length;
+    private final Map<String, double[]> columns;
+
+    IndicatorPanel(int length, LinkedHashMap<String, double[]> columns) {
+        this.length = length;
+        this.columns = Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * 序列长度
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 按声明顺序排列的列名
+     */
+    public List<String> columnNames() {
+        return List.copyOf(columns.keySet());
+    }
+
+    /**
+     * 按列名取结果（只读），不存在时返回 null
+     */
+    public double[] column(String name) {
+        return columns.get(name);
+    }
+
+    /**
+     * 全部结果列（只读）
+     */
+    public Map<String, double[]> columns() {
+        return columns;
+    }
+}
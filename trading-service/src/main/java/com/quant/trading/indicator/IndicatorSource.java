@@ -0,0 +1,45 @@
+package com.quant.trading.indicator;
+
+import java.util.List;
+
+/**
+ * 指标结果来源
+ * 策略通过它取指标列：在线信号使用全局共享的指标缓存，参数寻优时使用单个序列的本地备忘，
+ * 同一序列上不同参数组合用到的相同指标只计算一次。返回的数组只读。
+ */
+public interface IndicatorSource {
+
+    /**
+     * 简单移动平均线
+     */
+    double[] sma(PriceSeries series, int period);
+
+    /**
+     * 指数移动平均线
+     */
+    double[] ema(PriceSeries series, int period);
+
+    /**
+     * 相对强弱指标
+     */
+    double[] rsi(PriceSeries series, int period);
+
+    /**
+     * MACD
+     *
+     * @return {DIF, DEA, 柱状图}
+     */
+    double[][] macd(PriceSeries series, int fastPeriod, int slowPeriod, int signalPeriod);
+
+    /**
+     * 布林带
+     *
+     * @return {上轨, 中轨, 下轨}
+     */
+    double[][] bollinger(PriceSeries series, int period, double stdDevMultiplier);
+
+    /**
+     * 一组不重复指标的融合计算结果，列按声明顺序依次排列各指标的 {@link IndicatorSpec#columns()}
+     */
+    double[][] panel(PriceSeries series, List<IndicatorSpec> specs);
+}
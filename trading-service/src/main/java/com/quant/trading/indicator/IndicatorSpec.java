@@ -0,0 +1,139 @@
+package com.quant.trading.indicator;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 指标声明
+ * 描述需要计算的一个指标及其参数，用于 {@link FusedIndicatorKernel} 一次性计算多个指标。
+ * 文本形式：MA5、EMA12、RSI14、MACD12_26_9、BOLL20_2（参数省略时使用常用默认值）
+ *
+ * @param kind             指标种类
+ * @param period           周期（MACD 为快线周期）
+ * @param slowPeriod       MACD 慢线周期，其他指标为 0
+ * @param signalPeriod     MACD 信号线周期，其他指标为 0
+ * @param stdDevMultiplier 布林带标准差倍数，其他指标为 0
+ */
+public record IndicatorSpec(Kind kind, int period, int slowPeriod, int signalPeriod, double stdDevMultiplier) {
+
+    private static final Pattern TEXT = Pattern.compile("(MA|SMA|EMA|RSI|MACD|BOLL)(\\d+(?:_\\d+(?:\\.\\d+)?)*)?");
+
+    /**
+     * 指标种类
+     */
+    public enum Kind {
+        SMA, EMA, RSI, MACD, BOLL
+    }
+
+    public IndicatorSpec {
+        if (kind == null) {
+            throw new IllegalArgumentException("指标种类不能为空");
+        }
+        if (period < 1 || (kind == Kind.MACD && (slowPeriod < 1 || signalPeriod < 1))) {
+            throw new IllegalArgumentException("周期必须大于0: " + kind);
+        }
+    }
+
+    public static IndicatorSpec sma(int period) {
+        return new IndicatorSpec(Kind.SMA, period, 0, 0, 0);
+    }
+
+    public static IndicatorSpec ema(int period) {
+        return new IndicatorSpec(Kind.EMA, period, 0, 0, 0);
+    }
+
+    public static IndicatorSpec rsi(int period) {
+        return new IndicatorSpec(Kind.RSI, period, 0, 0, 0);
+    }
+
+    public static IndicatorSpec macd(int fastPeriod, int slowPeriod, int signalPeriod) {
+        return new IndicatorSpec(Kind.MACD, fastPeriod, slowPeriod, signalPeriod, 0);
+    }
+
+    public static IndicatorSpec bollinger(int period, double stdDevMultiplier) {
+        return new IndicatorSpec(Kind.BOLL, period, 0, 0, stdDevMultiplier);
+    }
+
+    /**
+     * 看盘面板的默认指标：MA5/10/20/60、MACD(12,26,9)、RSI(14)、BOLL(20,2)
+     */
+    public static List<IndicatorSpec> defaultPanel() {
+        return List.of(sma(5), sma(10), sma(20), sma(60), macd(12, 26, 9), rsi(14), bollinger(20, 2));
+    }
+
+    /**
+     * 解析文本形式的指标声明
+     *
+     * @throws IllegalArgumentException 格式不正确
+     */
+    public static IndicatorSpec parse(String text) {
+        Matcher matcher = TEXT.matcher(text == null ? "" : text.trim().toUpperCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("无法识别的指标: " + text);
+        }
+        String[] args = matcher.group(2) != null ? matcher.group(2).split("_") : new String[0];
+        try {
+            switch (matcher.group(1)) {
+                case "MA":
+                case "SMA":
+                    requireArgs(text, args, 1, 1);
+                    return sma(Integer.parseInt(args[0]));
+                case "EMA":
+                    requireArgs(text, args, 1, 1);
+                    return ema(Integer.parseInt(args[0]));
+                case "RSI":
+                    requireArgs(text, args, 0, 1);
+                    return rsi(args.length > 0 ? Integer.parseInt(args[0]) : 14);
+                case "MACD":
+                    if (args.length == 0) {
+                        return macd(12, 26, 9);
+                    }
+                    requireArgs(text, args, 3, 3);
+                    return macd(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+                default:
+                    requireArgs(text, args, 0, 2);
+                    return bollinger(args.length > 0 ? Integer.parseInt(args[0]) : 20,
+                            args.length > 1 ? Double.parseDouble(args[1]) : 2);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("指标参数格式不正确: " + text);
+        }
+    }
+
+    /**
+     * 指标名称（即文本形式）
+     */
+    public String name() {
+        return switch (kind) {
+            case SMA -> "MA" + period;
+            case EMA -> "EMA" + period;
+            case RSI -> "RSI" + period;
+            case MACD -> "MACD" + period + "_" + slowPeriod + "_" + signalPeriod;
+            case BOLL -> "BOLL" + period + "_" + formatMultiplier(stdDevMultiplier);
+        };
+    }
+
+    /**
+     * 结果列名：单值指标为指标名，MACD 为 .dif/.dea/.hist，布林带为 .upper/.middle/.lower
+     */
+    public List<String> columns() {
+        String name = name();
+        return switch (kind) {
+            case MACD -> List.of(name + ".dif", name + ".dea", name + ".hist");
+            case BOLL -> List.of(name + ".upper", name + ".middle", name + ".lower");
+            default -> List.of(name);
+        };
+    }
+
+    private static void requireArgs(String text, String[] args, int min, int max) {
+        if (args.length < min || args.length > max) {
+            throw new IllegalArgumentException("指标参数个数不正确: " + text);
+        }
+    }
+
+    private static String formatMultiplier(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,147 @@
+package com.quant.trading.indicator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 价格序列
+ * 收盘价保存在 double 数组的 [offset, offset+length) 区间（按时间顺序，最新的在最后），
+ * 可选的交易日数组（epochDay）与收盘价一一对应，用于标识序列版本
+ */
+public final class PriceSeries {
+
+    private final String stockCode;
+    private final double[] closes;
+    private final int[] epochDays;
+    private final int offset;
+    private final int length;
+
+    public PriceSeries(String stockCode, double[] closes, int[] epochDays, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > closes.length) {
+            throw new IndexOutOfBoundsException("价格区间越界: offset=" + offset + ", length=" + length);
+        }
+        if (epochDays != null && offset + length > epochDays.length) {
+            throw new IndexOutOfBoundsException("日期数组长度不足: " + epochDays.length);
+        }
+        this.stockCode = stockCode;
+        this.closes = closes;
+        this.epochDays = epochDays;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * 由整段数组构建
+     */
+    public static PriceSeries of(String stockCode, double[] closes, int[] epochDays) {
+        return new PriceSeries(stockCode, closes, epochDays, 0, closes.length);
+    }
+
+    /**
+     * 由价格列表构建（无日期）
+     */
+    public static PriceSeries of(String stockCode, List<BigDecimal> prices) {
+        return of(stockCode, IndicatorCalculator.toDoubles(prices), null);
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    /**
+     * 底层收盘价数组（只读，配合 {@link #getOffset()} 使用）
+     */
+    public double[] getCloses() {
+        return closes;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * 最近 n 根K线的视图（共享底层数组，不复制）；n 不小于序列长度时返回自身
+     */
+    public PriceSeries tail(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("K线数不能为负: " + n);
+        }
+        if (n >= length) {
+            return this;
+        }
+        return new PriceSeries(stockCode, closes, epochDays, offset + length - n, n);
+    }
+
+    /**
+     * 第 i 根K线的收盘价
+     */
+    public double close(int i) {
+        return closes[offset + i];
+    }
+
+    /**
+     * 最新收盘价
+     */
+    public double lastClose() {
+        return closes[offset + length - 1];
+    }
+
+    /**
+     * 第 i 根K线的交易日，无日期时返回 null
+     */
+    public LocalDate barDate(int i) {
+        return epochDays != null ? LocalDate.ofEpochDay(epochDays[offset + i]) : null;
+    }
+
+    /**
+     * 第 i 根K线的交易日（epochDay）
+     *
+     * @throws IllegalStateException 序列不带日期
+     */
+    public int epochDay(int i) {
+        if (epochDays == null) {
+            throw new IllegalStateException("价格序列不带日期: " + stockCode);
+        }
+        return epochDays[offset + i];
+    }
+
+    public boolean hasDates() {
+        return epochDays != null;
+    }
+
+    /**
+     * 最后一根K线的交易日，无日期或空序列时返回 null
+     */
+    public LocalDate lastBarDate() {
+        return epochDays != null && length > 0 ? LocalDate.ofEpochDay(epochDays[offset + length - 1]) : null;
+    }
+
+    /**
+     * 最新收盘价（保留2位小数）
+     */
+    public BigDecimal lastPrice() {
+        return length > 0 ? BigDecimal.valueOf(lastClose()).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    /**
+     * 转为价格列表（保留2位小数）
+     */
+    public List<BigDecimal> toDecimalList() {
+        List<BigDecimal> prices = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            prices.add(BigDecimal.valueOf(close(i)).setScale(2, RoundingMode.HALF_UP));
+        }
+        return prices;
+    }
+}
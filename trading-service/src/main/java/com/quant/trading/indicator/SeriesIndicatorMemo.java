@@ -0,0 +1,99 @@
+package com.quant.trading.indicator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 单个价格序列上的指标备忘
+ * 参数寻优时同一序列要以成百上千组参数反复回测，按（指标, 参数）记住已算出的结果列，
+ * 每个指标只计算一次，之后每组参数只剩 O(n) 的信号扫描。只接受构造时指定的序列；
+ * 不限容量，随序列一起丢弃。线程安全，可由多个线程并发读取。
+ */
+public final class SeriesIndicatorMemo implements IndicatorSource {
+
+    private final PriceSeries series;
+    private final Map<List<Object>, double[][]> results = new ConcurrentHashMap<>();
+
+    public SeriesIndicatorMemo(PriceSeries series) {
+        this.series = series;
+    }
+
+    public PriceSeries getSeries() {
+        return series;
+    }
+
+    @Override
+    public double[] sma(PriceSeries series, int period) {
+        return get(series, List.of("SMA", period), () -> {
+            double[] out = new double[series.length()];
+            IndicatorKernels.sma(series.getCloses(), series.getOffset(), series.length(), period, out);
+            return new double[][]{out};
+        })[0];
+    }
+
+    @Override
+    public double[] ema(PriceSeries series, int period) {
+        return get(series, List.of("EMA", period), () -> {
+            double[] out = new double[series.length()];
+            IndicatorKernels.ema(series.getCloses(), series.getOffset(), series.length(), period, out);
+            return new double[][]{out};
+        })[0];
+    }
+
+    @Override
+    public double[] rsi(PriceSeries series, int period) {
+        return get(series, List.of("RSI", period), () -> {
+            double[] out = new double[series.length()];
+            IndicatorKernels.rsi(series.getCloses(), series.getOffset(), series.length(), period, out);
+            return new double[][]{out};
+        })[0];
+    }
+
+    @Override
+    public double[][] macd(PriceSeries series, int fastPeriod, int slowPeriod, int signalPeriod) {
+        return get(series, List.of("MACD", fastPeriod, slowPeriod, signalPeriod), () -> {
+            int n = series.length();
+            double[][] out = new double[3][n];
+            IndicatorKernels.macd(series.getCloses(), series.getOffset(), n,
+                    fastPeriod, slowPeriod, signalPeriod, out[0], out[1], out[2]);
+            return out;
+        });
+    }
+
+    @Override
+    public double[][] bollinger(PriceSeries series, int period, double stdDevMultiplier) {
+        return get(series, List.of("BOLL", period, stdDevMultiplier), () -> {
+            int n = series.length();
+            double[][] out = new double[3][n];
+            IndicatorKernels.bollinger(series.getCloses(), series.getOffset(), n,
+                    period, stdDevMultiplier, out[0], out[1], out[2]);
+            return out;
+        });
+    }
+
+    @Override
+    public double[][] panel(PriceSeries series, List<IndicatorSpec> specs) {
+        List<Object> key = new ArrayList<>(specs.size() + 1);
+        key.add("PANEL");
+        key.addAll(specs);
+        return get(series, key, () -> FusedIndicatorKernel.compute(series, specs).columns().values()
+                .toArray(new double[0][]));
+    }
+
+    private double[][] get(PriceSeries requested, List<Object> key, Supplier<double[][]> compute) {
+        if (requested != series) {
+            throw new IllegalArgumentException("指标备忘只适用于构造时指定的序列");
+        }
+        double[][] cached = results.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // 不在 computeIfAbsent 中计算，避免长时间持有哈希桶；并发时最多重复计算一次，结果相同
+        double[][] computed = compute.get();
+        double[][] previous = results.putIfAbsent(key, computed);
+        return previous != null ? previous : computed;
+    }
+}
@@ -0,0 +1,95 @@
+package com.quant.trading.indicator.stream;
+
+/**
+ * 增量布林带
+ * 环形缓冲区 + 滑动窗口 Welford 算法，current/previous 为中轨，上下轨另行提供
+ */
+public class StreamingBollinger implements StreamingIndicator {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int period;
+    private final double stdDevMultiplier;
+    private final double[] window;
+    private double mean;
+    private double m2;
+    private long count;
+    private double current = Double.NaN;
+    private double previous = Double.NaN;
+    private double upper = Double.NaN;
+    private double lower = Double.NaN;
+    private double previousUpper = Double.NaN;
+    private double previousLower = Double.NaN;
+
+    public StreamingBollinger(int period, double stdDevMultiplier) {
+        if (period < 1) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        this.period = period;
+        this.stdDevMultiplier = stdDevMultiplier;
+        this.window = new double[period];
+    }
+
+    @Override
+    public void update(double price) {
+        int slot = (int) (count % period);
+        if (count < period) {
+            double delta = price - mean;
+            mean += delta / (count + 1);
+            m2 += delta * (price - mean);
+        } else {
+            double old = window[slot];
+            double previousMean = mean;
+            mean += (price - old) / period;
+            m2 += (price - old) * (price - mean + old - previousMean);
+        }
+        window[slot] = price;
+        count++;
+
+        previous = current;
+        previousUpper = upper;
+        previousLower = lower;
+        if (count >= period) {
+            double band = Math.sqrt(Math.max(m2, 0) / period) * stdDevMultiplier;
+            current = mean;
+            upper = mean + band;
+            lower = mean - band;
+        }
+    }
+
+    public double getUpper() {
+        return upper;
+    }
+
+    public double getLower() {
+        return lower;
+    }
+
+    public double getPreviousUpper() {
+        return previousUpper;
+    }
+
+    public double getPreviousLower() {
+        return previousLower;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double getCurrent() {
+        return current;
+    }
+
+    @Override
+    public double getPrevious() {
+        return previous;
+    }
+}
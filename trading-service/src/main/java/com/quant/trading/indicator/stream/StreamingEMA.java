@@ -0,0 +1,71 @@
+package com.quant.trading.indicator.stream;
+
+import com.quant.trading.indicator.IndicatorKernels;
+
+/**
+ * 增量指数移动平均线
+ * 与批量计算口径一致：首值为前 period 个价格的平均，并从第二根K线开始递推，
+ * 因此前 period 根K线先缓存，凑齐后一次性回放，之后每根K线常数时间更新
+ */
+public class StreamingEMA implements StreamingIndicator {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int period;
+    private final double multiplier;
+    private double[] warmup;
+    private long count;
+    private double current = Double.NaN;
+    private double previous = Double.NaN;
+
+    public StreamingEMA(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        this.period = period;
+        this.multiplier = 2.0 / (period + 1);
+        this.warmup = new double[period];
+    }
+
+    @Override
+    public void update(double price) {
+        if (warmup != null) {
+            warmup[(int) count++] = price;
+            if (count == period) {
+                double[] replay = new double[period];
+                IndicatorKernels.ema(warmup, 0, period, period, replay);
+                current = replay[period - 1];
+                previous = period > 1 ? replay[period - 2] : Double.NaN;
+                warmup = null;
+            }
+            return;
+        }
+        count++;
+        previous = current;
+        current = price * multiplier + current * (1 - multiplier);
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return warmup == null;
+    }
+
+    @Override
+    public double getCurrent() {
+        return current;
+    }
+
+    @Override
+    public double getPrevious() {
+        return previous;
+    }
+}
@@ -0,0 +1,38 @@
+package com.quant.trading.indicator.stream;
+
+import java.io.Serializable;
+
+/**
+ * 增量指标
+ * 每次追加一根K线的收盘价，常数时间更新，并保留当前值与前一根K线的值，
+ * 可序列化后按（策略, 股票）持久化，下次直接从保存的状态继续计算
+ */
+public interface StreamingIndicator extends Serializable {
+
+    /**
+     * 追加一根K线
+     *
+     * @param price 收盘价
+     */
+    void update(double price);
+
+    /**
+     * 已追加的K线数量
+     */
+    long getCount();
+
+    /**
+     * 是否已完成预热（当前值可用）
+     */
+    boolean isReady();
+
+    /**
+     * 当前值，未就绪时为 NaN
+     */
+    double getCurrent();
+
+    /**
+     * 前一根K线的值，不可用时为 NaN
+     */
+    double getPrevious();
+}
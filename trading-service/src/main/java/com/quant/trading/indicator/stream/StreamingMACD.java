@@ -0,0 +1,119 @@
+package com.quant.trading.indicator.stream;
+
+import com.quant.trading.indicator.IndicatorKernels;
+
+/**
+ * 增量MACD
+ * 快慢线EMA与DEA的首值都依赖前若干根K线的平均，预热期间缓存价格，
+ * 凑齐 max(快线, 慢线, 信号线) 根后用批量内核回放一次，之后每根K线常数时间更新。
+ * current/previous 为MACD柱 (DIF - DEA) * 2
+ */
+public class StreamingMACD implements StreamingIndicator {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int fastPeriod;
+    private final int slowPeriod;
+    private final int signalPeriod;
+    private final double fastMultiplier;
+    private final double slowMultiplier;
+    private final double signalMultiplier;
+
+    private double[] warmup;
+    private long count;
+    private double emaFast;
+    private double emaSlow;
+    private double dif = Double.NaN;
+    private double dea = Double.NaN;
+    private double previousDif = Double.NaN;
+    private double previousDea = Double.NaN;
+
+    public StreamingMACD(int fastPeriod, int slowPeriod, int signalPeriod) {
+        if (fastPeriod < 1 || slowPeriod < 1 || signalPeriod < 1) {
+            throw new IllegalArgumentException("周期必须大于0");
+        }
+        this.fastPeriod = fastPeriod;
+        this.slowPeriod = slowPeriod;
+        this.signalPeriod = signalPeriod;
+        this.fastMultiplier = 2.0 / (fastPeriod + 1);
+        this.slowMultiplier = 2.0 / (slowPeriod + 1);
+        this.signalMultiplier = 2.0 / (signalPeriod + 1);
+        this.warmup = new double[Math.max(Math.max(fastPeriod, slowPeriod), signalPeriod)];
+    }
+
+    @Override
+    public void update(double price) {
+        if (warmup != null) {
+            warmup[(int) count++] = price;
+            if (count == warmup.length) {
+                replayWarmup();
+            }
+            return;
+        }
+        count++;
+        previousDif = dif;
+        previousDea = dea;
+        emaFast = price * fastMultiplier + emaFast * (1 - fastMultiplier);
+        emaSlow = price * slowMultiplier + emaSlow * (1 - slowMultiplier);
+        dif = emaFast - emaSlow;
+        dea = dif * signalMultiplier + dea * (1 - signalMultiplier);
+    }
+
+    private void replayWarmup() {
+        int n = warmup.length;
+        double[] fast = new double[n];
+        double[] slow = new double[n];
+        double[] difs = new double[n];
+        double[] deas = new double[n];
+        double[] histogram = new double[n];
+        IndicatorKernels.ema(warmup, 0, n, fastPeriod, fast);
+        IndicatorKernels.ema(warmup, 0, n, slowPeriod, slow);
+        IndicatorKernels.macd(warmup, 0, n, fastPeriod, slowPeriod, signalPeriod, difs, deas, histogram);
+
+        emaFast = fast[n - 1];
+        emaSlow = slow[n - 1];
+        dif = difs[n - 1];
+        dea = deas[n - 1];
+        if (n > 1) {
+            previousDif = difs[n - 2];
+            previousDea = deas[n - 2];
+        }
+        warmup = null;
+    }
+
+    public double getDif() {
+        return dif;
+    }
+
+    public double getDea() {
+        return dea;
+    }
+
+    public double getPreviousDif() {
+        return previousDif;
+    }
+
+    public double getPreviousDea() {
+        return previousDea;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return warmup == null;
+    }
+
+    @Override
+    public double getCurrent() {
+        return (dif - dea) * 2;
+    }
+
+    @Override
+    public double getPrevious() {
+        return (previousDif - previousDea) * 2;
+    }
+}
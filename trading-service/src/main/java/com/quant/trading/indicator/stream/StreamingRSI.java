@@ -0,0 +1,77 @@
+package com.quant.trading.indicator.stream;
+
+/**
+ * 增量相对强弱指标（Wilder 平滑，与 IndicatorKernels.rsi 逐根对齐，包含最新一根K线）
+ */
+public class StreamingRSI implements StreamingIndicator {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int period;
+    private double lastPrice = Double.NaN;
+    private double avgGain;
+    private double avgLoss;
+    private long count;
+    private double current = Double.NaN;
+    private double previous = Double.NaN;
+
+    public StreamingRSI(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        this.period = period;
+    }
+
+    @Override
+    public void update(double price) {
+        long index = count++;
+        previous = current;
+        if (index == 0) {
+            lastPrice = price;
+            return;
+        }
+
+        double change = price - lastPrice;
+        lastPrice = price;
+        double gain = change > 0 ? change : 0;
+        double loss = change > 0 ? 0 : -change;
+
+        if (index < period) {
+            avgGain += gain;
+            avgLoss += loss;
+            return;
+        }
+        if (index == period) {
+            avgGain = (avgGain + gain) / period;
+            avgLoss = (avgLoss + loss) / period;
+        } else {
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+        }
+        current = avgLoss == 0 ? 100 : 100 - 100 / (1 + avgGain / avgLoss);
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count > period;
+    }
+
+    @Override
+    public double getCurrent() {
+        return current;
+    }
+
+    @Override
+    public double getPrevious() {
+        return previous;
+    }
+}
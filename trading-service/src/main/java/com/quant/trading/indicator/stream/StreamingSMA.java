@@ -0,0 +1,63 @@
+package com.quant.trading.indicator.stream;
+
+/**
+ * 增量简单移动平均线
+ * 环形缓冲区保存最近 period 个价格，维护滑动和
+ */
+public class StreamingSMA implements StreamingIndicator {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int period;
+    private final double[] window;
+    private double sum;
+    private long count;
+    private double current = Double.NaN;
+    private double previous = Double.NaN;
+
+    public StreamingSMA(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        this.period = period;
+        this.window = new double[period];
+    }
+
+    @Override
+    public void update(double price) {
+        int slot = (int) (count % period);
+        if (count >= period) {
+            sum -= window[slot];
+        }
+        window[slot] = price;
+        sum += price;
+        count++;
+
+        previous = current;
+        current = count >= period ? sum / period : Double.NaN;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double getCurrent() {
+        return current;
+    }
+
+    @Override
+    public double getPrevious() {
+        return previous;
+    }
+}
@@ -0,0 +1,30 @@
+package com.quant.trading.indicator.vector;
+
+/**
+ * 数组内核的参数校验
+ */
+final class ArrayChecks {
+
+    private ArrayChecks() {
+    }
+
+    static void checkWindow(int rows, int columns, int period, int srcLength, int dstLength) {
+        if (period < 1) {
+            throw new IllegalArgumentException("周期必须大于0: " + period);
+        }
+        checkMatrix(rows, columns, srcLength, srcLength, dstLength);
+    }
+
+    static void checkMatrix(int rows, int columns, int aLength, int bLength, int dstLength) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("矩阵尺寸无效: rows=" + rows + ", columns=" + columns);
+        }
+        checkElementwise(Math.multiplyExact(rows, columns), aLength, bLength, dstLength);
+    }
+
+    static void checkElementwise(int len, int aLength, int bLength, int dstLength) {
+        if (len < 0 || aLength < len || bLength < len || dstLength < len) {
+            throw new IndexOutOfBoundsException("数组长度不足: len=" + len);
+        }
+    }
+}
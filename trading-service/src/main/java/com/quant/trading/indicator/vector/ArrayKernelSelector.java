@@ -0,0 +1,124 @@
+package com.quant.trading.indicator.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 运行时选择数组计算内核
+ * JVM 加载了 jdk.incubator.vector 模块（--add-modules jdk.incubator.vector）且向量实现通过启动自检时使用
+ * {@link VectorArrayKernels}，否则回退到 {@link ScalarArrayKernels}。
+ * 设置系统属性 trading.indicator.vector.enabled=false 可强制使用标量实现。
+ */
+@Slf4j
+public final class ArrayKernelSelector {
+
+    public static final String ENABLED_PROPERTY = "trading.indicator.vector.enabled";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_IMPLEMENTATION = "com.quant.trading.indicator.vector.VectorArrayKernels";
+
+    private static final ArrayKernels SELECTED = select();
+
+    private ArrayKernelSelector() {
+    }
+
+    /**
+     * 运行时选定的实现
+     */
+    public static ArrayKernels get() {
+        return SELECTED;
+    }
+
+    /**
+     * 标量参考实现
+     */
+    public static ArrayKernels scalar() {
+        return ScalarArrayKernels.INSTANCE;
+    }
+
+    /**
+     * 向量实现可用时返回它，否则返回 null
+     */
+    public static ArrayKernels vectorOrNull() {
+        return SELECTED != ScalarArrayKernels.INSTANCE ? SELECTED : null;
+    }
+
+    private static ArrayKernels select() {
+        if ("false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY))) {
+            log.info("向量指标内核已禁用，使用标量实现");
+            return ScalarArrayKernels.INSTANCE;
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("未加载 {} 模块，使用标量指标内核", VECTOR_MODULE);
+            return ScalarArrayKernels.INSTANCE;
+        }
+        try {
+            ArrayKernels vector = (ArrayKernels) Class.forName(VECTOR_IMPLEMENTATION)
+                    .getDeclaredField("INSTANCE").get(null);
+            if (!agrees(vector, ScalarArrayKernels.INSTANCE)) {
+                log.warn("向量指标内核自检结果与标量实现不一致，使用标量实现");
+                return ScalarArrayKernels.INSTANCE;
+            }
+            log.info("使用向量指标内核: {}", vector.name());
+            return vector;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            log.warn("加载向量指标内核失败，使用标量实现: {}", e.toString());
+            return ScalarArrayKernels.INSTANCE;
+        }
+    }
+
+    /**
+     * 在随机价格矩阵上比较两种实现，要求结果逐位一致
+     */
+    static boolean agrees(ArrayKernels candidate, ArrayKernels reference) {
+        Random random = new Random(20240101L);
+        int rows = 257;
+        int columns = 13;
+        int len = rows * columns;
+        double[] src = new double[len];
+        for (int s = 0; s < columns; s++) {
+            double price = 10 + s;
+            for (int t = 0; t < rows; t++) {
+                price *= 1 + (random.nextDouble() - 0.5) * 0.06;
+                src[t * columns + s] = price;
+            }
+        }
+
+        double[] expected = new double[len];
+        double[] actual = new double[len];
+        for (int period : new int[]{1, 5, 20, 60}) {
+            reference.rollingMean(src, rows, columns, period, expected);
+            candidate.rollingMean(src, rows, columns, period, actual);
+            if (!Arrays.equals(expected, actual)) {
+                return false;
+            }
+            reference.rollingVariance(src, rows, columns, period, expected);
+            candidate.rollingVariance(src, rows, columns, period, actual);
+            if (!Arrays.equals(expected, actual)) {
+                return false;
+            }
+        }
+
+        double[] fast = new double[len];
+        double[] slow = new double[len];
+        reference.rollingMean(src, rows, columns, 5, fast);
+        reference.rollingMean(src, rows, columns, 20, slow);
+        reference.subtract(fast, slow, len, expected);
+        candidate.subtract(fast, slow, len, actual);
+        if (!Arrays.equals(expected, actual)) {
+            return false;
+        }
+        reference.histogram(fast, slow, len, expected);
+        candidate.histogram(fast, slow, len, actual);
+        if (!Arrays.equals(expected, actual)) {
+            return false;
+        }
+        byte[] expectedCrosses = new byte[len];
+        byte[] actualCrosses = new byte[len];
+        reference.crossovers(fast, slow, rows, columns, expectedCrosses);
+        candidate.crossovers(fast, slow, rows, columns, actualCrosses);
+        return Arrays.equals(expectedCrosses, actualCrosses);
+    }
+}
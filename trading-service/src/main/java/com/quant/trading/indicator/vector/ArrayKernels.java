@@ -0,0 +1,42 @@
+package com.quant.trading.indicator.vector;
+
+/**
+ * 全市场扫描用的数组计算内核
+ * 多只股票的价格按时间优先的矩阵存放：src[t * columns + s] 为第 s 只股票第 t 根K线的收盘价，
+ * 结果矩阵 dst 布局相同，窗口未满的行为 NaN；单只股票即 columns = 1。
+ * 滚动窗口沿时间方向递推、在股票方向上并行，各实现的运算顺序相同，结果逐位一致。
+ * {@link ScalarArrayKernels} 为标量参考实现，{@link VectorArrayKernels} 使用 Vector API；
+ * 通过 {@link ArrayKernelSelector#get()} 获取运行时选定的实现。
+ */
+public interface ArrayKernels {
+
+    /**
+     * 滚动均值（简单移动平均，与 IndicatorKernels.sma 口径一致）
+     */
+    void rollingMean(double[] src, int rows, int columns, int period, double[] dst);
+
+    /**
+     * 滚动总体方差（滑动 Welford，与布林带口径一致）
+     */
+    void rollingVariance(double[] src, int rows, int columns, int period, double[] dst);
+
+    /**
+     * 逐元素相减：dst[i] = a[i] - b[i]（如 MACD 的 DIF = 快线 - 慢线）
+     */
+    void subtract(double[] a, double[] b, int len, double[] dst);
+
+    /**
+     * MACD 柱状图：dst[i] = (dif[i] - dea[i]) * 2
+     */
+    void histogram(double[] dif, double[] dea, int len, double[] dst);
+
+    /**
+     * 交叉检测：fast 上穿 slow 记 1，下穿记 -1，否则为 0（含 NaN 的位置及第一行为 0）
+     */
+    void crossovers(double[] fast, double[] slow, int rows, int columns, byte[] dst);
+
+    /**
+     * 实现名称
+     */
+    String name();
+}
@@ -0,0 +1,111 @@
+package com.quant.trading.indicator.vector;
+
+/**
+ * 数组计算内核的标量参考实现
+ */
+public final class ScalarArrayKernels implements ArrayKernels {
+
+    static final ScalarArrayKernels INSTANCE = new ScalarArrayKernels();
+
+    private ScalarArrayKernels() {
+    }
+
+    @Override
+    public void rollingMean(double[] src, int rows, int columns, int period, double[] dst) {
+        ArrayChecks.checkWindow(rows, columns, period, src.length, dst.length);
+        for (int s = 0; s < columns; s++) {
+            rollingMeanColumn(src, rows, columns, s, period, dst);
+        }
+    }
+
+    @Override
+    public void rollingVariance(double[] src, int rows, int columns, int period, double[] dst) {
+        ArrayChecks.checkWindow(rows, columns, period, src.length, dst.length);
+        for (int s = 0; s < columns; s++) {
+            rollingVarianceColumn(src, rows, columns, s, period, dst);
+        }
+    }
+
+    @Override
+    public void subtract(double[] a, double[] b, int len, double[] dst) {
+        ArrayChecks.checkElementwise(len, a.length, b.length, dst.length);
+        for (int i = 0; i < len; i++) {
+            dst[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    public void histogram(double[] dif, double[] dea, int len, double[] dst) {
+        ArrayChecks.checkElementwise(len, dif.length, dea.length, dst.length);
+        for (int i = 0; i < len; i++) {
+            dst[i] = (dif[i] - dea[i]) * 2;
+        }
+    }
+
+    @Override
+    public void crossovers(double[] fast, double[] slow, int rows, int columns, byte[] dst) {
+        ArrayChecks.checkMatrix(rows, columns, fast.length, slow.length, dst.length);
+        crossoversRange(fast, slow, columns, 0, rows * columns, dst);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    /**
+     * 单只股票的滚动均值（向量实现也用它处理余下的列）
+     */
+    static void rollingMeanColumn(double[] src, int rows, int columns, int s, int period, double[] dst) {
+        double sum = 0;
+        for (int t = 0; t < rows; t++) {
+            int i = t * columns + s;
+            sum += src[i];
+            if (t >= period) {
+                sum -= src[i - period * columns];
+            }
+            dst[i] = t >= period - 1 ? sum / period : Double.NaN;
+        }
+    }
+
+    /**
+     * 单只股票的滚动方差
+     */
+    static void rollingVarianceColumn(double[] src, int rows, int columns, int s, int period, double[] dst) {
+        double mean = 0;
+        double m2 = 0;
+        for (int t = 0; t < rows; t++) {
+            int i = t * columns + s;
+            double x = src[i];
+            if (t < period) {
+                double delta = x - mean;
+                mean += delta / (t + 1);
+                m2 += delta * (x - mean);
+            } else {
+                double old = src[i - period * columns];
+                double previousMean = mean;
+                mean += (x - old) / period;
+                m2 += (x - old) * (x - mean + old - previousMean);
+            }
+            dst[i] = t >= period - 1 ? Math.max(m2, 0) / period : Double.NaN;
+        }
+    }
+
+    /**
+     * 扁平下标 [start, end) 的交叉检测，前一根K线位于 i - columns
+     */
+    static void crossoversRange(double[] fast, double[] slow, int columns, int start, int end, byte[] dst) {
+        for (int i = start; i < end; i++) {
+            int p = i - columns;
+            if (p < 0) {
+                dst[i] = 0;
+            } else if (fast[p] < slow[p] && fast[i] > slow[i]) {
+                dst[i] = 1;
+            } else if (fast[p] > slow[p] && fast[i] < slow[i]) {
+                dst[i] = -1;
+            } else {
+                dst[i] = 0;
+            }
+        }
+    }
+}
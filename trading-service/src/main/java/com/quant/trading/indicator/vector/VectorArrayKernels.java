@@ -0,0 +1,134 @@
+package com.quant.trading.indicator.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 Vector API（jdk.incubator.vector）的数组计算内核
+ * 每个向量通道对应一只股票：按股票分块，块内沿时间递推，累加状态保存在寄存器中，
+ * 逐通道的运算与标量实现完全相同（不使用 FMA），结果逐位一致。不足一个向量宽度的剩余股票走标量路径。
+ * 只能在以 --add-modules jdk.incubator.vector 启动的 JVM 中加载，由 {@link ArrayKernelSelector} 负责选择。
+ */
+public final class VectorArrayKernels implements ArrayKernels {
+
+    static final VectorArrayKernels INSTANCE = new VectorArrayKernels();
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private VectorArrayKernels() {
+    }
+
+    @Override
+    public void rollingMean(double[] src, int rows, int columns, int period, double[] dst) {
+        ArrayChecks.checkWindow(rows, columns, period, src.length, dst.length);
+        int blocked = SPECIES.loopBound(columns);
+        DoubleVector nan = DoubleVector.broadcast(SPECIES, Double.NaN);
+        int lag = period * columns;
+        for (int s = 0; s < blocked; s += LANES) {
+            DoubleVector sum = DoubleVector.zero(SPECIES);
+            for (int t = 0; t < rows; t++) {
+                int i = t * columns + s;
+                sum = sum.add(DoubleVector.fromArray(SPECIES, src, i));
+                if (t >= period) {
+                    sum = sum.sub(DoubleVector.fromArray(SPECIES, src, i - lag));
+                }
+                (t >= period - 1 ? sum.div(period) : nan).intoArray(dst, i);
+            }
+        }
+        for (int s = blocked; s < columns; s++) {
+            ScalarArrayKernels.rollingMeanColumn(src, rows, columns, s, period, dst);
+        }
+    }
+
+    @Override
+    public void rollingVariance(double[] src, int rows, int columns, int period, double[] dst) {
+        ArrayChecks.checkWindow(rows, columns, period, src.length, dst.length);
+        int blocked = SPECIES.loopBound(columns);
+        DoubleVector nan = DoubleVector.broadcast(SPECIES, Double.NaN);
+        int lag = period * columns;
+        for (int s = 0; s < blocked; s += LANES) {
+            DoubleVector mean = DoubleVector.zero(SPECIES);
+            DoubleVector m2 = DoubleVector.zero(SPECIES);
+            for (int t = 0; t < rows; t++) {
+                int i = t * columns + s;
+                DoubleVector x = DoubleVector.fromArray(SPECIES, src, i);
+                if (t < period) {
+                    DoubleVector delta = x.sub(mean);
+                    mean = mean.add(delta.div(t + 1));
+                    m2 = m2.add(delta.mul(x.sub(mean)));
+                } else {
+                    DoubleVector old = DoubleVector.fromArray(SPECIES, src, i - lag);
+                    DoubleVector previousMean = mean;
+                    DoubleVector change = x.sub(old);
+                    mean = mean.add(change.div(period));
+                    m2 = m2.add(change.mul(x.sub(mean).add(old).sub(previousMean)));
+                }
+                (t >= period - 1 ? m2.max(0).div(period) : nan).intoArray(dst, i);
+            }
+        }
+        for (int s = blocked; s < columns; s++) {
+            ScalarArrayKernels.rollingVarianceColumn(src, rows, columns, s, period, dst);
+        }
+    }
+
+    @Override
+    public void subtract(double[] a, double[] b, int len, double[] dst) {
+        ArrayChecks.checkElementwise(len, a.length, b.length, dst.length);
+        int i = 0;
+        int upper = SPECIES.loopBound(len);
+        for (; i < upper; i += LANES) {
+            DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i)).intoArray(dst, i);
+        }
+        for (; i < len; i++) {
+            dst[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    public void histogram(double[] dif, double[] dea, int len, double[] dst) {
+        ArrayChecks.checkElementwise(len, dif.length, dea.length, dst.length);
+        int i = 0;
+        int upper = SPECIES.loopBound(len);
+        for (; i < upper; i += LANES) {
+            DoubleVector.fromArray(SPECIES, dif, i).sub(DoubleVector.fromArray(SPECIES, dea, i))
+                    .mul(2).intoArray(dst, i);
+        }
+        for (; i < len; i++) {
+            dst[i] = (dif[i] - dea[i]) * 2;
+        }
+    }
+
+    @Override
+    public void crossovers(double[] fast, double[] slow, int rows, int columns, byte[] dst) {
+        ArrayChecks.checkMatrix(rows, columns, fast.length, slow.length, dst.length);
+        int len = rows * columns;
+        int start = Math.min(columns, len);
+        ScalarArrayKernels.crossoversRange(fast, slow, columns, 0, start, dst);
+        int i = start;
+        int upper = start + SPECIES.loopBound(len - start);
+        for (; i < upper; i += LANES) {
+            DoubleVector previousFast = DoubleVector.fromArray(SPECIES, fast, i - columns);
+            DoubleVector previousSlow = DoubleVector.fromArray(SPECIES, slow, i - columns);
+            DoubleVector currentFast = DoubleVector.fromArray(SPECIES, fast, i);
+            DoubleVector currentSlow = DoubleVector.fromArray(SPECIES, slow, i);
+            VectorMask<Double> up = previousFast.compare(VectorOperators.LT, previousSlow)
+                    .and(currentFast.compare(VectorOperators.GT, currentSlow));
+            VectorMask<Double> down = previousFast.compare(VectorOperators.GT, previousSlow)
+                    .and(currentFast.compare(VectorOperators.LT, currentSlow));
+            long upBits = up.toLong();
+            long downBits = down.toLong();
+            for (int lane = 0; lane < LANES; lane++) {
+                dst[i + lane] = (byte) (((upBits >>> lane) & 1) - ((downBits >>> lane) & 1));
+            }
+        }
+        ScalarArrayKernels.crossoversRange(fast, slow, columns, i, len, dst);
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + LANES + "x64)";
+    }
+}
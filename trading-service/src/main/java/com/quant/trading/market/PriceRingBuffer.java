@@ -0,0 +1,131 @@
+package com.quant.trading.market;
+
+import com.quant.trading.indicator.PriceSeries;
+
+/**
+ * 单只股票的收盘价环形缓冲区
+ * 容量固定，超出容量时覆盖最旧的K线。底层数组按两倍长度镜像存放（第 i 个槽位同时写在 i 和 i+P），
+ * 因此任意以最新K线结尾、不超过容量的窗口在数组中都是连续的，可以直接作为 {@link PriceSeries} 视图返回而不复制。
+ * 物理槽位比容量多出 {@link #HEADROOM} 个，已取出的视图在之后 HEADROOM 次追加内不会被覆盖。
+ * 同一交易日的收盘价修正不能原地改写最后一个槽位（已取出的视图会在计算中途变化），
+ * 而以新槽位结尾的连续窗口又必然包含被修正的旧K线，因此修正时复制出一份新数组再发布，旧视图保持不变。
+ * 单写多读：写操作加锁，读操作通过一次 volatile 读取得到一致的（数组, 条数, 写位置）快照。
+ */
+public final class PriceRingBuffer {
+
+    /** 追加新K线时为已取出视图保留的余量 */
+    static final int HEADROOM = 32;
+
+    private final int capacity;
+    private final int physical;
+
+    private volatile Frame frame;
+
+    public PriceRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("容量必须大于0: " + capacity);
+        }
+        this.capacity = capacity;
+        this.physical = capacity + HEADROOM;
+        this.frame = new Frame(new double[physical * 2], new int[physical * 2], 0, 0);
+    }
+
+    /**
+     * 占用的堆内存（字节，近似值，不含收盘价修正时短暂并存的旧数组）
+     */
+    public static long bytesFor(int capacity) {
+        return (long) (capacity + HEADROOM) * 2 * (Double.BYTES + Integer.BYTES);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return frame.count;
+    }
+
+    /**
+     * 最后一根K线的交易日（epochDay），为空时返回 -1
+     */
+    public int lastEpochDay() {
+        Frame f = frame;
+        if (f.count == 0) {
+            return -1;
+        }
+        return f.epochDays[lastSlot(f.next)];
+    }
+
+    /**
+     * 最新收盘价，为空时返回 NaN
+     */
+    public double lastClose() {
+        Frame f = frame;
+        if (f.count == 0) {
+            return Double.NaN;
+        }
+        return f.closes[lastSlot(f.next)];
+    }
+
+    /**
+     * 追加一根K线
+     * 交易日晚于最后一根时追加；与最后一根相同时更新其收盘价（盘中修正，写入新数组后发布）；更早的K线忽略
+     *
+     * @return 是否改变了缓冲区内容
+     */
+    public synchronized boolean append(int epochDay, double close) {
+        Frame f = frame;
+        int count = f.count;
+        int next = f.next;
+        if (count > 0) {
+            int last = lastSlot(next);
+            int lastDay = f.epochDays[last];
+            if (epochDay < lastDay) {
+                return false;
+            }
+            if (epochDay == lastDay) {
+                if (f.closes[last] == close) {
+                    return false;
+                }
+                Frame corrected = new Frame(f.closes.clone(), f.epochDays.clone(), count, next);
+                corrected.write(last, physical, epochDay, close);
+                frame = corrected;
+                return true;
+            }
+        }
+        f.write(next, physical, epochDay, close);
+        frame = new Frame(f.closes, f.epochDays, Math.min(count + 1, capacity), next + 1 == physical ? 0 : next + 1);
+        return true;
+    }
+
+    /**
+     * 以最新K线结尾的最近 n 根K线视图（共享底层数组）；n 超过已有K线数时返回全部
+     */
+    public PriceSeries window(String stockCode, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("K线数不能为负: " + n);
+        }
+        Frame f = frame;
+        int length = Math.min(n, f.count);
+        // 取镜像后半段中的最新槽位作为结尾，向前 length 个元素一定落在数组内
+        int end = lastSlot(f.next) + physical + 1;
+        return new PriceSeries(stockCode, f.closes, f.epochDays, end - length, length);
+    }
+
+    private int lastSlot(int next) {
+        return next == 0 ? physical - 1 : next - 1;
+    }
+
+    /**
+     * 一次发布的缓冲区状态：底层数组、已有K线数与下一个写入槽位
+     */
+    private record Frame(double[] closes, int[] epochDays, int count, int next) {
+
+        void write(int slot, int physical, int epochDay, double close) {
+            closes[slot] = close;
+            closes[slot + physical] = close;
+            epochDays[slot] = epochDay;
+            epochDays[slot + physical] = epochDay;
+        }
+    }
+}
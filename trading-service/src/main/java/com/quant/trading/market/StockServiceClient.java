@@ -0,0 +1,135 @@
+package com.quant.trading.market;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * stock-service 行情客户端
+ * 只取策略需要的（交易日, 收盘价），响应按交易日升序整理；请求失败时抛出 {@link IllegalStateException}
+ */
+@Slf4j
+@Component
+public class StockServiceClient {
+
+    /**
+     * stock-service 单次历史查询的天数上限（自然日）
+     * 上游行情服务同样只提供最近 365 天，约 240 个交易日，更早的历史取不到
+     */
+    public static final int MAX_HISTORY_DAYS = 365;
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+
+    public StockServiceClient(@Value("${trading.stock-service.url:http://localhost:8082/stock-service}") String baseUrl,
+                              @Value("${trading.stock-service.connect-timeout-ms:2000}") int connectTimeoutMs,
+                              @Value("${trading.stock-service.read-timeout-ms:10000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * 最近 days 天的日K线
+     */
+    public Bars history(String stockCode, int days) {
+        int clamped = Math.max(1, Math.min(days, MAX_HISTORY_DAYS));
+        JsonNode data = get("/api/v1/stocks/{code}/history?days={days}", stockCode, clamped);
+        return parseBars(stockCode, data);
+    }
+
+    /**
+     * since 之后（不含）的日K线
+     */
+    public Bars historySince(String stockCode, LocalDate since) {
+        JsonNode data = get("/api/v1/stocks/{code}/history?since={since}", stockCode, since.toString());
+        return parseBars(stockCode, data);
+    }
+
+    /**
+     * 最新一根K线，无数据时返回 null
+     */
+    public Bar latest(String stockCode) {
+        JsonNode data = get("/api/v1/stocks/{code}/latest", stockCode);
+        JsonNode date = data.get("trade_date");
+        JsonNode close = data.get("close");
+        if (date == null || date.isNull() || close == null || !close.isNumber()) {
+            return null;
+        }
+        return new Bar(parseEpochDay(date.asText()), close.asDouble());
+    }
+
+    private JsonNode get(String path, Object... uriVariables) {
+        JsonNode body;
+        try {
+            body = restTemplate.getForObject(baseUrl + path, JsonNode.class, uriVariables);
+        } catch (RestClientException e) {
+            throw new IllegalStateException("请求 stock-service 失败: " + e.getMessage(), e);
+        }
+        JsonNode data = body != null ? body.get("data") : null;
+        if (data == null || data.isNull()) {
+            String message = body != null && body.hasNonNull("message") ? body.get("message").asText() : "空响应";
+            throw new IllegalStateException("stock-service 返回无数据: " + message);
+        }
+        return data;
+    }
+
+    private static Bars parseBars(String stockCode, JsonNode data) {
+        JsonNode points = data.get("data");
+        int n = points != null && points.isArray() ? points.size() : 0;
+        long[] packed = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            JsonNode point = points.get(i);
+            JsonNode date = point.get("date");
+            JsonNode close = point.get("close");
+            if (date == null || date.isNull() || close == null || !close.isNumber()) {
+                continue;
+            }
+            // 交易日放在高位，排序后即按时间升序；收盘价按下标回查
+            packed[count++] = ((long) parseEpochDay(date.asText()) << 32) | i;
+        }
+        long[] sorted = Arrays.copyOf(packed, count);
+        Arrays.sort(sorted);
+
+        int[] epochDays = new int[count];
+        double[] closes = new double[count];
+        for (int i = 0; i < count; i++) {
+            epochDays[i] = (int) (sorted[i] >> 32);
+            closes[i] = points.get((int) sorted[i]).get("close").asDouble();
+        }
+        log.debug("stock-service 返回K线: stockCode={}, count={}", stockCode, count);
+        return new Bars(epochDays, closes);
+    }
+
+    private static int parseEpochDay(String text) {
+        String value = text.length() == 8 && text.indexOf('-') < 0
+                ? text.substring(0, 4) + "-" + text.substring(4, 6) + "-" + text.substring(6) : text;
+        return (int) LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value).toEpochDay();
+    }
+
+    /**
+     * 一根K线
+     */
+    public record Bar(int epochDay, double close) {
+    }
+
+    /**
+     * 按交易日升序排列的K线
+     */
+    public record Bars(int[] epochDays, double[] closes) {
+
+        public int size() {
+            return epochDays.length;
+        }
+    }
+}
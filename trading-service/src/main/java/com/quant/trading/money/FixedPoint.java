@@ -0,0 +1,132 @@
+package com.quant.trading.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 定点数金额与价格运算
+ * 价格以 long 表示、单位为 1/10000 元（×10⁴），金额单位为分（×10²），费率单位为百万分之一（×10⁶）。
+ * 交易与盯市计算全部在 long 上完成，不产生中间对象；舍入一律为 HALF_UP（远离零方向），
+ * 与原 BigDecimal 实现的 RoundingMode.HALF_UP 一致。只在实体/DTO 边界与 BigDecimal 互转。
+ */
+public final class FixedPoint {
+
+    /** 价格小数位数 */
+    public static final int PRICE_SCALE = 4;
+
+    /** 金额小数位数 */
+    public static final int MONEY_SCALE = 2;
+
+    /** 费率小数位数 */
+    public static final int RATE_SCALE = 6;
+
+    private static final long PRICE_PER_MONEY = 100;
+    private static final long RATE_ONE = 1_000_000;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * BigDecimal 价格转为定点价格（四舍五入到 4 位小数）
+     */
+    public static long toPrice(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * double 价格转为定点价格（四舍五入到 4 位小数），用于行情序列中的收盘价
+     */
+    public static long toPrice(double price) {
+        if (!Double.isFinite(price)) {
+            throw new ArithmeticException("价格无效: " + price);
+        }
+        return Math.round(price * 10_000);
+    }
+
+    /**
+     * BigDecimal 金额转为分（四舍五入到 2 位小数）
+     */
+    public static long toMoney(BigDecimal amount) {
+        return amount.setScale(MONEY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * BigDecimal 费率转为定点费率（如 0.0003 → 300）
+     */
+    public static long toRate(BigDecimal rate) {
+        return rate.setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 定点价格转为 BigDecimal；整分的价格保留2位小数，与行情报价的显示一致
+     */
+    public static BigDecimal priceToDecimal(long price) {
+        return price % PRICE_PER_MONEY == 0
+                ? BigDecimal.valueOf(price / PRICE_PER_MONEY, MONEY_SCALE)
+                : BigDecimal.valueOf(price, PRICE_SCALE);
+    }
+
+    public static BigDecimal moneyToDecimal(long amount) {
+        return BigDecimal.valueOf(amount, MONEY_SCALE);
+    }
+
+    /**
+     * 成交金额：价格 × 数量，四舍五入到分
+     */
+    public static long notional(long price, long quantity) {
+        return divideHalfUp(Math.multiplyExact(price, quantity), PRICE_PER_MONEY);
+    }
+
+    /**
+     * 按费率计算费用，四舍五入到分
+     */
+    public static long fee(long amount, long rate) {
+        return divideHalfUp(Math.multiplyExact(amount, rate), RATE_ONE);
+    }
+
+    /**
+     * 加仓后的平均成本：(原成本 × 原数量 + 价格 × 新增数量) / 总数量，四舍五入到分后以定点价格返回
+     */
+    public static long averageCost(long avgCost, long quantity, long price, long addedQuantity) {
+        long totalQuantity = Math.addExact(quantity, addedQuantity);
+        if (totalQuantity <= 0) {
+            throw new ArithmeticException("持仓数量必须大于0: " + totalQuantity);
+        }
+        long totalCost = Math.addExact(Math.multiplyExact(avgCost, quantity), Math.multiplyExact(price, addedQuantity));
+        return Math.multiplyExact(divideHalfUp(totalCost, Math.multiplyExact(totalQuantity, PRICE_PER_MONEY)),
+                PRICE_PER_MONEY);
+    }
+
+    /**
+     * 百分比（保留2位小数，单位 1/100 个百分点）：numerator / denominator 先四舍五入到 4 位小数再 ×100
+     */
+    public static long percent(long numerator, long denominator) {
+        return divideHalfUp(Math.multiplyExact(numerator, 10_000L), denominator);
+    }
+
+    /**
+     * 百分比转为 BigDecimal（如 1234 → 12.34）
+     */
+    public static BigDecimal percentToDecimal(long percent) {
+        return BigDecimal.valueOf(percent, 2);
+    }
+
+    /**
+     * 整数除法，HALF_UP 舍入（0.5 远离零）
+     */
+    public static long divideHalfUp(long numerator, long denominator) {
+        if (denominator == 0) {
+            throw new ArithmeticException("除数不能为0");
+        }
+        if (denominator < 0) {
+            numerator = Math.negateExact(numerator);
+            denominator = -denominator;
+        }
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (Math.abs(remainder) >= denominator - Math.abs(remainder)) {
+            quotient += numerator < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
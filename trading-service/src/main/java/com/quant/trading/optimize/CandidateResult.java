@@ -0,0 +1,19 @@
+package com.quant.trading.optimize;
+
+import java.util.Map;
+
+/**
+ * 一组参数在全部股票上的平均回测表现
+ *
+ * @param parameters  策略参数
+ * @param score       寻优目标得分
+ * @param totalReturn 平均总收益率
+ * @param cagr        平均年化复合收益率
+ * @param sharpe      平均夏普比率
+ * @param maxDrawdown 平均最大回撤
+ * @param trades      平均成交笔数
+ * @param symbols     参与统计的股票数
+ */
+public record CandidateResult(Map<String, Object> parameters, double score, double totalReturn, double cagr,
+                              double sharpe, double maxDrawdown, double trades, int symbols) {
+}
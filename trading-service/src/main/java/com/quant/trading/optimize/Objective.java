@@ -0,0 +1,51 @@
+package com.quant.trading.optimize;
+
+import java.util.Locale;
+
+/**
+ * 寻优目标，得分越高越好
+ */
+public enum Objective {
+
+    /** 夏普比率 */
+    SHARPE,
+
+    /** 总收益率 */
+    TOTAL_RETURN,
+
+    /** 年化复合收益率 */
+    CAGR,
+
+    /** 最大回撤（越小越好，得分取负值） */
+    MAX_DRAWDOWN,
+
+    /** 卡玛比率：年化收益率 / 最大回撤 */
+    CALMAR;
+
+    /**
+     * 按各股票上的平均表现计算得分
+     */
+    public double score(double totalReturn, double cagr, double sharpe, double maxDrawdown) {
+        return switch (this) {
+            case SHARPE -> sharpe;
+            case TOTAL_RETURN -> totalReturn;
+            case CAGR -> cagr;
+            case MAX_DRAWDOWN -> -maxDrawdown;
+            case CALMAR -> maxDrawdown > 0 ? cagr / maxDrawdown : cagr > 0 ? Double.MAX_VALUE : 0;
+        };
+    }
+
+    /**
+     * 解析目标名称（不区分大小写），为空时使用夏普比率
+     */
+    public static Objective parse(String text) {
+        if (text == null || text.isBlank()) {
+            return SHARPE;
+        }
+        try {
+            return valueOf(text.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的寻优目标: " + text);
+        }
+    }
+}
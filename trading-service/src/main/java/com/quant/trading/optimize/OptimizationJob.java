@@ -0,0 +1,184 @@
+package com.quant.trading.optimize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 参数寻优任务
+ * 保存任务状态、进度与结果，并向订阅者推送进度；取消通过标志位在组合粒度上生效
+ */
+public final class OptimizationJob {
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String id;
+    private final OptimizationRequest request;
+    private final int combinations;
+    private final int skipped;
+    private final long total;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong completed = new AtomicLong();
+    private final List<Consumer<OptimizationProgress>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile int symbolsDone;
+    private volatile double bestScore = Double.NaN;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile String error;
+    /** 各股票实际回测的K线数范围，尚无股票完成时为 0 */
+    private volatile int minBars;
+    private volatile int maxBars;
+    private volatile List<CandidateResult> results = List.of();
+
+    public OptimizationJob(String id, OptimizationRequest request, int combinations, int skipped) {
+        this.id = id;
+        this.request = request;
+        this.combinations = combinations;
+        this.skipped = skipped;
+        this.total = (long) combinations * request.stockCodes().size();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public OptimizationRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * 有效的参数组合数
+     */
+    public int getCombinations() {
+        return combinations;
+    }
+
+    /**
+     * 参数校验未通过而跳过的组合数
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * 已加载股票中最少的K线数；行情源可提供的历史短于请求的 days 时小于 days
+     */
+    public int getMinBars() {
+        return minBars;
+    }
+
+    public int getMaxBars() {
+        return maxBars;
+    }
+
+    public List<CandidateResult> getResults() {
+        return results;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * 请求取消；正在计算的组合完成后停止
+     */
+    public void cancel() {
+        cancelRequested = true;
+        if (status == Status.QUEUED) {
+            finish(Status.CANCELLED, null);
+        }
+    }
+
+    public OptimizationProgress progress() {
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        long elapsedMs = startNanos != 0 ? (end - startNanos) / 1_000_000 : 0;
+        return new OptimizationProgress(id, status, completed.get(), total, symbolsDone, bestScore, elapsedMs);
+    }
+
+    /**
+     * 订阅进度；任务已结束时立即收到最终进度
+     */
+    public void subscribe(Consumer<OptimizationProgress> listener) {
+        listeners.add(listener);
+        if (progress().isFinished()) {
+            listeners.remove(listener);
+            listener.accept(progress());
+        }
+    }
+
+    public void unsubscribe(Consumer<OptimizationProgress> listener) {
+        listeners.remove(listener);
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+        status = Status.RUNNING;
+        publish();
+    }
+
+    synchronized void recordBars(int bars) {
+        minBars = minBars == 0 ? bars : Math.min(minBars, bars);
+        maxBars = Math.max(maxBars, bars);
+    }
+
+    void addCompleted(long count) {
+        completed.addAndGet(count);
+    }
+
+    void symbolDone(double currentBest) {
+        symbolsDone++;
+        bestScore = currentBest;
+    }
+
+    void publish() {
+        OptimizationProgress progress = progress();
+        for (Consumer<OptimizationProgress> listener : listeners) {
+            try {
+                listener.accept(progress);
+            } catch (RuntimeException e) {
+                listeners.remove(listener);
+            }
+        }
+    }
+
+    synchronized void complete(List<CandidateResult> topResults) {
+        results = List.copyOf(topResults);
+        if (!topResults.isEmpty()) {
+            bestScore = topResults.get(0).score();
+        }
+        finish(cancelRequested ? Status.CANCELLED : Status.COMPLETED, null);
+    }
+
+    synchronized void finish(Status finalStatus, String message) {
+        if (status != Status.QUEUED && status != Status.RUNNING) {
+            return;
+        }
+        error = message;
+        finishNanos = System.nanoTime();
+        status = finalStatus;
+        publish();
+        listeners.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package com.quant.trading.optimize;
+
+/**
+ * 寻优进度快照
+ *
+ * @param jobId       任务ID
+ * @param status      任务状态
+ * @param completed   已完成的回测次数（组合 × 股票）
+ * @param total       回测总次数
+ * @param symbolsDone 已完成的股票数
+ * @param bestScore   当前最高得分（尚无结果时为 NaN）
+ * @param elapsedMs   已用时间
+ */
+public record OptimizationProgress(String jobId, OptimizationJob.Status status, long completed, long total,
+                                   int symbolsDone, double bestScore, long elapsedMs) {
+
+    public boolean isFinished() {
+        return status != OptimizationJob.Status.RUNNING && status != OptimizationJob.Status.QUEUED;
+    }
+}
@@ -0,0 +1,26 @@
+package com.quant.trading.optimize;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 参数寻优任务定义
+ *
+ * @param strategyType   策略类型
+ * @param baseParameters 固定不变的策略参数
+ * @param ranges         寻优参数的取值范围
+ * @param stockCodes     参与回测的股票
+ * @param days           每只股票回测的K线数
+ * @param method         搜索方式
+ * @param samples        随机搜索的组合数
+ * @param seed           随机搜索的种子
+ * @param objective      寻优目标
+ * @param topK           返回得分最高的组合数
+ * @param initialCapital 每只股票的初始资金
+ */
+public record OptimizationRequest(String strategyType, Map<String, Object> baseParameters,
+                                  List<ParameterRange> ranges, List<String> stockCodes, int days,
+                                  SearchMethod method, int samples, long seed, Objective objective, int topK,
+                                  BigDecimal initialCapital) {
+}
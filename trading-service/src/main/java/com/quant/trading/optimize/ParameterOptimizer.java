@@ -0,0 +1,244 @@
+package com.quant.trading.optimize;
+
+import com.quant.trading.backtest.BacktestEngine;
+import com.quant.trading.backtest.BacktestStats;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.indicator.SeriesIndicatorMemo;
+import com.quant.trading.strategy.StrategyConfig;
+import com.quant.trading.strategy.VectorizedStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * 参数寻优执行器
+ * 逐只股票加载价格序列并建立该序列的指标备忘，再在 ForkJoin 线程池上把参数组合切分并行回测：
+ * 同一股票上各组合共用已算出的指标列（如各周期的均线），每个组合只剩 O(n) 的信号扫描与成交模拟。
+ * 各组合在全部股票上的表现取平均后按目标排序，保留得分最高的 topK 组。
+ *
+ * @param <C> 编译后的参数类型
+ */
+@Slf4j
+public final class ParameterOptimizer<C extends StrategyConfig> {
+
+    /** 单个子任务最多处理的组合数 */
+    private static final int TASK_GRAIN = 8;
+
+    /** 进度推送的最小间隔 */
+    private static final long PUBLISH_INTERVAL_NANOS = 200_000_000L;
+
+    private final OptimizationJob job;
+    private final VectorizedStrategy<C> strategy;
+    private final List<Map<String, Object>> parameters;
+    private final List<C> configs;
+    private final long initialCash;
+    private final long commissionRate;
+
+    // 按组合累加已完成股票上的表现
+    private final double[] sumReturn;
+    private final double[] sumCagr;
+    private final double[] sumSharpe;
+    private final double[] sumDrawdown;
+    private final long[] sumTrades;
+    private final int[] symbolCount;
+
+    /**
+     * @param parameters 各组合的策略参数，与 configs 一一对应
+     * @param configs    各组合编译后的策略参数
+     */
+    public ParameterOptimizer(OptimizationJob job, VectorizedStrategy<C> strategy,
+                              List<Map<String, Object>> parameters, List<C> configs,
+                              long initialCash, long commissionRate) {
+        if (parameters.size() != configs.size()) {
+            throw new IllegalArgumentException("参数组合与编译结果数量不一致");
+        }
+        this.job = job;
+        this.strategy = strategy;
+        this.parameters = parameters;
+        this.configs = configs;
+        this.initialCash = initialCash;
+        this.commissionRate = commissionRate;
+        int m = configs.size();
+        this.sumReturn = new double[m];
+        this.sumCagr = new double[m];
+        this.sumSharpe = new double[m];
+        this.sumDrawdown = new double[m];
+        this.sumTrades = new long[m];
+        this.symbolCount = new int[m];
+    }
+
+    /**
+     * 一只股票上各组合的回测结果；每个组合只由一个子任务写入，整只股票完成后才并入累计值，
+     * 中途取消时累计值只包含已完成的股票
+     */
+    private static final class SymbolResults {
+        final double[] totalReturn;
+        final double[] cagr;
+        final double[] sharpe;
+        final double[] maxDrawdown;
+        final int[] trades;
+
+        SymbolResults(int m) {
+            totalReturn = new double[m];
+            cagr = new double[m];
+            sharpe = new double[m];
+            maxDrawdown = new double[m];
+            trades = new int[m];
+        }
+    }
+
+    /**
+     * 执行寻优（阻塞直到完成、取消或失败）
+     *
+     * @param loader 按股票代码加载价格序列
+     * @param pool   并行回测使用的线程池
+     */
+    public void run(Function<String, PriceSeries> loader, ForkJoinPool pool) {
+        job.start();
+        try {
+            Objective objective = job.getRequest().objective();
+            long lastPublish = System.nanoTime();
+            for (String stockCode : job.getRequest().stockCodes()) {
+                if (job.isCancelRequested()) {
+                    break;
+                }
+                PriceSeries series;
+                try {
+                    series = loader.apply(stockCode);
+                } catch (RuntimeException e) {
+                    log.warn("寻优任务 {} 跳过股票 {}: {}", job.getId(), stockCode, e.getMessage());
+                    job.addCompleted(configs.size());
+                    job.symbolDone(bestScore(objective));
+                    continue;
+                }
+
+                job.recordBars(series.length());
+                if (series.length() < job.getRequest().days()) {
+                    log.info("寻优任务 {} 股票 {} 只有 {} 根K线，少于请求的 {} 天",
+                            job.getId(), stockCode, series.length(), job.getRequest().days());
+                }
+                SymbolResults results = new SymbolResults(configs.size());
+                pool.invoke(new SweepTask(new SeriesIndicatorMemo(series), BacktestEngine.prices(series), results,
+                        0, configs.size()));
+                if (job.isCancelRequested()) {
+                    break;
+                }
+                merge(results);
+                job.symbolDone(bestScore(objective));
+
+                long now = System.nanoTime();
+                if (now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                    job.publish();
+                    lastPublish = now;
+                }
+            }
+            job.complete(top(objective, job.getRequest().topK()));
+        } catch (RuntimeException e) {
+            log.error("寻优任务 {} 失败", job.getId(), e);
+            job.finish(OptimizationJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * 在一只股票上回测 [from, to) 范围内的组合
+     */
+    private final class SweepTask extends RecursiveAction {
+
+        private final SeriesIndicatorMemo memo;
+        private final long[] prices;
+        private final SymbolResults results;
+        private final int from;
+        private final int to;
+
+        SweepTask(SeriesIndicatorMemo memo, long[] prices, SymbolResults results, int from, int to) {
+            this.memo = memo;
+            this.prices = prices;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TASK_GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SweepTask(memo, prices, results, from, mid),
+                        new SweepTask(memo, prices, results, mid, to));
+                return;
+            }
+            PriceSeries series = memo.getSeries();
+            byte[] signals = new byte[series.length()];
+            int done = 0;
+            for (int c = from; c < to && !job.isCancelRequested(); c++) {
+                strategy.signals(series, configs.get(c), memo, signals);
+                BacktestStats stats = BacktestEngine.run(series, prices, signals, initialCash, commissionRate)
+                        .getStats();
+                results.totalReturn[c] = stats.totalReturn();
+                results.cagr[c] = stats.cagr();
+                results.sharpe[c] = stats.sharpe();
+                results.maxDrawdown[c] = stats.maxDrawdown();
+                results.trades[c] = stats.tradeCount();
+                done++;
+            }
+            job.addCompleted(done);
+        }
+    }
+
+    private void merge(SymbolResults results) {
+        for (int c = 0; c < configs.size(); c++) {
+            sumReturn[c] += results.totalReturn[c];
+            sumCagr[c] += results.cagr[c];
+            sumSharpe[c] += results.sharpe[c];
+            sumDrawdown[c] += results.maxDrawdown[c];
+            sumTrades[c] += results.trades[c];
+            symbolCount[c]++;
+        }
+    }
+
+    private double score(Objective objective, int c) {
+        int n = symbolCount[c];
+        return objective.score(sumReturn[c] / n, sumCagr[c] / n, sumSharpe[c] / n, sumDrawdown[c] / n);
+    }
+
+    private double bestScore(Objective objective) {
+        double best = Double.NaN;
+        for (int c = 0; c < configs.size(); c++) {
+            if (symbolCount[c] > 0) {
+                double score = score(objective, c);
+                if (Double.isNaN(best) || score > best) {
+                    best = score;
+                }
+            }
+        }
+        return best;
+    }
+
+    private List<CandidateResult> top(Objective objective, int k) {
+        List<Integer> evaluated = new ArrayList<>();
+        double[] scores = new double[configs.size()];
+        for (int c = 0; c < configs.size(); c++) {
+            if (symbolCount[c] > 0) {
+                scores[c] = score(objective, c);
+                evaluated.add(c);
+            }
+        }
+        Integer[] order = evaluated.toArray(new Integer[0]);
+        Arrays.sort(order, Comparator.comparingDouble((Integer c) -> scores[c]).reversed());
+
+        List<CandidateResult> results = new ArrayList<>(Math.min(k, order.length));
+        for (int i = 0; i < order.length && i < k; i++) {
+            int c = order[i];
+            int n = symbolCount[c];
+            results.add(new CandidateResult(parameters.get(c), scores[c], sumReturn[c] / n, sumCagr[c] / n,
+                    sumSharpe[c] / n, sumDrawdown[c] / n, (double) sumTrades[c] / n, n));
+        }
+        return results;
+    }
+}
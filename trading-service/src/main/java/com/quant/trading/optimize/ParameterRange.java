@@ -0,0 +1,60 @@
+package com.quant.trading.optimize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一个参数的取值范围
+ * 取值为 min, min+step, ... 不超过 max；三者都是整数时按整数参数输出
+ *
+ * @param name 参数名（与策略 JSON 参数的字段名一致）
+ * @param min  最小值
+ * @param max  最大值
+ * @param step 步长
+ */
+public record ParameterRange(String name, double min, double max, double step) {
+
+    /** 单个参数的取值个数上限 */
+    public static final int MAX_VALUES = 10_000;
+
+    public ParameterRange {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("参数名不能为空");
+        }
+        if (!Double.isFinite(min) || !Double.isFinite(max) || min > max) {
+            throw new IllegalArgumentException(name + " 的取值范围无效: " + min + " - " + max);
+        }
+        if (!(step > 0) || !Double.isFinite(step)) {
+            throw new IllegalArgumentException(name + " 的步长必须大于0");
+        }
+        if ((max - min) / step + 1 > MAX_VALUES) {
+            throw new IllegalArgumentException(name + " 的取值过多，最多 " + MAX_VALUES + " 个");
+        }
+    }
+
+    /**
+     * 是否为整数参数
+     */
+    public boolean isIntegral() {
+        return min == Math.rint(min) && max == Math.rint(max) && step == Math.rint(step);
+    }
+
+    /**
+     * 全部取值（整数参数为 Integer，否则为 Double）
+     */
+    public List<Number> values() {
+        List<Number> values = new ArrayList<>();
+        boolean integral = isIntegral();
+        int count = (int) Math.floor((max - min) / step + 1e-9) + 1;
+        for (int i = 0; i < count; i++) {
+            double value = min + i * step;
+            // 不能写成条件表达式，否则 Integer 会被提升为 double
+            if (integral) {
+                values.add((int) value);
+            } else {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,106 @@
+package com.quant.trading.optimize;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 参数组合生成
+ * 每个组合是在基础参数上覆盖各寻优参数后的完整策略参数
+ */
+public final class ParameterSweep {
+
+    private ParameterSweep() {
+    }
+
+    /**
+     * 网格搜索：全部组合
+     *
+     * @throws IllegalArgumentException 组合数超过 maxCombinations
+     */
+    public static List<Map<String, Object>> grid(Map<String, Object> base, List<ParameterRange> ranges,
+                                                 int maxCombinations) {
+        List<List<Number>> values = valuesOf(ranges);
+        long total = 1;
+        for (List<Number> list : values) {
+            total *= list.size();
+            if (total > maxCombinations) {
+                throw new IllegalArgumentException("参数组合过多，最多 " + maxCombinations + " 组，请缩小范围或改用随机搜索");
+            }
+        }
+
+        List<Map<String, Object>> combinations = new ArrayList<>((int) total);
+        int[] index = new int[ranges.size()];
+        for (long k = 0; k < total; k++) {
+            combinations.add(combination(base, ranges, values, index));
+            // 按最后一个参数变化最快的顺序推进
+            for (int i = index.length - 1; i >= 0; i--) {
+                if (++index[i] < values.get(i).size()) {
+                    break;
+                }
+                index[i] = 0;
+            }
+        }
+        return combinations;
+    }
+
+    /**
+     * 随机搜索：不重复地抽取至多 samples 个组合（参数空间更小时返回全部组合）
+     */
+    public static List<Map<String, Object>> random(Map<String, Object> base, List<ParameterRange> ranges,
+                                                   int samples, long seed) {
+        List<List<Number>> values = valuesOf(ranges);
+        long space = 1;
+        for (List<Number> list : values) {
+            space = space > Long.MAX_VALUE / list.size() ? Long.MAX_VALUE : space * list.size();
+        }
+        if (space <= samples) {
+            return grid(base, ranges, samples);
+        }
+
+        Random random = new Random(seed);
+        Set<List<Integer>> seen = new HashSet<>();
+        List<Map<String, Object>> combinations = new ArrayList<>(samples);
+        int[] index = new int[ranges.size()];
+        int attempts = 0;
+        while (combinations.size() < samples && attempts++ < samples * 20) {
+            List<Integer> key = new ArrayList<>(index.length);
+            for (int i = 0; i < index.length; i++) {
+                index[i] = random.nextInt(values.get(i).size());
+                key.add(index[i]);
+            }
+            if (seen.add(key)) {
+                combinations.add(combination(base, ranges, values, index));
+            }
+        }
+        return combinations;
+    }
+
+    private static List<List<Number>> valuesOf(List<ParameterRange> ranges) {
+        if (ranges == null || ranges.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个寻优参数");
+        }
+        Set<String> names = new HashSet<>();
+        List<List<Number>> values = new ArrayList<>(ranges.size());
+        for (ParameterRange range : ranges) {
+            if (!names.add(range.name())) {
+                throw new IllegalArgumentException("寻优参数重复: " + range.name());
+            }
+            values.add(range.values());
+        }
+        return values;
+    }
+
+    private static Map<String, Object> combination(Map<String, Object> base, List<ParameterRange> ranges,
+                                                   List<List<Number>> values, int[] index) {
+        Map<String, Object> parameters = new LinkedHashMap<>(base);
+        for (int i = 0; i < index.length; i++) {
+            parameters.put(ranges.get(i).name(), values.get(i).get(index[i]));
+        }
+        return parameters;
+    }
+}
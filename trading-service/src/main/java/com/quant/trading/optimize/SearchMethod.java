@@ -0,0 +1,26 @@
+package com.quant.trading.optimize;
+
+import java.util.Locale;
+
+/**
+ * 参数搜索方式
+ */
+public enum SearchMethod {
+
+    /** 网格搜索：遍历全部参数组合 */
+    GRID,
+
+    /** 随机搜索：从参数空间中不重复地随机抽取指定数量的组合 */
+    RANDOM;
+
+    public static SearchMethod parse(String text) {
+        if (text == null || text.isBlank()) {
+            return GRID;
+        }
+        try {
+            return valueOf(text.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的搜索方式: " + text);
+        }
+    }
+}
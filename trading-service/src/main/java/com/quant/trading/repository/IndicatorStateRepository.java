@@ -0,0 +1,28 @@
+package com.quant.trading.repository;
+
+import com.quant.trading.entity.IndicatorState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface IndicatorStateRepository extends JpaRepository<IndicatorState, Long> {
+
+    /**
+     * 查询策略在指定股票上的指标状态
+     */
+    Optional<IndicatorState> findByStrategyIdAndStockCode(Long strategyId, String stockCode);
+
+    /**
+     * 删除策略的全部指标状态（一条 DELETE 语句）
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from IndicatorState s where s.strategyId = :strategyId")
+    void deleteByStrategyId(@Param("strategyId") Long strategyId);
+}
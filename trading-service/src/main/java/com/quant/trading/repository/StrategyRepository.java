@@ -19,6 +19,11 @@ public interface StrategyRepository extends JpaRepository<Strategy, Long> {
      */
     List<Strategy> findByUserIdAndStatus(Long userId, String status);
 
+    /**
+     * 根据状态查询策略
+     */
+    List<Strategy> findByStatus(String status);
+
     /**
      * 根据策略类型查询
      */
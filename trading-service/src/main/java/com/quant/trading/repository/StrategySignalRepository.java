@@ -1,11 +1,17 @@
 package com.quant.trading.repository;
 
 import com.quant.trading.entity.StrategySignal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StrategySignalRepository extends JpaRepository<StrategySignal, Long> {
@@ -30,8 +36,56 @@ public interface StrategySignalRepository extends JpaRepository<StrategySignal,
      */
     List<StrategySignal> findByStrategyIdOrderBySignalTimeDesc(Long strategyId);
 
+    /**
+     * （策略, 股票）最近的一条信号
+     */
+    Optional<StrategySignal> findFirstByStrategyIdAndStockCodeOrderBySignalTimeDescIdDesc(Long strategyId,
+                                                                                         String stockCode);
+
     /**
      * 根据时间范围查询信号
      */
     List<StrategySignal> findBySignalTimeBetween(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 按（信号时间, ID）倒序的游标分页：返回严格排在 (beforeTime, beforeId) 之后的信号
+     * signalType、stockCode 为 null 时不过滤；走 strategy_signals(strategy_id, signal_time, id) 索引
+     */
+    @Query("select s from StrategySignal s where s.strategyId = :strategyId"
+        + " and (:signalType is null or s.signalType = :signalType)"
+        + " and (:stockCode is null or s.stockCode = :stockCode)"
+        + " and (s.signalTime < :beforeTime or (s.signalTime = :beforeTime and s.id < :beforeId))"
+        + " order by s.signalTime desc, s.id desc")
+    List<StrategySignal> findPage(@Param("strategyId") Long strategyId,
+                                  @Param("signalType") String signalType,
+                                  @Param("stockCode") String stockCode,
+                                  @Param("beforeTime") LocalDateTime beforeTime,
+                                  @Param("beforeId") Long beforeId,
+                                  Limit limit);
+
+    /**
+     * 一条 DELETE 语句删除策略的全部信号，不加载实体
+     *
+     * @return 删除的行数
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from StrategySignal s where s.strategyId = :strategyId")
+    int deleteAllByStrategyId(@Param("strategyId") Long strategyId);
+
+    /**
+     * 最后出现时间早于 cutoff 的最早一批信号，用于分块归档（仍在延续的合并信号不会被归档）
+     */
+    @Query("select s from StrategySignal s where s.lastSeenAt < :cutoff order by s.lastSeenAt, s.id")
+    List<StrategySignal> findOlderThan(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * 按ID批量删除
+     *
+     * @return 删除的行数
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from StrategySignal s where s.id in :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,252 @@
+package com.quant.trading.service;
+
+import com.quant.trading.backtest.BacktestEngine;
+import com.quant.trading.backtest.BacktestResult;
+import com.quant.trading.backtest.MonteCarloResult;
+import com.quant.trading.backtest.MonteCarloSimulator;
+import com.quant.trading.backtest.PortfolioBacktestEngine;
+import com.quant.trading.backtest.PortfolioResult;
+import com.quant.trading.entity.Strategy;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.money.FixedPoint;
+import com.quant.trading.repository.StrategyRepository;
+import com.quant.trading.strategy.StrategyConfig;
+import com.quant.trading.strategy.TradingStrategy;
+import com.quant.trading.strategy.VectorizedStrategy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 回测服务
+ * 加载历史价格，由策略一次性算出整段序列的逐根信号，再交给 {@link BacktestEngine} 模拟成交；
+ * 多只股票的组合回测交给 {@link PortfolioBacktestEngine}，各股信号并行计算；
+ * 回测结果的蒙特卡洛重抽样同样分任务并行执行。两者都跑在回测专用的有界线程池上，
+ * 不与定时调度、批量信号生成共用 {@link SignalWorkerPool} 的线程
+ */
+@Slf4j
+@Service
+public class BacktestService {
+
+    /** 回测K线数上限（约40年日线） */
+    public static final int MAX_DAYS = 10_000;
+
+    /** 组合回测股票数上限 */
+    public static final int MAX_PORTFOLIO_SYMBOLS = 2000;
+
+    /** 蒙特卡洛路径数上限 */
+    public static final int MAX_MONTE_CARLO_PATHS = 100_000;
+
+    private final StrategyRepository strategyRepository;
+    private final StrategyService strategyService;
+    private final StrategyConfigCache strategyConfigCache;
+    private final PriceHistoryService priceHistoryService;
+    private final SignalWorkerPool analysisPool;
+
+    public BacktestService(StrategyRepository strategyRepository, StrategyService strategyService,
+                           StrategyConfigCache strategyConfigCache, PriceHistoryService priceHistoryService,
+                           @Value("${trading.backtest.workers:2}") int workers) {
+        this.strategyRepository = strategyRepository;
+        this.strategyService = strategyService;
+        this.strategyConfigCache = strategyConfigCache;
+        this.priceHistoryService = priceHistoryService;
+        this.analysisPool = new SignalWorkerPool("backtest-worker", workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        analysisPool.shutdown();
+    }
+
+    /**
+     * 按已保存的策略回测
+     */
+    public BacktestResult backtest(Long strategyId, String stockCode, int days, BigDecimal initialCapital) {
+        Strategy strategy = strategyRepository.findById(strategyId)
+            .orElseThrow(() -> new IllegalArgumentException("策略不存在: " + strategyId));
+        TradingStrategy<?> tradingStrategy = requireStrategy(strategy.getType());
+        StrategyConfig config = strategyConfigCache.get(strategy, tradingStrategy);
+        return run(tradingStrategy, config, stockCode, days, initialCapital);
+    }
+
+    /**
+     * 按策略类型和参数回测（不保存策略）
+     */
+    public BacktestResult backtest(String type, String parameters, String stockCode, int days,
+                                   BigDecimal initialCapital) {
+        TradingStrategy<?> tradingStrategy = requireStrategy(type);
+        StrategyConfig config = StrategyService.compileParameters(tradingStrategy, parameters);
+        return run(tradingStrategy, config, stockCode, days, initialCapital);
+    }
+
+    /**
+     * 按已保存的策略做组合回测
+     */
+    public PortfolioResult backtestPortfolio(Long strategyId, List<String> stockCodes, int days,
+                                             BigDecimal initialCapital, BigDecimal maxPositionRatio) {
+        Strategy strategy = strategyRepository.findById(strategyId)
+            .orElseThrow(() -> new IllegalArgumentException("策略不存在: " + strategyId));
+        TradingStrategy<?> tradingStrategy = requireStrategy(strategy.getType());
+        StrategyConfig config = strategyConfigCache.get(strategy, tradingStrategy);
+        return runPortfolio(tradingStrategy, config, stockCodes, days, initialCapital, maxPositionRatio);
+    }
+
+    /**
+     * 按策略类型和参数做组合回测（不保存策略）
+     */
+    public PortfolioResult backtestPortfolio(String type, String parameters, List<String> stockCodes, int days,
+                                             BigDecimal initialCapital, BigDecimal maxPositionRatio) {
+        TradingStrategy<?> tradingStrategy = requireStrategy(type);
+        StrategyConfig config = StrategyService.compileParameters(tradingStrategy, parameters);
+        return runPortfolio(tradingStrategy, config, stockCodes, days, initialCapital, maxPositionRatio);
+    }
+
+    /**
+     * 单股回测结果的蒙特卡洛分析
+     *
+     * @param mode      BLOCK_BOOTSTRAP 按日收益块重抽样，TRADE_RESAMPLE 按逐笔交易收益重抽样（块长度固定为1）
+     * @param blockSize 日收益块长度
+     */
+    public MonteCarloResult monteCarlo(BacktestResult result, MonteCarloSimulator.Mode mode, int paths,
+                                       int blockSize, long seed) {
+        if (mode == MonteCarloSimulator.Mode.TRADE_RESAMPLE) {
+            double[] returns = MonteCarloSimulator.tradeReturns(result.getTrades());
+            if (returns.length < 2) {
+                throw new IllegalArgumentException("已平仓交易不足2笔，无法按交易重抽样");
+            }
+            double years = (double) result.getEquity().length / BacktestEngine.TRADING_DAYS_PER_YEAR;
+            return simulate(returns, returns.length / years, paths, 1, seed);
+        }
+        return simulate(MonteCarloSimulator.dailyReturns(result.getEquity(), result.getStats().initialEquity()),
+            BacktestEngine.TRADING_DAYS_PER_YEAR, paths, blockSize, seed);
+    }
+
+    /**
+     * 组合回测结果的蒙特卡洛分析，只支持日收益块重抽样
+     * 组合中每笔交易只占部分仓位，逐笔收益无法连乘成组合权益
+     */
+    public MonteCarloResult monteCarlo(PortfolioResult result, MonteCarloSimulator.Mode mode, int paths,
+                                       int blockSize, long seed) {
+        if (mode != MonteCarloSimulator.Mode.BLOCK_BOOTSTRAP) {
+            throw new IllegalArgumentException("组合回测只支持 BLOCK_BOOTSTRAP 重抽样");
+        }
+        return simulate(MonteCarloSimulator.dailyReturns(result.getEquity(), result.getStats().initialEquity()),
+            BacktestEngine.TRADING_DAYS_PER_YEAR, paths, blockSize, seed);
+    }
+
+    private MonteCarloResult simulate(double[] returns, double periodsPerYear, int paths, int blockSize, long seed) {
+        if (paths < 1 || paths > MAX_MONTE_CARLO_PATHS) {
+            throw new IllegalArgumentException("paths 必须在 1-" + MAX_MONTE_CARLO_PATHS + " 之间");
+        }
+        long startNanos = System.nanoTime();
+        MonteCarloResult result = MonteCarloSimulator.run(returns, periodsPerYear, paths, blockSize, seed,
+            tasks -> analysisPool.map(tasks, task -> {
+                task.run();
+                return null;
+            }));
+        log.info("蒙特卡洛分析完成: paths={}, length={}, blockSize={}, elapsed={}ms",
+            paths, returns.length, result.blockSize(), (System.nanoTime() - startNanos) / 1_000_000);
+        return result;
+    }
+
+    private TradingStrategy<?> requireStrategy(String type) {
+        TradingStrategy<?> tradingStrategy = type != null ? strategyService.getStrategyByType(type) : null;
+        if (tradingStrategy == null) {
+            throw new IllegalArgumentException("不支持的策略类型: " + type);
+        }
+        if (!(tradingStrategy instanceof VectorizedStrategy<?>)) {
+            throw new IllegalArgumentException("策略类型不支持回测: " + type);
+        }
+        return tradingStrategy;
+    }
+
+    private BacktestResult run(TradingStrategy<?> tradingStrategy, StrategyConfig config, String stockCode,
+                               int days, BigDecimal initialCapital) {
+        if (stockCode == null || stockCode.isBlank()) {
+            throw new IllegalArgumentException("股票代码不能为空");
+        }
+        if (days < 2 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days 必须在 2-" + MAX_DAYS + " 之间");
+        }
+        if (initialCapital == null || initialCapital.signum() <= 0) {
+            throw new IllegalArgumentException("初始资金必须大于0");
+        }
+
+        PriceSeries series = priceHistoryService.getHistoricalPrices(stockCode, days);
+        long startNanos = System.nanoTime();
+        byte[] signals = new byte[series.length()];
+        computeSignals((VectorizedStrategy<?>) tradingStrategy, tradingStrategy.getConfigType(), config, series, signals);
+        BacktestResult result = BacktestEngine.run(series, signals, FixedPoint.toMoney(initialCapital),
+            TradingService.COMMISSION_RATE);
+        log.debug("回测完成: type={}, stockCode={}, bars={}, trades={}, elapsed={}us",
+            tradingStrategy.getStrategyType(), stockCode, series.length(), result.getTrades().size(),
+            (System.nanoTime() - startNanos) / 1000);
+        return result;
+    }
+
+    private PortfolioResult runPortfolio(TradingStrategy<?> tradingStrategy, StrategyConfig config,
+                                         List<String> stockCodes, int days, BigDecimal initialCapital,
+                                         BigDecimal maxPositionRatio) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            throw new IllegalArgumentException("股票列表不能为空");
+        }
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(stockCodes));
+        if (codes.size() > MAX_PORTFOLIO_SYMBOLS) {
+            throw new IllegalArgumentException("组合回测股票数不能超过 " + MAX_PORTFOLIO_SYMBOLS);
+        }
+        for (String code : codes) {
+            if (code == null || code.isBlank()) {
+                throw new IllegalArgumentException("股票代码不能为空");
+            }
+        }
+        if (days < 2 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days 必须在 2-" + MAX_DAYS + " 之间");
+        }
+        if (initialCapital == null || initialCapital.signum() <= 0) {
+            throw new IllegalArgumentException("初始资金必须大于0");
+        }
+        if (maxPositionRatio == null || maxPositionRatio.signum() <= 0 || maxPositionRatio.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException("单仓位比例上限必须在 (0, 1] 之间");
+        }
+
+        long startNanos = System.nanoTime();
+        VectorizedStrategy<?> vectorized = (VectorizedStrategy<?>) tradingStrategy;
+        Class<?> configType = tradingStrategy.getConfigType();
+        List<SymbolSignals> loaded = analysisPool.map(codes, code -> {
+            PriceSeries series = priceHistoryService.getHistoricalPrices(code, days);
+            byte[] signals = new byte[series.length()];
+            computeSignals(vectorized, configType, config, series, signals);
+            return new SymbolSignals(series, signals);
+        });
+
+        List<PriceSeries> series = new ArrayList<>(loaded.size());
+        byte[][] signals = new byte[loaded.size()][];
+        for (int i = 0; i < loaded.size(); i++) {
+            series.add(loaded.get(i).series());
+            signals[i] = loaded.get(i).signals();
+        }
+        long loadedNanos = System.nanoTime();
+        PortfolioResult result = PortfolioBacktestEngine.run(series, signals, FixedPoint.toMoney(initialCapital),
+            TradingService.COMMISSION_RATE, maxPositionRatio.doubleValue());
+        log.info("组合回测完成: type={}, symbols={}, days={}, trades={}, signals={}ms, simulation={}ms",
+            tradingStrategy.getStrategyType(), codes.size(), result.length(), result.getTrades().size(),
+            (loadedNanos - startNanos) / 1_000_000, (System.nanoTime() - loadedNanos) / 1_000_000);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C extends StrategyConfig> void computeSignals(VectorizedStrategy<C> strategy, Class<?> configType,
+                                                                 StrategyConfig config, PriceSeries series,
+                                                                 byte[] signals) {
+        strategy.signals(series, (C) configType.cast(config), signals);
+    }
+
+    private record SymbolSignals(PriceSeries series, byte[] signals) {
+    }
+}
@@ -0,0 +1,292 @@
+package com.quant.trading.service;
+
+import com.quant.trading.indicator.FusedIndicatorKernel;
+import com.quant.trading.indicator.IndicatorKernels;
+import com.quant.trading.indicator.IndicatorPanel;
+import com.quant.trading.indicator.IndicatorSource;
+import com.quant.trading.indicator.IndicatorSpec;
+import com.quant.trading.indicator.PriceSeries;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 指标结果缓存服务
+ * 多个策略关注同一只股票时共享指标计算结果。缓存键为（股票, 指标, 参数, 最后一根K线日期及收盘价, 序列长度），
+ * 盘中修正最后一根K线的收盘价后不会命中旧结果。
+ * 按缓存的数值总量限制内存并按LRU淘汰；同一个键并发未命中时只计算一次，其余调用等待同一结果。
+ * 返回的数组由所有调用方共享，只读。
+ */
+@Slf4j
+@Service
+public class IndicatorCacheService implements IndicatorSource {
+
+    private final MeterRegistry meterRegistry;
+
+    private final LinkedHashMap<Key, double[][]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Key, CompletableFuture<double[][]>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+    private long cachedValues;
+
+    @Value("${trading.indicator-cache.max-values:4000000}")
+    private long maxValues = 4_000_000L;
+
+    public IndicatorCacheService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("indicator.cache.values", this, service -> service.cachedValues)
+                .description("缓存中的指标数值总数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 简单移动平均线
+     */
+    @Override
+    public double[] sma(PriceSeries series, int period) {
+        return get(series, "SMA", params(period), () -> {
+            double[] out = new double[series.length()];
+            IndicatorKernels.sma(series.getCloses(), series.getOffset(), series.length(), period, out);
+            return new double[][]{out};
+        })[0];
+    }
+
+    /**
+     * 指数移动平均线
+     */
+    @Override
+    public double[] ema(PriceSeries series, int period) {
+        return get(series, "EMA", params(period), () -> {
+            double[] out = new double[series.length()];
+            IndicatorKernels.ema(series.getCloses(), series.getOffset(), series.length(), period, out);
+            return new double[][]{out};
+        })[0];
+    }
+
+    /**
+     * 相对强弱指标（逐根对齐）
+     */
+    @Override
+    public double[] rsi(PriceSeries series, int period) {
+        return get(series, "RSI", params(period), () -> {
+            double[] out = new double[series.length()];
+            IndicatorKernels.rsi(series.getCloses(), series.getOffset(), series.length(), period, out);
+            return new double[][]{out};
+        })[0];
+    }
+
+    /**
+     * MACD
+     *
+     * @return {DIF, DEA, 柱状图}
+     */
+    @Override
+    public double[][] macd(PriceSeries series, int fastPeriod, int slowPeriod, int signalPeriod) {
+        return get(series, "MACD", params(fastPeriod, slowPeriod, signalPeriod), () -> {
+            int n = series.length();
+            double[][] out = new double[3][n];
+            IndicatorKernels.macd(series.getCloses(), series.getOffset(), n,
+                    fastPeriod, slowPeriod, signalPeriod, out[0], out[1], out[2]);
+            return out;
+        });
+    }
+
+    /**
+     * 布林带
+     *
+     * @return {上轨, 中轨, 下轨}
+     */
+    @Override
+    public double[][] bollinger(PriceSeries series, int period, double stdDevMultiplier) {
+        return get(series, "BOLL", params(period, stdDevMultiplier), () -> {
+            int n = series.length();
+            double[][] out = new double[3][n];
+            IndicatorKernels.bollinger(series.getCloses(), series.getOffset(), n,
+                    period, stdDevMultiplier, out[0], out[1], out[2]);
+            return out;
+        });
+    }
+
+    /**
+     * 一组指标的融合计算结果
+     * 声明不应重复；返回的列按声明顺序依次排列各指标的 {@link IndicatorSpec#columns()}
+     */
+    @Override
+    public double[][] panel(PriceSeries series, List<IndicatorSpec> specs) {
+        double[] params = new double[specs.size() * 5];
+        for (int i = 0; i < specs.size(); i++) {
+            IndicatorSpec spec = specs.get(i);
+            params[i * 5] = spec.kind().ordinal();
+            params[i * 5 + 1] = spec.period();
+            params[i * 5 + 2] = spec.slowPeriod();
+            params[i * 5 + 3] = spec.signalPeriod();
+            params[i * 5 + 4] = spec.stdDevMultiplier();
+        }
+        return get(series, "PANEL", params, () -> {
+            IndicatorPanel panel = FusedIndicatorKernel.compute(series, specs);
+            return panel.columns().values().toArray(new double[0][]);
+        });
+    }
+
+    /**
+     * 各指标的命中统计
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new HashMap<>();
+        counters.forEach((indicator, pair) -> {
+            double hits = pair[0].count();
+            double misses = pair[1].count();
+            Map<String, Object> item = new HashMap<>();
+            item.put("hits", (long) hits);
+            item.put("misses", (long) misses);
+            item.put("hitRate", hits + misses > 0 ? hits / (hits + misses) : 0.0);
+            stats.put(indicator, item);
+        });
+        return stats;
+    }
+
+    /**
+     * 按键读取，未命中时单飞计算
+     */
+    private double[][] get(PriceSeries series, String indicator, double[] params, Supplier<double[][]> compute) {
+        LocalDate lastBarDate = series.lastBarDate();
+        if (lastBarDate == null) {
+            // 没有日期的序列无法标识版本，直接计算
+            record(indicator, false);
+            return compute.get();
+        }
+
+        Key key = new Key(series.getStockCode(), indicator, params, lastBarDate.toEpochDay(),
+                Double.doubleToLongBits(series.lastClose()), series.length());
+        double[][] cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            record(indicator, true);
+            return cached;
+        }
+
+        record(indicator, false);
+        CompletableFuture<double[][]> future = new CompletableFuture<>();
+        CompletableFuture<double[][]> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            double[][] result = compute.get();
+            put(key, result);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private void put(Key key, double[][] value) {
+        long weight = weightOf(value);
+        synchronized (entries) {
+            double[][] previous = entries.put(key, value);
+            cachedValues += weight - (previous != null ? weightOf(previous) : 0);
+            Iterator<Map.Entry<Key, double[][]>> it = entries.entrySet().iterator();
+            while (cachedValues > maxValues && it.hasNext()) {
+                Map.Entry<Key, double[][]> eldest = it.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                cachedValues -= weightOf(eldest.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    private static double[][] join(CompletableFuture<double[][]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void record(String indicator, boolean hit) {
+        Counter[] pair = counters.computeIfAbsent(indicator, name -> {
+            Counter hits = Counter.builder("indicator.cache.requests")
+                    .tag("indicator", name).tag("result", "hit").register(meterRegistry);
+            Counter misses = Counter.builder("indicator.cache.requests")
+                    .tag("indicator", name).tag("result", "miss").register(meterRegistry);
+            Gauge.builder("indicator.cache.hit.ratio", () -> {
+                        double total = hits.count() + misses.count();
+                        return total > 0 ? hits.count() / total : 0.0;
+                    })
+                    .tag("indicator", name)
+                    .register(meterRegistry);
+            return new Counter[]{hits, misses};
+        });
+        pair[hit ? 0 : 1].increment();
+    }
+
+    private static long weightOf(double[][] value) {
+        long weight = 0;
+        for (double[] column : value) {
+            weight += column.length;
+        }
+        return weight;
+    }
+
+    private static double[] params(double... values) {
+        return values;
+    }
+
+    /**
+     * 缓存键
+     */
+    private record Key(String stockCode, String indicator, double[] params, long lastEpochDay, long lastCloseBits,
+                       int length) {
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return lastEpochDay == other.lastEpochDay
+                    && lastCloseBits == other.lastCloseBits
+                    && length == other.length
+                    && stockCode.equals(other.stockCode)
+                    && indicator.equals(other.indicator)
+                    && Arrays.equals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = stockCode.hashCode();
+            h = 31 * h + indicator.hashCode();
+            h = 31 * h + Arrays.hashCode(params);
+            h = 31 * h + Long.hashCode(lastEpochDay);
+            h = 31 * h + Long.hashCode(lastCloseBits);
+            return 31 * h + length;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.quant.trading.service;
+
+import com.quant.trading.entity.IndicatorState;
+import com.quant.trading.repository.IndicatorStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * 增量指标状态服务
+ * 负责（策略, 股票）维度指标状态的序列化、读取和保存
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndicatorStateService {
+
+    /**
+     * 反序列化白名单：只允许指标状态类、策略状态类和基本类型数组
+     */
+    private static final ObjectInputFilter STATE_FILTER = ObjectInputFilter.Config.createFilter(
+            "com.quant.trading.indicator.stream.*;com.quant.trading.strategy.*;java.lang.*;[D;maxdepth=10;!*");
+
+    private final IndicatorStateRepository indicatorStateRepository;
+
+    /**
+     * 读取指标状态
+     *
+     * @param strategyId 策略ID
+     * @param stockCode  股票代码
+     * @param stateType  状态类型
+     * @return 状态快照，不存在或无法还原时为空
+     */
+    public <T extends Serializable> Optional<StoredState<T>> load(Long strategyId, String stockCode, Class<T> stateType) {
+        return indicatorStateRepository.findByStrategyIdAndStockCode(strategyId, stockCode)
+                .flatMap(entity -> {
+                    try {
+                        T state = stateType.cast(deserialize(entity.getStateData()));
+                        return Optional.of(new StoredState<>(state, entity.getLastBarDate(), entity.getBarCount()));
+                    } catch (Exception e) {
+                        // 状态类结构变化等情况下丢弃旧状态，由调用方重新预热
+                        log.warn("指标状态无法还原，将重新预热: strategyId={}, stockCode={}, error={}",
+                                strategyId, stockCode, e.getMessage());
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    /**
+     * 保存指标状态（存在则覆盖）
+     * 同一（策略, 股票）的两次首次计算并发插入时，后到的一方违反唯一约束，改为覆盖先插入的记录
+     */
+    public void save(Long strategyId, String stockCode, Serializable state, LocalDate lastBarDate, long barCount) {
+        try {
+            saveOrInsert(strategyId, stockCode, state, lastBarDate, barCount);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("指标状态并发插入，改为覆盖: strategyId={}, stockCode={}", strategyId, stockCode);
+            saveOrInsert(strategyId, stockCode, state, lastBarDate, barCount);
+        }
+    }
+
+    private void saveOrInsert(Long strategyId, String stockCode, Serializable state, LocalDate lastBarDate,
+                              long barCount) {
+        IndicatorState entity = indicatorStateRepository.findByStrategyIdAndStockCode(strategyId, stockCode)
+                .orElseGet(() -> {
+                    IndicatorState created = new IndicatorState();
+                    created.setStrategyId(strategyId);
+                    created.setStockCode(stockCode);
+                    return created;
+                });
+        entity.setStateData(serialize(state));
+        entity.setLastBarDate(lastBarDate);
+        entity.setBarCount(barCount);
+        indicatorStateRepository.save(entity);
+    }
+
+    /**
+     * 删除策略的全部指标状态
+     */
+    public void deleteByStrategy(Long strategyId) {
+        indicatorStateRepository.deleteByStrategyId(strategyId);
+    }
+
+    private static byte[] serialize(Serializable state) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(state);
+        } catch (IOException e) {
+            throw new IllegalStateException("指标状态序列化失败: " + e.getMessage(), e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            in.setObjectInputFilter(STATE_FILTER);
+            return in.readObject();
+        }
+    }
+
+    /**
+     * 已保存的指标状态
+     *
+     * @param state       状态对象
+     * @param lastBarDate 最后一根K线日期
+     * @param barCount    已包含的K线数量
+     */
+    public record StoredState<T>(T state, LocalDate lastBarDate, long barCount) {
+    }
+}
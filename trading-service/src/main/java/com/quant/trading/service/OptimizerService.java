@@ -0,0 +1,227 @@
+package com.quant.trading.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.trading.money.FixedPoint;
+import com.quant.trading.optimize.OptimizationJob;
+import com.quant.trading.optimize.OptimizationRequest;
+import com.quant.trading.optimize.ParameterOptimizer;
+import com.quant.trading.optimize.ParameterRange;
+import com.quant.trading.optimize.ParameterSweep;
+import com.quant.trading.optimize.SearchMethod;
+import com.quant.trading.strategy.StrategyConfig;
+import com.quant.trading.strategy.TradingStrategy;
+import com.quant.trading.strategy.VectorizedStrategy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 策略参数寻优服务
+ * 对策略参数空间做网格或随机搜索，在一组股票上回测每个组合，按目标返回得分最高的若干组参数。
+ * 任务异步执行：协调线程逐只股票推进，组合的回测在专用 ForkJoin 线程池上并行；
+ * 任务可取消，进度通过订阅推送。只保留最近若干个任务的结果。
+ */
+@Slf4j
+@Service
+public class OptimizerService {
+
+    /** 参与寻优的股票数上限 */
+    public static final int MAX_SYMBOLS = 500;
+
+    /** 单个任务的参数组合数上限 */
+    public static final int MAX_COMBINATIONS = 20_000;
+
+    /** 单个任务的回测次数上限（组合 × 股票） */
+    public static final long MAX_EVALUATIONS = 2_000_000L;
+
+    /** 单个任务返回的组合数上限 */
+    public static final int MAX_TOP_K = 100;
+
+    private final StrategyService strategyService;
+    private final PriceHistoryService priceHistoryService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinators;
+    private final Map<String, OptimizationJob> jobs = new LinkedHashMap<>();
+
+    @Value("${trading.optimizer.retained-jobs:20}")
+    private int retainedJobs = 20;
+
+    public OptimizerService(StrategyService strategyService, PriceHistoryService priceHistoryService,
+                            @Value("${trading.optimizer.parallelism:0}") int parallelism,
+                            @Value("${trading.optimizer.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        this.strategyService = strategyService;
+        this.priceHistoryService = priceHistoryService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        AtomicInteger index = new AtomicInteger();
+        this.coordinators = Executors.newFixedThreadPool(Math.max(1, maxConcurrentJobs), r -> {
+            Thread thread = new Thread(r, "optimizer-job-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (jobs) {
+            jobs.values().forEach(OptimizationJob::cancel);
+        }
+        coordinators.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * 提交寻优任务
+     * 参数组合在提交时生成并逐个编译，未通过策略校验的组合（如 shortPeriod &gt;= longPeriod）直接跳过
+     *
+     * @throws IllegalArgumentException 请求无效
+     */
+    public OptimizationJob submit(OptimizationRequest request) {
+        validate(request);
+        TradingStrategy<?> tradingStrategy = strategyService.getStrategyByType(request.strategyType());
+        if (tradingStrategy == null) {
+            throw new IllegalArgumentException("不支持的策略类型: " + request.strategyType());
+        }
+        if (!(tradingStrategy instanceof VectorizedStrategy<?>)) {
+            throw new IllegalArgumentException("策略类型不支持回测寻优: " + request.strategyType());
+        }
+
+        Map<String, Object> base = request.baseParameters() != null ? request.baseParameters() : Map.of();
+        List<Map<String, Object>> candidates = request.method() == SearchMethod.RANDOM
+            ? ParameterSweep.random(base, request.ranges(), Math.min(request.samples(), MAX_COMBINATIONS),
+                request.seed())
+            : ParameterSweep.grid(base, request.ranges(), MAX_COMBINATIONS);
+
+        List<Map<String, Object>> parameters = new ArrayList<>(candidates.size());
+        List<StrategyConfig> configs = new ArrayList<>(candidates.size());
+        for (Map<String, Object> candidate : candidates) {
+            try {
+                configs.add(tradingStrategy.compileParameters(toJson(candidate)));
+                parameters.add(candidate);
+            } catch (IllegalArgumentException e) {
+                // 不满足策略约束的组合
+            }
+        }
+        if (configs.isEmpty()) {
+            throw new IllegalArgumentException("没有满足策略参数约束的组合");
+        }
+        if ((long) configs.size() * request.stockCodes().size() > MAX_EVALUATIONS) {
+            throw new IllegalArgumentException("回测次数过多（组合数 × 股票数），最多 " + MAX_EVALUATIONS);
+        }
+
+        OptimizationJob job = new OptimizationJob(UUID.randomUUID().toString(), request, configs.size(),
+            candidates.size() - configs.size());
+        ParameterOptimizer<?> optimizer = optimizer(job, (VectorizedStrategy<?>) tradingStrategy,
+            tradingStrategy.getConfigType(), parameters, configs, FixedPoint.toMoney(request.initialCapital()));
+        register(job);
+        try {
+            coordinators.execute(() -> {
+                if (!job.isCancelRequested()) {
+                    optimizer.run(code -> priceHistoryService.getHistoricalPrices(code, request.days()), pool);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            job.cancel();
+            throw new IllegalStateException("服务正在关闭");
+        }
+        log.info("提交寻优任务: id={}, type={}, combinations={}, skipped={}, symbols={}",
+            job.getId(), request.strategyType(), job.getCombinations(), job.getSkipped(), request.stockCodes().size());
+        return job;
+    }
+
+    public Optional<OptimizationJob> getJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    public List<OptimizationJob> getJobs() {
+        synchronized (jobs) {
+            return List.copyOf(jobs.values());
+        }
+    }
+
+    /**
+     * 取消任务
+     *
+     * @return 任务是否存在
+     */
+    public boolean cancel(String jobId) {
+        Optional<OptimizationJob> job = getJob(jobId);
+        job.ifPresent(OptimizationJob::cancel);
+        return job.isPresent();
+    }
+
+    private void register(OptimizationJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            // 淘汰最早的已结束任务
+            Iterator<OptimizationJob> it = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && it.hasNext()) {
+                if (it.next().progress().isFinished()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void validate(OptimizationRequest request) {
+        if (request.stockCodes() == null || request.stockCodes().isEmpty()) {
+            throw new IllegalArgumentException("股票列表不能为空");
+        }
+        if (request.stockCodes().size() > MAX_SYMBOLS) {
+            throw new IllegalArgumentException("股票数量不能超过 " + MAX_SYMBOLS);
+        }
+        if (request.days() < 2 || request.days() > BacktestService.MAX_DAYS) {
+            throw new IllegalArgumentException("days 必须在 2-" + BacktestService.MAX_DAYS + " 之间");
+        }
+        if (request.topK() < 1 || request.topK() > MAX_TOP_K) {
+            throw new IllegalArgumentException("topK 必须在 1-" + MAX_TOP_K + " 之间");
+        }
+        if (request.method() == SearchMethod.RANDOM && request.samples() < 1) {
+            throw new IllegalArgumentException("随机搜索的 samples 必须大于0");
+        }
+        if (request.initialCapital() == null || request.initialCapital().signum() <= 0) {
+            throw new IllegalArgumentException("初始资金必须大于0");
+        }
+        Collection<ParameterRange> ranges = request.ranges();
+        if (ranges == null || ranges.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个寻优参数");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C extends StrategyConfig> ParameterOptimizer<C> optimizer(
+            OptimizationJob job, VectorizedStrategy<C> strategy, Class<?> configType,
+            List<Map<String, Object>> parameters, List<StrategyConfig> configs, long initialCash) {
+        List<C> typed = new ArrayList<>(configs.size());
+        for (StrategyConfig config : configs) {
+            typed.add((C) configType.cast(config));
+        }
+        return new ParameterOptimizer<>(job, strategy, parameters, typed, initialCash, TradingService.COMMISSION_RATE);
+    }
+
+    private String toJson(Map<String, Object> parameters) {
+        try {
+            return objectMapper.writeValueAsString(parameters);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("策略参数无法序列化: " + e.getMessage());
+        }
+    }
+}
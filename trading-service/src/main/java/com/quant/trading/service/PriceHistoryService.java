@@ -0,0 +1,292 @@
+package com.quant.trading.service;
+
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.market.PriceRingBuffer;
+import com.quant.trading.market.StockServiceClient;
+import com.quant.trading.market.StockServiceClient.Bar;
+import com.quant.trading.market.StockServiceClient.Bars;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 历史价格服务
+ * 为策略和指标计算提供按交易日对齐的收盘价序列。
+ * 每只股票在 {@link PriceRingBuffer} 中保留固定条数的收盘价：首次访问时从 stock-service 的
+ * /history 一次性填充，之后每隔 refresh-ms 用 /latest 增量补上最新K线（中间缺了多天时改用 since 增量查询）。
+ * 缓冲区总数按内存上限换算，超出时按LRU淘汰最久未访问的股票；策略读取的是缓冲区的窗口视图，不复制数组。
+ * 行情源只提供最近约一年的日线（见 {@link StockServiceClient#MAX_HISTORY_DAYS}），首次填充约 240 根，
+ * 之后靠增量更新逐日累积到容量上限；请求的天数超过已有K线时返回的序列更短，调用方应以序列长度为准。
+ * stock-service 不可用且显式允许回退时使用确定性的模拟数据（不进入缓存），仅用于本地开发和演示。
+ */
+@Slf4j
+@Service
+public class PriceHistoryService {
+
+    private final StockServiceClient stockServiceClient;
+    private final int capacity;
+    private final int maxSymbols;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Counter hitCounter;
+    private final Counter fillCounter;
+    private final Counter topUpCounter;
+    private final Counter evictionCounter;
+    private final Counter fallbackCounter;
+
+    /** stock-service 连接失败后暂停远程请求，直到该时间（毫秒） */
+    private volatile long remoteRetryAt;
+
+    /** 上次输出模拟数据告警的时间（毫秒），同一暂停周期内只告警一次 */
+    private volatile long fallbackWarnedAt;
+
+    @Value("${trading.price-history.refresh-ms:60000}")
+    private long refreshMs = 60_000L;
+
+    @Value("${trading.price-history.mock-fallback:false}")
+    private boolean mockFallback = false;
+
+    @Value("${trading.price-history.retry-after-ms:30000}")
+    private long retryAfterMs = 30_000L;
+
+    public PriceHistoryService(StockServiceClient stockServiceClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${trading.price-history.capacity:512}") int capacity,
+                               @Value("${trading.price-history.max-bytes:67108864}") long maxBytes) {
+        this.stockServiceClient = stockServiceClient;
+        this.capacity = Math.max(1, capacity);
+        this.maxSymbols = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / PriceRingBuffer.bytesFor(this.capacity)));
+
+        Gauge.builder("price.history.symbols", entries, map -> {
+                    synchronized (map) {
+                        return map.size();
+                    }
+                })
+                .description("缓存了收盘价的股票数")
+                .register(meterRegistry);
+        this.hitCounter = requests(meterRegistry, "hit");
+        this.fillCounter = requests(meterRegistry, "fill");
+        this.fallbackCounter = requests(meterRegistry, "fallback");
+        this.topUpCounter = Counter.builder("price.history.topups")
+                .description("用最新数据增量更新缓冲区的次数")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("price.history.evictions")
+                .description("按LRU淘汰的股票数")
+                .register(meterRegistry);
+        log.info("历史价格缓存: capacity={} bars, maxSymbols={}", this.capacity, maxSymbols);
+    }
+
+    /**
+     * 获取最近 days 个交易日的收盘价序列
+     * 超过缓冲区容量或已有数据时返回能提供的全部K线；返回的序列是只读视图
+     */
+    public PriceSeries getHistoricalPrices(String stockCode, int days) {
+        try {
+            PriceRingBuffer buffer = bufferFor(stockCode);
+            if (buffer != null) {
+                return buffer.window(stockCode, days);
+            }
+        } catch (RuntimeException e) {
+            if (!mockFallback) {
+                throw new RuntimeException("获取历史价格数据失败: " + e.getMessage(), e);
+            }
+            log.debug("获取历史价格失败，使用模拟数据: {}, {}", stockCode, e.getMessage());
+        }
+        if (!mockFallback) {
+            throw new IllegalStateException("stock-service 暂不可用，无法获取历史价格: " + stockCode);
+        }
+        long now = System.currentTimeMillis();
+        if (now - fallbackWarnedAt >= retryAfterMs) {
+            fallbackWarnedAt = now;
+            log.warn("stock-service 不可用，正在使用模拟价格生成信号和回测结果（trading.price-history.mock-fallback=true）: {}",
+                    stockCode);
+        }
+        fallbackCounter.increment();
+        return generateMockPrices(stockCode, days);
+    }
+
+    /**
+     * 取得（必要时填充、增量更新）股票的缓冲区；stock-service 暂不可用时返回 null
+     */
+    private PriceRingBuffer bufferFor(String stockCode) {
+        Entry entry;
+        boolean created = false;
+        synchronized (entries) {
+            entry = entries.get(stockCode);
+            if (entry == null) {
+                if (System.currentTimeMillis() < remoteRetryAt) {
+                    return null;
+                }
+                entry = new Entry();
+                entries.put(stockCode, entry);
+                created = true;
+                evictOverflow();
+            }
+        }
+
+        if (created) {
+            fill(stockCode, entry);
+        } else {
+            hitCounter.increment();
+        }
+        PriceRingBuffer buffer = join(entry.buffer);
+        if (System.currentTimeMillis() - entry.refreshedAt > refreshMs && entry.refreshing.compareAndSet(false, true)) {
+            try {
+                topUp(stockCode, entry, buffer);
+            } finally {
+                entry.refreshing.set(false);
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * 首次访问：从 /history 一次性填充（并发访问同一股票时只请求一次）
+     */
+    private void fill(String stockCode, Entry entry) {
+        fillCounter.increment();
+        try {
+            Bars bars = stockServiceClient.history(stockCode, capacity);
+            PriceRingBuffer buffer = new PriceRingBuffer(capacity);
+            for (int i = 0; i < bars.size(); i++) {
+                buffer.append(bars.epochDays()[i], bars.closes()[i]);
+            }
+            if (buffer.size() == 0) {
+                throw new IllegalStateException("stock-service 未返回历史数据: " + stockCode);
+            }
+            entry.refreshedAt = System.currentTimeMillis();
+            entry.buffer.complete(buffer);
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(stockCode, entry);
+            }
+            if (e.getCause() instanceof ResourceAccessException) {
+                // 连接不上时暂停一段时间，避免每次请求都等待超时
+                remoteRetryAt = System.currentTimeMillis() + retryAfterMs;
+            }
+            entry.buffer.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 增量更新：取最新K线追加；与上次的最后一根之间缺了交易日时改用 since 增量查询补齐
+     * 失败时保留现有数据，下一个刷新周期再试
+     */
+    private void topUp(String stockCode, Entry entry, PriceRingBuffer buffer) {
+        try {
+            Bar latest = stockServiceClient.latest(stockCode);
+            int lastDay = buffer.lastEpochDay();
+            if (latest != null && latest.epochDay() > nextWeekday(lastDay)) {
+                Bars bars = stockServiceClient.historySince(stockCode, LocalDate.ofEpochDay(lastDay));
+                for (int i = 0; i < bars.size(); i++) {
+                    buffer.append(bars.epochDays()[i], bars.closes()[i]);
+                }
+            }
+            if (latest != null) {
+                buffer.append(latest.epochDay(), latest.close());
+            }
+            topUpCounter.increment();
+        } catch (RuntimeException e) {
+            log.debug("增量更新价格失败: {}, {}", stockCode, e.getMessage());
+        }
+        entry.refreshedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 超出股票数上限时淘汰最久未访问的股票（调用方持有锁）
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSymbols && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictionCounter.increment();
+        }
+    }
+
+    private static int nextWeekday(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay).plusDays(1);
+        while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = date.plusDays(1);
+        }
+        return (int) date.toEpochDay();
+    }
+
+    private static PriceRingBuffer join(CompletableFuture<PriceRingBuffer> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("price.history.requests")
+                .description("历史价格请求数（hit: 命中缓冲区, fill: 首次填充, fallback: 使用模拟数据）")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 生成模拟价格数据（stock-service 不可用时使用）
+     * 以最近 days 个工作日为交易日；同一股票同一天生成的序列相同，便于共享指标缓存
+     */
+    private PriceSeries generateMockPrices(String stockCode, int days) {
+        double[] closes = new double[days];
+        int[] epochDays = new int[days];
+        LocalDate date = LocalDate.now();
+        for (int i = days - 1; i >= 0; i--) {
+            while (date.getDayOfWeek().getValue() > 5) {
+                date = date.minusDays(1);
+            }
+            epochDays[i] = (int) date.toEpochDay();
+            date = date.minusDays(1);
+        }
+        Random random = new Random(31L * stockCode.hashCode() + (days > 0 ? epochDays[days - 1] : 0));
+
+        // 基础价格（根据股票代码生成不同的基础价格）
+        double basePrice = 10.0 + (stockCode.hashCode() % 50);
+
+        for (int i = 0; i < days; i++) {
+            // 生成随机波动（-5% 到 +5%）
+            double change = (random.nextDouble() - 0.5) * 0.1;
+            basePrice = basePrice * (1 + change);
+
+            // 确保价格在合理范围内
+            if (basePrice < 1.0) basePrice = 1.0;
+            if (basePrice > 1000.0) basePrice = 1000.0;
+
+            closes[i] = BigDecimal.valueOf(basePrice).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        }
+
+        return PriceSeries.of(stockCode, closes, epochDays);
+    }
+
+    /**
+     * 缓存条目：填充完成前其他线程等待同一个 Future
+     */
+    private static final class Entry {
+        private final CompletableFuture<PriceRingBuffer> buffer = new CompletableFuture<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long refreshedAt;
+    }
+}
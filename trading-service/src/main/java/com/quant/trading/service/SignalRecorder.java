@@ -0,0 +1,212 @@
+package com.quant.trading.service;
+
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.repository.StrategySignalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 信号记录器
+ * 决定生成的信号如何落库：ALL 模式每条信号一行；TRANSITIONS 模式（默认）只在信号类型改变、
+ * 或强度相对本段首条信号的变化达到阈值时新开一行，连续相同的信号合并到当前行
+ * （累加出现次数，更新最后出现时间、价格和原因），信息不丢失而行数大幅减少。
+ * 信号都是异步写入的：新开一行的信号在写入前 id 为空，合并的信号取所在行的 id（该行尚未写入时同样为空）。
+ * 每个（策略, 股票）的当前段保存在内存中，首次出现时从数据库中最近的一条信号恢复；
+ * 段数超过上限时按LRU淘汰，被淘汰的键下次出现时重新从数据库恢复（新行尚在写入队列中时
+ * 可能多开一行，但不会丢失信号）。
+ */
+@Slf4j
+@Component
+public class SignalRecorder {
+
+    /**
+     * 落库模式
+     */
+    public enum Mode {
+        /** 每条信号一行 */
+        ALL,
+        /** 只保存状态变化，连续相同的信号合并为一行 */
+        TRANSITIONS
+    }
+
+    private final SignalSink signalSink;
+    private final StrategySignalRepository strategySignalRepository;
+    private final LinkedHashMap<RunKey, RunSlot> runs = new LinkedHashMap<>(256, 0.75f, true);
+    private final Counter insertedCounter;
+    private final Counter mergedCounter;
+    private final Counter evictionCounter;
+
+    @Value("${trading.signal.persistence:TRANSITIONS}")
+    private Mode mode = Mode.TRANSITIONS;
+
+    @Value("${trading.signal.strength-threshold:5}")
+    private BigDecimal strengthThreshold = BigDecimal.valueOf(5);
+
+    @Value("${trading.signal.max-runs:100000}")
+    private int maxRuns = 100_000;
+
+    public SignalRecorder(SignalSink signalSink,
+                          StrategySignalRepository strategySignalRepository,
+                          MeterRegistry meterRegistry) {
+        this.signalSink = signalSink;
+        this.strategySignalRepository = strategySignalRepository;
+        this.insertedCounter = Counter.builder("signal.recorder.signals")
+                .description("记录的信号数")
+                .tag("result", "inserted")
+                .register(meterRegistry);
+        this.mergedCounter = Counter.builder("signal.recorder.signals")
+                .description("记录的信号数")
+                .tag("result", "merged")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("signal.recorder.evictions")
+                .description("按LRU淘汰的段数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一条信号，不等待写入
+     *
+     * @return 传入的信号
+     */
+    public StrategySignal record(StrategySignal signal) {
+        recordOne(signal);
+        return signal;
+    }
+
+    /**
+     * 记录一组信号，不等待写入
+     *
+     * @return 新插入的行数，合并到已有行的信号不计入
+     */
+    public int recordAll(List<StrategySignal> signals) {
+        int inserted = 0;
+        for (StrategySignal signal : signals) {
+            if (recordOne(signal)) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * 丢弃策略的全部当前段（删除策略时调用）
+     */
+    public void forgetStrategy(Long strategyId) {
+        synchronized (runs) {
+            runs.entrySet().removeIf(entry -> {
+                if (!entry.getKey().strategyId().equals(strategyId)) {
+                    return false;
+                }
+                entry.getValue().evicted = true;
+                return true;
+            });
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return 是否新开了一行
+     */
+    private boolean recordOne(StrategySignal signal) {
+        if (signal.getSignalTime() == null) {
+            signal.setSignalTime(LocalDateTime.now());
+        }
+        if (mode == Mode.ALL) {
+            signalSink.submit(signal);
+            insertedCounter.increment();
+            return true;
+        }
+
+        RunKey key = new RunKey(signal.getStrategyId(), signal.getStockCode());
+        while (true) {
+            RunSlot slot = slotFor(key);
+            // 同一（策略, 股票）的恢复、判断与入队在该键的槽内串行完成，保证段的先后顺序；
+            // 查询数据库和可能阻塞的入队都不持有整张表的锁，不影响其他键
+            synchronized (slot) {
+                if (slot.evicted) {
+                    continue;
+                }
+                if (!slot.restored) {
+                    slot.run = restore(key);
+                    slot.restored = true;
+                }
+                SignalRun run = slot.run;
+                if (run != null && run.continuedBy(signal, strengthThreshold)) {
+                    run.extend(signal);
+                    signal.setId(run.row().getId());
+                    signalSink.submitUpdate(run);
+                    mergedCounter.increment();
+                    return false;
+                }
+                signalSink.submit(signal);
+                slot.run = new SignalRun(signal);
+                insertedCounter.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 取得键对应的槽，不存在时新建；表只在查找和插入时加锁
+     */
+    private RunSlot slotFor(RunKey key) {
+        synchronized (runs) {
+            RunSlot slot = runs.get(key);
+            if (slot == null) {
+                slot = new RunSlot();
+                runs.put(key, slot);
+                evictOverflow();
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * 超出段数上限时淘汰最久未访问的段（调用方持有表锁）
+     */
+    private void evictOverflow() {
+        Iterator<RunSlot> it = runs.values().iterator();
+        while (runs.size() > maxRuns && it.hasNext()) {
+            RunSlot eldest = it.next();
+            it.remove();
+            eldest.evicted = true;
+            evictionCounter.increment();
+        }
+    }
+
+    /**
+     * 从数据库中最近的一条信号恢复当前段
+     */
+    private SignalRun restore(RunKey key) {
+        return strategySignalRepository
+                .findFirstByStrategyIdAndStockCodeOrderBySignalTimeDescIdDesc(key.strategyId(), key.stockCode())
+                .map(SignalRun::new)
+                .orElse(null);
+    }
+
+    private record RunKey(Long strategyId, String stockCode) {
+    }
+
+    /**
+     * 一个（策略, 股票）的当前段；字段只在持有该槽的锁时读写
+     */
+    private static final class RunSlot {
+        SignalRun run;
+        /** 已从数据库恢复过（恢复结果可能为空） */
+        boolean restored;
+        /** 已从表中移除，持有旧槽的调用方需换新槽重试 */
+        volatile boolean evicted;
+    }
+}
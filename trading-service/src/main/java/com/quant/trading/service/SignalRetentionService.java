@@ -0,0 +1,234 @@
+package com.quant.trading.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.repository.StrategySignalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 信号保留策略
+ * 定时把最后出现时间早于保留期限的信号归档到本地 gzip 压缩的 JSON Lines 文件（每次执行一个文件），再从数据库删除。
+ * 按 chunk-size 分块进行：每块压缩成一个独立的 gzip 成员追加到归档文件并 fsync，再按ID批量删除，
+ * 单个事务和内存占用都有上限。多成员 gzip 文件可直接用 zcat 或 GZIPInputStream 读取。
+ * 中途失败时已删除的块都已归档；最后一块可能归档了但未删除，下次执行会再次归档（至少一次）。
+ */
+@Slf4j
+@Service
+public class SignalRetentionService {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final StrategySignalRepository strategySignalRepository;
+    private final SignalSink signalSink;
+    private final Counter archivedCounter;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Value("${trading.signal-retention.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${trading.signal-retention.cron:0 30 2 * * *}")
+    private String cron = "0 30 2 * * *";
+
+    @Value("${trading.signal-retention.days:90}")
+    private int retentionDays = 90;
+
+    @Value("${trading.signal-retention.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${trading.signal-retention.archive-dir:./data/signal-archive}")
+    private String archiveDir = "./data/signal-archive";
+
+    public SignalRetentionService(StrategySignalRepository strategySignalRepository,
+                                  SignalSink signalSink,
+                                  MeterRegistry meterRegistry) {
+        this.strategySignalRepository = strategySignalRepository;
+        this.signalSink = signalSink;
+        this.archivedCounter = Counter.builder("signal.retention.archived")
+                .description("归档并删除的信号数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("信号保留任务已禁用");
+            return;
+        }
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setThreadNamePrefix("signal-retention-");
+        taskScheduler.setDaemon(true);
+        taskScheduler.initialize();
+        taskScheduler.schedule(() -> {
+            try {
+                archiveExpired();
+            } catch (Exception e) {
+                log.error("信号归档失败", e);
+            }
+        }, new CronTrigger(cron));
+        log.info("信号保留任务已启动: cron={}, days={}, archiveDir={}", cron, retentionDays, archiveDir);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    /**
+     * 归档并删除早于保留期限的信号
+     *
+     * @return 本次结果；已有归档任务在执行时返回 null
+     */
+    public RetentionReport archiveExpired() {
+        return archiveOlderThan(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * 归档并删除早于 cutoff 的信号
+     *
+     * @return 本次结果；已有归档任务在执行时返回 null
+     */
+    public RetentionReport archiveOlderThan(LocalDateTime cutoff) {
+        if (!runLock.tryLock()) {
+            log.warn("信号归档正在执行，跳过本次触发");
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            // 写入队列中的信号可能早于 cutoff（如补算历史），先落库再扫描
+            signalSink.flush(10_000L);
+            List<StrategySignal> chunk = strategySignalRepository.findOlderThan(cutoff, Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                return new RetentionReport(cutoff, 0, 0, null, elapsedMs(startNanos));
+            }
+
+            Path file = archiveFile();
+            long archived = 0;
+            int chunks = 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (!chunk.isEmpty()) {
+                    List<Long> ids = new ArrayList<>(chunk.size());
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+                    try (JsonGenerator generator = jsonFactory.createGenerator(
+                            new GZIPOutputStream(buffer, 64 * 1024), JsonEncoding.UTF8)) {
+                        generator.setRootValueSeparator(null);
+                        for (StrategySignal signal : chunk) {
+                            write(generator, signal);
+                            ids.add(signal.getId());
+                        }
+                    }
+                    // 这一块作为完整的 gzip 成员追加并落盘后才删除，进程中途退出时已删除的信号都能从归档读出
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    channel.force(true);
+                    strategySignalRepository.deleteAllByIdIn(ids);
+
+                    archived += ids.size();
+                    chunks++;
+                    archivedCounter.increment(ids.size());
+                    chunk = chunk.size() < chunkSize ? List.of()
+                            : strategySignalRepository.findOlderThan(cutoff, Limit.of(chunkSize));
+                }
+            }
+
+            RetentionReport report = new RetentionReport(cutoff, archived, chunks, file.toString(), elapsedMs(startNanos));
+            log.info("信号归档完成: cutoff={}, archived={}, chunks={}, file={}, duration={}ms",
+                    cutoff, archived, chunks, file, report.durationMs());
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入信号归档失败: " + e.getMessage(), e);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private Path archiveFile() throws IOException {
+        Path dir = Paths.get(archiveDir);
+        Files.createDirectories(dir);
+        String name = "signals-" + LocalDateTime.now().format(FILE_TIME);
+        Path file = dir.resolve(name + ".jsonl.gz");
+        for (int i = 1; Files.exists(file); i++) {
+            file = dir.resolve(name + "-" + i + ".jsonl.gz");
+        }
+        return file;
+    }
+
+    /**
+     * 一条信号写为一行JSON
+     */
+    private static void write(JsonGenerator generator, StrategySignal signal) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", signal.getId());
+        generator.writeNumberField("strategyId", signal.getStrategyId());
+        generator.writeStringField("stockCode", signal.getStockCode());
+        generator.writeStringField("stockName", signal.getStockName());
+        generator.writeStringField("signalType", signal.getSignalType());
+        if (signal.getPrice() != null) {
+            generator.writeNumberField("price", signal.getPrice());
+        }
+        if (signal.getSignalStrength() != null) {
+            generator.writeNumberField("signalStrength", signal.getSignalStrength());
+        }
+        generator.writeStringField("reason", signal.getReason());
+        generator.writeStringField("signalTime", String.valueOf(signal.getSignalTime()));
+        generator.writeStringField("lastSeenAt", String.valueOf(signal.getLastSeenAt()));
+        generator.writeNumberField("occurrences", signal.getOccurrences() != null ? signal.getOccurrences() : 1);
+        if (signal.getLastPrice() != null) {
+            generator.writeNumberField("lastPrice", signal.getLastPrice());
+        }
+        generator.writeBooleanField("executed", Boolean.TRUE.equals(signal.getExecuted()));
+        if (signal.getExecutedAt() != null) {
+            generator.writeStringField("executedAt", signal.getExecutedAt().toString());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 一次归档的结果
+     *
+     * @param cutoff     早于该时间的信号被归档
+     * @param archived   归档并删除的信号数
+     * @param chunks     分块数
+     * @param file       归档文件，没有需要归档的信号时为 null
+     * @param durationMs 耗时
+     */
+    public record RetentionReport(LocalDateTime cutoff, long archived, int chunks, String file, long durationMs) {
+    }
+}
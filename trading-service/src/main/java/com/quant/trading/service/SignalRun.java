@@ -0,0 +1,84 @@
+package com.quant.trading.service;
+
+import com.quant.trading.entity.StrategySignal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一段连续相同的信号
+ * 对应数据库中的一行：首条信号插入后，之后相同的信号只累加次数、更新最后出现时间、价格和原因，
+ * 由 {@link SignalSink} 合并成对该行的批量 UPDATE。
+ */
+final class SignalRun {
+
+    private final StrategySignal row;
+    private final String signalType;
+    private final BigDecimal strength;
+
+    private int occurrences;
+    private LocalDateTime lastSeenAt;
+    private BigDecimal lastPrice;
+    private String reason;
+
+    /** 已在写入队列中等待更新 */
+    private final AtomicBoolean queued = new AtomicBoolean();
+    /** 对应的行已不存在（写入失败或已被归档删除），后续信号需要新开一行 */
+    private volatile boolean stale;
+
+    SignalRun(StrategySignal row) {
+        this.row = row;
+        this.signalType = row.getSignalType();
+        this.strength = row.getSignalStrength();
+        this.occurrences = row.getOccurrences() != null ? row.getOccurrences() : 1;
+        this.lastSeenAt = row.getLastSeenAt() != null ? row.getLastSeenAt() : row.getSignalTime();
+        this.lastPrice = row.getLastPrice() != null ? row.getLastPrice() : row.getPrice();
+        this.reason = row.getReason();
+    }
+
+    StrategySignal row() {
+        return row;
+    }
+
+    /**
+     * 信号类型相同且强度变化小于阈值时属于同一段
+     */
+    boolean continuedBy(StrategySignal signal, BigDecimal strengthThreshold) {
+        if (stale || !signalType.equals(signal.getSignalType())) {
+            return false;
+        }
+        BigDecimal a = strength != null ? strength : BigDecimal.ZERO;
+        BigDecimal b = signal.getSignalStrength() != null ? signal.getSignalStrength() : BigDecimal.ZERO;
+        return a.subtract(b).abs().compareTo(strengthThreshold) < 0;
+    }
+
+    synchronized void extend(StrategySignal signal) {
+        occurrences++;
+        lastSeenAt = signal.getSignalTime();
+        lastPrice = signal.getPrice();
+        reason = signal.getReason();
+    }
+
+    synchronized Snapshot snapshot() {
+        return new Snapshot(occurrences, lastSeenAt, lastPrice, reason);
+    }
+
+    boolean markQueued() {
+        return queued.compareAndSet(false, true);
+    }
+
+    void clearQueued() {
+        queued.set(false);
+    }
+
+    void markStale() {
+        stale = true;
+    }
+
+    /**
+     * 某一时刻的合并状态
+     */
+    record Snapshot(int occurrences, LocalDateTime lastSeenAt, BigDecimal lastPrice, String reason) {
+    }
+}
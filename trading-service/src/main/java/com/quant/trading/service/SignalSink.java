@@ -0,0 +1,313 @@
+package com.quant.trading.service;
+
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.repository.StrategySignalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 信号异步写入器（write-behind）
+ * 生成信号的线程只把信号放入有界队列即返回，由单个写线程攒批后用 saveAll 一次写入
+ * （StrategySignal 使用序列主键，配合 hibernate.jdbc.batch_size 走JDBC批量插入）。
+ * 凑满 batch-size 或最早的信号等待超过 max-delay-ms 时写入一批；队列满时生成线程最多等待 offer-timeout-ms。
+ * 信号在写入前没有主键，查询接口最多滞后 max-delay-ms；关闭时先写完队列中剩余的信号。
+ * 合并连续信号（{@link SignalRun}）的更新也走同一个队列：每段在队列中最多一项，
+ * 写线程在插入之后把同批的更新合并成一次JDBC批量 UPDATE。
+ */
+@Slf4j
+@Component
+public class SignalSink {
+
+    private static final String UPDATE_RUN_SQL =
+            "update strategy_signals set occurrences = ?, last_seen_at = ?, last_price = ?, reason = ? where id = ?";
+
+    private final StrategySignalRepository strategySignalRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Pending> queue;
+
+    private final Timer flushTimer;
+    private final Timer latencyTimer;
+    private final Counter writtenCounter;
+    private final Counter updatedCounter;
+    private final Counter failedCounter;
+
+    /** 已入队的信号数 / 已处理（写入或失败）的信号数，用于 {@link #flush(long)} */
+    private final Object progress = new Object();
+    private long submitted;
+    private long processed;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Value("${trading.signal.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${trading.signal.max-delay-ms:200}")
+    private long maxDelayMs = 200L;
+
+    @Value("${trading.signal.offer-timeout-ms:5000}")
+    private long offerTimeoutMs = 5000L;
+
+    public SignalSink(StrategySignalRepository strategySignalRepository,
+                      JdbcTemplate jdbcTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${trading.signal.queue-capacity:20000}") int queueCapacity) {
+        this.strategySignalRepository = strategySignalRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        Gauge.builder("signal.sink.queue.depth", queue, BlockingQueue::size)
+                .description("等待写入数据库的信号数")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("signal.sink.flush")
+                .description("写入一批信号的耗时")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("signal.sink.latency")
+                .description("信号从入队到写入完成的时间（按每批最早的信号计）")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("signal.sink.written")
+                .description("已写入的信号数")
+                .register(meterRegistry);
+        this.updatedCounter = Counter.builder("signal.sink.updated")
+                .description("合并连续信号时更新的行数")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("signal.sink.failed")
+                .description("写入失败而丢弃的信号数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "signal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("信号写入器已启动: batchSize={}, maxDelay={}ms, capacity={}",
+                batchSize, maxDelayMs, queue.remainingCapacity());
+    }
+
+    /**
+     * 停止接收并写完队列中剩余的信号
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("关闭时仍有 {} 条信号未写入", queue.size());
+        }
+    }
+
+    /**
+     * 提交一条信号，不等待写入
+     *
+     * @throws IllegalStateException 写入器已关闭，或队列持续已满
+     */
+    public StrategySignal submit(StrategySignal signal) {
+        enqueue(new Pending(signal, null, System.nanoTime()));
+        return signal;
+    }
+
+    /**
+     * 提交一段合并信号的更新；该段已在队列中时不重复入队（写入时取最新状态）
+     */
+    void submitUpdate(SignalRun run) {
+        if (!run.markQueued()) {
+            return;
+        }
+        try {
+            enqueue(new Pending(null, run, System.nanoTime()));
+        } catch (IllegalStateException e) {
+            run.clearQueued();
+            throw e;
+        }
+    }
+
+    private void enqueue(Pending pending) {
+        if (!running) {
+            throw new IllegalStateException("信号写入器已关闭");
+        }
+        synchronized (progress) {
+            submitted++;
+        }
+        try {
+            if (!queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                markProcessed(1);
+                throw new IllegalStateException("信号写入队列已满");
+            }
+        } catch (InterruptedException e) {
+            markProcessed(1);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("提交信号被中断", e);
+        }
+    }
+
+    /**
+     * 提交一组信号，不等待写入
+     */
+    public List<StrategySignal> submitAll(List<StrategySignal> signals) {
+        for (StrategySignal signal : signals) {
+            submit(signal);
+        }
+        return signals;
+    }
+
+    /**
+     * 等待调用前已提交的信号全部处理完
+     *
+     * @return 是否在超时前处理完
+     */
+    public boolean flush(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (progress) {
+            long target = submitted;
+            while (processed < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    progress.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedNanos + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 只在关闭时发生：写完已取出的部分后由循环条件决定是否继续
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<StrategySignal> signals = new ArrayList<>(batch.size());
+        Set<SignalRun> runs = new LinkedHashSet<>();
+        for (Pending pending : batch) {
+            if (pending.signal != null) {
+                signals.add(pending.signal);
+            } else {
+                runs.add(pending.run);
+            }
+        }
+        long startNanos = System.nanoTime();
+        try {
+            if (!signals.isEmpty()) {
+                strategySignalRepository.saveAll(signals);
+                writtenCounter.increment(signals.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("写入信号失败，丢弃 {} 条: {}", signals.size(), e.getMessage());
+            failedCounter.increment(signals.size());
+        }
+        try {
+            if (!runs.isEmpty()) {
+                updateRuns(runs);
+            }
+        } catch (RuntimeException e) {
+            log.error("更新合并信号失败: {} 条, {}", runs.size(), e.getMessage());
+            failedCounter.increment(runs.size());
+        } finally {
+            long endNanos = System.nanoTime();
+            flushTimer.record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+            latencyTimer.record(endNanos - batch.get(0).enqueuedNanos, TimeUnit.NANOSECONDS);
+            markProcessed(batch.size());
+        }
+    }
+
+    /**
+     * 把各段的最新状态写回对应行（一次JDBC批量 UPDATE）
+     * 对应行不存在（插入失败或已被归档删除）的段标记为失效，之后的信号会新开一行
+     */
+    private void updateRuns(Set<SignalRun> runs) {
+        List<SignalRun> targets = new ArrayList<>(runs.size());
+        List<Object[]> args = new ArrayList<>(runs.size());
+        for (SignalRun run : runs) {
+            // 先清除标记再取状态：取状态之后的新信号会重新入队
+            run.clearQueued();
+            Long id = run.row().getId();
+            if (id == null) {
+                run.markStale();
+                continue;
+            }
+            SignalRun.Snapshot snapshot = run.snapshot();
+            targets.add(run);
+            args.add(new Object[]{snapshot.occurrences(), Timestamp.valueOf(snapshot.lastSeenAt()),
+                    snapshot.lastPrice(), snapshot.reason(), id});
+        }
+        if (args.isEmpty()) {
+            return;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_RUN_SQL, args);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                targets.get(i).markStale();
+            }
+        }
+        updatedCounter.increment(args.size());
+    }
+
+    private void markProcessed(int count) {
+        synchronized (progress) {
+            processed += count;
+            progress.notifyAll();
+        }
+    }
+
+    /**
+     * 等待写入的新信号或合并信号的更新，及入队时间
+     */
+    private record Pending(StrategySignal signal, SignalRun run, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.quant.trading.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 信号生成工作线程池
+ * 批量生成信号和定时调度共用同一个有界线程池，避免每个调用方各自建线程。
+ * 任务按线程数均分成若干片，每片在一个线程内顺序执行，减少任务调度开销。
+ * 回测分析（组合回测、蒙特卡洛）另建独立实例，耗时的分析请求不占用实时信号的线程。
+ */
+@Slf4j
+@Component
+public class SignalWorkerPool {
+
+    private final String name;
+    private final int workers;
+    private final ExecutorService executor;
+
+    @Autowired
+    public SignalWorkerPool(@Value("${trading.signal.workers:4}") int workers) {
+        this("signal-worker", workers);
+    }
+
+    /**
+     * @param name    线程名前缀
+     * @param workers 线程数
+     */
+    SignalWorkerPool(String name, int workers) {
+        this.name = name;
+        this.workers = Math.max(1, workers);
+        AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, r -> {
+            Thread thread = new Thread(r, name + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("工作线程池已创建: name={}, workers={}", name, this.workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 分片并行执行，按输入顺序返回结果；返回 null 的元素不出现在结果中
+     *
+     * @param items    输入
+     * @param function 单个元素的处理逻辑，需自行处理预期内的失败
+     */
+    public <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> function) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int partitions = Math.min(workers, items.size());
+        int chunk = (items.size() + partitions - 1) / partitions;
+        List<Callable<List<R>>> parts = new ArrayList<>(partitions);
+        for (int from = 0; from < items.size(); from += chunk) {
+            List<T> part = items.subList(from, Math.min(items.size(), from + chunk));
+            parts.add(() -> {
+                List<R> results = new ArrayList<>(part.size());
+                for (T item : part) {
+                    R result = function.apply(item);
+                    if (result != null) {
+                        results.add(result);
+                    }
+                }
+                return results;
+            });
+        }
+
+        List<R> results = new ArrayList<>(items.size());
+        try {
+            for (Future<List<R>> future : executor.invokeAll(parts)) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(name + " 任务被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(name + " 任务失败: " + e.getCause().getMessage(), e.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,57 @@
+package com.quant.trading.service;
+
+import com.quant.trading.entity.Strategy;
+import com.quant.trading.strategy.StrategyConfig;
+import com.quant.trading.strategy.TradingStrategy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编译后的策略参数缓存
+ * 按策略ID保存 {@link StrategyConfig}；策略创建或参数修改时写入，删除时移除。
+ * 读取时核对缓存对应的类型和参数文本，与实体不一致（例如其他途径修改了参数）则重新编译
+ */
+@Component
+public class StrategyConfigCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 获取策略的编译参数，未缓存或已过期时编译
+     *
+     * @throws IllegalArgumentException 参数无效
+     */
+    public StrategyConfig get(Strategy strategy, TradingStrategy<?> implementation) {
+        Entry entry = entries.get(strategy.getId());
+        if (entry != null && entry.matches(strategy)) {
+            return entry.config();
+        }
+        StrategyConfig config = implementation.compileParameters(strategy.getParameters());
+        put(strategy, config);
+        return config;
+    }
+
+    /**
+     * 写入（或替换）策略的编译参数
+     */
+    public void put(Strategy strategy, StrategyConfig config) {
+        entries.put(strategy.getId(), new Entry(strategy.getType(), strategy.getParameters(), config));
+    }
+
+    /**
+     * 移除策略的编译参数
+     */
+    public void invalidate(Long strategyId) {
+        entries.remove(strategyId);
+    }
+
+    private record Entry(String type, String parameters, StrategyConfig config) {
+
+        boolean matches(Strategy strategy) {
+            return Objects.equals(type, strategy.getType()) && Objects.equals(parameters, strategy.getParameters());
+        }
+    }
+}
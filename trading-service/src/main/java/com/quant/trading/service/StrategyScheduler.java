@@ -0,0 +1,369 @@
+package com.quant.trading.service;
+
+import com.quant.trading.entity.Strategy;
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.repository.StrategyRepository;
+import com.quant.trading.strategy.MovingAverageCrossStrategy;
+import com.quant.trading.strategy.StrategyConfig;
+import com.quant.trading.strategy.TradingStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 运行中策略的调度执行器
+ * 按 cron（如每个交易日收盘）或固定间隔执行一轮：汇总所有 RUNNING 策略关注的股票并去重，
+ * 每只股票只加载一次价格（取各策略所需K线数的最大值，策略各自使用尾部视图），
+ * 再把（策略, 股票）评估任务分片交给 {@link SignalWorkerPool} 并行生成信号，最后交给 {@link SignalSink} 批量写入。
+ * 同一时刻只执行一轮，上一轮未结束时跳过本次触发。
+ */
+@Slf4j
+@Service
+public class StrategyScheduler {
+
+    private static final String RUNNING = "RUNNING";
+    private static final long FLUSH_TIMEOUT_MS = 60_000L;
+
+    private final StrategyRepository strategyRepository;
+    private final StrategyService strategyService;
+    private final StrategyConfigCache strategyConfigCache;
+    private final PriceHistoryService priceHistoryService;
+    private final SignalWorkerPool signalWorkerPool;
+    private final SignalSink signalSink;
+    private final SignalRecorder signalRecorder;
+
+    private final ReentrantLock cycleLock = new ReentrantLock();
+    private final Timer cycleTimer;
+    private final Counter evaluationCounter;
+    private final Counter signalCounter;
+    private final Counter failureCounter;
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicInteger lastStrategies = new AtomicInteger();
+    private final AtomicInteger lastSymbols = new AtomicInteger();
+
+    private volatile Instant expectedStart;
+    private volatile CycleReport lastReport;
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Value("${trading.scheduler.enabled:false}")
+    private boolean enabled;
+
+    @Value("${trading.scheduler.cron:}")
+    private String cron = "";
+
+    @Value("${trading.scheduler.interval-ms:60000}")
+    private long intervalMs = 60_000L;
+
+    public StrategyScheduler(StrategyRepository strategyRepository,
+                             StrategyService strategyService,
+                             StrategyConfigCache strategyConfigCache,
+                             PriceHistoryService priceHistoryService,
+                             SignalWorkerPool signalWorkerPool,
+                             SignalSink signalSink,
+                             SignalRecorder signalRecorder,
+                             MeterRegistry meterRegistry) {
+        this.strategyRepository = strategyRepository;
+        this.strategyService = strategyService;
+        this.strategyConfigCache = strategyConfigCache;
+        this.priceHistoryService = priceHistoryService;
+        this.signalWorkerPool = signalWorkerPool;
+        this.signalSink = signalSink;
+        this.signalRecorder = signalRecorder;
+
+        this.cycleTimer = Timer.builder("strategy.scheduler.cycle")
+                .description("一轮调度从开始到信号保存完成的耗时")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.evaluationCounter = Counter.builder("strategy.scheduler.evaluations")
+                .description("调度生成的（策略, 股票）信号数")
+                .register(meterRegistry);
+        this.signalCounter = Counter.builder("strategy.scheduler.signals.saved")
+                .description("调度新插入的信号行数（合并到已有行的不计）")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("strategy.scheduler.failures")
+                .description("加载价格或生成信号失败的次数")
+                .register(meterRegistry);
+        Gauge.builder("strategy.scheduler.lag", lastLagMillis, value -> value.get() / 1000.0)
+                .description("上一轮信号保存完成时间相对计划触发时间（如收盘时刻）的延迟")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("strategy.scheduler.strategies", lastStrategies, AtomicInteger::get)
+                .description("上一轮评估的策略数")
+                .register(meterRegistry);
+        Gauge.builder("strategy.scheduler.symbols", lastSymbols, AtomicInteger::get)
+                .description("上一轮加载价格的股票数（去重后）")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("策略调度器已禁用");
+            return;
+        }
+
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setThreadNamePrefix("strategy-scheduler-");
+        taskScheduler.setDaemon(true);
+        taskScheduler.initialize();
+        if (cron != null && !cron.isBlank()) {
+            CronExpression expression = CronExpression.parse(cron);
+            expectedStart = nextCronTime(expression);
+            taskScheduler.schedule(() -> scheduledCycle(expression), new CronTrigger(cron));
+            log.info("策略调度器已启动: cron={}", cron);
+        } else {
+            expectedStart = Instant.now().plusMillis(intervalMs);
+            taskScheduler.scheduleWithFixedDelay(() -> scheduledCycle(null), expectedStart,
+                    Duration.ofMillis(intervalMs));
+            log.info("策略调度器已启动: interval={}ms", intervalMs);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    private void scheduledCycle(CronExpression expression) {
+        Instant scheduled = expectedStart;
+        try {
+            runCycle(scheduled);
+        } catch (Exception e) {
+            log.error("策略调度执行失败", e);
+        } finally {
+            expectedStart = expression != null ? nextCronTime(expression) : Instant.now().plusMillis(intervalMs);
+        }
+    }
+
+    /**
+     * 立即执行一轮（不影响定时计划）
+     *
+     * @return 本轮结果；上一轮仍在执行时返回 null
+     */
+    public CycleReport runNow() {
+        return runCycle(Instant.now());
+    }
+
+    /**
+     * 上一轮的结果，尚未执行过时为 null
+     */
+    public CycleReport getLastReport() {
+        return lastReport;
+    }
+
+    private CycleReport runCycle(Instant scheduled) {
+        if (!cycleLock.tryLock()) {
+            log.warn("上一轮策略调度尚未结束，跳过本次触发");
+            return null;
+        }
+        try {
+            long startNanos = System.nanoTime();
+            LocalDateTime startedAt = LocalDateTime.now();
+            Plan plan = plan(strategyRepository.findByStatus(RUNNING));
+
+            Map<String, PriceSeries> prices = fetchPrices(plan.bars);
+            List<StrategySignal> signals = evaluate(plan.tasks, prices);
+            int inserted = signalRecorder.recordAll(signals);
+            // 调度在后台执行，等信号落库后再计算延迟，使 lag 反映“收盘到信号可查询”的时间
+            if (!signalSink.flush(FLUSH_TIMEOUT_MS)) {
+                log.warn("等待信号写入超时");
+            }
+
+            long durationNanos = System.nanoTime() - startNanos;
+            long lagMillis = scheduled != null ? Math.max(0, Duration.between(scheduled, Instant.now()).toMillis()) : 0;
+            cycleTimer.record(Duration.ofNanos(durationNanos));
+            evaluationCounter.increment(signals.size());
+            signalCounter.increment(inserted);
+            lastLagMillis.set(lagMillis);
+            lastStrategies.set(plan.strategies);
+            lastSymbols.set(plan.bars.size());
+
+            int failures = plan.tasks.size() - signals.size() + plan.skippedStrategies;
+            CycleReport report = new CycleReport(startedAt, durationNanos / 1_000_000, lagMillis, plan.strategies,
+                    plan.bars.size(), signals.size(), failures);
+            lastReport = report;
+            if (plan.strategies > 0) {
+                log.info("策略调度完成: strategies={}, symbols={}, signals={}, failures={}, duration={}ms, lag={}ms",
+                        report.strategies(), report.symbols(), report.signals(), report.failures(),
+                        report.durationMs(), report.lagMs());
+            }
+            return report;
+        } finally {
+            cycleLock.unlock();
+        }
+    }
+
+    /**
+     * 编译各策略参数，汇总去重后的股票及每只股票需要的K线数
+     */
+    private Plan plan(List<Strategy> running) {
+        Map<String, Integer> bars = new LinkedHashMap<>();
+        List<Task> tasks = new ArrayList<>();
+        int strategies = 0;
+        int skipped = 0;
+        for (Strategy strategy : running) {
+            List<String> watchlist = StrategyService.watchlistOf(strategy);
+            if (watchlist.isEmpty()) {
+                continue;
+            }
+            TradingStrategy<?> tradingStrategy = strategyService.getStrategyByType(strategy.getType());
+            StrategyConfig config;
+            try {
+                if (tradingStrategy == null) {
+                    throw new IllegalArgumentException("不支持的策略类型: " + strategy.getType());
+                }
+                config = strategyConfigCache.get(strategy, tradingStrategy);
+            } catch (IllegalArgumentException e) {
+                log.warn("跳过策略 {}: {}", strategy.getId(), e.getMessage());
+                failureCounter.increment();
+                skipped++;
+                continue;
+            }
+            strategies++;
+            for (String stockCode : watchlist) {
+                bars.merge(stockCode, config.historyBars(), Math::max);
+                tasks.add(new Task(strategy.getId(), tradingStrategy, config, stockCode));
+            }
+        }
+        return new Plan(bars, tasks, strategies, skipped);
+    }
+
+    /**
+     * 每只股票加载一次价格（并行），失败的股票不出现在结果中
+     */
+    private Map<String, PriceSeries> fetchPrices(Map<String, Integer> bars) {
+        Map<String, PriceSeries> prices = new ConcurrentHashMap<>();
+        signalWorkerPool.map(new ArrayList<>(bars.entrySet()), entry -> {
+            try {
+                prices.put(entry.getKey(), priceHistoryService.getHistoricalPrices(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException e) {
+                log.warn("加载价格失败: {}, {}", entry.getKey(), e.getMessage());
+                failureCounter.increment();
+            }
+            return null;
+        });
+        return prices;
+    }
+
+    /**
+     * 把评估任务分片交给工作线程生成信号
+     * 双均线任务按（参数, 序列长度）分组，每组用 {@link MovingAverageCrossStrategy#scan} 在价格矩阵上一次算完；
+     * 其余策略逐只生成
+     */
+    private List<StrategySignal> evaluate(List<Task> tasks, Map<String, PriceSeries> prices) {
+        Map<ScanKey, List<Task>> scans = new LinkedHashMap<>();
+        List<Task> single = new ArrayList<>();
+        for (Task task : tasks) {
+            PriceSeries series = prices.get(task.stockCode);
+            if (series != null && task.strategy instanceof MovingAverageCrossStrategy crossStrategy
+                    && task.config instanceof MovingAverageCrossStrategy.Config config) {
+                int rows = Math.min(series.length(), config.historyBars());
+                scans.computeIfAbsent(new ScanKey(crossStrategy, config, rows), key -> new ArrayList<>()).add(task);
+            } else {
+                single.add(task);
+            }
+        }
+
+        List<StrategySignal> signals = signalWorkerPool.map(single, task -> {
+            PriceSeries series = prices.get(task.stockCode);
+            if (series == null) {
+                return null;
+            }
+            try {
+                StrategySignal signal = StrategyService.generate(task.strategy, task.stockCode,
+                        series.tail(task.config.historyBars()), task.config);
+                signal.setStrategyId(task.strategyId);
+                signal.setStockName(strategyService.getStockName(task.stockCode));
+                return signal;
+            } catch (RuntimeException e) {
+                log.warn("生成信号失败: strategy={}, stockCode={}, {}", task.strategyId, task.stockCode, e.getMessage());
+                failureCounter.increment();
+                return null;
+            }
+        });
+        for (List<StrategySignal> group : signalWorkerPool.map(new ArrayList<>(scans.entrySet()),
+                entry -> scan(entry.getKey(), entry.getValue(), prices))) {
+            signals.addAll(group);
+        }
+        return signals;
+    }
+
+    /**
+     * 一组双均线任务的矩阵扫描，失败时整组计为失败
+     */
+    private List<StrategySignal> scan(ScanKey key, List<Task> group, Map<String, PriceSeries> prices) {
+        List<String> stockCodes = new ArrayList<>(group.size());
+        List<PriceSeries> series = new ArrayList<>(group.size());
+        for (Task task : group) {
+            stockCodes.add(task.stockCode);
+            series.add(prices.get(task.stockCode).tail(key.rows));
+        }
+        try {
+            List<StrategySignal> signals = key.strategy.scan(stockCodes, series, key.config);
+            for (int i = 0; i < signals.size(); i++) {
+                signals.get(i).setStrategyId(group.get(i).strategyId);
+                signals.get(i).setStockName(strategyService.getStockName(stockCodes.get(i)));
+            }
+            return signals;
+        } catch (RuntimeException e) {
+            log.warn("双均线扫描失败: config={}, symbols={}, {}", key.config, group.size(), e.getMessage());
+            failureCounter.increment(group.size());
+            return null;
+        }
+    }
+
+    private static Instant nextCronTime(CronExpression expression) {
+        ZonedDateTime next = expression.next(ZonedDateTime.now(ZoneId.systemDefault()));
+        return next != null ? next.toInstant() : null;
+    }
+
+    /**
+     * 一轮调度的结果
+     *
+     * @param startedAt  开始时间
+     * @param durationMs 耗时
+     * @param lagMs      完成时间相对计划触发时间的延迟
+     * @param strategies 评估的策略数
+     * @param symbols    加载价格的股票数（去重后）
+     * @param signals    生成并保存的信号数
+     * @param failures   失败的评估数（含参数无效而跳过的策略）
+     */
+    public record CycleReport(LocalDateTime startedAt, long durationMs, long lagMs, int strategies, int symbols,
+                              int signals, int failures) {
+    }
+
+    private record Plan(Map<String, Integer> bars, List<Task> tasks, int strategies, int skippedStrategies) {
+    }
+
+    private record Task(Long strategyId, TradingStrategy<?> strategy, StrategyConfig config, String stockCode) {
+    }
+
+    private record ScanKey(MovingAverageCrossStrategy strategy, MovingAverageCrossStrategy.Config config, int rows) {
+    }
+}
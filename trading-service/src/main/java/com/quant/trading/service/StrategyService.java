@@ -1,17 +1,26 @@
 package com.quant.trading.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.trading.dto.SignalPage;
 import com.quant.trading.entity.Strategy;
 import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.indicator.PriceSeries;
 import com.quant.trading.repository.StrategyRepository;
 import com.quant.trading.repository.StrategySignalRepository;
+import com.quant.trading.strategy.CustomRuleStrategy;
+import com.quant.trading.strategy.IncrementalStrategy;
 import com.quant.trading.strategy.MovingAverageCrossStrategy;
+import com.quant.trading.strategy.StrategyConfig;
 import com.quant.trading.strategy.TradingStrategy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -19,6 +28,7 @@ import java.util.*;
  * 策略服务类
  * 负责策略的创建、执行、信号生成等核心功能
  */
+@Slf4j
 @Service
 public class StrategyService {
 
@@ -32,24 +42,72 @@ public class StrategyService {
     private MovingAverageCrossStrategy movingAverageCrossStrategy;
 
     @Autowired
-    private StockPriceService stockPriceService;
+    private CustomRuleStrategy customRuleStrategy;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private IndicatorStateService indicatorStateService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private StrategyConfigCache strategyConfigCache;
+
+    @Autowired
+    private SignalWorkerPool signalWorkerPool;
+
+    @Autowired
+    private SignalSink signalSink;
+
+    @Autowired
+    private SignalRecorder signalRecorder;
+
+    private static final long DELETE_FLUSH_TIMEOUT_MS = 10_000L;
+
+    /** 增量状态读-改-写的分段锁数量 */
+    private static final int STATE_LOCK_STRIPES = 64;
+
+    /**
+     * 同一（策略, 股票）的增量计算按分段锁串行：状态读取、onBar 与保存之间不加锁时，
+     * 两次并发请求都从同一份旧状态出发，后保存的一方会把另一根K线永久丢掉
+     */
+    private final Object[] stateLocks = new Object[STATE_LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < STATE_LOCK_STRIPES; i++) {
+            stateLocks[i] = new Object();
+        }
+    }
+
+    /** 信号分页每页条数上限 */
+    public static final int MAX_SIGNAL_PAGE_SIZE = 500;
+
+    /** 首页游标：排在所有信号之后 */
+    private static final LocalDateTime CURSOR_START_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /** 单个策略关注的股票数上限 */
+    public static final int MAX_WATCHLIST_SIZE = 500;
 
     /**
      * 创建新策略
      */
     public Strategy createStrategy(String name, String type, String parameters, String description, Long userId) {
+        return createStrategy(name, type, parameters, description, userId, null);
+    }
+
+    /**
+     * 创建新策略并设置关注的股票
+     */
+    public Strategy createStrategy(String name, String type, String parameters, String description, Long userId,
+                                   List<String> watchlist) {
         // 验证策略类型
-        TradingStrategy strategy = getStrategyByType(type);
+        TradingStrategy<?> strategy = getStrategyByType(type);
         if (strategy == null) {
             throw new IllegalArgumentException("不支持的策略类型: " + type);
         }
 
-        // 验证参数
-        if (!strategy.validateParameters(parameters)) {
-            throw new IllegalArgumentException("策略参数无效");
-        }
+        // 解析并验证参数
+        StrategyConfig config = compileParameters(strategy, parameters);
 
         Strategy newStrategy = new Strategy();
         newStrategy.setName(name);
@@ -58,8 +116,80 @@ public class StrategyService {
         newStrategy.setDescription(description);
         newStrategy.setUserId(userId);
         newStrategy.setStatus("STOPPED");
+        newStrategy.setWatchlist(watchlist != null ? joinWatchlist(watchlist) : null);
+
+        Strategy saved = strategyRepository.save(newStrategy);
+        strategyConfigCache.put(saved, config);
+        return saved;
+    }
+
+    /**
+     * 修改策略参数
+     * 新参数先编译校验，保存后替换缓存的编译参数；参数变化后原有的增量指标状态不再适用，一并清除
+     */
+    public Strategy updateStrategyParameters(Long strategyId, String parameters) {
+        Strategy strategy = strategyRepository.findById(strategyId)
+            .orElseThrow(() -> new IllegalArgumentException("策略不存在: " + strategyId));
+
+        TradingStrategy<?> tradingStrategy = getStrategyByType(strategy.getType());
+        if (tradingStrategy == null) {
+            throw new IllegalArgumentException("不支持的策略类型: " + strategy.getType());
+        }
+        StrategyConfig config = compileParameters(tradingStrategy, parameters);
+
+        strategy.setParameters(parameters);
+        Strategy saved = strategyRepository.save(strategy);
+        strategyConfigCache.put(saved, config);
+        indicatorStateService.deleteByStrategy(strategyId);
+        return saved;
+    }
 
-        return strategyRepository.save(newStrategy);
+    /**
+     * 设置策略关注的股票
+     * 代码去除空白、转为大写并去重，保持原有顺序
+     */
+    public Strategy updateWatchlist(Long strategyId, List<String> stockCodes) {
+        Strategy strategy = strategyRepository.findById(strategyId)
+            .orElseThrow(() -> new IllegalArgumentException("策略不存在: " + strategyId));
+        strategy.setWatchlist(joinWatchlist(stockCodes != null ? stockCodes : List.of()));
+        return strategyRepository.save(strategy);
+    }
+
+    /**
+     * 策略关注的股票代码
+     */
+    public static List<String> watchlistOf(Strategy strategy) {
+        String watchlist = strategy.getWatchlist();
+        if (watchlist == null || watchlist.isBlank()) {
+            return List.of();
+        }
+        return List.of(watchlist.split(","));
+    }
+
+    private static String joinWatchlist(List<String> stockCodes) {
+        Set<String> codes = new LinkedHashSet<>();
+        for (String code : stockCodes) {
+            if (code == null || code.isBlank()) {
+                continue;
+            }
+            String normalized = code.trim().toUpperCase(Locale.ROOT);
+            if (normalized.contains(",")) {
+                throw new IllegalArgumentException("无效的股票代码: " + code);
+            }
+            codes.add(normalized);
+        }
+        if (codes.size() > MAX_WATCHLIST_SIZE) {
+            throw new IllegalArgumentException("关注的股票不能超过 " + MAX_WATCHLIST_SIZE + " 只");
+        }
+        return codes.isEmpty() ? null : String.join(",", codes);
+    }
+
+    static StrategyConfig compileParameters(TradingStrategy<?> strategy, String parameters) {
+        try {
+            return strategy.compileParameters(parameters);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("策略参数无效: " + e.getMessage(), e);
+        }
     }
 
     /**
@@ -71,16 +201,17 @@ public class StrategyService {
             .orElseThrow(() -> new IllegalArgumentException("策略不存在: " + strategyId));
 
         // 获取策略实现
-        TradingStrategy tradingStrategy = getStrategyByType(strategy.getType());
+        TradingStrategy<?> tradingStrategy = getStrategyByType(strategy.getType());
         if (tradingStrategy == null) {
             throw new IllegalArgumentException("不支持的策略类型: " + strategy.getType());
         }
+        StrategyConfig config = strategyConfigCache.get(strategy, tradingStrategy);
 
         // 获取历史价格数据
-        List<BigDecimal> prices = getHistoricalPrices(stockCode, 60); // 获取60天历史数据
+        PriceSeries prices = priceHistoryService.getHistoricalPrices(stockCode, config.historyBars());
 
         // 生成信号
-        StrategySignal signal = tradingStrategy.generateSignal(stockCode, prices, strategy.getParameters());
+        StrategySignal signal = generate(tradingStrategy, stockCode, prices, config);
         signal.setStrategyId(strategyId);
 
         // 获取股票名称
@@ -91,33 +222,173 @@ public class StrategyService {
             signal.setStockName(stockCode);
         }
 
-        // 保存信号
-        return strategySignalRepository.save(signal);
+        // 异步保存信号
+        return signalRecorder.record(signal);
+    }
+
+    /**
+     * 以一根新K线增量生成信号
+     * 从保存的（策略, 股票）指标状态继续计算，不重新加载历史；首次调用时用历史价格预热。
+     * 同一交易日或更早的K线不会重复计入状态，只按当前状态重新给出信号；
+     * 同一（策略, 股票）的并发请求依次执行，每根K线都在前一次保存的状态上计入
+     */
+    public StrategySignal generateSignalForBar(Long strategyId, String stockCode, LocalDate barDate, BigDecimal close) {
+        Strategy strategy = strategyRepository.findById(strategyId)
+            .orElseThrow(() -> new IllegalArgumentException("策略不存在: " + strategyId));
+
+        TradingStrategy<?> tradingStrategy = getStrategyByType(strategy.getType());
+        if (!(tradingStrategy instanceof IncrementalStrategy<?, ?> incremental)) {
+            throw new IllegalArgumentException("策略类型不支持增量计算: " + strategy.getType());
+        }
+        StrategyConfig config = strategyConfigCache.get(strategy, tradingStrategy);
+
+        StrategySignal signal = applyBar(incremental, tradingStrategy.getConfigType(), config,
+            strategy, stockCode, barDate, close);
+        signal.setStrategyId(strategyId);
+        try {
+            signal.setStockName(getStockName(stockCode));
+        } catch (Exception e) {
+            signal.setStockName(stockCode);
+        }
+        return signalRecorder.record(signal);
+    }
+
+    static <C extends StrategyConfig> StrategySignal generate(TradingStrategy<C> tradingStrategy,
+                                                              String stockCode, PriceSeries prices,
+                                                              StrategyConfig config) {
+        return tradingStrategy.generateSignal(stockCode, prices, tradingStrategy.getConfigType().cast(config));
+    }
+
+    private <C extends StrategyConfig, S extends Serializable> StrategySignal applyBar(
+            IncrementalStrategy<C, S> incremental, Class<?> configType, StrategyConfig config,
+            Strategy strategy, String stockCode, LocalDate barDate, BigDecimal close) {
+        Long strategyId = strategy.getId();
+        synchronized (stateLocks[Math.floorMod(31 * strategyId.hashCode() + stockCode.hashCode(), STATE_LOCK_STRIPES)]) {
+            return applyBarLocked(incremental, configType, config, strategyId, stockCode, barDate, close);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C extends StrategyConfig, S extends Serializable> StrategySignal applyBarLocked(
+            IncrementalStrategy<C, S> incremental, Class<?> configType, StrategyConfig config,
+            Long strategyId, String stockCode, LocalDate barDate, BigDecimal close) {
+        Optional<IndicatorStateService.StoredState<S>> stored =
+            indicatorStateService.load(strategyId, stockCode, incremental.getStateType());
+
+        S state;
+        LocalDate lastBarDate;
+        long barCount;
+        if (stored.isPresent()) {
+            state = stored.get().state();
+            lastBarDate = stored.get().lastBarDate();
+            barCount = stored.get().barCount();
+        } else {
+            // 首次计算：用历史价格预热状态，历史中已包含的交易日不再重复计入
+            state = incremental.createState((C) configType.cast(config));
+            PriceSeries history = priceHistoryService.getHistoricalPrices(stockCode, config.historyBars());
+            for (int i = 0; i < history.length(); i++) {
+                incremental.onBar(state, history.close(i));
+            }
+            lastBarDate = history.lastBarDate();
+            barCount = history.length();
+            if (lastBarDate != null && !barDate.isAfter(lastBarDate)) {
+                indicatorStateService.save(strategyId, stockCode, state, lastBarDate, barCount);
+            }
+        }
+
+        if (lastBarDate == null || barDate.isAfter(lastBarDate)) {
+            incremental.onBar(state, close.doubleValue());
+            lastBarDate = barDate;
+            barCount++;
+            indicatorStateService.save(strategyId, stockCode, state, lastBarDate, barCount);
+        }
+
+        return incremental.evaluate(stockCode, state, close);
     }
 
     /**
      * 批量生成信号（为策略的所有关注股票）
+     * 策略只加载一次，各股票在 {@link SignalWorkerPool} 上并行加载价格并生成信号，
+     * 信号交给 {@link SignalRecorder} 异步批量写入。单只股票失败时跳过该股票
      */
     public List<StrategySignal> generateSignalsForStrategy(Long strategyId, List<String> stockCodes) {
-        List<StrategySignal> signals = new ArrayList<>();
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (stockCodes.size() > MAX_WATCHLIST_SIZE) {
+            throw new IllegalArgumentException("单次最多为 " + MAX_WATCHLIST_SIZE + " 只股票生成信号");
+        }
+        Strategy strategy = strategyRepository.findById(strategyId)
+            .orElseThrow(() -> new IllegalArgumentException("策略不存在: " + strategyId));
+        TradingStrategy<?> tradingStrategy = getStrategyByType(strategy.getType());
+        if (tradingStrategy == null) {
+            throw new IllegalArgumentException("不支持的策略类型: " + strategy.getType());
+        }
+        StrategyConfig config = strategyConfigCache.get(strategy, tradingStrategy);
 
-        for (String stockCode : stockCodes) {
+        List<StrategySignal> signals = signalWorkerPool.map(stockCodes, stockCode -> {
             try {
-                StrategySignal signal = generateSignal(strategyId, stockCode);
-                signals.add(signal);
+                PriceSeries prices = priceHistoryService.getHistoricalPrices(stockCode, config.historyBars());
+                StrategySignal signal = generate(tradingStrategy, stockCode, prices, config);
+                signal.setStrategyId(strategyId);
+                signal.setStockName(getStockName(stockCode));
+                return signal;
             } catch (Exception e) {
-                System.err.println("为股票 " + stockCode + " 生成信号失败: " + e.getMessage());
+                log.warn("为股票 {} 生成信号失败: {}", stockCode, e.getMessage());
+                return null;
             }
-        }
-
+        });
+        signalRecorder.recordAll(signals);
         return signals;
     }
 
     /**
-     * 获取策略的所有信号
+     * 按信号时间倒序分页获取策略的信号
+     * 游标记录上一页最后一条的（信号时间, ID），查询直接从索引位置继续，耗时与历史总量无关
+     *
+     * @param cursor     上一页返回的 nextCursor，首页传 null
+     * @param size       每页条数（1-{@value #MAX_SIGNAL_PAGE_SIZE}）
+     * @param signalType 按信号类型过滤，可为 null
+     * @param stockCode  按股票过滤，可为 null
      */
-    public List<StrategySignal> getStrategySignals(Long strategyId) {
-        return strategySignalRepository.findByStrategyIdOrderBySignalTimeDesc(strategyId);
+    public SignalPage getStrategySignals(Long strategyId, String cursor, int size, String signalType,
+                                         String stockCode) {
+        if (size < 1 || size > MAX_SIGNAL_PAGE_SIZE) {
+            throw new IllegalArgumentException("size 必须在 1-" + MAX_SIGNAL_PAGE_SIZE + " 之间");
+        }
+        LocalDateTime beforeTime = CURSOR_START_TIME;
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_");
+                beforeTime = LocalDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无效的游标: " + cursor);
+            }
+        }
+
+        List<StrategySignal> signals = strategySignalRepository.findPage(strategyId,
+            normalizeFilter(signalType), normalizeFilter(stockCode), beforeTime, beforeId, Limit.of(size + 1));
+        boolean hasMore = signals.size() > size;
+        if (hasMore) {
+            signals = signals.subList(0, size);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            StrategySignal last = signals.get(signals.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getSignalTime() + "_" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return SignalPage.builder()
+            .signals(signals)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    private static String normalizeFilter(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase(Locale.ROOT);
     }
 
     /**
@@ -153,69 +424,36 @@ public class StrategyService {
      * 删除策略
      */
     public void deleteStrategy(Long strategyId) {
-        // 先删除相关信号
-        List<StrategySignal> signals = strategySignalRepository.findByStrategyId(strategyId);
-        strategySignalRepository.deleteAll(signals);
+        // 先写完队列中的信号，再用一条 DELETE 删除相关信号
+        signalSink.flush(DELETE_FLUSH_TIMEOUT_MS);
+        signalRecorder.forgetStrategy(strategyId);
+        int deleted = strategySignalRepository.deleteAllByStrategyId(strategyId);
+        indicatorStateService.deleteByStrategy(strategyId);
+        log.info("删除策略 {}，同时删除信号 {} 条", strategyId, deleted);
 
         // 删除策略
         strategyRepository.deleteById(strategyId);
+        strategyConfigCache.invalidate(strategyId);
     }
 
     /**
      * 根据策略类型获取策略实现
      */
-    private TradingStrategy getStrategyByType(String type) {
+    TradingStrategy<?> getStrategyByType(String type) {
         switch (type) {
             case "MA_CROSS":
                 return movingAverageCrossStrategy;
-            // 后续可以添加更多策略类型
+            case "CUSTOM":
+                return customRuleStrategy;
             default:
                 return null;
         }
     }
 
-    /**
-     * 获取历史价格数据
-     */
-    private List<BigDecimal> getHistoricalPrices(String stockCode, int days) {
-        try {
-            // 这里应该调用实际的历史数据API
-            // 暂时使用模拟数据进行演示
-            return generateMockPrices(stockCode, days);
-        } catch (Exception e) {
-            throw new RuntimeException("获取历史价格数据失败: " + e.getMessage());
-        }
-    }
-
-    /**
-     * 生成模拟价格数据（用于演示）
-     */
-    private List<BigDecimal> generateMockPrices(String stockCode, int days) {
-        List<BigDecimal> prices = new ArrayList<>();
-        Random random = new Random();
-
-        // 基础价格（根据股票代码生成不同的基础价格）
-        double basePrice = 10.0 + (stockCode.hashCode() % 50);
-
-        for (int i = 0; i < days; i++) {
-            // 生成随机波动（-5% 到 +5%）
-            double change = (random.nextDouble() - 0.5) * 0.1;
-            basePrice = basePrice * (1 + change);
-
-            // 确保价格在合理范围内
-            if (basePrice < 1.0) basePrice = 1.0;
-            if (basePrice > 1000.0) basePrice = 1000.0;
-
-            prices.add(BigDecimal.valueOf(basePrice).setScale(2, BigDecimal.ROUND_HALF_UP));
-        }
-
-        return prices;
-    }
-
     /**
      * 获取股票名称
      */
-    private String getStockName(String stockCode) {
+    String getStockName(String stockCode) {
         // 这里应该调用股票信息API获取股票名称
         // 暂时返回股票代码
         Map<String, String> stockNames = new HashMap<>();
@@ -243,6 +481,21 @@ public class StrategyService {
         ));
         strategies.add(maCross);
 
+        Map<String, Object> custom = new HashMap<>();
+        custom.put("type", "CUSTOM");
+        custom.put("name", "自定义规则策略");
+        custom.put("description", "用规则表达式描述买入、卖出条件，如 SMA(5) crosses_above SMA(20) and RSI(14) < 70");
+        custom.put("parameters", Map.of(
+            "entry", Map.of("type", "string", "description", "买入规则"),
+            "exit", Map.of("type", "string", "description", "卖出规则")
+        ));
+        custom.put("functions", List.of("CLOSE", "SMA(n)", "EMA(n)", "RSI(n)",
+            "MACD_DIF(fast,slow,signal)", "MACD_DEA(fast,slow,signal)", "MACD_HIST(fast,slow,signal)",
+            "BOLL_UPPER(n,k)", "BOLL_MIDDLE(n,k)", "BOLL_LOWER(n,k)"));
+        custom.put("operators", List.of("<", "<=", ">", ">=", "==", "!=", "crosses_above", "crosses_below",
+            "and", "or", "not", "+", "-", "*", "/"));
+        strategies.add(custom);
+
         return strategies;
     }
 }
\ No newline at end of file
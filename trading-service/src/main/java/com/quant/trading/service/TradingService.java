@@ -3,6 +3,7 @@ package com.quant.trading.service;
 import com.quant.trading.entity.TradingAccount;
 import com.quant.trading.entity.Position;
 import com.quant.trading.entity.Trade;
+import com.quant.trading.money.FixedPoint;
 import com.quant.trading.repository.TradingAccountRepository;
 import com.quant.trading.repository.PositionRepository;
 import com.quant.trading.repository.TradeRepository;
@@ -12,7 +13,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,6 +27,9 @@ public class TradingService {
     private final TradeRepository tradeRepository;
     private final StockPriceService stockPriceService;
 
+    /** 万三手续费（定点费率），回测按同一费率模拟成交 */
+    public static final long COMMISSION_RATE = FixedPoint.toRate(new BigDecimal("0.0003"));
+
     /**
      * 创建模拟交易账户
      */
@@ -70,17 +73,16 @@ public class TradingService {
 
         TradingAccount account = getAccount(userId);
 
-        // 计算交易金额和手续费
-        BigDecimal amount = price.multiply(BigDecimal.valueOf(quantity));
-        BigDecimal commission = amount.multiply(BigDecimal.valueOf(0.0003)); // 万三手续费
-        BigDecimal totalCost = tradeType == Trade.TradeType.BUY ?
-            amount.add(commission) : amount.subtract(commission);
+        // 计算交易金额和手续费（定点数，金额四舍五入到分）
+        long priceUnits = FixedPoint.toPrice(price);
+        long amount = FixedPoint.notional(priceUnits, quantity);
+        long commission = FixedPoint.fee(amount, COMMISSION_RATE); // 万三手续费
 
         // 执行交易逻辑
         if (tradeType == Trade.TradeType.BUY) {
-            executeBuyOrder(account, stockCode, quantity, price, amount, commission);
+            executeBuyOrder(account, stockCode, quantity, priceUnits, amount, commission);
         } else {
-            executeSellOrder(account, stockCode, quantity, price, amount, commission);
+            executeSellOrder(account, stockCode, quantity, priceUnits, amount, commission);
         }
 
         // 创建交易记录
@@ -91,9 +93,9 @@ public class TradingService {
         trade.setStockName(getStockName(stockCode));
         trade.setTradeType(tradeType);
         trade.setQuantity(quantity);
-        trade.setPrice(price);
-        trade.setAmount(amount);
-        trade.setCommission(commission);
+        trade.setPrice(FixedPoint.priceToDecimal(priceUnits));
+        trade.setAmount(FixedPoint.moneyToDecimal(amount));
+        trade.setCommission(FixedPoint.moneyToDecimal(commission));
         trade.setStatus(Trade.TradeStatus.COMPLETED);
 
         return tradeRepository.save(trade);
@@ -103,17 +105,18 @@ public class TradingService {
      * 执行买入订单
      */
     private void executeBuyOrder(TradingAccount account, String stockCode, Integer quantity,
-                               BigDecimal price, BigDecimal amount, BigDecimal commission) {
+                               long price, long amount, long commission) {
 
-        BigDecimal totalCost = amount.add(commission);
+        long totalCost = amount + commission;
+        long balance = FixedPoint.toMoney(account.getBalance());
 
         // 检查余额
-        if (account.getBalance().compareTo(totalCost) < 0) {
+        if (balance < totalCost) {
             throw new RuntimeException("账户余额不足");
         }
 
         // 更新账户余额
-        account.setBalance(account.getBalance().subtract(totalCost));
+        account.setBalance(FixedPoint.moneyToDecimal(balance - totalCost));
         accountRepository.save(account);
 
         // 更新持仓
@@ -124,15 +127,13 @@ public class TradingService {
             // 更新现有持仓
             Position position = existingPosition.get();
             int newQuantity = position.getQuantity() + quantity;
-            BigDecimal newAvgCost = position.getAvgCost()
-                .multiply(BigDecimal.valueOf(position.getQuantity()))
-                .add(price.multiply(BigDecimal.valueOf(quantity)))
-                .divide(BigDecimal.valueOf(newQuantity), 2, RoundingMode.HALF_UP);
+            long newAvgCost = FixedPoint.averageCost(
+                FixedPoint.toPrice(position.getAvgCost()), position.getQuantity(), price, quantity);
 
             position.setQuantity(newQuantity);
-            position.setAvgCost(newAvgCost);
-            position.setCurrentPrice(price);
-            position.setMarketValue(price.multiply(BigDecimal.valueOf(newQuantity)));
+            position.setAvgCost(FixedPoint.priceToDecimal(newAvgCost));
+            position.setCurrentPrice(FixedPoint.priceToDecimal(price));
+            position.setMarketValue(FixedPoint.moneyToDecimal(FixedPoint.notional(price, newQuantity)));
 
             positionRepository.save(position);
         } else {
@@ -142,9 +143,9 @@ public class TradingService {
             position.setStockCode(stockCode);
             position.setStockName(getStockName(stockCode));
             position.setQuantity(quantity);
-            position.setAvgCost(price);
-            position.setCurrentPrice(price);
-            position.setMarketValue(price.multiply(BigDecimal.valueOf(quantity)));
+            position.setAvgCost(FixedPoint.priceToDecimal(price));
+            position.setCurrentPrice(FixedPoint.priceToDecimal(price));
+            position.setMarketValue(FixedPoint.moneyToDecimal(amount));
 
             positionRepository.save(position);
         }
@@ -154,7 +155,7 @@ public class TradingService {
      * 执行卖出订单
      */
     private void executeSellOrder(TradingAccount account, String stockCode, Integer quantity,
-                                BigDecimal price, BigDecimal amount, BigDecimal commission) {
+                                long price, long amount, long commission) {
 
         // 检查持仓
         Optional<Position> position = positionRepository.findByAccountIdAndStockCode(
@@ -164,10 +165,10 @@ public class TradingService {
             throw new RuntimeException("持仓数量不足");
         }
 
-        BigDecimal totalReceived = amount.subtract(commission);
+        long totalReceived = amount - commission;
 
         // 更新账户余额
-        account.setBalance(account.getBalance().add(totalReceived));
+        account.setBalance(FixedPoint.moneyToDecimal(FixedPoint.toMoney(account.getBalance()) + totalReceived));
         accountRepository.save(account);
 
         // 更新持仓
@@ -180,8 +181,8 @@ public class TradingService {
         } else {
             // 减少持仓
             pos.setQuantity(newQuantity);
-            pos.setCurrentPrice(price);
-            pos.setMarketValue(price.multiply(BigDecimal.valueOf(newQuantity)));
+            pos.setCurrentPrice(FixedPoint.priceToDecimal(price));
+            pos.setMarketValue(FixedPoint.moneyToDecimal(FixedPoint.notional(price, newQuantity)));
             positionRepository.save(pos);
         }
     }
@@ -216,14 +217,13 @@ public class TradingService {
     private void updateAccountAssets(TradingAccount account) {
         List<Position> positions = positionRepository.findByAccountId(account.getAccountId());
 
-        BigDecimal totalMarketValue = positions.stream()
-            .map(pos -> {
-                updatePositionProfitLoss(pos);
-                return pos.getMarketValue();
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long totalMarketValue = 0;
+        for (Position pos : positions) {
+            updatePositionProfitLoss(pos);
+            totalMarketValue += FixedPoint.toMoney(pos.getMarketValue());
+        }
 
-        account.setTotalAssets(account.getBalance().add(totalMarketValue));
+        account.setTotalAssets(FixedPoint.moneyToDecimal(FixedPoint.toMoney(account.getBalance()) + totalMarketValue));
         accountRepository.save(account);
     }
 
@@ -232,20 +232,18 @@ public class TradingService {
      */
     private void updatePositionProfitLoss(Position position) {
         try {
-            BigDecimal currentPrice = stockPriceService.getCurrentPrice(position.getStockCode());
-            position.setCurrentPrice(currentPrice);
+            long currentPrice = FixedPoint.toPrice(stockPriceService.getCurrentPrice(position.getStockCode()));
+            position.setCurrentPrice(FixedPoint.priceToDecimal(currentPrice));
 
-            BigDecimal marketValue = currentPrice.multiply(BigDecimal.valueOf(position.getQuantity()));
-            position.setMarketValue(marketValue);
+            long marketValue = FixedPoint.notional(currentPrice, position.getQuantity());
+            position.setMarketValue(FixedPoint.moneyToDecimal(marketValue));
 
-            BigDecimal costValue = position.getAvgCost().multiply(BigDecimal.valueOf(position.getQuantity()));
-            BigDecimal profitLoss = marketValue.subtract(costValue);
-            position.setProfitLoss(profitLoss);
+            long costValue = FixedPoint.notional(FixedPoint.toPrice(position.getAvgCost()), position.getQuantity());
+            long profitLoss = marketValue - costValue;
+            position.setProfitLoss(FixedPoint.moneyToDecimal(profitLoss));
 
-            if (costValue.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal profitLossPct = profitLoss.divide(costValue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-                position.setProfitLossPct(profitLossPct);
+            if (costValue > 0) {
+                position.setProfitLossPct(FixedPoint.percentToDecimal(FixedPoint.percent(profitLoss, costValue)));
             }
 
             positionRepository.save(position);
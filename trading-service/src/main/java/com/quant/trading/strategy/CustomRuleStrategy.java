@@ -0,0 +1,206 @@
+package com.quant.trading.strategy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.indicator.IndicatorSource;
+import com.quant.trading.indicator.IndicatorSpec;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.service.IndicatorCacheService;
+import com.quant.trading.strategy.rule.CompiledRule;
+import com.quant.trading.strategy.rule.RuleCompiler;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 自定义规则策略
+ *
+ * 策略逻辑:
+ * - entry 规则在最新K线上成立 → 买入信号
+ * - 否则 exit 规则成立 → 卖出信号
+ * - 都不成立 → 持有
+ *
+ * 参数示例:
+ * {"entry": "SMA(5) crosses_above SMA(20) and RSI(14) &lt; 70",
+ *  "exit": "SMA(5) crosses_below SMA(20) or RSI(14) &gt; 80"}
+ *
+ * 规则语法见 {@link RuleCompiler}。规则在创建策略时编译为求值树，
+ * 信号生成时只做一次融合指标计算（经指标缓存共享）并按列下标求值
+ */
+@Component
+public class CustomRuleStrategy implements TradingStrategy<CustomRuleStrategy.Config>,
+        VectorizedStrategy<CustomRuleStrategy.Config> {
+
+    private static final String STRATEGY_TYPE = "CUSTOM";
+    private static final int DEFAULT_HISTORY_BARS = 60;
+    private static final int MAX_HISTORY_BARS = 1000;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final IndicatorCacheService indicatorCache;
+
+    public CustomRuleStrategy(IndicatorCacheService indicatorCache) {
+        this.indicatorCache = indicatorCache;
+    }
+
+    @Override
+    public StrategySignal generateSignal(String stockCode, PriceSeries series, Config config) {
+        BigDecimal currentPrice = series != null ? series.lastPrice() : BigDecimal.ZERO;
+        if (series == null || series.length() < config.warmupBars()) {
+            return createSignal(stockCode, currentPrice, "HOLD", "数据不足，至少需要 " + config.warmupBars() + " 根K线");
+        }
+
+        double[][] columns = bind(series, config, indicatorCache);
+        int last = series.length() - 1;
+        if (config.entryRule() != null && config.entryRule().test(columns, last)) {
+            return createSignal(stockCode, currentPrice, "BUY", "满足买入规则: " + config.entryRule());
+        }
+        if (config.exitRule() != null && config.exitRule().test(columns, last)) {
+            return createSignal(stockCode, currentPrice, "SELL", "满足卖出规则: " + config.exitRule());
+        }
+        return createSignal(stockCode, currentPrice, "HOLD", "买入、卖出规则均未满足");
+    }
+
+    @Override
+    public void signals(PriceSeries series, Config config, byte[] dst) {
+        signals(series, config, indicatorCache, dst);
+    }
+
+    @Override
+    public void signals(PriceSeries series, Config config, IndicatorSource indicators, byte[] dst) {
+        int n = series.length();
+        int first = config.warmupBars() - 1;
+        double[][] columns = n > first ? bind(series, config, indicators) : null;
+        for (int i = 0; i < n; i++) {
+            if (i < first) {
+                dst[i] = HOLD;
+            } else if (config.entryRule() != null && config.entryRule().test(columns, i)) {
+                dst[i] = BUY;
+            } else if (config.exitRule() != null && config.exitRule().test(columns, i)) {
+                dst[i] = SELL;
+            } else {
+                dst[i] = HOLD;
+            }
+        }
+    }
+
+    /**
+     * 绑定规则求值所需的列缓冲区：收盘价与各指标结果列
+     */
+    public double[][] bind(PriceSeries series, Config config, IndicatorSource indicators) {
+        int n = series.length();
+        double[] closes = series.getCloses();
+        if (series.getOffset() != 0 || closes.length != n) {
+            closes = Arrays.copyOfRange(closes, series.getOffset(), series.getOffset() + n);
+        }
+        double[][] indicatorColumns = config.indicators().isEmpty()
+                ? new double[0][]
+                : indicators.panel(series, config.indicators());
+        return RuleCompiler.bind(closes, indicatorColumns);
+    }
+
+    @Override
+    public Config compileParameters(String parameters) {
+        if (parameters == null || parameters.isBlank()) {
+            throw new IllegalArgumentException("自定义策略必须提供 entry 或 exit 规则");
+        }
+
+        JsonNode params;
+        try {
+            params = OBJECT_MAPPER.readTree(parameters);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("策略参数不是有效的JSON: " + e.getMessage());
+        }
+        if (params == null || !params.isObject()) {
+            throw new IllegalArgumentException("策略参数必须是JSON对象");
+        }
+
+        String entry = readRule(params, "entry");
+        String exit = readRule(params, "exit");
+        if (entry == null && exit == null) {
+            throw new IllegalArgumentException("自定义策略必须提供 entry 或 exit 规则");
+        }
+
+        // 两条规则共用一个编译器，相同的指标只计算一次
+        RuleCompiler compiler = new RuleCompiler();
+        CompiledRule entryRule = compile(compiler, "entry", entry);
+        CompiledRule exitRule = compile(compiler, "exit", exit);
+        int warmupBars = Math.max(entryRule != null ? entryRule.getWarmupBars() : 1,
+                exitRule != null ? exitRule.getWarmupBars() : 1);
+        if (warmupBars > MAX_HISTORY_BARS) {
+            throw new IllegalArgumentException("规则所需的历史K线过多: " + warmupBars + " > " + MAX_HISTORY_BARS);
+        }
+        return new Config(entryRule, exitRule, compiler.indicators(), warmupBars);
+    }
+
+    private static String readRule(JsonNode params, String name) {
+        JsonNode value = params.get(name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException(name + " 必须是字符串");
+        }
+        return value.asText().isBlank() ? null : value.asText();
+    }
+
+    private static CompiledRule compile(RuleCompiler compiler, String name, String source) {
+        if (source == null) {
+            return null;
+        }
+        try {
+            return compiler.compile(source);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Class<Config> getConfigType() {
+        return Config.class;
+    }
+
+    @Override
+    public String getStrategyType() {
+        return STRATEGY_TYPE;
+    }
+
+    @Override
+    public String getDescription() {
+        return "自定义规则策略：用规则表达式描述买入、卖出条件，" +
+               "支持均线、RSI、MACD、布林带等指标的比较、穿越与逻辑组合。";
+    }
+
+    private StrategySignal createSignal(String stockCode, BigDecimal price, String type, String reason) {
+        StrategySignal signal = new StrategySignal();
+        signal.setStockCode(stockCode);
+        signal.setSignalType(type);
+        signal.setReason(reason);
+        signal.setSignalTime(LocalDateTime.now());
+        signal.setExecuted(false);
+        signal.setPrice(price != null ? price : BigDecimal.ZERO);
+        signal.setSignalStrength(BigDecimal.ZERO);
+        return signal;
+    }
+
+    /**
+     * 自定义策略参数
+     *
+     * @param entryRule  买入规则，未设置时为 null
+     * @param exitRule   卖出规则，未设置时为 null
+     * @param indicators 两条规则引用的全部指标（不重复）
+     * @param warmupBars 规则可能成立所需的最少K线数
+     */
+    public record Config(CompiledRule entryRule, CompiledRule exitRule, List<IndicatorSpec> indicators,
+                         int warmupBars) implements StrategyConfig {
+
+        @Override
+        public int historyBars() {
+            return Math.max(DEFAULT_HISTORY_BARS, warmupBars);
+        }
+    }
+}
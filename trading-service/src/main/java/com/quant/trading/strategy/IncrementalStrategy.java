@@ -0,0 +1,40 @@
+package com.quant.trading.strategy;
+
+import com.quant.trading.entity.StrategySignal;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 支持增量计算的策略
+ * 策略把所需的指标保存在一个可序列化的状态对象中，新K线到来时只更新状态，不再回溯历史
+ *
+ * @param <C> 编译后的参数类型
+ * @param <S> 状态类型
+ */
+public interface IncrementalStrategy<C extends StrategyConfig, S extends Serializable> {
+
+    /**
+     * 状态类型
+     */
+    Class<S> getStateType();
+
+    /**
+     * 根据策略参数创建空状态
+     */
+    S createState(C config);
+
+    /**
+     * 追加一根K线
+     */
+    void onBar(S state, double close);
+
+    /**
+     * 根据当前状态生成信号
+     *
+     * @param stockCode 股票代码
+     * @param state     指标状态
+     * @param price     最新价格
+     */
+    StrategySignal evaluate(String stockCode, S state, BigDecimal price);
+}
@@ -1,14 +1,22 @@
 package com.quant.trading.strategy;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quant.trading.entity.StrategySignal;
-import com.quant.trading.indicator.IndicatorCalculator;
+import com.quant.trading.indicator.IndicatorSource;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.indicator.stream.StreamingSMA;
+import com.quant.trading.indicator.vector.ArrayKernelSelector;
+import com.quant.trading.indicator.vector.ArrayKernels;
+import com.quant.trading.service.IndicatorCacheService;
 import org.springframework.stereotype.Component;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 双均线交叉策略
@@ -22,50 +30,212 @@ import java.util.Map;
  * - longPeriod: 20 (20日均线)
  */
 @Component
-public class MovingAverageCrossStrategy implements TradingStrategy {
+public class MovingAverageCrossStrategy implements TradingStrategy<MovingAverageCrossStrategy.Config>,
+        IncrementalStrategy<MovingAverageCrossStrategy.Config, MovingAverageCrossStrategy.CrossState>,
+        VectorizedStrategy<MovingAverageCrossStrategy.Config> {
 
     private static final String STRATEGY_TYPE = "MA_CROSS";
     private static final int DEFAULT_SHORT_PERIOD = 5;
     private static final int DEFAULT_LONG_PERIOD = 20;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final IndicatorCacheService indicatorCache;
+
+    public MovingAverageCrossStrategy(IndicatorCacheService indicatorCache) {
+        this.indicatorCache = indicatorCache;
+    }
 
     @Override
-    public StrategySignal generateSignal(String stockCode, List<BigDecimal> prices, String parameters) {
-        if (prices == null || prices.size() < DEFAULT_LONG_PERIOD) {
-            return createHoldSignal(stockCode, prices, "数据不足，无法计算均线");
+    public StrategySignal generateSignal(String stockCode, PriceSeries series, Config config) {
+        if (series == null || series.length() < DEFAULT_LONG_PERIOD) {
+            return createHoldSignal(stockCode, series, "数据不足，无法计算均线");
         }
 
-        // 解析策略参数
-        int shortPeriod = DEFAULT_SHORT_PERIOD;
-        int longPeriod = DEFAULT_LONG_PERIOD;
+        // 均线从共享缓存读取，同一股票同一交易日的序列只计算一次
+        int shortPeriod = config.shortPeriod();
+        int longPeriod = config.longPeriod();
+        BigDecimal currentPrice = series.lastPrice();
+        int n = series.length();
+        if (n < longPeriod + 1) {
+            return createHoldSignal(stockCode, currentPrice, "数据不足，无法计算均线");
+        }
 
-        try {
-            if (parameters != null && !parameters.isEmpty()) {
-                Map<String, Object> params = objectMapper.readValue(parameters, Map.class);
-                if (params.containsKey("shortPeriod")) {
-                    shortPeriod = (Integer) params.get("shortPeriod");
-                }
-                if (params.containsKey("longPeriod")) {
-                    longPeriod = (Integer) params.get("longPeriod");
-                }
+        double[] shortMA = indicatorCache.sma(series, shortPeriod);
+        double[] longMA = indicatorCache.sma(series, longPeriod);
+        return evaluateCross(stockCode, currentPrice, shortPeriod, longPeriod,
+                shortMA[n - 1], longMA[n - 1], shortMA[n - 2], longMA[n - 2]);
+    }
+
+    /**
+     * 全市场扫描：同一参数、同样长度的多只股票一次算出交叉信号
+     * 收盘价排成时间优先矩阵，由 {@link ArrayKernelSelector#get()} 运行时选定的内核（JVM 加载了 Vector API 时为向量实现）
+     * 计算两条滚动均值。递推顺序与 IndicatorKernels.sma 相同，结果与逐只调用 generateSignal 逐位一致；
+     * 均线不经过指标缓存，每轮扫描只用一次
+     *
+     * @param stockCodes 股票代码
+     * @param series     与 stockCodes 一一对应、长度相同的价格序列
+     * @param config     策略参数
+     * @return 与 stockCodes 一一对应的信号
+     */
+    public List<StrategySignal> scan(List<String> stockCodes, List<PriceSeries> series, Config config) {
+        int columns = series.size();
+        List<StrategySignal> signals = new ArrayList<>(columns);
+        if (columns == 0) {
+            return signals;
+        }
+        int rows = series.get(0).length();
+        if (rows < Math.max(DEFAULT_LONG_PERIOD, config.longPeriod() + 1)) {
+            for (int s = 0; s < columns; s++) {
+                signals.add(generateSignal(stockCodes.get(s), series.get(s), config));
+            }
+            return signals;
+        }
+
+        double[] closes = new double[rows * columns];
+        for (int s = 0; s < columns; s++) {
+            PriceSeries column = series.get(s);
+            if (column.length() != rows) {
+                throw new IllegalArgumentException("扫描的价格序列长度必须相同: " + column.getStockCode());
             }
+            double[] src = column.getCloses();
+            int offset = column.getOffset();
+            for (int t = 0; t < rows; t++) {
+                closes[t * columns + s] = src[offset + t];
+            }
+        }
+        ArrayKernels kernels = ArrayKernelSelector.get();
+        double[] shortMA = new double[closes.length];
+        double[] longMA = new double[closes.length];
+        kernels.rollingMean(closes, rows, columns, config.shortPeriod(), shortMA);
+        kernels.rollingMean(closes, rows, columns, config.longPeriod(), longMA);
+
+        int last = (rows - 1) * columns;
+        int previous = last - columns;
+        for (int s = 0; s < columns; s++) {
+            signals.add(evaluateCross(stockCodes.get(s), series.get(s).lastPrice(),
+                    config.shortPeriod(), config.longPeriod(),
+                    shortMA[last + s], longMA[last + s], shortMA[previous + s], longMA[previous + s]));
+        }
+        return signals;
+    }
+
+    @Override
+    public void signals(PriceSeries series, Config config, byte[] dst) {
+        signals(series, config, indicatorCache, dst);
+    }
+
+    @Override
+    public void signals(PriceSeries series, Config config, IndicatorSource indicators, byte[] dst) {
+        int n = series.length();
+        int longPeriod = config.longPeriod();
+        // 与 generateSignal 的数据量要求一致
+        int first = Math.max(DEFAULT_LONG_PERIOD, longPeriod + 1) - 1;
+        double[] shortMA = n > first ? indicators.sma(series, config.shortPeriod()) : null;
+        double[] longMA = n > first ? indicators.sma(series, longPeriod) : null;
+        for (int i = 0; i < n; i++) {
+            if (i < first) {
+                dst[i] = HOLD;
+                continue;
+            }
+            int previous = compareRounded(shortMA[i - 1], longMA[i - 1]);
+            int current = compareRounded(shortMA[i], longMA[i]);
+            dst[i] = previous < 0 && current > 0 ? BUY : previous > 0 && current < 0 ? SELL : HOLD;
+        }
+    }
+
+    /**
+     * 按保留4位小数后的值比较两条均线，与 evaluateCross 的口径一致；相差较大时直接比较 double
+     */
+    private static int compareRounded(double a, double b) {
+        if (Math.abs(a - b) >= 1e-3) {
+            return Double.compare(a, b);
+        }
+        return toDecimal(a).compareTo(toDecimal(b));
+    }
+
+    @Override
+    public Config compileParameters(String parameters) {
+        if (parameters == null || parameters.isBlank()) {
+            return new Config(DEFAULT_SHORT_PERIOD, DEFAULT_LONG_PERIOD); // 使用默认参数
+        }
+
+        JsonNode params;
+        try {
+            params = OBJECT_MAPPER.readTree(parameters);
         } catch (Exception e) {
-            System.err.println("解析策略参数失败: " + e.getMessage());
+            throw new IllegalArgumentException("策略参数不是有效的JSON: " + e.getMessage());
+        }
+        if (params == null || !params.isObject()) {
+            throw new IllegalArgumentException("策略参数必须是JSON对象");
         }
 
-        // 计算短期和长期均线
-        List<BigDecimal> shortMA = IndicatorCalculator.calculateSMA(prices, shortPeriod);
-        List<BigDecimal> longMA = IndicatorCalculator.calculateSMA(prices, longPeriod);
+        int shortPeriod = readPeriod(params, "shortPeriod", DEFAULT_SHORT_PERIOD, 100);
+        int longPeriod = readPeriod(params, "longPeriod", DEFAULT_LONG_PERIOD, 200);
 
-        // 获取当前价格和最新的均线值
-        BigDecimal currentPrice = prices.get(prices.size() - 1);
-        BigDecimal currentShortMA = shortMA.get(shortMA.size() - 1);
-        BigDecimal currentLongMA = longMA.get(longMA.size() - 1);
+        // 确保短期 < 长期
+        if (shortPeriod >= longPeriod) {
+            throw new IllegalArgumentException("shortPeriod 必须小于 longPeriod");
+        }
+        return new Config(shortPeriod, longPeriod);
+    }
 
-        // 获取前一天的均线值（用于判断交叉）
-        BigDecimal previousShortMA = shortMA.get(shortMA.size() - 2);
-        BigDecimal previousLongMA = longMA.get(longMA.size() - 2);
+    private static int readPeriod(JsonNode params, String name, int defaultValue, int max) {
+        JsonNode value = params.get(name);
+        if (value == null || value.isNull()) {
+            return defaultValue;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+            throw new IllegalArgumentException(name + " 必须是整数");
+        }
+        int period = value.intValue();
+        if (period < 2 || period > max) {
+            throw new IllegalArgumentException(name + " 必须在 2-" + max + " 之间");
+        }
+        return period;
+    }
+
+    @Override
+    public Class<Config> getConfigType() {
+        return Config.class;
+    }
+
+    @Override
+    public Class<CrossState> getStateType() {
+        return CrossState.class;
+    }
+
+    @Override
+    public CrossState createState(Config config) {
+        return new CrossState(config.shortPeriod(), config.longPeriod());
+    }
+
+    @Override
+    public void onBar(CrossState state, double close) {
+        state.update(close);
+    }
+
+    @Override
+    public StrategySignal evaluate(String stockCode, CrossState state, BigDecimal currentPrice) {
+        if (!state.longMA.isReady() || Double.isNaN(state.longMA.getPrevious())) {
+            return createHoldSignal(stockCode, currentPrice, "数据不足，无法计算均线");
+        }
+        return evaluateCross(stockCode, currentPrice, state.shortMA.getPeriod(), state.longMA.getPeriod(),
+                state.shortMA.getCurrent(), state.longMA.getCurrent(),
+                state.shortMA.getPrevious(), state.longMA.getPrevious());
+    }
+
+    /**
+     * 由最新和前一天的均线值判断交叉
+     */
+    private StrategySignal evaluateCross(String stockCode, BigDecimal currentPrice, int shortPeriod, int longPeriod,
+                                         double shortCurrent, double longCurrent,
+                                         double shortPrevious, double longPrevious) {
+        // 获取最新的均线值和前一天的均线值（用于判断交叉），保留4位小数与历史口径一致
+        BigDecimal currentShortMA = toDecimal(shortCurrent);
+        BigDecimal currentLongMA = toDecimal(longCurrent);
+        BigDecimal previousShortMA = toDecimal(shortPrevious);
+        BigDecimal previousLongMA = toDecimal(longPrevious);
 
         // 创建信号对象
         StrategySignal signal = new StrategySignal();
@@ -84,7 +254,7 @@ public class MovingAverageCrossStrategy implements TradingStrategy {
 
             // 计算信号强度：短期MA超过长期MA的百分比
             BigDecimal crossPercent = currentShortMA.subtract(currentLongMA)
-                .divide(currentLongMA, 4, BigDecimal.ROUND_HALF_UP)
+                .divide(currentLongMA, 4, RoundingMode.HALF_UP)
                 .multiply(BigDecimal.valueOf(100));
             signal.setSignalStrength(crossPercent.abs());
 
@@ -99,7 +269,7 @@ public class MovingAverageCrossStrategy implements TradingStrategy {
 
             // 计算信号强度
             BigDecimal crossPercent = currentLongMA.subtract(currentShortMA)
-                .divide(currentLongMA, 4, BigDecimal.ROUND_HALF_UP)
+                .divide(currentLongMA, 4, RoundingMode.HALF_UP)
                 .multiply(BigDecimal.valueOf(100));
             signal.setSignalStrength(crossPercent.abs());
 
@@ -117,6 +287,10 @@ public class MovingAverageCrossStrategy implements TradingStrategy {
         return signal;
     }
 
+    private static BigDecimal toDecimal(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+
     @Override
     public String getStrategyType() {
         return STRATEGY_TYPE;
@@ -128,60 +302,65 @@ public class MovingAverageCrossStrategy implements TradingStrategy {
                "金叉时买入，死叉时卖出。";
     }
 
-    @Override
-    public boolean validateParameters(String parameters) {
-        try {
-            if (parameters == null || parameters.isEmpty()) {
-                return true; // 使用默认参数
-            }
-
-            Map<String, Object> params = objectMapper.readValue(parameters, Map.class);
-
-            if (params.containsKey("shortPeriod")) {
-                int shortPeriod = (Integer) params.get("shortPeriod");
-                if (shortPeriod < 2 || shortPeriod > 100) {
-                    return false;
-                }
-            }
-
-            if (params.containsKey("longPeriod")) {
-                int longPeriod = (Integer) params.get("longPeriod");
-                if (longPeriod < 2 || longPeriod > 200) {
-                    return false;
-                }
-            }
-
-            // 确保短期 < 长期
-            int shortPeriod = params.containsKey("shortPeriod") ?
-                (Integer) params.get("shortPeriod") : DEFAULT_SHORT_PERIOD;
-            int longPeriod = params.containsKey("longPeriod") ?
-                (Integer) params.get("longPeriod") : DEFAULT_LONG_PERIOD;
-
-            return shortPeriod < longPeriod;
-
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     /**
      * 创建持有信号
      */
-    private StrategySignal createHoldSignal(String stockCode, List<BigDecimal> prices, String reason) {
+    private StrategySignal createHoldSignal(String stockCode, PriceSeries series, String reason) {
+        BigDecimal price = series != null ? series.lastPrice() : BigDecimal.ZERO;
+        return createHoldSignal(stockCode, price, reason);
+    }
+
+    private StrategySignal createHoldSignal(String stockCode, BigDecimal price, String reason) {
         StrategySignal signal = new StrategySignal();
         signal.setStockCode(stockCode);
         signal.setSignalType("HOLD");
         signal.setReason(reason);
         signal.setSignalTime(LocalDateTime.now());
         signal.setExecuted(false);
+        signal.setPrice(price != null ? price : BigDecimal.ZERO);
+        signal.setSignalStrength(BigDecimal.ZERO);
+        return signal;
+    }
 
-        if (prices != null && !prices.isEmpty()) {
-            signal.setPrice(prices.get(prices.size() - 1));
-        } else {
-            signal.setPrice(BigDecimal.ZERO);
+    /**
+     * 双均线策略参数
+     *
+     * @param shortPeriod 短期均线周期
+     * @param longPeriod  长期均线周期
+     */
+    public record Config(int shortPeriod, int longPeriod) implements StrategyConfig {
+
+        /**
+         * 至少加载 longPeriod + 1 根K线，前一天的长期均线才有值，才能判断交叉
+         */
+        @Override
+        public int historyBars() {
+            return Math.max(StrategyConfig.super.historyBars(), longPeriod + 1);
+        }
+    }
+
+    /**
+     * 双均线增量状态：短期、长期两条增量均线
+     */
+    public static class CrossState implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final StreamingSMA shortMA;
+        private final StreamingSMA longMA;
+
+        public CrossState(int shortPeriod, int longPeriod) {
+            this.shortMA = new StreamingSMA(shortPeriod);
+            this.longMA = new StreamingSMA(longPeriod);
         }
 
-        signal.setSignalStrength(BigDecimal.ZERO);
-        return signal;
+        void update(double close) {
+            shortMA.update(close);
+            longMA.update(close);
+        }
+
+        public long getBarCount() {
+            return longMA.getCount();
+        }
     }
 }
@@ -0,0 +1,16 @@
+package com.quant.trading.strategy;
+
+/**
+ * 编译后的策略参数
+ * 创建或修改策略时由 {@link TradingStrategy#compileParameters(String)} 从 JSON 解析并校验得到，
+ * 不可变，按策略ID缓存，信号生成时直接使用，不再做任何 JSON 解析
+ */
+public interface StrategyConfig {
+
+    /**
+     * 生成信号时加载的历史K线数
+     */
+    default int historyBars() {
+        return 60;
+    }
+}
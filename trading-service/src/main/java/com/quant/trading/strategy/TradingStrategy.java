@@ -1,24 +1,37 @@
 package com.quant.trading.strategy;
 
 import com.quant.trading.entity.StrategySignal;
-import java.math.BigDecimal;
-import java.util.List;
+import com.quant.trading.indicator.PriceSeries;
 
 /**
  * 策略接口
  * 所有交易策略都需要实现这个接口
+ *
+ * @param <C> 编译后的参数类型
  */
-public interface TradingStrategy {
+public interface TradingStrategy<C extends StrategyConfig> {
 
     /**
      * 生成交易信号
      *
      * @param stockCode 股票代码
-     * @param prices 价格数据列表（按时间顺序，最新的在最后）
-     * @param parameters 策略参数（JSON格式）
+     * @param series 价格序列（按时间顺序，最新的在最后）
+     * @param config 编译后的策略参数
      * @return 交易信号
      */
-    StrategySignal generateSignal(String stockCode, List<BigDecimal> prices, String parameters);
+    StrategySignal generateSignal(String stockCode, PriceSeries series, C config);
+
+    /**
+     * 解析并校验策略参数（JSON格式）
+     *
+     * @throws IllegalArgumentException 参数无效，异常信息说明原因
+     */
+    C compileParameters(String parameters);
+
+    /**
+     * 编译后的参数类型
+     */
+    Class<C> getConfigType();
 
     /**
      * 获取策略类型
@@ -33,5 +46,12 @@ public interface TradingStrategy {
     /**
      * 验证策略参数是否有效
      */
-    boolean validateParameters(String parameters);
+    default boolean validateParameters(String parameters) {
+        try {
+            compileParameters(parameters);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.quant.trading.strategy;
+
+import com.quant.trading.indicator.IndicatorSource;
+import com.quant.trading.indicator.PriceSeries;
+
+/**
+ * 支持整段序列一次性生成信号的策略
+ * 指标在整段序列上只计算一次，再单遍扫描得出每根K线的信号，供回测使用。
+ * dst[i] 与 {@link TradingStrategy#generateSignal} 在前 i+1 根K线上给出的信号一致
+ *
+ * @param <C> 编译后的参数类型
+ */
+public interface VectorizedStrategy<C extends StrategyConfig> {
+
+    byte HOLD = 0;
+    byte BUY = 1;
+    byte SELL = -1;
+
+    /**
+     * 计算每根K线的信号，指标取自共享的指标缓存
+     *
+     * @param series 价格序列
+     * @param config 编译后的策略参数
+     * @param dst    输出，长度不小于序列长度，取值为 {@link #BUY}/{@link #SELL}/{@link #HOLD}
+     */
+    void signals(PriceSeries series, C config, byte[] dst);
+
+    /**
+     * 计算每根K线的信号，指标取自指定的来源（如参数寻优时单个序列的指标备忘）
+     */
+    void signals(PriceSeries series, C config, IndicatorSource indicators, byte[] dst);
+}
@@ -0,0 +1,46 @@
+package com.quant.trading.strategy.rule;
+
+/**
+ * 编译后的条件规则
+ * 持有求值树的根节点，对绑定好的列缓冲区按K线下标求值
+ */
+public final class CompiledRule {
+
+    private final String source;
+    private final RuleNodes.Cond root;
+    private final int warmupBars;
+
+    CompiledRule(String source, RuleNodes.Cond root, int warmupBars) {
+        this.source = source;
+        this.root = root;
+        this.warmupBars = warmupBars;
+    }
+
+    /**
+     * 规则原文
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 规则首次可能成立所需的最少K线数
+     */
+    public int getWarmupBars() {
+        return warmupBars;
+    }
+
+    /**
+     * 在第 bar 根K线上求值
+     *
+     * @param columns 由 {@link RuleCompiler#bind} 绑定的列缓冲区
+     */
+    public boolean test(double[][] columns, int bar) {
+        return root.test(columns, bar);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
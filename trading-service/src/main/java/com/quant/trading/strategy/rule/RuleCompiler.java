@@ -0,0 +1,465 @@
+package com.quant.trading.strategy.rule;
+
+import com.quant.trading.indicator.IndicatorSpec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 条件规则编译器
+ * 把 "SMA(5) crosses_above SMA(20) and RSI(14) &lt; 70" 这样的规则文本解析为求值树。
+ * 同一个编译器编译的多条规则共用一张列表：相同的指标只登记一次，由 {@link #indicators()}
+ * 给出需要计算的指标，求值时按列下标直接读取 double 缓冲区。
+ *
+ * <pre>
+ * 规则     := or
+ * or       := and ("or" and)*
+ * and      := not ("and" not)*
+ * not      := "not" not | compare
+ * compare  := sum [("&lt;" | "&lt;=" | "&gt;" | "&gt;=" | "==" | "!=" | "crosses_above" | "crosses_below") sum]
+ * sum      := product (("+" | "-") product)*
+ * product  := unary (("*" | "/") unary)*
+ * unary    := "-" unary | primary
+ * primary  := 数字 | "(" or ")" | CLOSE | 指标 "(" [参数 ("," 参数)*] ")"
+ * </pre>
+ *
+ * 指标：SMA/MA(n)、EMA(n)、RSI(n=14)、MACD_DIF/MACD_DEA/MACD_HIST(fast=12, slow=26, signal=9)、
+ * BOLL_UPPER/BOLL_MIDDLE/BOLL_LOWER(n=20, k=2)；关键字与指标名不区分大小写。
+ * 非线程安全，编译完成后产出的 {@link CompiledRule} 不可变，可并发求值。
+ */
+public final class RuleCompiler {
+
+    /** 规则文本长度上限 */
+    public static final int MAX_SOURCE_LENGTH = 1000;
+
+    /** 收盘价固定占第 0 列 */
+    private static final int CLOSE_COLUMN = 0;
+
+    private final List<IndicatorSpec> indicators = new ArrayList<>();
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private int columnCount = 1;
+
+    /**
+     * 编译一条规则
+     *
+     * @throws IllegalArgumentException 语法或类型错误，异常信息包含出错位置
+     */
+    public CompiledRule compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("规则不能为空");
+        }
+        if (source.length() > MAX_SOURCE_LENGTH) {
+            throw new IllegalArgumentException("规则过长，最多 " + MAX_SOURCE_LENGTH + " 个字符");
+        }
+        Parser parser = new Parser(source);
+        RuleNodes.Cond root = parser.parseRule();
+        // 穿越需要额外的前一根K线
+        int warmupBars = parser.indicatorWarmup + (parser.hasCross ? 1 : 0);
+        return new CompiledRule(source.trim(), root, warmupBars);
+    }
+
+    /**
+     * 已登记的指标（不重复，按首次出现的顺序）
+     */
+    public List<IndicatorSpec> indicators() {
+        return List.copyOf(indicators);
+    }
+
+    /**
+     * 绑定列缓冲区：第 0 列为收盘价，其后依次为各指标的结果列
+     *
+     * @param closes    收盘价，与指标列逐根对齐
+     * @param indicatorColumns 按 {@link #indicators()} 顺序排列的指标结果列
+     */
+    public static double[][] bind(double[] closes, double[][] indicatorColumns) {
+        double[][] columns = new double[indicatorColumns.length + 1][];
+        columns[CLOSE_COLUMN] = closes;
+        System.arraycopy(indicatorColumns, 0, columns, 1, indicatorColumns.length);
+        return columns;
+    }
+
+    private int columnOf(IndicatorSpec spec, int component) {
+        String name = spec.name();
+        Integer first = columnIndex.get(name);
+        if (first == null) {
+            first = columnCount;
+            columnIndex.put(name, first);
+            indicators.add(spec);
+            columnCount += spec.columns().size();
+        }
+        return first + component;
+    }
+
+    /**
+     * 递归下降解析器，解析的同时完成类型检查与常量折叠
+     */
+    private final class Parser {
+
+        private final String text;
+        private int pos;
+        /** 引用到的指标中最长的预热长度 */
+        private int indicatorWarmup = 1;
+        private boolean hasCross;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        RuleNodes.Cond parseRule() {
+            Object node = parseOr();
+            skipSpaces();
+            if (pos < text.length()) {
+                throw error("无法识别的内容 '" + text.substring(pos, Math.min(text.length(), pos + 10)) + "'");
+            }
+            return requireCondition(node, 0);
+        }
+
+        private Object parseOr() {
+            int start = peekStart();
+            Object first = parseAnd();
+            if (!peekKeyword("or")) {
+                return first;
+            }
+            List<RuleNodes.Cond> operands = new ArrayList<>();
+            operands.add(requireCondition(first, start));
+            while (acceptKeyword("or")) {
+                int at = peekStart();
+                operands.add(requireCondition(parseAnd(), at));
+            }
+            return new RuleNodes.Or(operands.toArray(new RuleNodes.Cond[0]));
+        }
+
+        private Object parseAnd() {
+            int start = peekStart();
+            Object first = parseNot();
+            if (!peekKeyword("and")) {
+                return first;
+            }
+            List<RuleNodes.Cond> operands = new ArrayList<>();
+            operands.add(requireCondition(first, start));
+            while (acceptKeyword("and")) {
+                int at = peekStart();
+                operands.add(requireCondition(parseNot(), at));
+            }
+            return new RuleNodes.And(operands.toArray(new RuleNodes.Cond[0]));
+        }
+
+        private Object parseNot() {
+            if (acceptKeyword("not")) {
+                int at = peekStart();
+                return new RuleNodes.Not(requireCondition(parseNot(), at));
+            }
+            return parseCompare();
+        }
+
+        private Object parseCompare() {
+            int start = peekStart();
+            Object left = parseSum();
+            skipSpaces();
+            int opStart = pos;
+            String op = readComparison();
+            if (op == null) {
+                return left;
+            }
+            RuleNodes.Num a = requireNumber(left, start);
+            int rightStart = peekStart();
+            RuleNodes.Num b = requireNumber(parseSum(), rightStart);
+            return switch (op) {
+                case "<" -> new RuleNodes.Compare(RuleNodes.Compare.LT, a, b);
+                case "<=" -> new RuleNodes.Compare(RuleNodes.Compare.LE, a, b);
+                case ">" -> new RuleNodes.Compare(RuleNodes.Compare.GT, a, b);
+                case ">=" -> new RuleNodes.Compare(RuleNodes.Compare.GE, a, b);
+                case "==" -> new RuleNodes.Compare(RuleNodes.Compare.EQ, a, b);
+                case "!=" -> new RuleNodes.Compare(RuleNodes.Compare.NE, a, b);
+                default -> {
+                    if (a.isConstant() && b.isConstant()) {
+                        pos = opStart;
+                        throw error(op + " 两侧不能都是常数");
+                    }
+                    hasCross = true;
+                    yield new RuleNodes.Cross("crosses_above".equals(op), a, b);
+                }
+            };
+        }
+
+        private Object parseSum() {
+            int start = peekStart();
+            Object left = parseProduct();
+            while (true) {
+                skipSpaces();
+                int op;
+                if (accept('+')) {
+                    op = RuleNodes.Arithmetic.ADD;
+                } else if (accept('-')) {
+                    op = RuleNodes.Arithmetic.SUBTRACT;
+                } else {
+                    return left;
+                }
+                RuleNodes.Num a = requireNumber(left, start);
+                int at = peekStart();
+                left = arithmetic(op, a, requireNumber(parseProduct(), at));
+            }
+        }
+
+        private Object parseProduct() {
+            int start = peekStart();
+            Object left = parseUnary();
+            while (true) {
+                skipSpaces();
+                int op;
+                if (accept('*')) {
+                    op = RuleNodes.Arithmetic.MULTIPLY;
+                } else if (accept('/')) {
+                    op = RuleNodes.Arithmetic.DIVIDE;
+                } else {
+                    return left;
+                }
+                RuleNodes.Num a = requireNumber(left, start);
+                int at = peekStart();
+                left = arithmetic(op, a, requireNumber(parseUnary(), at));
+            }
+        }
+
+        private Object parseUnary() {
+            skipSpaces();
+            if (accept('-')) {
+                int at = peekStart();
+                RuleNodes.Num operand = requireNumber(parseUnary(), at);
+                return operand.isConstant()
+                        ? new RuleNodes.Constant(-operand.eval(null, 0))
+                        : new RuleNodes.Negate(operand);
+            }
+            return parsePrimary();
+        }
+
+        private Object parsePrimary() {
+            skipSpaces();
+            if (pos >= text.length()) {
+                throw error("规则不完整");
+            }
+            char c = text.charAt(pos);
+            if (c == '(') {
+                pos++;
+                Object inner = parseOr();
+                skipSpaces();
+                if (!accept(')')) {
+                    throw error("缺少 ')'");
+                }
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return new RuleNodes.Constant(readNumber());
+            }
+            if (Character.isLetter(c) || c == '_') {
+                int start = pos;
+                String name = readIdentifier().toUpperCase(Locale.ROOT);
+                return reference(name, start);
+            }
+            throw error("无法识别的字符 '" + c + "'");
+        }
+
+        /**
+         * 收盘价或指标引用
+         */
+        private RuleNodes.Num reference(String name, int start) {
+            if ("CLOSE".equals(name) || "PRICE".equals(name)) {
+                return new RuleNodes.Column(CLOSE_COLUMN);
+            }
+            skipSpaces();
+            double[] args = accept('(') ? readArguments() : new double[0];
+            IndicatorSpec spec;
+            int component = 0;
+            int warmup;
+            try {
+                switch (name) {
+                    case "SMA", "MA" -> {
+                        spec = IndicatorSpec.sma(intArg(name, args, 0, -1, 1));
+                        warmup = spec.period();
+                    }
+                    case "EMA" -> {
+                        spec = IndicatorSpec.ema(intArg(name, args, 0, -1, 1));
+                        warmup = spec.period();
+                    }
+                    case "RSI" -> {
+                        spec = IndicatorSpec.rsi(intArg(name, args, 0, 14, 1));
+                        warmup = spec.period() + 1;
+                    }
+                    case "MACD_DIF", "MACD_DEA", "MACD_HIST" -> {
+                        if (args.length != 0 && args.length != 3) {
+                            throw new IllegalArgumentException(name + " 需要 0 个或 3 个参数");
+                        }
+                        spec = IndicatorSpec.macd(intArg(name, args, 0, 12, 3), intArg(name, args, 1, 26, 3),
+                                intArg(name, args, 2, 9, 3));
+                        component = name.endsWith("DIF") ? 0 : name.endsWith("DEA") ? 1 : 2;
+                        warmup = spec.slowPeriod() + spec.signalPeriod();
+                    }
+                    case "BOLL_UPPER", "BOLL_MIDDLE", "BOLL_LOWER" -> {
+                        if (args.length > 2) {
+                            throw new IllegalArgumentException(name + " 最多 2 个参数");
+                        }
+                        double multiplier = args.length > 1 ? args[1] : 2;
+                        if (!(multiplier > 0)) {
+                            throw new IllegalArgumentException(name + " 标准差倍数必须大于0");
+                        }
+                        spec = IndicatorSpec.bollinger(intArg(name, args, 0, 20, 2), multiplier);
+                        component = name.endsWith("UPPER") ? 0 : name.endsWith("MIDDLE") ? 1 : 2;
+                        warmup = spec.period();
+                    }
+                    default -> throw new IllegalArgumentException("未知的指标 " + name);
+                }
+            } catch (IllegalArgumentException e) {
+                pos = start;
+                throw error(e.getMessage());
+            }
+            indicatorWarmup = Math.max(indicatorWarmup, warmup);
+            return new RuleNodes.Column(columnOf(spec, component));
+        }
+
+        private double[] readArguments() {
+            List<Double> values = new ArrayList<>();
+            skipSpaces();
+            if (!accept(')')) {
+                do {
+                    skipSpaces();
+                    if (pos >= text.length() || !(Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                        throw error("指标参数必须是数字");
+                    }
+                    values.add(readNumber());
+                    skipSpaces();
+                } while (accept(','));
+                if (!accept(')')) {
+                    throw error("缺少 ')'");
+                }
+            }
+            double[] args = new double[values.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = values.get(i);
+            }
+            return args;
+        }
+
+        private int intArg(String name, double[] args, int index, int defaultValue, int maxCount) {
+            if (args.length > maxCount) {
+                throw new IllegalArgumentException(name + " 最多 " + maxCount + " 个参数");
+            }
+            if (index >= args.length) {
+                if (defaultValue < 0) {
+                    throw new IllegalArgumentException(name + " 缺少周期参数");
+                }
+                return defaultValue;
+            }
+            double value = args[index];
+            if (value != Math.rint(value) || value < 1 || value > 500) {
+                throw new IllegalArgumentException(name + " 周期必须是 1-500 之间的整数");
+            }
+            return (int) value;
+        }
+
+        private RuleNodes.Num arithmetic(int op, RuleNodes.Num a, RuleNodes.Num b) {
+            RuleNodes.Num node = new RuleNodes.Arithmetic(op, a, b);
+            return a.isConstant() && b.isConstant() ? new RuleNodes.Constant(node.eval(null, 0)) : node;
+        }
+
+        private RuleNodes.Num requireNumber(Object node, int at) {
+            if (node instanceof RuleNodes.Num number) {
+                return number;
+            }
+            pos = at;
+            throw error("此处需要数值表达式");
+        }
+
+        private RuleNodes.Cond requireCondition(Object node, int at) {
+            if (node instanceof RuleNodes.Cond condition) {
+                return condition;
+            }
+            pos = at;
+            throw error("此处需要条件表达式（比较、穿越或逻辑组合）");
+        }
+
+        private String readComparison() {
+            if (pos >= text.length()) {
+                return null;
+            }
+            for (String op : new String[]{"<=", ">=", "==", "!=", "<", ">"}) {
+                if (text.startsWith(op, pos)) {
+                    pos += op.length();
+                    return op;
+                }
+            }
+            if (acceptKeyword("crosses_above")) {
+                return "crosses_above";
+            }
+            if (acceptKeyword("crosses_below")) {
+                return "crosses_below";
+            }
+            return null;
+        }
+
+        private double readNumber() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("数字格式不正确");
+            }
+        }
+
+        private String readIdentifier() {
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean peekKeyword(String keyword) {
+            int saved = pos;
+            boolean found = acceptKeyword(keyword);
+            pos = saved;
+            return found;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            skipSpaces();
+            int end = pos + keyword.length();
+            if (end > text.length() || !text.regionMatches(true, pos, keyword, 0, keyword.length())) {
+                return false;
+            }
+            if (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '_')) {
+                return false;
+            }
+            pos = end;
+            return true;
+        }
+
+        private boolean accept(char c) {
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private int peekStart() {
+            skipSpaces();
+            return pos;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("规则第 " + (pos + 1) + " 个字符处: " + message);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.quant.trading.strategy.rule;
+
+/**
+ * 规则求值树的节点
+ * 数值节点按K线下标从列缓冲区读取 double，条件节点返回 boolean，求值过程不分配对象、不装箱。
+ * 含 NaN 的比较结果为 false，因此指标预热阶段的条件自然不成立。
+ */
+final class RuleNodes {
+
+    private RuleNodes() {
+    }
+
+    /**
+     * 数值表达式
+     */
+    abstract static class Num {
+
+        abstract double eval(double[][] columns, int bar);
+
+        boolean isConstant() {
+            return false;
+        }
+    }
+
+    /**
+     * 条件表达式
+     */
+    abstract static class Cond {
+
+        abstract boolean test(double[][] columns, int bar);
+    }
+
+    static final class Constant extends Num {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double eval(double[][] columns, int bar) {
+            return value;
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    static final class Column extends Num {
+        private final int index;
+
+        Column(int index) {
+            this.index = index;
+        }
+
+        @Override
+        double eval(double[][] columns, int bar) {
+            return columns[index][bar];
+        }
+    }
+
+    static final class Negate extends Num {
+        private final Num operand;
+
+        Negate(Num operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        double eval(double[][] columns, int bar) {
+            return -operand.eval(columns, bar);
+        }
+    }
+
+    static final class Arithmetic extends Num {
+        static final int ADD = 0;
+        static final int SUBTRACT = 1;
+        static final int MULTIPLY = 2;
+        static final int DIVIDE = 3;
+
+        private final int op;
+        private final Num left;
+        private final Num right;
+
+        Arithmetic(int op, Num left, Num right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval(double[][] columns, int bar) {
+            double a = left.eval(columns, bar);
+            double b = right.eval(columns, bar);
+            return switch (op) {
+                case ADD -> a + b;
+                case SUBTRACT -> a - b;
+                case MULTIPLY -> a * b;
+                default -> a / b;
+            };
+        }
+    }
+
+    static final class Compare extends Cond {
+        static final int LT = 0;
+        static final int LE = 1;
+        static final int GT = 2;
+        static final int GE = 3;
+        static final int EQ = 4;
+        static final int NE = 5;
+
+        private final int op;
+        private final Num left;
+        private final Num right;
+
+        Compare(int op, Num left, Num right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(double[][] columns, int bar) {
+            double a = left.eval(columns, bar);
+            double b = right.eval(columns, bar);
+            return switch (op) {
+                case LT -> a < b;
+                case LE -> a <= b;
+                case GT -> a > b;
+                case GE -> a >= b;
+                case EQ -> a == b;
+                default -> a != b && !Double.isNaN(a) && !Double.isNaN(b);
+            };
+        }
+    }
+
+    /**
+     * 上穿/下穿：比较当前K线与前一根K线上两个表达式的相对位置
+     */
+    static final class Cross extends Cond {
+        private final boolean above;
+        private final Num left;
+        private final Num right;
+
+        Cross(boolean above, Num left, Num right) {
+            this.above = above;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(double[][] columns, int bar) {
+            if (bar < 1) {
+                return false;
+            }
+            double previousLeft = left.eval(columns, bar - 1);
+            double previousRight = right.eval(columns, bar - 1);
+            double currentLeft = left.eval(columns, bar);
+            double currentRight = right.eval(columns, bar);
+            return above
+                    ? previousLeft < previousRight && currentLeft > currentRight
+                    : previousLeft > previousRight && currentLeft < currentRight;
+        }
+    }
+
+    static final class And extends Cond {
+        private final Cond[] operands;
+
+        And(Cond[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        boolean test(double[][] columns, int bar) {
+            for (Cond operand : operands) {
+                if (!operand.test(columns, bar)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class Or extends Cond {
+        private final Cond[] operands;
+
+        Or(Cond[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        boolean test(double[][] columns, int bar) {
+            for (Cond operand : operands) {
+                if (operand.test(columns, bar)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final class Not extends Cond {
+        private final Cond operand;
+
+        Not(Cond operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean test(double[][] columns, int bar) {
+            return !operand.test(columns, bar);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.quant.trading.backtest;
+
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.strategy.VectorizedStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 回测引擎在手工推算的小序列上的成交、权益曲线与统计指标
+ */
+class BacktestEngineTest {
+
+    private static final byte B = VectorizedStrategy.BUY;
+    private static final byte S = VectorizedStrategy.SELL;
+    private static final byte H = VectorizedStrategy.HOLD;
+
+    /** 初始资金 10000 元，手续费万三 */
+    private static final long CASH = 1_000_000L;
+    private static final long RATE = 300;
+
+    /**
+     * 收盘价 10, 10, 11, 12, 11, 9.9；第1根买入、第3根卖出、第4根再买入并持有到最后
+     * <ul>
+     *   <li>第1根：10手要 1000000 + 300 手续费超出资金，只买 9 手 = 900000 + 270</li>
+     *   <li>第3根：卖出 900 股 × 12 = 1080000，手续费 324，盈亏 1080000 - 324 - 900270 = 179406</li>
+     *   <li>第4根：现金 1179406，10手 × 11 = 1100000 + 330 可买，剩余现金 79076</li>
+     * </ul>
+     */
+    @Test
+    void simulatesHandComputedSeries() {
+        PriceSeries series = PriceSeries.of("000001", new double[]{10, 10, 11, 12, 11, 9.9}, null);
+        BacktestResult result = BacktestEngine.run(series, new byte[]{H, B, H, S, B, H}, CASH, RATE);
+
+        assertEquals(List.of(
+                new BacktestTrade(1, null, "BUY", 100_000, 900, 900_000, 270, 0),
+                new BacktestTrade(3, null, "SELL", 120_000, 900, 1_080_000, 324, 179_406),
+                new BacktestTrade(4, null, "BUY", 110_000, 1000, 1_100_000, 330, 0)), result.getTrades());
+
+        long[] equity = {1_000_000, 999_730, 1_089_730, 1_179_406, 1_179_076, 1_069_076};
+        assertArrayEquals(equity, result.getEquity());
+
+        BacktestStats stats = result.getStats();
+        assertEquals(CASH, stats.initialEquity());
+        assertEquals(1_069_076, stats.finalEquity());
+        assertEquals(0.069076, stats.totalReturn(), 1e-12);
+        assertEquals(Math.pow(1.069076, 252.0 / 6) - 1, stats.cagr(), 1e-9);
+        assertEquals(110_330.0 / 1_179_406, stats.maxDrawdown(), 1e-12);
+        assertEquals(expectedSharpe(equity, CASH), stats.sharpe(), 1e-9);
+        assertEquals(3, stats.tradeCount());
+        assertEquals(1, stats.roundTrips());
+        assertEquals(1.0, stats.winRate());
+        assertEquals(924, stats.totalCommission());
+        assertEquals(4.0 / 6, stats.exposure(), 1e-12);
+    }
+
+    @Test
+    void ignoresSignalsThatCannotTrade() {
+        // 空仓卖出、持仓再买、资金不足一手的买入都不成交
+        PriceSeries series = PriceSeries.of("000001", new double[]{20, 5000, 10, 10}, null);
+        BacktestResult result = BacktestEngine.run(series, new byte[]{S, B, B, B}, 200_000L, RATE);
+
+        assertEquals(1, result.getTrades().size());
+        BacktestTrade buy = result.getTrades().get(0);
+        assertEquals(2, buy.bar());
+        assertEquals(100, buy.quantity());
+        assertEquals(0, result.getStats().roundTrips());
+        assertEquals(0, result.getStats().winRate());
+    }
+
+    @Test
+    void flatEquityHasZeroStatistics() {
+        PriceSeries series = PriceSeries.of("000001", new double[]{10, 11, 9, 12}, null);
+        BacktestStats stats = BacktestEngine.run(series, new byte[4], CASH, RATE).getStats();
+
+        assertEquals(CASH, stats.finalEquity());
+        assertEquals(0, stats.totalReturn());
+        assertEquals(0, stats.cagr(), 1e-15);
+        assertEquals(0, stats.sharpe());
+        assertEquals(0, stats.maxDrawdown());
+        assertEquals(0, stats.exposure());
+    }
+
+    @Test
+    void emptySeriesKeepsInitialCash() {
+        BacktestStats stats = BacktestEngine.run(PriceSeries.of("000001", new double[0], null), new byte[0], CASH, RATE)
+                .getStats();
+        assertEquals(CASH, stats.finalEquity());
+        assertEquals(0, stats.tradeCount());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        PriceSeries series = PriceSeries.of("000001", new double[]{10, 11}, null);
+        assertThrows(IllegalArgumentException.class, () -> BacktestEngine.run(series, new byte[1], CASH, RATE));
+        assertThrows(IllegalArgumentException.class, () -> BacktestEngine.run(series, new byte[2], 0, RATE));
+    }
+
+    @Test
+    void affordableQuantityIncludesCommission() {
+        assertEquals(900, BacktestEngine.affordableQuantity(1_000_000, 100_000, RATE));
+        assertEquals(1000, BacktestEngine.affordableQuantity(1_000_300, 100_000, RATE));
+        assertEquals(0, BacktestEngine.affordableQuantity(99_999, 100_000, 0));
+        assertTrue(BacktestEngine.affordableQuantity(Long.MAX_VALUE / 2, 1, RATE) > 0);
+    }
+
+    /**
+     * 两遍法计算的年化夏普（样本标准差），与引擎中的 Welford 单遍结果对照
+     */
+    private static double expectedSharpe(long[] equity, long initialCash) {
+        double[] returns = new double[equity.length];
+        double previous = initialCash;
+        double sum = 0;
+        for (int i = 0; i < equity.length; i++) {
+            returns[i] = equity[i] / previous - 1;
+            previous = equity[i];
+            sum += returns[i];
+        }
+        double mean = sum / returns.length;
+        double squares = 0;
+        for (double r : returns) {
+            squares += (r - mean) * (r - mean);
+        }
+        return mean / Math.sqrt(squares / (returns.length - 1)) * Math.sqrt(252);
+    }
+}
@@ -0,0 +1,118 @@
+package com.quant.trading.backtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 蒙特卡洛重抽样：同一种子的结果与线程数、任务执行顺序无关
+ */
+class MonteCarloSimulatorTest {
+
+    private static final Consumer<List<Runnable>> SEQUENTIAL = tasks -> tasks.forEach(Runnable::run);
+
+    @Test
+    void sameSeedGivesSameResultForAnyThreadCount() throws Exception {
+        double[] returns = returns(2520);
+        // 路径数不是每任务路径数的整数倍，最后一个任务只跑余下的路径
+        int paths = MonteCarloSimulator.PATHS_PER_TASK * 7 + 3;
+        MonteCarloResult expected = MonteCarloSimulator.run(returns, 252, paths, 20, 42L, SEQUENTIAL);
+
+        Consumer<List<Runnable>> reversed = tasks -> {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                tasks.get(i).run();
+            }
+        };
+        assertEquals(expected, MonteCarloSimulator.run(returns, 252, paths, 20, 42L, reversed));
+
+        for (int threads : new int[]{1, 2, 3, 8}) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                assertEquals(expected, MonteCarloSimulator.run(returns, 252, paths, 20, 42L, on(executor)),
+                        threads + " threads");
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        assertNotEquals(expected, MonteCarloSimulator.run(returns, 252, paths, 20, 43L, SEQUENTIAL));
+    }
+
+    @Test
+    void fullLengthBlockReproducesOriginalSeries() {
+        // 块长度等于序列长度时每条路径都是原序列本身
+        double[] returns = {0.01, -0.02, 0.03, 0.005};
+        MonteCarloResult result = MonteCarloSimulator.run(returns, 252, 100, 10, 7L, SEQUENTIAL);
+
+        assertEquals(4, result.blockSize());
+        assertEquals(4, result.pathLength());
+        double equity = 1.01 * 0.98 * 1.03 * 1.005;
+        assertEquals(Math.pow(equity, 252.0 / 4) - 1, result.cagr().p50(), 1e-9);
+        assertEquals(0, result.cagr().stdDev(), 1e-12);
+        assertEquals(0.02, result.maxDrawdown().p5(), 1e-12);
+        assertEquals(0, result.lossProbability());
+    }
+
+    @Test
+    void tradeReturnsUseEntryCostIncludingCommission() {
+        List<BacktestTrade> trades = List.of(
+                new BacktestTrade(1, null, "BUY", 100_000, 900, 900_000, 270, 0),
+                new BacktestTrade(3, null, "SELL", 120_000, 900, 1_080_000, 324, 179_406),
+                new BacktestTrade(4, null, "BUY", 110_000, 1000, 1_100_000, 330, 0));
+
+        assertArrayEquals(new double[]{179_406.0 / 900_270}, MonteCarloSimulator.tradeReturns(trades));
+        assertArrayEquals(new double[]{-0.00027, 1_089_730.0 / 999_730 - 1},
+                MonteCarloSimulator.dailyReturns(new long[]{999_730, 1_089_730}, 1_000_000L), 1e-12);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        double[] returns = {0.01, 0.02};
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloSimulator.run(new double[1], 252, 10, 1, 1L, SEQUENTIAL));
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloSimulator.run(returns, 252, 0, 1, 1L, SEQUENTIAL));
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloSimulator.run(returns, 252, 10, 0, 1L, SEQUENTIAL));
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloSimulator.run(returns, 0, 10, 1, 1L, SEQUENTIAL));
+    }
+
+    /**
+     * 把任务提交到线程池并等待全部完成
+     */
+    private static Consumer<List<Runnable>> on(ExecutorService executor) {
+        return tasks -> {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static double[] returns(int n) {
+        Random random = new Random(5);
+        double[] returns = new double[n];
+        for (int i = 0; i < n; i++) {
+            returns[i] = random.nextGaussian() * 0.015 + 0.0003;
+        }
+        return returns;
+    }
+}
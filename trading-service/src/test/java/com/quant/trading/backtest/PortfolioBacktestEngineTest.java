@@ -0,0 +1,104 @@
+package com.quant.trading.backtest;
+
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.strategy.VectorizedStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 组合回测引擎：共同交易日历、缺K线时沿用上一个收盘价、单仓位比例上限与先卖后买
+ */
+class PortfolioBacktestEngineTest {
+
+    private static final byte B = VectorizedStrategy.BUY;
+    private static final byte S = VectorizedStrategy.SELL;
+    private static final byte H = VectorizedStrategy.HOLD;
+
+    private static final LocalDate D0 = LocalDate.of(2024, 1, 2);
+    private static final int DAY0 = (int) D0.toEpochDay();
+
+    /**
+     * A 在第0~2天有K线，B 在第1~3天有K线；初始资金 10000 元，不计手续费，单仓位上限 50%
+     * <ul>
+     *   <li>第0天：A 10 元买入，额度 500000 → 500 股，现金 500000</li>
+     *   <li>第1天：A 涨到 12，权益 1100000，额度 550000，但现金只有 500000；B 20 元买入 200 股，现金 100000</li>
+     *   <li>第2天：A 11 元卖出，盈亏 +50000；B 25 元，权益 650000 + 500000</li>
+     *   <li>第3天：A 无K线；B 回到 20 元，权益 650000 + 400000</li>
+     * </ul>
+     */
+    @Test
+    void simulatesHandComputedPortfolio() {
+        PriceSeries a = PriceSeries.of("000001", new double[]{10, 12, 11}, new int[]{DAY0, DAY0 + 1, DAY0 + 2});
+        PriceSeries b = PriceSeries.of("600000", new double[]{20, 25, 20}, new int[]{DAY0 + 1, DAY0 + 2, DAY0 + 3});
+        byte[][] signals = {{B, H, S}, {B, H, H}};
+
+        PortfolioResult result = PortfolioBacktestEngine.run(List.of(a, b), signals, 1_000_000L, 0, 0.5);
+
+        assertEquals(4, result.length());
+        assertEquals(D0, result.date(0));
+        assertEquals(D0.plusDays(3), result.date(3));
+        assertArrayEquals(new long[]{1_000_000, 1_100_000, 1_150_000, 1_050_000}, result.getEquity());
+        assertArrayEquals(new long[]{500_000, 100_000, 650_000, 650_000}, result.getCash());
+        assertEquals(List.of(
+                new PortfolioTrade("000001", D0, "BUY", 100_000, 500, 500_000, 0, 0),
+                new PortfolioTrade("600000", D0.plusDays(1), "BUY", 200_000, 200, 400_000, 0, 0),
+                new PortfolioTrade("000001", D0.plusDays(2), "SELL", 110_000, 500, 550_000, 0, 50_000)),
+                result.getTrades());
+        assertArrayEquals(new long[]{50_000, 0}, result.getSymbolProfit());
+        assertArrayEquals(new int[]{1, 0}, result.getSymbolRoundTrips());
+
+        BacktestStats stats = result.getStats();
+        assertEquals(1_050_000, stats.finalEquity());
+        assertEquals(3, stats.tradeCount());
+        assertEquals(1, stats.roundTrips());
+        assertEquals(1.0, stats.winRate());
+        assertEquals(100_000.0 / 1_150_000, stats.maxDrawdown(), 1e-12);
+        assertEquals(1.0, stats.exposure());
+    }
+
+    @Test
+    void sellsBeforeBuyingOnTheSameDay() {
+        // 第1天 A 卖出回笼的资金当天就能用于买入 B
+        PriceSeries a = PriceSeries.of("000001", new double[]{10, 10}, new int[]{DAY0, DAY0 + 1});
+        PriceSeries b = PriceSeries.of("600000", new double[]{10, 10}, new int[]{DAY0, DAY0 + 1});
+        PortfolioResult result = PortfolioBacktestEngine.run(List.of(a, b), new byte[][]{{B, S}, {H, B}},
+                100_000L, 0, 1.0);
+
+        List<PortfolioTrade> trades = result.getTrades();
+        assertEquals(3, trades.size());
+        assertEquals("SELL", trades.get(1).type());
+        assertEquals("600000", trades.get(2).stockCode());
+        assertEquals(100, trades.get(2).quantity());
+        assertEquals(0, result.getCash()[1]);
+    }
+
+    @Test
+    void emptyPortfolioHasEmptyCalendar() {
+        PortfolioResult result = PortfolioBacktestEngine.run(List.of(), new byte[0][], 100_000L, 300, 0.2);
+        assertEquals(0, result.length());
+        assertEquals(100_000L, result.getStats().finalEquity());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        PriceSeries dated = PriceSeries.of("000001", new double[]{10, 11}, new int[]{DAY0, DAY0 + 1});
+        PriceSeries undated = PriceSeries.of("600000", new double[]{10, 11}, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PortfolioBacktestEngine.run(List.of(undated), new byte[1][2], 100_000L, 0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PortfolioBacktestEngine.run(List.of(dated), new byte[2][2], 100_000L, 0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PortfolioBacktestEngine.run(List.of(dated), new byte[1][1], 100_000L, 0, 1.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PortfolioBacktestEngine.run(List.of(dated), new byte[1][2], 100_000L, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> PortfolioBacktestEngine.run(List.of(dated), new byte[1][2], 100_000L, 0, 1.5));
+    }
+}
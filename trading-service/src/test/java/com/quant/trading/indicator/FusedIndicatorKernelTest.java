@@ -0,0 +1,83 @@
+package com.quant.trading.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 融合内核与逐个调用 {@link IndicatorKernels} 的结果逐位相同（包括窗口未满处的 NaN）
+ */
+class FusedIndicatorKernelTest {
+
+    /** 覆盖短于各指标周期、恰好等于周期和远长于周期的序列 */
+    private static final int[] LENGTHS = {0, 1, 4, 5, 9, 10, 12, 13, 14, 15, 19, 20, 21, 26, 34, 35, 59, 60, 61, 250};
+
+    @Test
+    void defaultPanelIsBitIdenticalToSeparateKernels() {
+        List<IndicatorSpec> specs = new ArrayList<>(IndicatorSpec.defaultPanel());
+        specs.add(IndicatorSpec.ema(12));
+        specs.add(IndicatorSpec.bollinger(10, 1.5));
+        Random random = new Random(3);
+        for (int len : LENGTHS) {
+            // 带偏移的区间，确认内核按 from 读取
+            int from = 7;
+            double[] src = new double[from + len + 3];
+            double price = 20;
+            for (int i = 0; i < src.length; i++) {
+                price *= 1 + (random.nextDouble() - 0.5) * 0.06;
+                src[i] = price;
+            }
+
+            IndicatorPanel panel = FusedIndicatorKernel.compute(src, from, len, specs);
+
+            assertEquals(len, panel.length());
+            for (IndicatorSpec spec : specs) {
+                double[][] expected = separate(src, from, len, spec);
+                List<String> names = spec.columns();
+                for (int c = 0; c < names.size(); c++) {
+                    assertTrue(Arrays.equals(expected[c], panel.column(names.get(c))),
+                            names.get(c) + " len=" + len);
+                }
+            }
+        }
+    }
+
+    @Test
+    void duplicateSpecsAreComputedOnce() {
+        double[] src = {10, 11, 12, 13, 14, 15};
+        IndicatorPanel panel = FusedIndicatorKernel.compute(src, 0, src.length,
+                List.of(IndicatorSpec.sma(2), IndicatorSpec.parse("MA2"), IndicatorSpec.rsi(3)));
+
+        assertEquals(List.of("MA2", "RSI3"), panel.columnNames());
+    }
+
+    @Test
+    void rejectsRangeOutsideArray() {
+        double[] src = new double[5];
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> FusedIndicatorKernel.compute(src, 3, 3, IndicatorSpec.defaultPanel()));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> FusedIndicatorKernel.compute(src, -1, 2, IndicatorSpec.defaultPanel()));
+    }
+
+    private static double[][] separate(double[] src, int from, int len, IndicatorSpec spec) {
+        double[][] out = new double[spec.columns().size()][len];
+        switch (spec.kind()) {
+            case SMA -> IndicatorKernels.sma(src, from, len, spec.period(), out[0]);
+            case EMA -> IndicatorKernels.ema(src, from, len, spec.period(), out[0]);
+            case RSI -> IndicatorKernels.rsi(src, from, len, spec.period(), out[0]);
+            case MACD -> IndicatorKernels.macd(src, from, len, spec.period(), spec.slowPeriod(), spec.signalPeriod(),
+                    out[0], out[1], out[2]);
+            case BOLL -> IndicatorKernels.bollinger(src, from, len, spec.period(), spec.stdDevMultiplier(),
+                    out[0], out[1], out[2]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,140 @@
+package com.quant.trading.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 原始类型指标内核与优化前 BigDecimal 实现（{@link LegacyIndicatorCalculator}）的对照
+ * 旧实现在递推的每一步都舍入到4位小数，两者只在末位上有差异；缺值位置（null）必须完全一致
+ */
+class IndicatorKernelsTest {
+
+    @Test
+    void smaMatchesLegacy() {
+        for (List<BigDecimal> prices : samples()) {
+            for (int period : new int[]{1, 5, 20, 60}) {
+                assertClose(LegacyIndicatorCalculator.calculateSMA(prices, period),
+                        IndicatorCalculator.calculateSMA(prices, period), 1e-4, "SMA" + period);
+            }
+        }
+    }
+
+    @Test
+    void emaMatchesLegacy() {
+        for (List<BigDecimal> prices : samples()) {
+            for (int period : new int[]{1, 12, 26}) {
+                assertClose(LegacyIndicatorCalculator.calculateEMA(prices, period),
+                        IndicatorCalculator.calculateEMA(prices, period), 1e-4, "EMA" + period);
+            }
+        }
+    }
+
+    @Test
+    void macdMatchesLegacy() {
+        for (List<BigDecimal> prices : samples()) {
+            LegacyIndicatorCalculator.MACDResult expected = LegacyIndicatorCalculator.calculateMACD(prices, 12, 26, 9);
+            IndicatorCalculator.MACDResult actual = IndicatorCalculator.calculateMACD(prices, 12, 26, 9);
+            // 旧实现的 DIF 由两条各自舍入的 EMA 相减，DEA、柱状图再逐级舍入，误差随之累加
+            assertClose(expected.getDif(), actual.getDif(), 2e-4, "DIF");
+            assertClose(expected.getDea(), actual.getDea(), 3e-4, "DEA");
+            assertClose(expected.getHistogram(), actual.getHistogram(), 1e-3, "HIST");
+        }
+    }
+
+    @Test
+    void rsiMatchesLegacy() {
+        for (List<BigDecimal> prices : samples()) {
+            // 旧实现每步把平均涨跌幅舍入到4位小数，RSI 的差异在 0.05 以内
+            assertClose(LegacyIndicatorCalculator.calculateRSI(prices, 14),
+                    IndicatorCalculator.calculateRSI(prices, 14), 0.05, "RSI14");
+        }
+    }
+
+    @Test
+    void bollingerMatchesLegacy() {
+        for (List<BigDecimal> prices : samples()) {
+            LegacyIndicatorCalculator.BollingerBandsResult expected =
+                    LegacyIndicatorCalculator.calculateBollingerBands(prices, 20, 2);
+            IndicatorCalculator.BollingerBandsResult actual = IndicatorCalculator.calculateBollingerBands(prices, 20, 2);
+            assertClose(expected.getMiddle(), actual.getMiddle(), 1e-4, "BOLL_MIDDLE");
+            assertClose(expected.getUpper(), actual.getUpper(), 1e-3, "BOLL_UPPER");
+            assertClose(expected.getLower(), actual.getLower(), 1e-3, "BOLL_LOWER");
+        }
+    }
+
+    @Test
+    void kernelsHandleShortAndEmptyInput() {
+        double[] dst = new double[3];
+        IndicatorKernels.sma(new double[]{1, 2, 3}, 0, 3, 5, dst);
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN, Double.NaN}, dst);
+
+        IndicatorKernels.ema(new double[0], 0, 0, 5, new double[0]);
+        IndicatorKernels.rsi(new double[]{1}, 0, 1, 14, dst);
+        assertTrue(Double.isNaN(dst[0]));
+
+        assertThrows(IllegalArgumentException.class, () -> IndicatorKernels.sma(new double[3], 0, 3, 0, dst));
+        assertThrows(IndexOutOfBoundsException.class, () -> IndicatorKernels.sma(new double[3], 1, 3, 2, dst));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorKernels.sma(new double[3], 0, 3, 2, new double[2]));
+    }
+
+    @Test
+    void kernelsReadOnlyTheRequestedSlice() {
+        double[] src = {100, 1, 2, 3, 4, 100};
+        double[] dst = new double[4];
+        IndicatorKernels.sma(src, 1, 4, 2, dst);
+        assertArrayEquals(new double[]{Double.NaN, 1.5, 2.5, 3.5}, dst);
+    }
+
+    @Test
+    void rsiIsHundredWithoutLosses() {
+        List<BigDecimal> rising = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            rising.add(BigDecimal.valueOf(10 + i));
+        }
+        List<BigDecimal> rsi = IndicatorCalculator.calculateRSI(rising, 14);
+        assertNull(rsi.get(0));
+        assertEquals(0, rsi.get(rsi.size() - 1).compareTo(BigDecimal.valueOf(100)));
+    }
+
+    private static void assertClose(List<BigDecimal> expected, List<BigDecimal> actual, double tolerance, String name) {
+        assertEquals(expected.size(), actual.size(), name + " 长度");
+        for (int i = 0; i < expected.size(); i++) {
+            BigDecimal e = expected.get(i);
+            BigDecimal a = actual.get(i);
+            if (e == null || a == null) {
+                assertEquals(e, a, name + " 缺值位置 i=" + i);
+                continue;
+            }
+            double diff = Math.abs(e.doubleValue() - a.doubleValue());
+            assertTrue(diff <= tolerance, name + " i=" + i + ": expected=" + e + ", actual=" + a);
+        }
+    }
+
+    /**
+     * 随机游走价格（两位小数），长度覆盖少于周期、恰好等于周期和较长的序列
+     */
+    private static List<List<BigDecimal>> samples() {
+        List<List<BigDecimal>> samples = new ArrayList<>();
+        Random random = new Random(42);
+        for (int n : new int[]{1, 5, 14, 15, 20, 26, 60, 500}) {
+            List<BigDecimal> prices = new ArrayList<>(n);
+            double price = 20 + random.nextInt(80);
+            for (int i = 0; i < n; i++) {
+                price = Math.max(1, price * (1 + (random.nextDouble() - 0.5) * 0.08));
+                prices.add(BigDecimal.valueOf(Math.round(price * 100), 2));
+            }
+            samples.add(prices);
+        }
+        return samples;
+    }
+}
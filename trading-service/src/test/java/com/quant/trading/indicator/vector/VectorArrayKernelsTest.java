@@ -0,0 +1,124 @@
+package com.quant.trading.indicator.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 向量内核与标量参考实现的逐位一致性
+ * 覆盖空矩阵、单列、不足/恰好/超过一个向量宽度的列数（余下的列走标量路径），以及含 NaN 的输入
+ */
+class VectorArrayKernelsTest {
+
+    private static final int LANES = DoubleVector.SPECIES_PREFERRED.length();
+    private static final int[] PERIODS = {1, 2, 5, 20};
+
+    private final ArrayKernels scalar = ScalarArrayKernels.INSTANCE;
+    private final ArrayKernels vector = VectorArrayKernels.INSTANCE;
+
+    @Test
+    void rollingWindowsMatchScalarForEdgeShapes() {
+        for (int columns : columnCounts()) {
+            for (int rows : new int[]{0, 1, 2, 19, 20, 21, 257}) {
+                double[] src = prices(rows, columns, 7L * rows + columns, false);
+                assertRollingEqual(src, rows, columns);
+            }
+        }
+    }
+
+    @Test
+    void rollingWindowsMatchScalarWithNaN() {
+        for (int columns : columnCounts()) {
+            int rows = 120;
+            double[] src = prices(rows, columns, 31L + columns, true);
+            assertRollingEqual(src, rows, columns);
+        }
+    }
+
+    @Test
+    void elementwiseMatchScalarForEdgeLengths() {
+        for (int len : new int[]{0, 1, LANES - 1, LANES, LANES + 1, 2 * LANES + 3, 1000}) {
+            double[] a = prices(len, 1, 11L + len, true);
+            double[] b = prices(len, 1, 13L + len, true);
+            double[] expected = new double[len];
+            double[] actual = new double[len];
+
+            scalar.subtract(a, b, len, expected);
+            vector.subtract(a, b, len, actual);
+            assertArrayEquals(expected, actual, "subtract len=" + len);
+
+            scalar.histogram(a, b, len, expected);
+            vector.histogram(a, b, len, actual);
+            assertArrayEquals(expected, actual, "histogram len=" + len);
+        }
+    }
+
+    @Test
+    void crossoversMatchScalar() {
+        for (int columns : columnCounts()) {
+            for (int rows : new int[]{0, 1, 2, 257}) {
+                double[] src = prices(rows, columns, 17L * rows + columns, columns % 2 == 1);
+                int len = rows * columns;
+                double[] fast = new double[len];
+                double[] slow = new double[len];
+                scalar.rollingMean(src, rows, columns, 5, fast);
+                scalar.rollingMean(src, rows, columns, 20, slow);
+
+                byte[] expected = new byte[len];
+                byte[] actual = new byte[len];
+                scalar.crossovers(fast, slow, rows, columns, expected);
+                vector.crossovers(fast, slow, rows, columns, actual);
+                assertArrayEquals(expected, actual, "crossovers rows=" + rows + ", columns=" + columns);
+            }
+        }
+    }
+
+    @Test
+    void scalarRollingMeanMatchesHandComputedValues() {
+        double[] src = {1, 2, 3, 4, 5};
+        double[] dst = new double[5];
+        scalar.rollingMean(src, 5, 1, 3, dst);
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN, 2, 3, 4}, dst);
+        assertEquals("scalar", scalar.name());
+    }
+
+    private void assertRollingEqual(double[] src, int rows, int columns) {
+        int len = rows * columns;
+        double[] expected = new double[len];
+        double[] actual = new double[len];
+        for (int period : PERIODS) {
+            String shape = "rows=" + rows + ", columns=" + columns + ", period=" + period;
+            scalar.rollingMean(src, rows, columns, period, expected);
+            vector.rollingMean(src, rows, columns, period, actual);
+            assertArrayEquals(expected, actual, "rollingMean " + shape);
+
+            scalar.rollingVariance(src, rows, columns, period, expected);
+            vector.rollingVariance(src, rows, columns, period, actual);
+            assertArrayEquals(expected, actual, "rollingVariance " + shape);
+        }
+    }
+
+    private static int[] columnCounts() {
+        return new int[]{0, 1, Math.max(1, LANES - 1), LANES, LANES + 1, 2 * LANES + 3};
+    }
+
+    /**
+     * 随机游走价格矩阵；withNaN 时每列随机放入若干 NaN
+     */
+    private static double[] prices(int rows, int columns, long seed, boolean withNaN) {
+        Random random = new Random(seed);
+        double[] src = new double[rows * columns];
+        for (int s = 0; s < columns; s++) {
+            double price = 10 + s;
+            for (int t = 0; t < rows; t++) {
+                price *= 1 + (random.nextDouble() - 0.5) * 0.06;
+                src[t * columns + s] = withNaN && random.nextInt(40) == 0 ? Double.NaN : price;
+            }
+        }
+        return src;
+    }
+}
@@ -0,0 +1,72 @@
+package com.quant.trading.market;
+
+import com.quant.trading.indicator.PriceSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 收盘价环形缓冲区：追加、覆盖最旧K线、同日修正与已取出视图的不变性
+ */
+class PriceRingBufferTest {
+
+    @Test
+    void windowEndsAtLatestBarAfterWrapping() {
+        PriceRingBuffer buffer = new PriceRingBuffer(3);
+        for (int day = 0; day < 3 * (3 + PriceRingBuffer.HEADROOM) + 2; day++) {
+            buffer.append(day, day * 10);
+        }
+        int last = 3 * (3 + PriceRingBuffer.HEADROOM) + 1;
+
+        PriceSeries series = buffer.window("000001", 5);
+        assertEquals(3, series.length());
+        assertEquals(3, buffer.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(last - 2 + i, series.epochDay(i));
+            assertEquals((last - 2 + i) * 10, series.close(i));
+        }
+        assertEquals(last, buffer.lastEpochDay());
+    }
+
+    @Test
+    void ignoresOlderBarsAndUnchangedCorrections() {
+        PriceRingBuffer buffer = new PriceRingBuffer(4);
+        assertEquals(-1, buffer.lastEpochDay());
+        assertTrue(Double.isNaN(buffer.lastClose()));
+
+        assertTrue(buffer.append(10, 1.0));
+        assertFalse(buffer.append(9, 2.0));
+        assertFalse(buffer.append(10, 1.0));
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void sameDayCorrectionDoesNotChangePublishedView() {
+        PriceRingBuffer buffer = new PriceRingBuffer(4);
+        buffer.append(1, 10.0);
+        buffer.append(2, 11.0);
+        PriceSeries before = buffer.window("000001", 4);
+
+        assertTrue(buffer.append(2, 11.5));
+        PriceSeries after = buffer.window("000001", 4);
+
+        // 修正前取出的视图仍是旧收盘价，修正后的视图不含被替换的旧K线
+        assertEquals(2, before.length());
+        assertEquals(11.0, before.lastClose());
+        assertEquals(2, after.length());
+        assertEquals(10.0, after.close(0));
+        assertEquals(11.5, after.lastClose());
+        assertEquals(11.5, buffer.lastClose());
+        assertEquals(2, buffer.size());
+
+        // 修正之后的追加也不会写进旧视图的数组
+        for (int day = 3; day < 3 + 4 + PriceRingBuffer.HEADROOM; day++) {
+            buffer.append(day, day);
+        }
+        assertEquals(1, before.epochDay(0));
+        assertEquals(10.0, before.close(0));
+        assertEquals(11.0, before.lastClose());
+    }
+}
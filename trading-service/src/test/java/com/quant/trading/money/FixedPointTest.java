@@ -0,0 +1,104 @@
+package com.quant.trading.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 定点运算与原 BigDecimal（RoundingMode.HALF_UP）实现逐分一致
+ * 对照的 BigDecimal 表达式取自优化前 TradingService/PositionService 中的写法
+ */
+class FixedPointTest {
+
+    private static final BigDecimal COMMISSION_RATE = new BigDecimal("0.0003");
+
+    @Test
+    void divideHalfUpMatchesBigDecimal() {
+        for (long n = -1000; n <= 1000; n++) {
+            for (long d : new long[]{1, 2, 3, 7, 100, 10_000, -1, -3, -100}) {
+                long expected = BigDecimal.valueOf(n).divide(BigDecimal.valueOf(d), 0, RoundingMode.HALF_UP)
+                        .longValueExact();
+                assertEquals(expected, FixedPoint.divideHalfUp(n, d), n + " / " + d);
+            }
+        }
+        assertEquals(3, FixedPoint.divideHalfUp(5, 2));
+        assertEquals(-3, FixedPoint.divideHalfUp(-5, 2));
+        assertEquals(-3, FixedPoint.divideHalfUp(5, -2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.divideHalfUp(1, 0));
+    }
+
+    @Test
+    void notionalAndFeeMatchBigDecimal() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            BigDecimal price = randomPrice(random, i);
+            int quantity = (random.nextInt(1000) + 1) * 100;
+            long amount = FixedPoint.notional(FixedPoint.toPrice(price), quantity);
+
+            BigDecimal expectedAmount = price.multiply(BigDecimal.valueOf(quantity))
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expectedAmount, FixedPoint.moneyToDecimal(amount), price + " × " + quantity);
+
+            BigDecimal expectedFee = expectedAmount.multiply(COMMISSION_RATE).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expectedFee, FixedPoint.moneyToDecimal(FixedPoint.fee(amount, FixedPoint.toRate(COMMISSION_RATE))),
+                    "fee of " + expectedAmount);
+        }
+    }
+
+    @Test
+    void averageCostMatchesBigDecimal() {
+        Random random = new Random(5);
+        for (int i = 0; i < 200_000; i++) {
+            BigDecimal avgCost = BigDecimal.valueOf(random.nextInt(200_000) + 1, 2);
+            int quantity = (random.nextInt(100) + 1) * 100;
+            BigDecimal price = randomPrice(random, i);
+            int added = (random.nextInt(1000) + 1) * 100;
+
+            BigDecimal expected = avgCost.multiply(BigDecimal.valueOf(quantity))
+                    .add(price.multiply(BigDecimal.valueOf(added)))
+                    .divide(BigDecimal.valueOf(quantity + added), 2, RoundingMode.HALF_UP);
+            long actual = FixedPoint.averageCost(FixedPoint.toPrice(avgCost), quantity, FixedPoint.toPrice(price), added);
+            assertEquals(0, expected.compareTo(FixedPoint.priceToDecimal(actual)),
+                    avgCost + "×" + quantity + " + " + price + "×" + added);
+        }
+        assertThrows(ArithmeticException.class, () -> FixedPoint.averageCost(100, 0, 100, 0));
+    }
+
+    @Test
+    void percentMatchesBigDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long cost = FixedPoint.notional(FixedPoint.toPrice(randomPrice(random, i)), (random.nextInt(100) + 1) * 100L);
+            long value = FixedPoint.notional(FixedPoint.toPrice(randomPrice(random, i)), (random.nextInt(100) + 1) * 100L);
+            BigDecimal expected = FixedPoint.moneyToDecimal(value - cost)
+                    .divide(FixedPoint.moneyToDecimal(cost), 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+            assertEquals(0, expected.compareTo(FixedPoint.percentToDecimal(FixedPoint.percent(value - cost, cost))),
+                    value + " / " + cost);
+        }
+    }
+
+    @Test
+    void conversionsRoundHalfUp() {
+        assertEquals(123_457, FixedPoint.toPrice(new BigDecimal("12.34565")));
+        assertEquals(-123_457, FixedPoint.toPrice(new BigDecimal("-12.34565")));
+        assertEquals(1235, FixedPoint.toMoney(new BigDecimal("12.345")));
+        assertEquals(300, FixedPoint.toRate(COMMISSION_RATE));
+        assertEquals(new BigDecimal("12.30"), FixedPoint.priceToDecimal(123_000));
+        assertEquals(new BigDecimal("12.3456"), FixedPoint.priceToDecimal(123_456));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.toPrice(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.notional(Long.MAX_VALUE / 2, 100));
+    }
+
+    /**
+     * 交替生成 2 位和 4 位小数的价格，0.01 ~ 20000 元
+     */
+    private static BigDecimal randomPrice(Random random, int i) {
+        return BigDecimal.valueOf(random.nextInt(2_000_000) + 1, 2 + (i % 2) * 2);
+    }
+}
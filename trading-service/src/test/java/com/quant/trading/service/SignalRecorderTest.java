@@ -0,0 +1,107 @@
+package com.quant.trading.service;
+
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.repository.StrategySignalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 信号记录器：连续相同信号的合并、插入计数与段的LRU淘汰
+ */
+class SignalRecorderTest {
+
+    private SignalSink signalSink;
+    private StrategySignalRepository repository;
+    private SignalRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        signalSink = mock(SignalSink.class);
+        repository = mock(StrategySignalRepository.class);
+        when(repository.findFirstByStrategyIdAndStockCodeOrderBySignalTimeDescIdDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        recorder = new SignalRecorder(signalSink, repository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void countsOnlyInsertedRows() {
+        int inserted = recorder.recordAll(List.of(
+                signal("000001", "BUY", 60),
+                signal("000001", "BUY", 62),
+                signal("000001", "SELL", 40),
+                signal("600000", "BUY", 60)));
+
+        assertEquals(3, inserted);
+        verify(signalSink, times(3)).submit(any());
+        verify(signalSink, times(1)).submitUpdate(any());
+        verify(repository, times(2)).findFirstByStrategyIdAndStockCodeOrderBySignalTimeDescIdDesc(any(), any());
+    }
+
+    @Test
+    void continuesRunRestoredFromDatabase() {
+        StrategySignal last = signal("000001", "BUY", 60);
+        last.setId(42L);
+        last.setReason("金叉");
+        when(repository.findFirstByStrategyIdAndStockCodeOrderBySignalTimeDescIdDesc(1L, "000001"))
+                .thenReturn(Optional.of(last));
+
+        StrategySignal next = signal("000001", "BUY", 61);
+        next.setPrice(BigDecimal.ONE);
+        next.setReason("金叉后继续上行");
+        assertEquals(0, recorder.recordAll(List.of(next)));
+        verify(signalSink, times(0)).submit(any());
+        ArgumentCaptor<SignalRun> run = ArgumentCaptor.forClass(SignalRun.class);
+        verify(signalSink, times(1)).submitUpdate(run.capture());
+
+        // 合并的信号返回所在行的 id，行上的最后价格和原因随之更新
+        assertEquals(42L, next.getId());
+        SignalRun.Snapshot snapshot = run.getValue().snapshot();
+        assertEquals(2, snapshot.occurrences());
+        assertEquals(BigDecimal.ONE, snapshot.lastPrice());
+        assertEquals("金叉后继续上行", snapshot.reason());
+    }
+
+    @Test
+    void evictedRunIsRestoredAgain() {
+        ReflectionTestUtils.setField(recorder, "maxRuns", 1);
+
+        recorder.record(signal("000001", "BUY", 60));
+        recorder.record(signal("600000", "BUY", 60));
+        recorder.record(signal("000001", "BUY", 60));
+
+        // 000001 的段被 600000 挤出，第二次出现时重新查询数据库
+        verify(repository, times(2)).findFirstByStrategyIdAndStockCodeOrderBySignalTimeDescIdDesc(1L, "000001");
+    }
+
+    @Test
+    void recordsEverySignalInAllMode() {
+        ReflectionTestUtils.setField(recorder, "mode", SignalRecorder.Mode.ALL);
+
+        assertEquals(2, recorder.recordAll(List.of(signal("000001", "BUY", 60), signal("000001", "BUY", 60))));
+        verify(signalSink, times(2)).submit(any());
+    }
+
+    private static StrategySignal signal(String stockCode, String type, int strength) {
+        StrategySignal signal = new StrategySignal();
+        signal.setStrategyId(1L);
+        signal.setStockCode(stockCode);
+        signal.setSignalType(type);
+        signal.setPrice(BigDecimal.TEN);
+        signal.setSignalStrength(BigDecimal.valueOf(strength));
+        return signal;
+    }
+}
@@ -0,0 +1,83 @@
+package com.quant.trading.strategy;
+
+import com.quant.trading.entity.StrategySignal;
+import com.quant.trading.indicator.PriceSeries;
+import com.quant.trading.service.IndicatorCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 双均线矩阵扫描与逐只生成信号的结果一致
+ */
+class MovingAverageCrossStrategyTest {
+
+    private final MovingAverageCrossStrategy strategy =
+            new MovingAverageCrossStrategy(new IndicatorCacheService(new SimpleMeterRegistry()));
+
+    @Test
+    void scanMatchesPerSymbolSignals() {
+        MovingAverageCrossStrategy.Config config = new MovingAverageCrossStrategy.Config(5, 20);
+        Random random = new Random(11);
+        List<String> stockCodes = new ArrayList<>();
+        List<PriceSeries> series = new ArrayList<>();
+        for (int s = 0; s < 37; s++) {
+            double[] closes = new double[60];
+            double price = 10 + s;
+            for (int t = 0; t < closes.length; t++) {
+                price *= 1 + (random.nextDouble() - 0.5) * 0.08;
+                closes[t] = price;
+            }
+            stockCodes.add(String.format("%06d", s));
+            series.add(PriceSeries.of(stockCodes.get(s), closes, null));
+        }
+        // 最后一根K线上穿：前59根横盘在10，最后一根拉到20
+        double[] golden = new double[60];
+        Arrays.fill(golden, 0, 40, 12);
+        Arrays.fill(golden, 40, 59, 10);
+        golden[59] = 20;
+        stockCodes.add("600000");
+        series.add(PriceSeries.of("600000", golden, null));
+
+        List<StrategySignal> scanned = strategy.scan(stockCodes, series, config);
+
+        assertEquals(stockCodes.size(), scanned.size());
+        assertEquals("BUY", scanned.get(scanned.size() - 1).getSignalType());
+        for (int s = 0; s < stockCodes.size(); s++) {
+            StrategySignal expected = strategy.generateSignal(stockCodes.get(s), series.get(s), config);
+            StrategySignal actual = scanned.get(s);
+            assertEquals(expected.getStockCode(), actual.getStockCode());
+            assertEquals(expected.getSignalType(), actual.getSignalType(), stockCodes.get(s));
+            assertEquals(expected.getReason(), actual.getReason());
+            assertEquals(expected.getSignalStrength(), actual.getSignalStrength());
+            assertEquals(expected.getPrice(), actual.getPrice());
+        }
+    }
+
+    @Test
+    void shortSeriesFallBackToHold() {
+        PriceSeries series = PriceSeries.of("000001", new double[]{10, 11, 12}, null);
+        List<StrategySignal> scanned = strategy.scan(List.of("000001"), List.of(series),
+                new MovingAverageCrossStrategy.Config(5, 20));
+
+        assertEquals("HOLD", scanned.get(0).getSignalType());
+        assertTrue(scanned.get(0).getReason().startsWith("数据不足"));
+        assertTrue(strategy.scan(List.of(), List.of(), new MovingAverageCrossStrategy.Config(5, 20)).isEmpty());
+    }
+
+    @Test
+    void rejectsSeriesOfDifferentLength() {
+        PriceSeries a = PriceSeries.of("000001", new double[30], null);
+        PriceSeries b = PriceSeries.of("600000", new double[31], null);
+        assertThrows(IllegalArgumentException.class, () -> strategy.scan(List.of("000001", "600000"),
+                List.of(a, b), new MovingAverageCrossStrategy.Config(5, 20)));
+    }
+}
@@ -0,0 +1,156 @@
+package com.quant.trading.strategy.rule;
+
+import com.quant.trading.indicator.FusedIndicatorKernel;
+import com.quant.trading.indicator.IndicatorPanel;
+import com.quant.trading.indicator.IndicatorSpec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 规则编译器：可接受的语法、拒绝的输入，以及编译结果与手写判断逐根一致
+ */
+class RuleCompilerTest {
+
+    private static final int BARS = 5000;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "close > 10",
+            "CLOSE >= SMA(5)",
+            "SMA(5) crosses_above SMA(20) and RSI(14) < 70",
+            "sma(5) crosses_below ma(20) or not (close > BOLL_UPPER(20, 2.5) * 1.01)",
+            "MACD_HIST > -2*-1",
+            "MACD_DIF(6, 13, 5) != MACD_DEA(6, 13, 5)",
+            "(EMA(12) - EMA(26)) / close <= 0.01 and RSI() > 30",
+            "not not BOLL_LOWER() == BOLL_MIDDLE(20, 2)",
+            "  RSI(14)<30  "
+    })
+    void acceptsValidRules(String source) {
+        CompiledRule rule = new RuleCompiler().compile(source);
+        assertEquals(source.trim(), rule.getSource());
+        assertTrue(rule.getWarmupBars() >= 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "   ",
+            "SMA(5)",
+            "SMA(5) < ",
+            "RSI(14) < 70 and 3",
+            "FOO(3) > 1",
+            "SMA(0) > 1",
+            "SMA(5, 6) > 1",
+            "(SMA(5) > 1",
+            "SMA(5) > 1 )",
+            "1 crosses_above 2",
+            "close > 1 > 2",
+            "close > 1 and",
+            "not close",
+            "close > 1 # 2"
+    })
+    void rejectsInvalidRules(String source) {
+        assertThrows(IllegalArgumentException.class, () -> new RuleCompiler().compile(source));
+    }
+
+    @Test
+    void rejectsOverlongRule() {
+        String source = "close > 1" + " or close > 1".repeat(RuleCompiler.MAX_SOURCE_LENGTH / 12);
+        assertThrows(IllegalArgumentException.class, () -> new RuleCompiler().compile(source));
+    }
+
+    @Test
+    void registersEachIndicatorOnce() {
+        RuleCompiler compiler = new RuleCompiler();
+        compiler.compile("SMA(5) crosses_above ma(20) and RSI(14) < 70");
+        compiler.compile("sma(5) crosses_below SMA(20) or MACD_HIST < 0 or MACD_DIF > MACD_DEA");
+        assertEquals(List.of(IndicatorSpec.sma(5), IndicatorSpec.sma(20), IndicatorSpec.rsi(14),
+                IndicatorSpec.macd(12, 26, 9)), compiler.indicators());
+
+        assertTrue(new RuleCompiler().compile("close > 10 * 2").getWarmupBars() >= 1);
+        assertTrue(new RuleCompiler().indicators().isEmpty());
+    }
+
+    @Test
+    void crossRulesNeedOneExtraWarmupBar() {
+        int plain = new RuleCompiler().compile("SMA(5) > SMA(20)").getWarmupBars();
+        int cross = new RuleCompiler().compile("SMA(5) crosses_above SMA(20)").getWarmupBars();
+        assertEquals(plain + 1, cross);
+    }
+
+    @Test
+    void crossAndThresholdMatchHandWrittenCondition() {
+        RuleCompiler compiler = new RuleCompiler();
+        CompiledRule rule = compiler.compile("SMA(5) crosses_above SMA(20) and RSI(14) < 70");
+        double[] closes = prices();
+        IndicatorPanel panel = FusedIndicatorKernel.compute(closes, 0, closes.length, compiler.indicators());
+        double[][] columns = RuleCompiler.bind(closes, panel.columns().values().toArray(new double[0][]));
+
+        double[] fast = panel.column("MA5");
+        double[] slow = panel.column("MA20");
+        double[] rsi = panel.column("RSI14");
+        int hits = 0;
+        for (int i = rule.getWarmupBars(); i < closes.length; i++) {
+            boolean expected = fast[i - 1] < slow[i - 1] && fast[i] > slow[i] && rsi[i] < 70;
+            assertEquals(expected, rule.test(columns, i), "bar " + i);
+            hits += expected ? 1 : 0;
+        }
+        assertTrue(hits > 0);
+    }
+
+    @Test
+    void arithmeticAndLogicMatchHandWrittenCondition() {
+        RuleCompiler compiler = new RuleCompiler();
+        CompiledRule rule = compiler.compile(
+                "not (close > BOLL_UPPER(20, 2.5) * 1.01) and (MACD_HIST > -2*-1 or close - EMA(10) <= -0.5)");
+        double[] closes = prices();
+        IndicatorPanel panel = FusedIndicatorKernel.compute(closes, 0, closes.length, compiler.indicators());
+        double[][] columns = RuleCompiler.bind(closes, panel.columns().values().toArray(new double[0][]));
+
+        double[] upper = panel.column("BOLL20_2.5.upper");
+        double[] hist = panel.column("MACD12_26_9.hist");
+        double[] ema = panel.column("EMA10");
+        boolean anyTrue = false;
+        boolean anyFalse = false;
+        for (int i = rule.getWarmupBars(); i < closes.length; i++) {
+            boolean expected = !(closes[i] > upper[i] * 1.01) && (hist[i] > 2 || closes[i] - ema[i] <= -0.5);
+            boolean actual = rule.test(columns, i);
+            assertEquals(expected, actual, "bar " + i);
+            anyTrue |= actual;
+            anyFalse |= !actual;
+        }
+        assertTrue(anyTrue && anyFalse);
+    }
+
+    @Test
+    void nanIndicatorValuesNeverSatisfyComparisons() {
+        RuleCompiler compiler = new RuleCompiler();
+        CompiledRule above = compiler.compile("SMA(20) > 0");
+        CompiledRule below = compiler.compile("SMA(20) <= 0");
+        double[] closes = prices();
+        IndicatorPanel panel = FusedIndicatorKernel.compute(closes, 0, closes.length, compiler.indicators());
+        double[][] columns = RuleCompiler.bind(closes, panel.columns().values().toArray(new double[0][]));
+        assertFalse(above.test(columns, 0));
+        assertFalse(below.test(columns, 0));
+        assertTrue(above.test(columns, 19));
+    }
+
+    private static double[] prices() {
+        Random random = new Random(1);
+        double[] closes = new double[BARS];
+        closes[0] = 100;
+        for (int i = 1; i < BARS; i++) {
+            closes[i] = closes[i - 1] * (1 + random.nextGaussian() * 0.01);
+        }
+        return closes;
+    }
+}